@@ -0,0 +1,86 @@
+package benchmarks;
+
+import domain.Hotel;
+import domain.HowMany;
+import domain.RoomKind;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for availability queries: the whole-hotel count, the
+ * date-range search (direct and through the chain's quote cache) and the
+ * single-room date-range check.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AvailabilityBenchmark {
+    
+    @Param({"1", "10"})
+    int hotelCount;
+    
+    @Param({"100", "1000"})
+    int roomsPerHotel;
+    
+    @Param({"0", "10", "100"})
+    int reservationsPerRoom;
+    
+    private ChainFixture fixture;
+    private LocalDate searchStart;
+    private LocalDate searchEnd;
+    private HowMany searchGuests;
+    private int cursor;
+    
+    @Setup
+    public void setUp() {
+        fixture = new ChainFixture(hotelCount, roomsPerHotel, reservationsPerRoom);
+        // A week-long search that crosses several preloaded stays
+        searchStart = ChainFixture.BASE_DATE.plusDays(1);
+        searchEnd = searchStart.plusDays(7);
+        searchGuests = new HowMany(2);
+    }
+    
+    @Benchmark
+    public int availableRoomCount() {
+        return nextHotel().getAvailableRoomCount();
+    }
+    
+    @Benchmark
+    public List<?> findAvailableRooms() {
+        return nextHotel().findAvailableRooms(searchStart, searchEnd, RoomKind.DOUBLE);
+    }
+    
+    @Benchmark
+    public List<?> searchRoomsCached() {
+        // Repeats the same search per hotel, so after the first round every call is a cache hit
+        return fixture.chain.searchRooms(fixture.hotelNames[cursor++ % hotelCount], searchStart, searchEnd,
+                                         RoomKind.DOUBLE, searchGuests);
+    }
+    
+    @Benchmark
+    public boolean isRoomAvailableForDates() {
+        int step = cursor;
+        return nextHotel().isAvailable(1 + step % roomsPerHotel, searchStart, searchEnd);
+    }
+    
+    private Hotel nextHotel() {
+        return fixture.hotels[cursor++ % hotelCount];
+    }
+}
@@ -0,0 +1,134 @@
+package benchmarks;
+
+import domain.CreditCard;
+import domain.Guest;
+import domain.Hotel;
+import domain.HotelChain;
+import domain.HowMany;
+import domain.Identity;
+import domain.Money;
+import domain.Name;
+import domain.Reservation;
+import domain.ReservationRequest;
+import domain.ReserverPayer;
+import domain.Room;
+import domain.RoomKind;
+import domain.RoomType;
+import domain.WriteAheadLog;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks a tour operator's block booking: the same block of rooms
+ * booked with one makeReservation call per room, and with a single
+ * makeReservations call. With a journal, each single call waits for the
+ * disk on its own while the batch waits once.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BatchReservationBenchmark {
+    
+    private static final String HOTEL_NAME = "Block Hotel";
+    
+    @Param({"40", "200"})
+    int blockSize;
+    
+    @Param({"false", "true"})
+    boolean journaled;
+    
+    private Path directory;
+    private WriteAheadLog journal;
+    private HotelChain chain;
+    private Guest guest;
+    private ReserverPayer payer;
+    private List<ReservationRequest> block;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        if (journaled) {
+            directory = Files.createTempDirectory("batch-bench");
+            journal = WriteAheadLog.open(directory.resolve("chain.wal"));
+            chain = journal.recover("Benchmark Chain");
+        } else {
+            chain = new HotelChain("Benchmark Chain");
+        }
+        Hotel hotel = new Hotel(new Name("Block", "Hotel"));
+        RoomType type = new RoomType(RoomKind.DOUBLE, new Money(150.0, "USD"));
+        for (int number = 1; number <= blockSize; number++) {
+            hotel.addRoom(number, new Room(number, type));
+        }
+        chain.addHotel(hotel);
+        guest = ChainFixture.guest("Tour", "Operator");
+        payer = new ReserverPayer(new CreditCard("4532123456789010", "Tour Operator", "12/30"),
+                                  new Identity("12345-6789012-1", "CNIC"));
+    }
+    
+    @Setup(Level.Invocation)
+    public void prepareBlock() {
+        // Fresh reservations every time, so each one gets a new id
+        LocalDate start = ChainFixture.BASE_DATE;
+        block = new ArrayList<>(blockSize);
+        for (int number = 1; number <= blockSize; number++) {
+            block.add(new ReservationRequest(HOTEL_NAME, number, guest, payer,
+                                             new Reservation(start, start.plusDays(3), new HowMany(2))));
+        }
+    }
+    
+    @TearDown(Level.Invocation)
+    public void cancelBlock() {
+        for (ReservationRequest request : block) {
+            chain.cancelReservation(request.getReservation().getId());
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (journal != null) {
+            journal.close();
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+    
+    @Benchmark
+    public void singleCalls() {
+        for (ReservationRequest request : block) {
+            chain.makeReservation(request.getHotelName(), request.getRoomNumber(), request.getGuest(),
+                                  request.getReserverPayer(), request.getReservation());
+        }
+    }
+    
+    @Benchmark
+    public void batchCall() {
+        chain.makeReservations(block);
+    }
+}
@@ -0,0 +1,87 @@
+package benchmarks;
+
+import domain.ChainExportListener;
+import domain.ChainExportReader;
+import domain.ChainExporter;
+import domain.Guest;
+import domain.Reservation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the binary chain export: writing every hotel, room and
+ * reservation of a chain to a file, and streaming the file back through
+ * a listener that only counts reservations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ChainExportBenchmark {
+    
+    @Param({"500"})
+    int hotelCount;
+    
+    @Param({"20"})
+    int roomsPerHotel;
+    
+    @Param({"50"})
+    int reservationsPerRoom;
+    
+    private ChainExporter exporter;
+    private Path directory;
+    private Path written;
+    private Path existing;
+    
+    @Setup
+    public void setUp() throws IOException {
+        ChainFixture fixture = new ChainFixture(hotelCount, roomsPerHotel, reservationsPerRoom);
+        exporter = new ChainExporter(fixture.chain);
+        directory = Files.createTempDirectory("export-benchmark");
+        written = directory.resolve("written.export");
+        existing = directory.resolve("existing.export");
+        exporter.export(existing);
+    }
+    
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(written);
+        Files.deleteIfExists(existing);
+        Files.deleteIfExists(directory);
+    }
+    
+    @Benchmark
+    public long exportChain() throws IOException {
+        return exporter.export(written);
+    }
+    
+    @Benchmark
+    public long readExport() throws IOException {
+        long[] reservations = new long[1];
+        ChainExportReader.read(existing, new ChainExportListener() {
+            @Override
+            public void reservation(String hotelName, int roomNumber, Guest guest, Reservation reservation) {
+                reservations[0]++;
+            }
+        });
+        return reservations[0];
+    }
+}
@@ -0,0 +1,93 @@
+package benchmarks;
+
+import domain.Address;
+import domain.CreditCard;
+import domain.Guest;
+import domain.Hotel;
+import domain.HotelChain;
+import domain.HowMany;
+import domain.Identity;
+import domain.Money;
+import domain.Name;
+import domain.Reservation;
+import domain.ReserverPayer;
+import domain.Room;
+import domain.RoomKind;
+import domain.RoomType;
+
+import java.time.LocalDate;
+
+/**
+ * ChainFixture builds a populated hotel chain for the benchmarks.
+ * 
+ * Every room gets the requested number of two-night reservations, one every
+ * three days starting at BASE_DATE, which leaves a free night after each
+ * stay ("gap nights") where benchmarks can book without conflicts.
+ */
+final class ChainFixture {
+    
+    static final LocalDate BASE_DATE = LocalDate.of(2030, 1, 1);
+    
+    final HotelChain chain;
+    final Hotel[] hotels;
+    final String[] hotelNames;
+    final int roomsPerHotel;
+    final int reservationsPerRoom;
+    final ReserverPayer payer;
+    
+    /**
+     * Build a chain with the given shape.
+     * 
+     * @param hotelCount number of hotels
+     * @param roomsPerHotel number of rooms in every hotel (numbered from 1)
+     * @param reservationsPerRoom number of existing reservations in every room
+     */
+    ChainFixture(int hotelCount, int roomsPerHotel, int reservationsPerRoom) {
+        this.chain = new HotelChain("Benchmark Chain");
+        this.hotels = new Hotel[hotelCount];
+        this.hotelNames = new String[hotelCount];
+        this.roomsPerHotel = roomsPerHotel;
+        this.reservationsPerRoom = reservationsPerRoom;
+        this.payer = new ReserverPayer(
+            new CreditCard("4532123456789010", "Bench Payer", "12/30"),
+            new Identity("12345-6789012-1", "CNIC")
+        );
+        
+        RoomKind[] kinds = RoomKind.values();
+        RoomType[] types = new RoomType[kinds.length];
+        for (int k = 0; k < kinds.length; k++) {
+            types[k] = new RoomType(kinds[k], new Money(100.0 * (k + 1), "USD"));
+        }
+        
+        for (int h = 0; h < hotelCount; h++) {
+            Hotel hotel = new Hotel(new Name("Hotel", "H" + h));
+            for (int number = 1; number <= roomsPerHotel; number++) {
+                Room room = new Room(number, types[number % types.length]);
+                hotel.addRoom(number, room);
+                for (int r = 0; r < reservationsPerRoom; r++) {
+                    LocalDate start = BASE_DATE.plusDays(3L * r);
+                    room.addReservation(new Reservation(start, start.plusDays(2), new HowMany(1)),
+                                        guest("Existing" + r, "Room" + number));
+                }
+            }
+            chain.addHotel(hotel);
+            hotels[h] = hotel;
+            hotelNames[h] = hotel.getNameAsString();
+        }
+    }
+    
+    /**
+     * Get the free night following the given existing stay.
+     * 
+     * @param index which gap to use (wraps around the preloaded stays)
+     * @return the date of a night no preloaded reservation covers
+     */
+    LocalDate gapNight(int index) {
+        int gaps = Math.max(1, reservationsPerRoom);
+        return BASE_DATE.plusDays(3L * (index % gaps) + 2);
+    }
+    
+    static Guest guest(String firstName, String lastName) {
+        return new Guest(new Name(firstName, lastName), new Address("1 Bench Street", "Karachi", "Pakistan", "75000"));
+    }
+}
@@ -0,0 +1,94 @@
+package benchmarks;
+
+import domain.ChainImporter;
+import domain.HotelChain;
+import domain.ImportResult;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark for the CSV importer: a fresh chain loaded from files with
+ * hotelCount hotels of 20 rooms, each room with 50 reservation rows of
+ * which half are completed stays. Divide the row count by the time per
+ * import for rows per second.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ChainImportBenchmark {
+    
+    private static final int ROOMS_PER_HOTEL = 20;
+    private static final int STAYS_PER_ROOM = 50;
+    private static final LocalDate AS_OF = ChainFixture.BASE_DATE.plusDays(STAYS_PER_ROOM);
+    
+    @Param({"500"})
+    int hotelCount;
+    
+    private Path directory;
+    private Path hotels;
+    private Path rooms;
+    private Path reservations;
+    
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("import-benchmark");
+        hotels = directory.resolve("hotels.csv");
+        rooms = directory.resolve("rooms.csv");
+        reservations = directory.resolve("reservations.csv");
+        try (BufferedWriter hotelRows = Files.newBufferedWriter(hotels);
+             BufferedWriter roomRows = Files.newBufferedWriter(rooms);
+             BufferedWriter reservationRows = Files.newBufferedWriter(reservations)) {
+            hotelRows.write("first_name,last_name\n");
+            roomRows.write("hotel,number,kind,cost,currency\n");
+            reservationRows.write("hotel,room,start,end,guests,first_name,last_name,street,city,country,"
+                                  + "postal_code,card_number,cardholder_name,expiry_date,payer_id,payer_id_type\n");
+            for (int h = 0; h < hotelCount; h++) {
+                hotelRows.write("Hotel,H" + h + "\n");
+                for (int number = 1; number <= ROOMS_PER_HOTEL; number++) {
+                    roomRows.write("Hotel H" + h + "," + number + ",DOUBLE,120.00,USD\n");
+                    for (int stay = 0; stay < STAYS_PER_ROOM; stay++) {
+                        LocalDate start = ChainFixture.BASE_DATE.plusDays(2L * stay);
+                        reservationRows.write("Hotel H" + h + "," + number + "," + start + "," + start.plusDays(2)
+                                              + ",2,Guest" + stay + ",Doe,Main St,City,Country,12345,"
+                                              + "1234567890123456,John Doe,12/25,ID123,Passport\n");
+                    }
+                }
+            }
+        }
+    }
+    
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+    
+    @Benchmark
+    public ImportResult importChain() throws IOException {
+        return new ChainImporter(new HotelChain("Import Chain"), AS_OF).importFiles(hotels, rooms, reservations);
+    }
+}
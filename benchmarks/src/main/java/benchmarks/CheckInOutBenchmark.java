@@ -0,0 +1,78 @@
+package benchmarks;
+
+import domain.Guest;
+import domain.HowMany;
+import domain.Reservation;
+import domain.Room;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the check-in/check-out cycle, through HotelChain and
+ * directly on Room. Check-out removes the reservation, so every
+ * operation leaves the room as it found it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CheckInOutBenchmark {
+    
+    @Param({"1", "10"})
+    int hotelCount;
+    
+    @Param({"100", "1000"})
+    int roomsPerHotel;
+    
+    @Param({"0", "10", "100"})
+    int reservationsPerRoom;
+    
+    private ChainFixture fixture;
+    private Guest guest;
+    private String guestId;
+    private Reservation stay;
+    private int cursor;
+    
+    @Setup
+    public void setUp() {
+        fixture = new ChainFixture(hotelCount, roomsPerHotel, reservationsPerRoom);
+        guest = ChainFixture.guest("Bench", "Guest");
+        guestId = guest.getNameAsString();
+        LocalDate night = fixture.gapNight(0);
+        stay = new Reservation(night, night.plusDays(1), new HowMany(1));
+    }
+    
+    @Benchmark
+    public void chainReserveCheckInCheckOut() {
+        int step = cursor++;
+        String hotelName = fixture.hotelNames[step % hotelCount];
+        int roomNumber = 1 + (step / hotelCount) % roomsPerHotel;
+        fixture.chain.makeReservation(hotelName, roomNumber, guest, fixture.payer, stay);
+        fixture.chain.checkInGuest(hotelName, roomNumber, guestId);
+        fixture.chain.checkOutGuest(hotelName, roomNumber, guestId);
+    }
+    
+    @Benchmark
+    public void roomReserveCheckInCheckOut() {
+        int step = cursor++;
+        Room room = fixture.hotels[step % hotelCount].getRoom(1 + (step / hotelCount) % roomsPerHotel);
+        room.addReservation(stay, guest);
+        room.checkInGuest(guestId);
+        room.checkOutGuest(guestId);
+    }
+}
@@ -0,0 +1,68 @@
+package benchmarks;
+
+import domain.HotelOccupancy;
+import domain.OccupancyReport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the occupancy report: a year of nightly occupancy, ADR
+ * and RevPAR for every hotel of a chain booked about two nights in three,
+ * computed in parallel across hotels and one hotel at a time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OccupancyReportBenchmark {
+    
+    @Param({"300"})
+    int hotelCount;
+    
+    @Param({"20"})
+    int roomsPerHotel;
+    
+    private ChainFixture fixture;
+    private OccupancyReport report;
+    private LocalDate from;
+    private LocalDate to;
+    
+    @Setup
+    public void setUp() {
+        // A two-night stay every three days fills a year
+        fixture = new ChainFixture(hotelCount, roomsPerHotel, 122);
+        report = new OccupancyReport(fixture.chain);
+        from = ChainFixture.BASE_DATE;
+        to = from.plusYears(1);
+    }
+    
+    @Benchmark
+    public List<HotelOccupancy> yearForAllHotels() {
+        return report.compute(from, to);
+    }
+    
+    @Benchmark
+    public long yearHotelByHotel() {
+        long sold = 0;
+        for (String hotelName : fixture.hotelNames) {
+            sold += report.computeForHotel(hotelName, from, to).getRoomNightsSold();
+        }
+        return sold;
+    }
+}
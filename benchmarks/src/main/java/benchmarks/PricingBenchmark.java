@@ -0,0 +1,76 @@
+package benchmarks;
+
+import domain.Money;
+import domain.PricingEngine;
+import domain.Room;
+import domain.RoomKind;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for stay pricing: quoting the same stay in every room of a
+ * hotel against rate calendars with a year of nightly overrides.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PricingBenchmark {
+    
+    @Param({"500"})
+    int roomsPerHotel;
+    
+    @Param({"1", "14"})
+    int nights;
+    
+    private PricingEngine engine;
+    private Room[] rooms;
+    private LocalDate start;
+    private LocalDate end;
+    
+    @Setup
+    public void setUp() {
+        ChainFixture fixture = new ChainFixture(1, roomsPerHotel, 0);
+        rooms = new Room[roomsPerHotel];
+        for (int number = 1; number <= roomsPerHotel; number++) {
+            rooms[number - 1] = fixture.hotels[0].getRoom(number);
+        }
+        // A different rate every night for a year, so no stay is priced from the base cost alone
+        engine = new PricingEngine();
+        RoomKind[] kinds = RoomKind.values();
+        for (int day = 0; day < 365; day++) {
+            LocalDate night = ChainFixture.BASE_DATE.plusDays(day);
+            for (int k = 0; k < kinds.length; k++) {
+                engine.setNightlyRate(fixture.hotelNames[0], kinds[k], night, night.plusDays(1),
+                                      Money.ofMinorUnits(10000L * (k + 1) + day, "USD"));
+            }
+        }
+        engine.setExtraGuestRate(fixture.hotelNames[0], RoomKind.SUITE, 2, new Money(25.0, "USD"));
+        start = ChainFixture.BASE_DATE.plusDays(100);
+        end = start.plusDays(nights);
+    }
+    
+    @Benchmark
+    public long quoteAllRooms() {
+        long total = 0;
+        for (Room room : rooms) {
+            total += engine.quoteMinorUnits(room, start, end, 2);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,93 @@
+package benchmarks;
+
+import domain.Guest;
+import domain.HowMany;
+import domain.Reservation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for HotelChain.makeReservation and cancelReservation.
+ * Each operation books a free gap night and cancels it again, walking
+ * round-robin over hotels and rooms so the chain stays the same size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReservationBenchmark {
+    
+    @Param({"1", "10"})
+    int hotelCount;
+    
+    @Param({"100", "1000"})
+    int roomsPerHotel;
+    
+    @Param({"0", "10", "100"})
+    int reservationsPerRoom;
+    
+    private ChainFixture fixture;
+    private Guest guest;
+    private String guestId;
+    private Reservation[] gapStays;
+    private Reservation[] overlappingStays;
+    private int cursor;
+    
+    @Setup
+    public void setUp() {
+        fixture = new ChainFixture(hotelCount, roomsPerHotel, reservationsPerRoom);
+        guest = ChainFixture.guest("Bench", "Guest");
+        guestId = guest.getNameAsString();
+        int gaps = Math.max(1, reservationsPerRoom);
+        gapStays = new Reservation[gaps];
+        overlappingStays = new Reservation[gaps];
+        for (int i = 0; i < gaps; i++) {
+            LocalDate night = fixture.gapNight(i);
+            gapStays[i] = new Reservation(night, night.plusDays(1), new HowMany(1));
+            overlappingStays[i] = new Reservation(night.minusDays(1), night.plusDays(1), new HowMany(1));
+        }
+    }
+    
+    @Benchmark
+    public void makeAndCancelReservation() {
+        int step = cursor++;
+        String hotelName = fixture.hotelNames[step % hotelCount];
+        int roomNumber = 1 + (step / hotelCount) % roomsPerHotel;
+        Reservation stay = gapStays[step % gapStays.length];
+        fixture.chain.makeReservation(hotelName, roomNumber, guest, fixture.payer, stay);
+        fixture.chain.cancelReservation(hotelName, roomNumber, guestId);
+    }
+    
+    @Benchmark
+    public void makeReservationRejected(Blackhole blackhole) {
+        if (reservationsPerRoom == 0) {
+            // Nothing to collide with
+            return;
+        }
+        int step = cursor++;
+        String hotelName = fixture.hotelNames[step % hotelCount];
+        int roomNumber = 1 + (step / hotelCount) % roomsPerHotel;
+        try {
+            fixture.chain.makeReservation(hotelName, roomNumber, guest, fixture.payer,
+                                          overlappingStays[step % overlappingStays.length]);
+        } catch (IllegalStateException expected) {
+            blackhole.consume(expected);
+        }
+    }
+}
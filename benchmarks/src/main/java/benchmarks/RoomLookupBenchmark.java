@@ -0,0 +1,80 @@
+package benchmarks;
+
+import domain.Hotel;
+import domain.Money;
+import domain.Name;
+import domain.Room;
+import domain.RoomKind;
+import domain.RoomType;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for finding a room by its number: Hotel.getRoom against the
+ * boxed-key ConcurrentHashMap it used to be backed by. Rooms are numbered
+ * by floor (floor * 100 + door), so almost every number is outside the
+ * Integer cache. Run with -prof gc to see the allocation per lookup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RoomLookupBenchmark {
+    
+    private static final int ROOMS_PER_FLOOR = 25;
+    
+    @Param({"100", "1000"})
+    int roomCount;
+    
+    private Hotel hotel;
+    private Map<Integer, Room> boxed;
+    private int[] numbers;
+    private int cursor;
+    
+    @Setup
+    public void setUp() {
+        RoomType type = new RoomType(RoomKind.SINGLE, new Money(100.0, "USD"));
+        hotel = new Hotel(new Name("Lookup", "Hotel"));
+        boxed = new ConcurrentHashMap<>();
+        numbers = new int[roomCount];
+        for (int i = 0; i < roomCount; i++) {
+            int number = (1 + i / ROOMS_PER_FLOOR) * 100 + 1 + i % ROOMS_PER_FLOOR;
+            Room room = new Room(number, type);
+            hotel.addRoom(number, room);
+            boxed.put(number, room);
+            numbers[i] = number;
+        }
+    }
+    
+    private int nextNumber() {
+        int i = cursor;
+        cursor = i + 1 == numbers.length ? 0 : i + 1;
+        return numbers[i];
+    }
+    
+    @Benchmark
+    public Room hotelGetRoom() {
+        return hotel.getRoom(nextNumber());
+    }
+    
+    @Benchmark
+    public Room boxedMapGetRoom() {
+        return boxed.get(nextNumber());
+    }
+}
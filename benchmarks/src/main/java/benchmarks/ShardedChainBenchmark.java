@@ -0,0 +1,132 @@
+package benchmarks;
+
+import domain.Guest;
+import domain.HowMany;
+import domain.Reservation;
+import domain.ShardedHotelChain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of reserve-and-cancel pairs made by several caller threads,
+ * through the synchronous HotelChain calls and through a ShardedHotelChain
+ * (one change at a time, and with a window of changes in flight).
+ * Every caller thread uses its own room of each hotel, so results measure
+ * the call path rather than booking conflicts.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class ShardedChainBenchmark {
+    
+    private static final int IN_FLIGHT = 16;
+    
+    /**
+     * The chain and its shards, shared by all caller threads.
+     */
+    @State(Scope.Benchmark)
+    public static class Chain {
+        
+        @Param({"300"})
+        int hotelCount;
+        
+        @Param({"4"})
+        int shardCount;
+        
+        ChainFixture fixture;
+        ShardedHotelChain sharded;
+        
+        @Setup(Level.Trial)
+        public void setUp() {
+            fixture = new ChainFixture(hotelCount, 8, IN_FLIGHT);
+            sharded = new ShardedHotelChain(fixture.chain, shardCount);
+        }
+        
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            sharded.close();
+        }
+    }
+    
+    /**
+     * One caller thread's room, guests and position.
+     */
+    @State(Scope.Thread)
+    public static class Caller {
+        int roomNumber;
+        Guest[] guests;
+        String[] guestIds;
+        Reservation[] stays;
+        int cursor;
+        
+        @Setup(Level.Trial)
+        public void setUp(Chain chain, ThreadParams threads) {
+            roomNumber = 1 + threads.getThreadIndex() % chain.fixture.roomsPerHotel;
+            guests = new Guest[IN_FLIGHT];
+            guestIds = new String[IN_FLIGHT];
+            stays = new Reservation[IN_FLIGHT];
+            for (int i = 0; i < IN_FLIGHT; i++) {
+                guests[i] = ChainFixture.guest("Caller" + threads.getThreadIndex(), "Guest" + i);
+                guestIds[i] = guests[i].getNameAsString();
+                LocalDate night = chain.fixture.gapNight(i);
+                stays[i] = new Reservation(night, night.plusDays(1), new HowMany(1));
+            }
+        }
+        
+        String nextHotel(Chain chain) {
+            return chain.fixture.hotelNames[cursor++ % chain.hotelCount];
+        }
+    }
+    
+    @Benchmark
+    public void synchronous(Chain chain, Caller caller) {
+        String hotelName = caller.nextHotel(chain);
+        chain.fixture.chain.makeReservation(hotelName, caller.roomNumber, caller.guests[0], chain.fixture.payer,
+                                            caller.stays[0]);
+        chain.fixture.chain.cancelReservation(hotelName, caller.roomNumber, caller.guestIds[0]);
+    }
+    
+    @Benchmark
+    public void sharded(Chain chain, Caller caller) {
+        String hotelName = caller.nextHotel(chain);
+        chain.sharded.makeReservation(hotelName, caller.roomNumber, caller.guests[0], chain.fixture.payer,
+                                      caller.stays[0]);
+        // Applied after the reservation on the same shard
+        chain.sharded.cancelReservation(hotelName, caller.roomNumber, caller.guestIds[0]).join();
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(IN_FLIGHT)
+    public void shardedPipelined(Chain chain, Caller caller) {
+        CompletableFuture<?>[] pending = new CompletableFuture<?>[IN_FLIGHT];
+        for (int i = 0; i < IN_FLIGHT; i++) {
+            String hotelName = caller.nextHotel(chain);
+            chain.sharded.makeReservation(hotelName, caller.roomNumber, caller.guests[i], chain.fixture.payer,
+                                          caller.stays[i]);
+            pending[i] = chain.sharded.cancelReservation(hotelName, caller.roomNumber, caller.guestIds[i]);
+        }
+        CompletableFuture.allOf(pending).join();
+    }
+}
@@ -0,0 +1,69 @@
+package benchmarks;
+
+import domain.Guest;
+import domain.HowMany;
+import domain.Reservation;
+import domain.ValidationResult;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for rejecting a reservation for a room that does not exist,
+ * by catching the exception of makeReservation and by checking the
+ * result of validateReservation first.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ValidationBenchmark {
+    
+    private ChainFixture fixture;
+    private String hotelName;
+    private Guest guest;
+    private Reservation stay;
+    private int cursor;
+    
+    @Setup
+    public void setUp() {
+        fixture = new ChainFixture(1, 100, 0);
+        hotelName = fixture.hotelNames[0];
+        guest = ChainFixture.guest("Bench", "Guest");
+        LocalDate night = fixture.gapNight(0);
+        stay = new Reservation(night, night.plusDays(1), new HowMany(1));
+    }
+    
+    // A room number past the last room of the hotel
+    private int missingRoom() {
+        return 1000 + (cursor++ & 1023);
+    }
+    
+    @Benchmark
+    public Object rejectByException() {
+        try {
+            fixture.chain.makeReservation(hotelName, missingRoom(), guest, fixture.payer, stay);
+            return null;
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+    
+    @Benchmark
+    public ValidationResult rejectByResult() {
+        return fixture.chain.validateReservation(hotelName, missingRoom(), guest, fixture.payer, stay);
+    }
+}
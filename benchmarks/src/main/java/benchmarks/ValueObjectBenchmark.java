@@ -0,0 +1,104 @@
+package benchmarks;
+
+import domain.Guest;
+import domain.GuestInterner;
+import domain.Money;
+import domain.MoneyAccumulator;
+import domain.Name;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the value objects used as map keys and identifiers
+ * on every booking: Name, Guest and Money, exact money sums, and interning
+ * a returning guest (run with -prof gc to see its allocation rate).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ValueObjectBenchmark {
+    
+    private Name name;
+    private Name sameNameOtherCase;
+    private Guest guest;
+    private Guest returningGuest;
+    private GuestInterner interner;
+    private Money money;
+    private MoneyAccumulator accumulator;
+    
+    @Setup
+    public void setUp() {
+        name = new Name("Ahmed", "Khan");
+        sameNameOtherCase = new Name("AHMED", "khan");
+        guest = ChainFixture.guest("Ahmed", "Khan");
+        money = new Money(150.5, "USD");
+        accumulator = new MoneyAccumulator("USD");
+        returningGuest = ChainFixture.guest("Ahmed", "Khan");
+        interner = new GuestInterner(1024);
+        interner.intern(guest.getName());
+        interner.intern(guest);
+    }
+    
+    @Benchmark
+    public int nameHashCode() {
+        return name.hashCode();
+    }
+    
+    @Benchmark
+    public boolean nameEqualsIgnoringCase() {
+        return name.equals(sameNameOtherCase);
+    }
+    
+    @Benchmark
+    public String nameFullName() {
+        return name.getFullName();
+    }
+    
+    @Benchmark
+    public int guestHashCode() {
+        return guest.hashCode();
+    }
+    
+    @Benchmark
+    public Name internName() {
+        return interner.intern(returningGuest.getName());
+    }
+    
+    @Benchmark
+    public Guest internGuest() {
+        return interner.intern(returningGuest);
+    }
+    
+    @Benchmark
+    public int moneyHashCode() {
+        return money.hashCode();
+    }
+    
+    @Benchmark
+    public Money moneyAdd() {
+        return money.add(money);
+    }
+    
+    @Benchmark
+    public long moneyAccumulate() {
+        accumulator.reset();
+        for (int night = 0; night < 30; night++) {
+            accumulator.add(money);
+        }
+        return accumulator.getMinorUnits();
+    }
+}
@@ -119,14 +119,12 @@ public class Main {
         // Step 8: Check In Guest
         System.out.println("Step 8: Checking In Guest 1...");
         chain.checkInGuest("Grand Hotel Karachi", 101, "Ahmed Khan");
-        room101.setOccupant(guest1);
         System.out.println("✓ Guest '" + guest1.getNameAsString() + "' checked in to Room 101");
         System.out.println("✓ Room 101 occupied by: " + room101.getOccupant().getNameAsString() + "\n");
         
         // Step 9: Check In Another Guest
         System.out.println("Step 9: Checking In Guest 2...");
         chain.checkInGuest("Grand Hotel Karachi", 102, "Fatima Ali");
-        room102.setOccupant(guest2);
         System.out.println("✓ Guest '" + guest2.getNameAsString() + "' checked in to Room 102");
         System.out.println("✓ Room 102 occupied by: " + room102.getOccupant().getNameAsString() + "\n");
         
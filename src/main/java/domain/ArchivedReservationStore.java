@@ -0,0 +1,182 @@
+package domain;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * ArchivedReservationStore keeps one room's reservation rows in blocks of a
+ * StayArchive, outside the Java heap.
+ * 
+ * Each block's header records how many rows it holds and the room version
+ * of its last row, so a reopened archive knows which stays it already has
+ * and a journal replay does not add them twice. Rows added after opening
+ * do not move that mark: a replayed hotel journals all of a room's stays
+ * under one version.
+ * 
+ * A row is published by the size written after it. The block list is
+ * replaced, never changed, when a block is added.
+ */
+final class ArchivedReservationStore extends ReservationStore {
+    
+    private final StayArchive archive;
+    private final String hotelName;
+    private final int roomNumber;
+    private volatile StayArchive.Block[] blocks;
+    // Rows [0, size) are complete; every block but the last is full
+    private volatile int size;
+    // Version of the last row found when the archive was opened
+    private long recoveredVersion;
+    private boolean claimed;
+    
+    /**
+     * Constructor: Creates an empty history for a room.
+     * 
+     * @param archive the archive holding the blocks
+     * @param hotelName the name of the room's hotel
+     * @param roomNumber the room number
+     */
+    ArchivedReservationStore(StayArchive archive, String hotelName, int roomNumber) {
+        this.archive = archive;
+        this.hotelName = hotelName;
+        this.roomNumber = roomNumber;
+        this.blocks = new StayArchive.Block[0];
+        this.recoveredVersion = Long.MIN_VALUE;
+    }
+    
+    /**
+     * Take over a block found in a reopened archive.
+     * 
+     * @param block the block
+     * @return false if the block is not the next one of this room
+     */
+    boolean adopt(StayArchive.Block block) {
+        StayArchive.Block[] current = blocks;
+        StayArchive.Block last = current.length == 0 ? null : current[current.length - 1];
+        if (block.getSequence() != current.length || (last != null && last.getRowCount() < last.capacity)) {
+            return false;
+        }
+        StayArchive.Block[] grown = Arrays.copyOf(current, current.length + 1);
+        grown[current.length] = block;
+        blocks = grown;
+        size += block.getRowCount();
+        if (block.getRowCount() > 0) {
+            recoveredVersion = block.getLastVersion();
+        }
+        return true;
+    }
+    
+    /**
+     * Mark this history as used by a room.
+     */
+    void claim() {
+        claimed = true;
+    }
+    
+    /**
+     * Check if a room already uses this history.
+     * 
+     * @return true once claimed
+     */
+    boolean isClaimed() {
+        return claimed;
+    }
+    
+    @Override
+    void add(long id, long startDay, long endDay, int guests, long version) {
+        StayArchive.Block[] current = blocks;
+        StayArchive.Block last = current.length == 0 ? null : current[current.length - 1];
+        int row = last == null ? 0 : last.getRowCount();
+        if (last == null || row == last.capacity) {
+            // 4 KB doubling with every block, up to 1 MB
+            int blockSize = Math.min(StayArchive.MAX_BLOCK_SIZE,
+                                     StayArchive.MIN_BLOCK_SIZE << Math.min(current.length, 8));
+            last = archive.allocate(hotelName, roomNumber, current.length, blockSize);
+            StayArchive.Block[] grown = Arrays.copyOf(current, current.length + 1);
+            grown[current.length] = last;
+            blocks = grown;
+            row = 0;
+        }
+        ByteBuffer buffer = last.buffer;
+        int offset = last.rowOffset(row);
+        buffer.putLong(offset, id);
+        buffer.putInt(offset + 8, Math.toIntExact(startDay));
+        buffer.putInt(offset + 12, Math.toIntExact(endDay));
+        buffer.putInt(offset + 16, guests);
+        // The header counts the row only once it is complete
+        buffer.putLong(last.base + StayArchive.LAST_VERSION_OFFSET, version);
+        buffer.putInt(last.base + StayArchive.ROW_COUNT_OFFSET, row + 1);
+        // Publishes the row written above
+        size = size + 1;
+    }
+    
+    @Override
+    int size() {
+        return size;
+    }
+    
+    @Override
+    long getRecoveredVersion() {
+        return recoveredVersion;
+    }
+    
+    @Override
+    boolean isArchived() {
+        return true;
+    }
+    
+    @Override
+    boolean isPersistent() {
+        // A direct archive is gone with the process, so the journal keeps its stays
+        return archive.isPersistent();
+    }
+    
+    @Override
+    long getId(int row) {
+        long position = locate(row);
+        return bufferAt(position).getLong(offsetAt(position));
+    }
+    
+    @Override
+    int getStartDay(int row) {
+        long position = locate(row);
+        return bufferAt(position).getInt(offsetAt(position) + 8);
+    }
+    
+    @Override
+    int getEndDay(int row) {
+        long position = locate(row);
+        return bufferAt(position).getInt(offsetAt(position) + 12);
+    }
+    
+    @Override
+    int getGuestCount(int row) {
+        long position = locate(row);
+        return bufferAt(position).getInt(offsetAt(position) + 16);
+    }
+    
+    /**
+     * Find a row: the block index in the high 32 bits, the row's offset in
+     * that block's buffer in the low 32 bits.
+     */
+    private long locate(int row) {
+        // Reading the size first makes the rows below it visible
+        checkRow(row, size);
+        StayArchive.Block[] current = blocks;
+        for (int i = 0; i < current.length; i++) {
+            if (row < current[i].capacity) {
+                return ((long) i << 32) | current[i].rowOffset(row);
+            }
+            row -= current[i].capacity;
+        }
+        throw new IllegalStateException("Row is past the last block");
+    }
+    
+    private ByteBuffer bufferAt(long position) {
+        // Blocks are only ever appended, so a later copy of the list has the same block here
+        return blocks[(int) (position >>> 32)].buffer;
+    }
+    
+    private static int offsetAt(long position) {
+        return (int) position;
+    }
+}
@@ -0,0 +1,71 @@
+package domain;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * ChainExportListener receives the contents of a chain export as
+ * ChainExportReader streams through it, in file order: the chain, then
+ * each hotel followed by its rooms, each room followed by its reservations
+ * (by start date) and its completed stays.
+ * 
+ * Every method does nothing by default, so a listener only implements the
+ * records it loads.
+ */
+public interface ChainExportListener {
+    
+    /**
+     * Handle the chain the export was taken from.
+     * 
+     * @param name the chain name
+     * @param exportedAt when the export was started
+     */
+    default void chain(String name, Instant exportedAt) {
+    }
+    
+    /**
+     * Handle a hotel. Its rooms follow.
+     * 
+     * @param name the hotel name
+     */
+    default void hotel(Name name) {
+    }
+    
+    /**
+     * Handle a room of the last hotel. Its reservations and completed stays follow.
+     * 
+     * @param hotelName the name of the room's hotel
+     * @param number the room number
+     * @param roomType the room type
+     * @param occupant the guest in the room, or null
+     * @param checkedInGuestId the identifier of the checked-in guest, or null
+     */
+    default void room(String hotelName, int number, RoomType roomType, Guest occupant, String checkedInGuestId) {
+    }
+    
+    /**
+     * Handle a reservation held for the last room. The reservation has its
+     * original id and its reserver/payer, with the card number masked.
+     * 
+     * @param hotelName the name of the room's hotel
+     * @param roomNumber the room number
+     * @param guest the guest holding the reservation
+     * @param reservation the reservation
+     */
+    default void reservation(String hotelName, int roomNumber, Guest guest, Reservation reservation) {
+    }
+    
+    /**
+     * Handle a completed stay of the last room.
+     * 
+     * @param hotelName the name of the room's hotel
+     * @param roomNumber the room number
+     * @param reservationId the id of the reservation the stay was made under
+     * @param startDate the first night
+     * @param endDate the check-out date
+     * @param guests the number of guests
+     */
+    default void completedStay(String hotelName, int roomNumber, long reservationId, LocalDate startDate,
+                               LocalDate endDate, int guests) {
+    }
+}
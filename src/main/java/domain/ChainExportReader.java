@@ -0,0 +1,263 @@
+package domain;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * ChainExportReader streams a file written by ChainExporter to a
+ * ChainExportListener.
+ * 
+ * The file is read through a 64 KB buffer and each record is handed to the
+ * listener as soon as it is decoded, so reading takes the same small amount
+ * of memory however large the export is, apart from the table of shared
+ * strings. Records of types this version does not know are skipped.
+ * 
+ * Nothing in the file is trusted: a record longer than the rest of the
+ * file, a value the domain classes reject (an empty name, no guests, an
+ * unknown currency) or a broken reference is reported as an IOException,
+ * never as an unchecked exception or a huge allocation.
+ * 
+ * Responsibilities:
+ * - Check the header and format version of an export
+ * - Decode records and shared strings and pass them to the listener
+ * - Detect truncated and corrupt files
+ */
+public class ChainExportReader {
+    
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final int HEADER_BYTES = 14;
+    
+    private Path file;
+    private FileChannel channel;
+    private long size;
+    private ByteBuffer buffer;
+    private List<String> strings;
+    private String hotelName;
+    private int roomNumber;
+    private long previousId;
+    
+    private ChainExportReader(Path file, FileChannel channel) throws IOException {
+        this.file = file;
+        this.channel = channel;
+        this.size = channel.size();
+        this.buffer = ByteBuffer.allocate(BUFFER_BYTES).flip();
+        this.strings = new ArrayList<>();
+        this.roomNumber = -1;
+    }
+    
+    /**
+     * Read an export and pass its contents to a listener.
+     * 
+     * @param file the export file
+     * @param listener the listener receiving the contents
+     * @throws IllegalArgumentException if any parameter is null
+     * @throws IOException if the file cannot be read, is not an export, has an unknown
+     *         format version, or is truncated or corrupt (including values the domain
+     *         classes reject)
+     */
+    public static void read(Path file, ChainExportListener listener) throws IOException {
+        if (file == null || listener == null) {
+            throw new IllegalArgumentException("File and listener cannot be null");
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            new ChainExportReader(file, channel).readAll(listener);
+        }
+    }
+    
+    private void readAll(ChainExportListener listener) throws IOException {
+        ensure(HEADER_BYTES);
+        if (buffer.getInt() != ExportFormat.MAGIC) {
+            throw new IOException("Not a chain export: " + file);
+        }
+        short format = buffer.getShort();
+        if (format < 1 || format > ExportFormat.FORMAT_VERSION) {
+            throw new IOException("Unsupported export format " + format + " in " + file);
+        }
+        Instant exportedAt = Instant.ofEpochMilli(buffer.getLong());
+        
+        long records = 0;
+        while (true) {
+            ensure(1);
+            byte tag = buffer.get();
+            int length = readLength();
+            // Checked before ensure() sizes its buffer to the length
+            long left = size - channel.position() + buffer.remaining();
+            if (length > left) {
+                throw new IOException("Export " + file + " is truncated: record of " + length + " bytes with "
+                                      + left + " left");
+            }
+            ensure(length);
+            ByteBuffer payload = buffer.slice(buffer.position(), length);
+            buffer.position(buffer.position() + length);
+            try {
+                switch (tag) {
+                    case ExportFormat.STRING:
+                        strings.add(StandardCharsets.UTF_8.decode(payload).toString());
+                        continue;
+                    case ExportFormat.RESET_STRINGS:
+                        strings.clear();
+                        continue;
+                    case ExportFormat.END:
+                        if (varint(payload) != records) {
+                            throw new IOException("Export " + file + " is corrupt: record count does not match");
+                        }
+                        return;
+                    default:
+                        decode(tag, payload, exportedAt, listener);
+                        records++;
+                }
+            } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+                throw new IOException("Export " + file + " is corrupt", e);
+            }
+        }
+    }
+    
+    private void decode(byte tag, ByteBuffer in, Instant exportedAt, ChainExportListener listener)
+            throws IOException {
+        switch (tag) {
+            case ExportFormat.CHAIN:
+                listener.chain(string(in), exportedAt);
+                break;
+            case ExportFormat.HOTEL:
+                Name name = value(() -> new Name(string(in), string(in)));
+                hotelName = name.getFullName();
+                roomNumber = -1;
+                listener.hotel(name);
+                break;
+            case ExportFormat.ROOM:
+                requireParent(hotelName != null, "room");
+                roomNumber = (int) varint(in);
+                previousId = 0;
+                RoomKind kind = RoomKind.values()[(int) varint(in)];
+                long minorUnits = varint(in);
+                RoomType roomType = value(() -> new RoomType(kind, Money.ofMinorUnits(minorUnits, string(in))));
+                Guest occupant = varint(in) == 0 ? null : guest(in);
+                long checkedIn = varint(in);
+                listener.room(hotelName, roomNumber, roomType, occupant,
+                              checkedIn == 0 ? null : strings.get((int) checkedIn - 1));
+                break;
+            case ExportFormat.RESERVATION:
+                requireParent(roomNumber >= 0, "reservation");
+                long id = nextId(in);
+                Reservation reservation = value(() -> new Reservation(id, LocalDate.ofEpochDay(signedVarint(in)),
+                                                                      LocalDate.ofEpochDay(signedVarint(in)),
+                                                                      new HowMany((int) varint(in))));
+                Guest guest = guest(in);
+                if (varint(in) != 0) {
+                    reservation.setReserverPayer(value(() -> new ReserverPayer(
+                        new CreditCard(string(in), string(in), string(in)), new Identity(string(in), string(in)))));
+                }
+                listener.reservation(hotelName, roomNumber, guest, reservation);
+                break;
+            case ExportFormat.STAY:
+                requireParent(roomNumber >= 0, "completed stay");
+                long stayId = nextId(in);
+                LocalDate start = value(() -> LocalDate.ofEpochDay(signedVarint(in)));
+                LocalDate end = value(() -> LocalDate.ofEpochDay(signedVarint(in)));
+                listener.completedStay(hotelName, roomNumber, stayId, start, end, (int) varint(in));
+                break;
+            default:
+                // Added by a later format version; the payload was already consumed
+                break;
+        }
+    }
+    
+    private void requireParent(boolean present, String record) throws IOException {
+        if (!present) {
+            throw new IOException("Export " + file + " is corrupt: " + record + " outside its parent");
+        }
+    }
+    
+    private long nextId(ByteBuffer in) {
+        previousId += signedVarint(in);
+        return previousId;
+    }
+    
+    private Guest guest(ByteBuffer in) throws IOException {
+        return value(() -> new Guest(new Name(string(in), string(in)),
+                                     new Address(string(in), string(in), string(in), string(in))));
+    }
+    
+    /**
+     * Build a value from decoded fields, reporting a value the domain
+     * classes reject as a corrupt export. Only the construction is covered,
+     * so exceptions thrown by the listener pass through unchanged.
+     */
+    private <T> T value(Supplier<T> constructor) throws IOException {
+        try {
+            return constructor.get();
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new IOException("Export " + file + " is corrupt: " + e.getMessage(), e);
+        }
+    }
+    
+    private String string(ByteBuffer in) {
+        return strings.get((int) varint(in));
+    }
+    
+    private static long varint(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new BufferUnderflowException();
+    }
+    
+    private static long signedVarint(ByteBuffer in) {
+        long encoded = varint(in);
+        return (encoded >>> 1) ^ -(encoded & 1);
+    }
+    
+    private int readLength() throws IOException {
+        int length = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            ensure(1);
+            byte b = buffer.get();
+            length |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                if (length < 0) {
+                    break;
+                }
+                return length;
+            }
+        }
+        throw new IOException("Export " + file + " is corrupt: bad record length");
+    }
+    
+    /**
+     * Make at least count unread bytes available in the buffer.
+     */
+    private void ensure(int count) throws IOException {
+        if (buffer.remaining() >= count) {
+            return;
+        }
+        if (count > buffer.capacity()) {
+            ByteBuffer larger = ByteBuffer.allocate(count);
+            larger.put(buffer);
+            buffer = larger;
+        } else {
+            buffer.compact();
+        }
+        while (buffer.position() < count) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Export " + file + " is truncated");
+            }
+        }
+        buffer.flip();
+    }
+}
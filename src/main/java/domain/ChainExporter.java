@@ -0,0 +1,269 @@
+package domain;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ChainExporter writes every hotel, room, reservation and completed stay of
+ * a HotelChain to a compact binary file, for loading into other systems.
+ * ChainExportReader reads it back. The format is described in ExportFormat.
+ * 
+ * The export streams: rooms are written one at a time through a 64 KB
+ * buffer, so memory use does not grow with the size of the chain beyond
+ * the table of strings already written. Names and addresses repeat across
+ * guests and reservations, so every distinct string is written only once.
+ * 
+ * Each room is copied under its version stamp, as for a snapshot, so an
+ * export can run while bookings continue and every room is consistent in
+ * itself. Card numbers are written masked.
+ * 
+ * Responsibilities:
+ * - Walk the chain's hotels, rooms, reservations and completed stays
+ * - Encode them as length-prefixed records with shared strings
+ */
+public class ChainExporter {
+    
+    private static final int BUFFER_BYTES = 64 * 1024;
+    
+    private HotelChain chain;
+    
+    /**
+     * Constructor: Creates an exporter for a chain.
+     * 
+     * @param chain the chain to export
+     * @throws IllegalArgumentException if chain is null
+     */
+    public ChainExporter(HotelChain chain) {
+        if (chain == null) {
+            throw new IllegalArgumentException("Hotel chain cannot be null");
+        }
+        this.chain = chain;
+    }
+    
+    /**
+     * Export the chain to a file.
+     * 
+     * @param target the file to write (replaced if it exists)
+     * @return the number of bytes written
+     * @throws IllegalArgumentException if target is null
+     * @throws IOException if the file cannot be written
+     */
+    public long export(Path target) throws IOException {
+        if (target == null) {
+            throw new IllegalArgumentException("Target file cannot be null");
+        }
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+            RecordWriter out = new RecordWriter(channel);
+            out.begin(ExportFormat.CHAIN);
+            out.string(chain.getName());
+            out.end();
+            for (Hotel hotel : chain.getHotels()) {
+                out.begin(ExportFormat.HOTEL);
+                out.string(hotel.getName().getFirstName());
+                out.string(hotel.getName().getLastName());
+                out.end();
+                for (Room room : hotel.getRoomsInSlotOrder()) {
+                    writeRoom(out, room);
+                }
+            }
+            out.finish();
+            channel.force(true);
+            return out.bytesWritten;
+        }
+    }
+    
+    private static void writeRoom(RecordWriter out, Room room) throws IOException {
+        ChainSnapshot.RoomState state = room.captureState();
+        Money cost = room.getRoomType().getCost();
+        out.begin(ExportFormat.ROOM);
+        out.varint(room.getNumber());
+        out.varint(room.getRoomType().getKind().ordinal());
+        out.varint(cost.getMinorUnits());
+        out.string(cost.getCurrency());
+        out.optionalGuest(state.getOccupant());
+        out.optionalString(state.getCheckedInGuestId());
+        out.end();
+        
+        // The copy holds one entry per guest, in no particular order
+        List<Integer> order = new ArrayList<>(state.getReservations().size());
+        for (int i = 0; i < state.getReservations().size(); i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.comparing(i -> state.getReservations().get(i).getStartDate()));
+        // Ids carry the creation time in their high bits, so each is written relative to the last
+        long previousId = 0;
+        for (int i : order) {
+            Reservation reservation = state.getReservations().get(i);
+            out.begin(ExportFormat.RESERVATION);
+            out.signedVarint(reservation.getId() - previousId);
+            previousId = reservation.getId();
+            out.signedVarint(reservation.getStartDate().toEpochDay());
+            out.signedVarint(reservation.getEndDate().toEpochDay());
+            out.varint(reservation.getNumberOfGuests().getNumber());
+            out.guest(state.getGuests().get(i));
+            ReserverPayer payer = reservation.getReserverPayer();
+            out.varint(payer == null ? 0 : 1);
+            if (payer != null) {
+                CreditCard card = payer.getCreditCardDetails();
+                out.string(card.getMaskedCardNumber());
+                out.string(card.getCardholderName());
+                out.string(card.getExpiryDate());
+                out.string(payer.getId().getNumber());
+                out.string(payer.getId().getType());
+            }
+            out.end();
+        }
+        
+        // History rows are never changed once written, so they can be read after the copy
+        ReservationStore history = room.getStayHistory();
+        for (int row = 0; row < state.getCompletedStays(); row++) {
+            out.begin(ExportFormat.STAY);
+            out.signedVarint(history.getId(row) - previousId);
+            previousId = history.getId(row);
+            out.signedVarint(history.getStartDay(row));
+            out.signedVarint(history.getEndDay(row));
+            out.varint(history.getGuestCount(row));
+            out.end();
+        }
+    }
+    
+    /**
+     * Builds one record's payload at a time and writes records through a
+     * buffer to the channel, emitting each new string before the record
+     * that first refers to it.
+     */
+    private static final class RecordWriter {
+        private final FileChannel channel;
+        private final ByteBuffer output = ByteBuffer.allocate(BUFFER_BYTES);
+        private final Map<String, Integer> strings = new HashMap<>();
+        private byte[] payload = new byte[256];
+        private int payloadLength;
+        private byte tag;
+        private long records;
+        private long bytesWritten;
+        
+        RecordWriter(FileChannel channel) {
+            this.channel = channel;
+            output.putInt(ExportFormat.MAGIC);
+            output.putShort(ExportFormat.FORMAT_VERSION);
+            output.putLong(System.currentTimeMillis());
+        }
+        
+        void begin(byte recordTag) throws IOException {
+            // Reset between records, so no record refers to strings on both sides
+            if (strings.size() > ExportFormat.MAX_STRINGS - ExportFormat.MAX_STRINGS_PER_RECORD) {
+                strings.clear();
+                emit(ExportFormat.RESET_STRINGS, payload, 0);
+            }
+            tag = recordTag;
+            payloadLength = 0;
+        }
+        
+        void end() throws IOException {
+            emit(tag, payload, payloadLength);
+            records++;
+        }
+        
+        void varint(long value) {
+            if (payload.length - payloadLength < 10) {
+                payload = Arrays.copyOf(payload, payload.length * 2);
+            }
+            while ((value & ~0x7FL) != 0) {
+                payload[payloadLength++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            payload[payloadLength++] = (byte) value;
+        }
+        
+        void signedVarint(long value) {
+            varint((value << 1) ^ (value >> 63));
+        }
+        
+        void string(String value) throws IOException {
+            varint(ref(value));
+        }
+        
+        void optionalString(String value) throws IOException {
+            varint(value == null ? 0 : ref(value) + 1);
+        }
+        
+        void guest(Guest guest) throws IOException {
+            string(guest.getName().getFirstName());
+            string(guest.getName().getLastName());
+            Address address = guest.getAddressDetails();
+            string(address.getStreet());
+            string(address.getCity());
+            string(address.getCountry());
+            string(address.getPostalCode());
+        }
+        
+        void optionalGuest(Guest guest) throws IOException {
+            varint(guest == null ? 0 : 1);
+            if (guest != null) {
+                guest(guest);
+            }
+        }
+        
+        private int ref(String value) throws IOException {
+            Integer known = strings.get(value);
+            if (known != null) {
+                return known;
+            }
+            int assigned = strings.size();
+            strings.put(value, assigned);
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            emit(ExportFormat.STRING, bytes, bytes.length);
+            return assigned;
+        }
+        
+        void finish() throws IOException {
+            tag = ExportFormat.END;
+            payloadLength = 0;
+            varint(records);
+            emit(ExportFormat.END, payload, payloadLength);
+            flush();
+        }
+        
+        private void emit(byte recordTag, byte[] bytes, int length) throws IOException {
+            if (output.remaining() < 6) {
+                flush();
+            }
+            output.put(recordTag);
+            for (int value = length; ; value >>>= 7) {
+                if ((value & ~0x7F) == 0) {
+                    output.put((byte) value);
+                    break;
+                }
+                output.put((byte) ((value & 0x7F) | 0x80));
+            }
+            int offset = 0;
+            while (offset < length) {
+                if (!output.hasRemaining()) {
+                    flush();
+                }
+                int count = Math.min(output.remaining(), length - offset);
+                output.put(bytes, offset, count);
+                offset += count;
+            }
+        }
+        
+        private void flush() throws IOException {
+            output.flip();
+            while (output.hasRemaining()) {
+                bytesWritten += channel.write(output);
+            }
+            output.clear();
+        }
+    }
+}
@@ -0,0 +1,588 @@
+package domain;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * ChainImporter bulk-loads new hotels, their rooms and their reservation
+ * history into a HotelChain from CSV files.
+ * 
+ * Three files are read, in this order, each starting with a header line:
+ * - hotels: first name, last name (the hotel is named "first last")
+ * - rooms: hotel, room number, room kind, nightly cost, currency
+ * - reservations: hotel, room number, start date, end date, guests, guest
+ *   first name, last name, street, city, country, postal code, card number,
+ *   cardholder name, expiry date, payer id, payer id type
+ * 
+ * Fields may be quoted ("..." with "" for a quote) but may not span lines.
+ * Dates are ISO dates (2030-01-31). Reservations that end on or before the
+ * import date become completed stays, which keep only their dates and
+ * guest count, so their guest and payer fields may be left empty; later
+ * ones are held as reservations.
+ * 
+ * Each file is memory-mapped in chunks of a few megabytes, split at line
+ * ends, and the chunks are parsed in parallel on the common fork-join pool.
+ * Parsing checks each row's fields and builds its objects; what depends on
+ * other rows (a hotel or room listed twice, stays overlapping in a room) is
+ * then applied chunk by chunk in file order while later chunks are still
+ * being parsed. Of two conflicting rows the earlier one in the file is
+ * therefore always the one imported, and no file is ever held whole as a
+ * list of rows. The imported hotels are built before they join the chain, so only
+ * the import touches their rooms, and each is journaled whole when it is
+ * added, as by any addHotel. A row that cannot be imported (a bad field, an
+ * unknown hotel or room, a reservation or completed stay overlapping
+ * another) is counted and described in the result instead of stopping the
+ * import. Guests share an instance only when their rows spell the name and
+ * address exactly the same way.
+ * 
+ * Only new hotels are imported: a hotel the chain already has is rejected,
+ * and so are the rooms and reservations for it.
+ * 
+ * Responsibilities:
+ * - Split CSV files into chunks and parse them in parallel
+ * - Build hotels, rooms, reservations and completed stays from the rows
+ * - Add the imported hotels to the chain and report the outcome
+ */
+public class ChainImporter {
+    
+    private static final int CHUNK_BYTES = 4 * 1024 * 1024;
+    private static final int MAX_INTERNED_GUESTS = 1 << 20;
+    private static final long INVALID_DAY = Long.MIN_VALUE;
+    private static final String[] RESERVATION_COLUMNS = {
+        "hotel", "room number", "start date", "end date", "guests", "first name", "last name", "street", "city",
+        "country", "postal code", "card number", "cardholder name", "expiry date", "payer id", "payer id type"
+    };
+    private static final Map<String, RoomKind> KINDS = new HashMap<>();
+    
+    static {
+        for (RoomKind kind : RoomKind.values()) {
+            KINDS.put(kind.name(), kind);
+        }
+    }
+    
+    private HotelChain chain;
+    private long asOfDay;
+    
+    /**
+     * Constructor: Creates an importer that treats stays ending today or
+     * earlier as completed.
+     * 
+     * @param chain the chain to import into
+     * @throws IllegalArgumentException if chain is null
+     */
+    public ChainImporter(HotelChain chain) {
+        this(chain, LocalDate.now());
+    }
+    
+    /**
+     * Constructor: Creates an importer with an explicit import date.
+     * 
+     * @param chain the chain to import into
+     * @param asOf stays ending on or before this date are imported as completed
+     * @throws IllegalArgumentException if any parameter is null
+     */
+    public ChainImporter(HotelChain chain, LocalDate asOf) {
+        if (chain == null) {
+            throw new IllegalArgumentException("Hotel chain cannot be null");
+        }
+        if (asOf == null) {
+            throw new IllegalArgumentException("Import date cannot be null");
+        }
+        this.chain = chain;
+        this.asOfDay = asOf.toEpochDay();
+    }
+    
+    /**
+     * Import hotels, rooms and reservations and add the hotels to the chain.
+     * 
+     * @param hotelsFile the hotels file
+     * @param roomsFile the rooms file
+     * @param reservationsFile the reservations file, or null to import no reservations
+     * @return the counts of imported items and the rejected rows
+     * @throws IllegalArgumentException if hotelsFile or roomsFile is null
+     * @throws IOException if a file cannot be read
+     */
+    public ImportResult importFiles(Path hotelsFile, Path roomsFile, Path reservationsFile) throws IOException {
+        if (hotelsFile == null || roomsFile == null) {
+            throw new IllegalArgumentException("Hotels and rooms files cannot be null");
+        }
+        ImportRun run = new ImportRun();
+        readRows(hotelsFile, 2, run.result, run::importHotel);
+        readRows(roomsFile, 5, run.result, run::importRoom);
+        if (reservationsFile != null) {
+            readRows(reservationsFile, RESERVATION_COLUMNS.length, run.result, run::importReservation);
+        }
+        
+        // In name order, so importing the same files always journals the same way
+        List<String> rejected = new ArrayList<>();
+        for (Hotel hotel : new TreeMap<>(run.hotels).values()) {
+            try {
+                chain.addHotel(hotel);
+                run.result.recordHotel();
+            } catch (IllegalStateException e) {
+                rejected.add(hotelsFile.getFileName() + ": " + e.getMessage());
+            }
+        }
+        run.result.recordRejections(rejected, rejected.size());
+        return run.result;
+    }
+    
+    /**
+     * Parse a CSV file in parallel chunks and hand every row to a handler.
+     */
+    private static void readRows(Path file, int columns, ImportResult result, RowHandler handler)
+            throws IOException {
+        List<MappedByteBuffer> chunks = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long start = 0;
+            while (start < size) {
+                long end = Math.min(start + CHUNK_BYTES, size);
+                if (end < size) {
+                    end = nextLineStart(channel, end, size);
+                }
+                // Mappings stay valid after the channel is closed
+                chunks.add(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start));
+                start = end;
+            }
+        }
+        ChunkParser[] parsers = new ChunkParser[chunks.size()];
+        List<ForkJoinTask<?>> parsed = new ArrayList<>(parsers.length);
+        for (int i = 0; i < parsers.length; i++) {
+            ChunkParser parser = new ChunkParser(columns, i == 0);
+            ByteBuffer chunk = chunks.get(i);
+            parsers[i] = parser;
+            parsed.add(ForkJoinPool.commonPool().submit(() -> parser.parse(chunk, handler)));
+        }
+        
+        // Chunks only know their own line numbers; the lines before them give the offset
+        List<String> messages = new ArrayList<>();
+        long rejectedRows = 0;
+        long linesBefore = 0;
+        for (int chunk = 0; chunk < parsers.length; chunk++) {
+            // Applied in file order, so which of two conflicting rows is imported never depends on timing
+            parsed.get(chunk).join();
+            ChunkParser parser = parsers[chunk];
+            parser.apply();
+            rejectedRows += parser.rejectedRows;
+            for (int i = 0; i < parser.messages.size() && messages.size() < ImportResult.MAX_REPORTED_REJECTIONS;
+                 i++) {
+                messages.add(file.getFileName() + ":" + (linesBefore + parser.rejectedLines[i]) + ": "
+                             + parser.messages.get(i));
+            }
+            linesBefore += parser.lineCount;
+        }
+        result.recordRejections(messages, rejectedRows);
+    }
+    
+    private static long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        // Start at the byte before, in case the chunk already ends a line
+        long scanned = position - 1;
+        while (scanned < size) {
+            buffer.clear();
+            int read = channel.read(buffer, scanned);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return scanned + i + 1;
+                }
+            }
+            scanned += read;
+        }
+        return size;
+    }
+    
+    /**
+     * Check a field for a positive whole number without throwing.
+     * 
+     * @return the number, or -1 if the field is not one
+     */
+    private static int parsePositive(String field) {
+        if (field.isEmpty() || field.length() > 9) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value > 0 ? value : -1;
+    }
+    
+    /**
+     * Parse an ISO date (yyyy-mm-dd) into an epoch day.
+     * 
+     * @return the epoch day, or INVALID_DAY if the field is not shaped like a date
+     * @throws DateTimeException if the month or day is out of range
+     */
+    private static long parseDay(String field) {
+        if (field.length() != 10 || field.charAt(4) != '-' || field.charAt(7) != '-') {
+            return INVALID_DAY;
+        }
+        int year = parsePositive(field.substring(0, 4));
+        int month = parsePositive(field.substring(5, 7));
+        int day = parsePositive(field.substring(8, 10));
+        if (year < 0 || month < 0 || day < 0) {
+            return INVALID_DAY;
+        }
+        return LocalDate.of(year, month, day).toEpochDay();
+    }
+    
+    private static boolean isDecimal(String field) {
+        boolean digits = false;
+        boolean point = false;
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == '.' && !point) {
+                point = true;
+            } else if (c >= '0' && c <= '9') {
+                digits = true;
+            } else {
+                return false;
+            }
+        }
+        return digits;
+    }
+    
+    /**
+     * Checks one parsed row and builds what it describes; called from many threads at once.
+     */
+    private interface RowHandler {
+        /**
+         * @return the rest of the row's import, applied in file order
+         */
+        RowChange check(String[] fields);
+    }
+    
+    /**
+     * The part of a row's import that depends on the rows before it.
+     */
+    private interface RowChange {
+        /**
+         * @return null if the row was imported, otherwise why it was not
+         */
+        String apply();
+    }
+    
+    private static RowChange rejected(String message) {
+        return () -> message;
+    }
+    
+    /**
+     * The state of one import: the hotels being built and what was loaded.
+     * Row handlers are called from many threads at once; the changes they
+     * return are applied by one thread, in file order.
+     */
+    private final class ImportRun {
+        private final Map<String, Hotel> hotels = new ConcurrentHashMap<>();
+        private final Map<String, RoomType> roomTypes = new ConcurrentHashMap<>();
+        private final GuestInterner guests = new GuestInterner(MAX_INTERNED_GUESTS);
+        // Completed stays imported so far, start day to end day by room; only touched by row changes
+        private final Map<Room, TreeMap<Long, Long>> completedStays = new HashMap<>();
+        private final ImportResult result = new ImportResult();
+        
+        RowChange importHotel(String[] fields) {
+            if (fields[0].isEmpty() || fields[1].isEmpty()) {
+                return rejected("Hotel name cannot be empty");
+            }
+            Hotel hotel = new Hotel(new Name(fields[0], fields[1]));
+            String name = hotel.getNameAsString();
+            return () -> {
+                if (chain.getHotel(name) != null) {
+                    return "Hotel '" + name + "' already exists in the chain";
+                }
+                if (hotels.putIfAbsent(name, hotel) != null) {
+                    return "Hotel '" + name + "' is listed more than once";
+                }
+                return null;
+            };
+        }
+        
+        RowChange importRoom(String[] fields) {
+            Hotel hotel = hotels.get(fields[0]);
+            if (hotel == null) {
+                return rejected(unknownHotel(fields[0]));
+            }
+            int number = parsePositive(fields[1]);
+            if (number < 0) {
+                return rejected("Room number '" + fields[1] + "' is not a positive number");
+            }
+            RoomKind kind = KINDS.get(fields[2]);
+            if (kind == null) {
+                return rejected("Unknown room kind '" + fields[2] + "'");
+            }
+            if (!isDecimal(fields[3])) {
+                return rejected("Cost '" + fields[3] + "' is not a decimal number");
+            }
+            if (fields[4].isEmpty()) {
+                return rejected("Currency cannot be empty");
+            }
+            // Rooms with the same kind and cost share one RoomType
+            RoomType roomType = roomTypes.computeIfAbsent(fields[2] + ',' + fields[3] + ',' + fields[4],
+                key -> new RoomType(kind, new Money(Double.parseDouble(fields[3]), fields[4])));
+            String hotelName = fields[0];
+            return () -> {
+                if (hotel.getRoom(number) != null) {
+                    return "Room " + number + " is listed more than once for hotel '" + hotelName + "'";
+                }
+                hotel.addRoom(number, new Room(number, roomType));
+                result.recordRoom();
+                return null;
+            };
+        }
+        
+        RowChange importReservation(String[] fields) {
+            Hotel hotel = hotels.get(fields[0]);
+            if (hotel == null) {
+                return rejected(unknownHotel(fields[0]));
+            }
+            int number = parsePositive(fields[1]);
+            Room room = number < 0 ? null : hotel.getRoom(number);
+            if (room == null) {
+                return rejected("Room " + fields[1] + " does not exist in hotel '" + fields[0] + "'");
+            }
+            long startDay = parseDay(fields[2]);
+            long endDay = parseDay(fields[3]);
+            if (startDay == INVALID_DAY || endDay == INVALID_DAY) {
+                return rejected("Dates must be given as yyyy-mm-dd");
+            }
+            if (endDay <= startDay) {
+                return rejected("End date must be after start date");
+            }
+            int guestCount = parsePositive(fields[4]);
+            if (guestCount < 0) {
+                return rejected("Number of guests '" + fields[4] + "' is not a positive number");
+            }
+            LocalDate start = LocalDate.ofEpochDay(startDay);
+            LocalDate end = LocalDate.ofEpochDay(endDay);
+            if (endDay <= asOfDay) {
+                return () -> {
+                    // Rejected like an overlapping reservation, so the room is never in two stays at once
+                    if (!room.isAvailable(start, end) || overlapsCompletedStay(room, startDay, endDay)) {
+                        return "Room " + number + " is already reserved on some of these nights";
+                    }
+                    room.restoreCompletedStay(Reservation.nextId(), startDay, endDay, guestCount, room.getVersion());
+                    completedStays.computeIfAbsent(room, key -> new TreeMap<>()).put(startDay, endDay);
+                    result.recordCompletedStay();
+                    return null;
+                };
+            }
+            for (int i = 5; i < fields.length; i++) {
+                if (fields[i].isEmpty()) {
+                    return rejected("Missing " + RESERVATION_COLUMNS[i]);
+                }
+            }
+            
+            // Guests returning in many rows share one instance
+            Name name = guests.intern(new Name(fields[5], fields[6]));
+            Guest guest = guests.intern(new Guest(name, new Address(fields[7], fields[8], fields[9], fields[10])));
+            Reservation reservation = new Reservation(start, end, new HowMany(guestCount));
+            reservation.setReserverPayer(new ReserverPayer(new CreditCard(fields[11], fields[12], fields[13]),
+                                                           new Identity(fields[14], fields[15])));
+            return () -> {
+                if (room.getReservation(name.getFullName()) != null) {
+                    return "Guest '" + name.getFullName() + "' already holds a reservation in room " + number;
+                }
+                if (!room.isAvailable(start, end) || overlapsCompletedStay(room, startDay, endDay)) {
+                    return "Room " + number + " is already reserved on some of these nights";
+                }
+                room.addReservation(reservation, guest);
+                result.recordReservation();
+                return null;
+            };
+        }
+        
+        // The stays never overlap, so the last one starting before endDay decides
+        private boolean overlapsCompletedStay(Room room, long startDay, long endDay) {
+            TreeMap<Long, Long> stays = completedStays.get(room);
+            Map.Entry<Long, Long> last = stays == null ? null : stays.lowerEntry(endDay);
+            return last != null && last.getValue() > startDay;
+        }
+        
+        private String unknownHotel(String hotelName) {
+            if (chain.getHotel(hotelName) != null) {
+                return "Hotel '" + hotelName + "' is already in the chain and is not being imported";
+            }
+            return "Hotel '" + hotelName + "' is not in the hotels file";
+        }
+    }
+    
+    /**
+     * Splits the lines of one chunk into fields, keeps the checked rows until
+     * they are applied, and keeps the rows it rejects.
+     */
+    private static final class ChunkParser {
+        private final String[] fields;
+        private final boolean skipHeader;
+        private byte[] line = new byte[512];
+        private byte[] unquoted = new byte[512];
+        private int lineCount;
+        // Checked rows waiting to be applied, with their line numbers
+        private List<RowChange> rows = new ArrayList<>();
+        private int[] rowLines = new int[256];
+        private long rejectedRows;
+        private int[] rejectedLines = new int[16];
+        private List<String> messages = new ArrayList<>();
+        
+        ChunkParser(int columns, boolean skipHeader) {
+            this.fields = new String[columns];
+            this.skipHeader = skipHeader;
+        }
+        
+        void parse(ByteBuffer chunk, RowHandler handler) {
+            while (chunk.hasRemaining()) {
+                int length = 0;
+                while (chunk.hasRemaining()) {
+                    byte b = chunk.get();
+                    if (b == '\n') {
+                        break;
+                    }
+                    if (length == line.length) {
+                        line = Arrays.copyOf(line, length * 2);
+                    }
+                    line[length++] = b;
+                }
+                lineCount++;
+                if (length > 0 && line[length - 1] == '\r') {
+                    length--;
+                }
+                if ((skipHeader && lineCount == 1) || isBlank(length)) {
+                    continue;
+                }
+                String message = split(length);
+                RowChange row;
+                if (message != null) {
+                    row = rejected(message);
+                } else {
+                    try {
+                        row = handler.check(fields);
+                    } catch (IllegalArgumentException | IllegalStateException | DateTimeException e) {
+                        // A check the domain makes that the row handlers do not repeat
+                        row = rejected(e.getMessage());
+                    }
+                }
+                if (rows.size() == rowLines.length) {
+                    rowLines = Arrays.copyOf(rowLines, rowLines.length * 2);
+                }
+                rowLines[rows.size()] = lineCount;
+                rows.add(row);
+            }
+        }
+        
+        /**
+         * Apply the checked rows in line order, after those of all earlier chunks.
+         */
+        void apply() {
+            for (int i = 0; i < rows.size(); i++) {
+                String message;
+                try {
+                    message = rows.get(i).apply();
+                } catch (IllegalArgumentException | IllegalStateException | DateTimeException e) {
+                    message = e.getMessage();
+                }
+                if (message != null) {
+                    reject(message, rowLines[i]);
+                }
+            }
+            rows = null;
+            rowLines = null;
+        }
+        
+        private boolean isBlank(int length) {
+            for (int i = 0; i < length; i++) {
+                if (line[i] != ' ' && line[i] != '\t') {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        /**
+         * Split the current line into fields.
+         * 
+         * @return null if the line has the expected number of fields, otherwise why not
+         */
+        private String split(int length) {
+            int count = 0;
+            int i = 0;
+            while (true) {
+                if (count == fields.length) {
+                    return "Expected " + fields.length + " fields but found more";
+                }
+                if (i < length && line[i] == '"') {
+                    if (unquoted.length < length) {
+                        unquoted = new byte[line.length];
+                    }
+                    int size = 0;
+                    i++;
+                    while (true) {
+                        if (i >= length) {
+                            return "Quoted field is not closed";
+                        }
+                        byte b = line[i++];
+                        if (b == '"') {
+                            if (i < length && line[i] == '"') {
+                                i++;
+                            } else {
+                                break;
+                            }
+                        }
+                        unquoted[size++] = b;
+                    }
+                    if (i < length && line[i] != ',') {
+                        return "Unexpected text after quoted field " + (count + 1);
+                    }
+                    fields[count++] = new String(unquoted, 0, size, StandardCharsets.UTF_8);
+                } else {
+                    int start = i;
+                    while (i < length && line[i] != ',') {
+                        i++;
+                    }
+                    fields[count++] = new String(line, start, i - start, StandardCharsets.UTF_8).trim();
+                }
+                if (i >= length) {
+                    break;
+                }
+                // Skip the comma
+                i++;
+            }
+            if (count != fields.length) {
+                return "Expected " + fields.length + " fields but found " + count;
+            }
+            return null;
+        }
+        
+        private void reject(String message, int lineNumber) {
+            rejectedRows++;
+            if (messages.size() < ImportResult.MAX_REPORTED_REJECTIONS) {
+                if (messages.size() == rejectedLines.length) {
+                    rejectedLines = Arrays.copyOf(rejectedLines, rejectedLines.length * 2);
+                }
+                rejectedLines[messages.size()] = lineNumber;
+                messages.add(message);
+            }
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package domain;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * ChainSnapshot is a compact binary image of a whole hotel chain, used as
+ * a checkpoint so recovery only has to replay the journal written after it.
+ * 
+ * Rooms are copied one at a time under their version stamp, so a snapshot
+ * can be taken while bookings continue. Each room's copy records the version
+ * it was taken at; journal records for that room up to this version are
+ * already contained in the snapshot and are skipped during replay.
+ * 
+ * File layout: a header (magic, format version, journal LSN the snapshot
+ * covers), the chain, its hotels and their rooms (each with its completed
+ * stays), and a CRC32 of everything before it. Snapshots are read through a memory-mapped buffer.
+ * 
+ * Responsibilities:
+ * - Write a consistent-per-room image of a HotelChain
+ * - Rebuild a HotelChain from an image and report each room's version
+ */
+class ChainSnapshot {
+    
+    private static final int MAGIC = 0x48534E50; // "HSNP"
+    private static final short FORMAT_VERSION = 4;
+    
+    private HotelChain chain;
+    // Journal LSN of the last record fully contained in this snapshot
+    private long lsn;
+    // Version each room had when it was copied
+    private Map<Room, Long> roomVersions;
+    
+    private ChainSnapshot(HotelChain chain, long lsn, Map<Room, Long> roomVersions) {
+        this.chain = chain;
+        this.lsn = lsn;
+        this.roomVersions = roomVersions;
+    }
+    
+    /**
+     * Get the chain rebuilt from the snapshot.
+     * 
+     * @return the restored chain
+     */
+    HotelChain getChain() {
+        return chain;
+    }
+    
+    /**
+     * Get the sequence number of the last journal record contained in the snapshot.
+     * 
+     * @return the snapshot LSN
+     */
+    long getLsn() {
+        return lsn;
+    }
+    
+    /**
+     * Get the version stamp each restored room had when it was copied.
+     * 
+     * @return versions keyed by restored room
+     */
+    Map<Room, Long> getRoomVersions() {
+        return roomVersions;
+    }
+    
+    /**
+     * Write a snapshot of a chain and force it to disk.
+     * 
+     * @param chain the chain to copy
+     * @param lsn the last journal record every room copy is guaranteed to contain
+     * @param target the file to write (replaced if it exists)
+     * @throws IOException if the file cannot be written
+     */
+    static void write(HotelChain chain, long lsn, Path target) throws IOException {
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+            CheckedOutputStream checked = new CheckedOutputStream(
+                new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024), new CRC32());
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(MAGIC);
+            out.writeShort(FORMAT_VERSION);
+            out.writeLong(lsn);
+            writeString(out, chain.getName());
+            
+            List<Hotel> hotels = chain.getHotels();
+            out.writeInt(hotels.size());
+            for (Hotel hotel : hotels) {
+                writeString(out, hotel.getName().getFirstName());
+                writeString(out, hotel.getName().getLastName());
+                List<Room> rooms = hotel.getRoomsInSlotOrder();
+                out.writeInt(rooms.size());
+                for (Room room : rooms) {
+                    writeRoom(out, room);
+                }
+            }
+            // The checksum covers everything written so far
+            int crc = (int) checked.getChecksum().getValue();
+            out.writeInt(crc);
+            out.flush();
+            channel.force(true);
+        }
+    }
+    
+    private static void writeRoom(DataOutputStream out, Room room) throws IOException {
+        RoomType roomType = room.getRoomType();
+        out.writeInt(room.getNumber());
+        out.writeInt(roomType.getKind().ordinal());
+        out.writeLong(roomType.getCost().getMinorUnits());
+        writeString(out, roomType.getCost().getCurrency());
+        
+        RoomState state = room.captureState();
+        out.writeLong(state.version);
+        out.writeInt(state.reservations.size());
+        for (int i = 0; i < state.reservations.size(); i++) {
+            Reservation reservation = state.reservations.get(i);
+            writeGuest(out, state.guests.get(i));
+            ReserverPayer payer = reservation.getReserverPayer();
+            out.writeBoolean(payer != null);
+            if (payer != null) {
+                writeString(out, payer.getCreditCardDetails().getCardNumber());
+                writeString(out, payer.getCreditCardDetails().getCardholderName());
+                writeString(out, payer.getCreditCardDetails().getExpiryDate());
+                writeString(out, payer.getId().getNumber());
+                writeString(out, payer.getId().getType());
+            }
+            out.writeInt((int) reservation.getStartDate().toEpochDay());
+            out.writeInt((int) reservation.getEndDate().toEpochDay());
+            out.writeInt(reservation.getNumberOfGuests().getNumber());
+            out.writeLong(reservation.getId());
+        }
+        out.writeBoolean(state.occupant != null);
+        if (state.occupant != null) {
+            writeGuest(out, state.occupant);
+        }
+        out.writeBoolean(state.checkedInGuestId != null);
+        if (state.checkedInGuestId != null) {
+            writeString(out, state.checkedInGuestId);
+        }
+        // History rows are never changed once written, so they can be read after the copy
+        ReservationStore history = room.getStayHistory();
+        if (history.isPersistent()) {
+            // The stay archive keeps them
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(state.completedStays);
+        for (int row = 0; row < state.completedStays; row++) {
+            out.writeLong(history.getId(row));
+            out.writeInt(history.getStartDay(row));
+            out.writeInt(history.getEndDay(row));
+            out.writeInt(history.getGuestCount(row));
+        }
+    }
+    
+    private static void writeGuest(DataOutputStream out, Guest guest) throws IOException {
+        writeString(out, guest.getName().getFirstName());
+        writeString(out, guest.getName().getLastName());
+        Address address = guest.getAddressDetails();
+        writeString(out, address.getStreet());
+        writeString(out, address.getCity());
+        writeString(out, address.getCountry());
+        writeString(out, address.getPostalCode());
+    }
+    
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+    
+    /**
+     * Rebuild a chain from a snapshot file.
+     * 
+     * @param file the snapshot file
+     * @return the loaded snapshot
+     * @throws IOException if the file cannot be read, is not a snapshot, or fails its checksum
+     */
+    static ChainSnapshot load(Path file) throws IOException {
+        return load(file, null);
+    }
+    
+    /**
+     * Rebuild a chain from a snapshot file, keeping its stay history in an archive.
+     * 
+     * @param file the snapshot file
+     * @param archive the stay archive of the chain, or null to keep stays on the heap
+     * @return the loaded snapshot
+     * @throws IOException if the file cannot be read, is not a snapshot, or fails its checksum
+     */
+    static ChainSnapshot load(Path file, StayArchive archive) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 18 || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a snapshot file: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int bodyLength = (int) size - 4;
+            CRC32 crc = new CRC32();
+            crc.update(buffer.duplicate().limit(bodyLength));
+            if (buffer.getInt(bodyLength) != (int) crc.getValue()) {
+                throw new IOException("Snapshot " + file + " is corrupt");
+            }
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a snapshot file: " + file);
+            }
+            short format = buffer.getShort();
+            if (format != FORMAT_VERSION) {
+                throw new IOException("Unsupported snapshot format " + format + " in " + file);
+            }
+            try {
+                return read(buffer, archive);
+            } catch (BufferUnderflowException e) {
+                throw new IOException("Snapshot " + file + " is truncated", e);
+            }
+        }
+    }
+    
+    private static ChainSnapshot read(ByteBuffer in, StayArchive archive) {
+        long lsn = in.getLong();
+        HotelChain chain = new HotelChain(readString(in));
+        if (archive != null) {
+            chain.useStayArchive(archive);
+        }
+        Map<Room, Long> roomVersions = new IdentityHashMap<>();
+        int hotelCount = in.getInt();
+        for (int h = 0; h < hotelCount; h++) {
+            Hotel hotel = new Hotel(new Name(readString(in), readString(in)));
+            int roomCount = in.getInt();
+            for (int r = 0; r < roomCount; r++) {
+                Room room = readRoom(in, hotel);
+                roomVersions.put(room, room.getVersion());
+            }
+            chain.addHotel(hotel);
+        }
+        return new ChainSnapshot(chain, lsn, roomVersions);
+    }
+    
+    private static Room readRoom(ByteBuffer in, Hotel hotel) {
+        int number = in.getInt();
+        RoomKind kind = RoomKind.values()[in.getInt()];
+        Money cost = Money.ofMinorUnits(in.getLong(), readString(in));
+        Room room = new Room(number, new RoomType(kind, cost));
+        hotel.addRoom(number, room);
+        
+        long version = in.getLong();
+        int reservationCount = in.getInt();
+        for (int i = 0; i < reservationCount; i++) {
+            Guest guest = readGuest(in);
+            ReserverPayer payer = null;
+            if (in.get() != 0) {
+                payer = new ReserverPayer(new CreditCard(readString(in), readString(in), readString(in)),
+                                          new Identity(readString(in), readString(in)));
+            }
+            Reservation reservation = new Reservation(LocalDate.ofEpochDay(in.getInt()),
+                                                      LocalDate.ofEpochDay(in.getInt()),
+                                                      new HowMany(in.getInt()));
+            reservation.restoreId(in.getLong());
+            reservation.setReserverPayer(payer);
+            room.addReservation(reservation, guest);
+        }
+        // Occupant before check-in, as in the journal, so check-in finds the guest in place
+        if (in.get() != 0) {
+            room.setOccupant(readGuest(in));
+        }
+        if (in.get() != 0) {
+            room.checkInGuest(readString(in));
+        }
+        // -1 when the stays are in a stay archive
+        int completedStays = in.getInt();
+        for (int i = 0; i < completedStays; i++) {
+            room.restoreCompletedStay(in.getLong(), in.getInt(), in.getInt(), in.getInt(), version);
+        }
+        room.restoreVersion(version);
+        return room;
+    }
+    
+    private static Guest readGuest(ByteBuffer in) {
+        Name name = new Name(readString(in), readString(in));
+        Address address = new Address(readString(in), readString(in), readString(in), readString(in));
+        return new Guest(name, address);
+    }
+    
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * One room's reservations and occupant, copied at a single version.
+     */
+    static final class RoomState {
+        private long version;
+        // reservations.get(i) was made by guests.get(i)
+        private List<Reservation> reservations;
+        private List<Guest> guests;
+        private Guest occupant;
+        private String checkedInGuestId;
+        // Completed stays [0, completedStays) of the room's history belong to this version
+        private int completedStays;
+        
+        RoomState(long version, List<Reservation> reservations, List<Guest> guests,
+                  Guest occupant, String checkedInGuestId, int completedStays) {
+            this.version = version;
+            this.reservations = reservations;
+            this.guests = guests;
+            this.occupant = occupant;
+            this.checkedInGuestId = checkedInGuestId;
+            this.completedStays = completedStays;
+        }
+        
+        List<Reservation> getReservations() {
+            return reservations;
+        }
+        
+        List<Guest> getGuests() {
+            return guests;
+        }
+        
+        Guest getOccupant() {
+            return occupant;
+        }
+        
+        String getCheckedInGuestId() {
+            return checkedInGuestId;
+        }
+        
+        int getCompletedStays() {
+            return completedStays;
+        }
+    }
+}
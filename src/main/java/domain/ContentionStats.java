@@ -0,0 +1,88 @@
+package domain;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ContentionStats counts how optimistic bookings behave under load.
+ * Counters are striped (LongAdder) so recording them adds no contention
+ * of its own.
+ * 
+ * Responsibilities:
+ * - Count bookings committed optimistically
+ * - Count optimistic attempts that had to be retried
+ * - Count bookings that fell back to the room lock
+ */
+public class ContentionStats {
+    
+    private LongAdder optimisticCommits;
+    private LongAdder retries;
+    private LongAdder fallbacks;
+    
+    /**
+     * Constructor: Creates a ContentionStats with all counters at zero.
+     */
+    public ContentionStats() {
+        this.optimisticCommits = new LongAdder();
+        this.retries = new LongAdder();
+        this.fallbacks = new LongAdder();
+    }
+    
+    void recordOptimisticCommit() {
+        optimisticCommits.increment();
+    }
+    
+    void recordRetry() {
+        retries.increment();
+    }
+    
+    void recordFallback() {
+        fallbacks.increment();
+    }
+    
+    /**
+     * Get the number of bookings committed by compare-and-set.
+     * 
+     * @return number of optimistic commits
+     */
+    public long getOptimisticCommits() {
+        return optimisticCommits.sum();
+    }
+    
+    /**
+     * Get the number of optimistic attempts that lost a race and were retried.
+     * 
+     * @return number of retries
+     */
+    public long getRetries() {
+        return retries.sum();
+    }
+    
+    /**
+     * Get the number of bookings that gave up on optimism and took the room lock.
+     * 
+     * @return number of fallbacks
+     */
+    public long getFallbacks() {
+        return fallbacks.sum();
+    }
+    
+    /**
+     * Reset all counters to zero.
+     */
+    public void reset() {
+        optimisticCommits.reset();
+        retries.reset();
+        fallbacks.reset();
+    }
+    
+    /**
+     * Get string representation of these statistics.
+     * 
+     * @return string with all counters
+     */
+    @Override
+    public String toString() {
+        return "commits=" + getOptimisticCommits() + ", retries=" + getRetries() + 
+               ", fallbacks=" + getFallbacks();
+    }
+}
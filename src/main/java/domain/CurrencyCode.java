@@ -0,0 +1,105 @@
+package domain;
+
+import java.util.Currency;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * CurrencyCode is the canonical, shared description of a currency used by
+ * Money: its code and how many minor units make up one major unit.
+ * There is exactly one instance per code, so currencies are compared by
+ * reference instead of by string.
+ * 
+ * Only ISO 4217 codes are accepted, and only their upper-case form is
+ * cached, so codes read from requests and import files cannot grow the
+ * table beyond the set of real currencies.
+ * 
+ * Responsibilities:
+ * - Normalize and validate currency codes
+ * - Provide the number of decimal places of a currency
+ */
+final class CurrencyCode {
+    
+    // Decimal places for ISO 4217 codes without minor units defined (such as gold, XAU)
+    private static final int DEFAULT_FRACTION_DIGITS = 2;
+    private static final Map<String, CurrencyCode> CODES = new ConcurrentHashMap<>();
+    
+    private String code;
+    private int fractionDigits;
+    // 10^fractionDigits
+    private long unit;
+    
+    private CurrencyCode(String code, int fractionDigits) {
+        this.code = code;
+        this.fractionDigits = fractionDigits;
+        long scale = 1;
+        for (int i = 0; i < fractionDigits; i++) {
+            scale *= 10;
+        }
+        this.unit = scale;
+    }
+    
+    /**
+     * Get the canonical instance for a currency code.
+     * 
+     * @param currency the currency code (case and surrounding spaces are ignored)
+     * @return the shared currency code
+     * @throws IllegalArgumentException if currency is null, empty or not an ISO 4217 code
+     */
+    static CurrencyCode of(String currency) {
+        if (currency == null || currency.trim().isEmpty()) {
+            throw new IllegalArgumentException("Currency cannot be null or empty");
+        }
+        // Canonical spellings skip normalization
+        CurrencyCode known = CODES.get(currency);
+        if (known != null) {
+            return known;
+        }
+        String code = currency.trim().toUpperCase(Locale.ROOT);
+        known = CODES.get(code);
+        if (known != null) {
+            return known;
+        }
+        int digits;
+        try {
+            digits = Currency.getInstance(code).getDefaultFractionDigits();
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown currency: " + code);
+        }
+        int fractionDigits = digits >= 0 ? digits : DEFAULT_FRACTION_DIGITS;
+        return CODES.computeIfAbsent(code, key -> new CurrencyCode(key, fractionDigits));
+    }
+    
+    /**
+     * Get the currency code.
+     * 
+     * @return the upper-case code
+     */
+    String getCode() {
+        return code;
+    }
+    
+    /**
+     * Get the number of decimal places of this currency.
+     * 
+     * @return the fraction digits
+     */
+    int getFractionDigits() {
+        return fractionDigits;
+    }
+    
+    /**
+     * Get the number of minor units in one major unit.
+     * 
+     * @return 10 to the power of the fraction digits
+     */
+    long getUnit() {
+        return unit;
+    }
+    
+    @Override
+    public String toString() {
+        return code;
+    }
+}
@@ -0,0 +1,273 @@
+package domain;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * EventBus publishes a HotelChain's reservation events to any number of
+ * subscribers. Each subscriber has its own bounded, lock-free ring and its
+ * own delivery thread, so subscribers run at their own speed and a slow
+ * one only ever loses its own events.
+ * 
+ * Events are ordered by commit, not by publication: a change takes its
+ * sequence number inside the room's write section, and is published once
+ * it is durable. Publishers finish in any order, so events wait in a fixed
+ * reorder ring, at their sequence number modulo its size, until every lower
+ * number has been published (or released, for a change that failed after
+ * taking its number), and reach every subscriber in sequence order. A later
+ * change to a room therefore never reaches a subscriber before an earlier one.
+ * 
+ * Publishing never waits for a missing number: whichever publisher fills the
+ * next gap offers the waiting events to every subscriber's ring; the others
+ * just leave theirs in the reorder ring. A publisher whose number is a whole
+ * ring ahead of delivery gives up on the oldest missing numbers instead,
+ * so a number that is never published holds back at most one ring of
+ * events; its event, should it still come, is skipped.
+ * 
+ * With no subscribers, changes take no number and no event is built.
+ * 
+ * Responsibilities:
+ * - Register and remove subscribers
+ * - Number changes in commit order
+ * - Hand every published event to every subscriber, in order, without waiting
+ */
+public class EventBus {
+    
+    /**
+     * Taken in place of a sequence number while nobody is subscribed;
+     * publishing or releasing it does nothing.
+     */
+    static final long NO_SEQUENCE = 0;
+    
+    // Events held back by a missing number before the oldest missing numbers are given up
+    private static final int REORDER_CAPACITY = 4096;
+    
+    private List<EventSubscription> subscriptions;
+    // Last sequence number handed out
+    private AtomicLong sequence;
+    // Published events (or gaps) waiting for a lower sequence number, at sequence & mask
+    private AtomicReferenceArray<ReservationEvent> pending;
+    private int mask;
+    // Last sequence number offered to the subscribers or given up; advanced only under draining
+    private volatile long delivered;
+    private ReentrantLock draining;
+    private LongAdder skipped;
+    
+    /**
+     * Constructor: Creates a bus with no subscribers.
+     */
+    public EventBus() {
+        this.subscriptions = new CopyOnWriteArrayList<>();
+        this.sequence = new AtomicLong();
+        this.pending = new AtomicReferenceArray<>(REORDER_CAPACITY);
+        this.mask = REORDER_CAPACITY - 1;
+        this.draining = new ReentrantLock();
+        this.skipped = new LongAdder();
+    }
+    
+    /**
+     * Subscribe a listener to all events published from now on.
+     * 
+     * @param name a name for the subscriber (e.g., "billing")
+     * @param capacity the number of undelivered events kept before new events
+     *        are dropped for this subscriber (rounded up to a power of two)
+     * @param listener the listener, called on the subscription's own thread
+     * @return the subscription; close it to stop delivery
+     * @throws IllegalArgumentException if name is null/empty, capacity is not positive
+     *         or listener is null
+     */
+    public EventSubscription subscribe(String name, int capacity, ReservationEventListener listener) {
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("Subscriber name cannot be null or empty");
+        }
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+        EventSubscription subscription = new EventSubscription(name, this, capacity, listener);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+    
+    /**
+     * Get the number of active subscriptions.
+     * 
+     * @return number of subscribers
+     */
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+    
+    /**
+     * Get the number of sequence numbers given up on because they were still
+     * missing a whole reorder ring later. Their events, if published after
+     * all, were not delivered.
+     * 
+     * @return number of skipped sequence numbers
+     */
+    public long getSkippedCount() {
+        return skipped.sum();
+    }
+    
+    /**
+     * Take the sequence number of a change. Called inside the write section
+     * of the changed room, so numbers follow the order changes commit in.
+     * Every number taken must later be published or released.
+     * 
+     * @return the sequence number, or NO_SEQUENCE if nobody is subscribed
+     */
+    long nextSequence() {
+        return subscriptions.isEmpty() ? NO_SEQUENCE : sequence.incrementAndGet();
+    }
+    
+    /**
+     * Take consecutive sequence numbers for the changes of a batch, inside
+     * the write sections of all its rooms.
+     * 
+     * @param count the number of changes
+     * @return the first of the numbers, or NO_SEQUENCE if nobody is subscribed
+     */
+    long nextSequences(int count) {
+        return subscriptions.isEmpty() ? NO_SEQUENCE : sequence.addAndGet(count) - count + 1;
+    }
+    
+    /**
+     * Publish the event of a change to every subscriber without waiting.
+     * It is delivered once every lower sequence number has been published
+     * or released.
+     * 
+     * @param sequenceNumber the number the change took with nextSequence
+     * @param type what happened
+     * @param hotelName the hotel
+     * @param roomNumber the room
+     * @param guestId the guest the change concerns
+     * @param reservationId the reservation the change concerns
+     */
+    void publish(long sequenceNumber, ReservationEventType type, String hotelName, int roomNumber, String guestId,
+                 long reservationId) {
+        if (sequenceNumber == NO_SEQUENCE) {
+            return;
+        }
+        hold(subscriptions.isEmpty() ? new Gap(sequenceNumber)
+             : new ReservationEvent(sequenceNumber, type, hotelName, roomNumber, guestId, reservationId,
+                                    System.currentTimeMillis()));
+        drain();
+    }
+    
+    /**
+     * Give up the sequence number of a change that will not be published,
+     * so the events after it are not held back.
+     * 
+     * @param sequenceNumber the number the change took with nextSequence
+     */
+    void release(long sequenceNumber) {
+        if (sequenceNumber == NO_SEQUENCE) {
+            return;
+        }
+        hold(new Gap(sequenceNumber));
+        drain();
+    }
+    
+    // Put an event in its slot of the reorder ring, unless its number has already been given up
+    private void hold(ReservationEvent event) {
+        long number = event.getSequence();
+        int index = (int) number & mask;
+        while (true) {
+            long last = delivered;
+            if (number <= last) {
+                return;
+            }
+            if (number - last > mask + 1) {
+                skipTo(number - mask - 1);
+                continue;
+            }
+            // A slot still holding a number at or below delivered was left by a late publisher
+            ReservationEvent held = pending.get(index);
+            if ((held == null || held.getSequence() <= last) && pending.compareAndSet(index, held, event)) {
+                break;
+            }
+            Thread.onSpinWait();
+        }
+        // Given up while being put in place; take it back out
+        if (number <= delivered) {
+            pending.compareAndSet(index, event, null);
+        }
+    }
+    
+    private boolean ready(long number) {
+        ReservationEvent event = pending.get((int) number & mask);
+        return event != null && event.getSequence() == number;
+    }
+    
+    private void drain() {
+        // Rechecked after unlocking, so an event added while another thread drained is not stranded
+        while (ready(delivered + 1)) {
+            if (!draining.tryLock()) {
+                return;
+            }
+            try {
+                while (ready(delivered + 1)) {
+                    deliverNext();
+                }
+            } finally {
+                draining.unlock();
+            }
+        }
+    }
+    
+    // Advance delivery to at least the given number, giving up on numbers still missing
+    private void skipTo(long number) {
+        draining.lock();
+        try {
+            while (delivered < number) {
+                if (!ready(delivered + 1)) {
+                    skipped.increment();
+                }
+                deliverNext();
+            }
+        } finally {
+            draining.unlock();
+        }
+    }
+    
+    // Called with draining held
+    private void deliverNext() {
+        long number = delivered + 1;
+        int index = (int) number & mask;
+        ReservationEvent event = pending.get(index);
+        if (event != null && event.getSequence() <= number) {
+            pending.compareAndSet(index, event, null);
+        }
+        delivered = number;
+        if (event != null && event.getSequence() == number && !(event instanceof Gap)) {
+            for (EventSubscription subscription : subscriptions) {
+                subscription.offer(event);
+            }
+        }
+    }
+    
+    /**
+     * Remove a closed subscription.
+     * 
+     * @param subscription the subscription
+     */
+    void remove(EventSubscription subscription) {
+        subscriptions.remove(subscription);
+    }
+    
+    /**
+     * Stands in the reorder ring for a number with no event to deliver.
+     */
+    private static final class Gap extends ReservationEvent {
+        
+        Gap(long sequence) {
+            super(sequence, null, null, 0, null, 0, 0);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package domain;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * EventRing is a bounded, lock-free queue of events with many producers and
+ * one consumer. Producers never wait: when the ring is full, offer fails and
+ * the caller decides what to do with the event.
+ * 
+ * Every cell carries a sequence number that says whose turn it is: a
+ * producer may fill cell i when its sequence equals the claimed position,
+ * and the consumer may empty it once the producer has advanced the sequence
+ * by one. Producers claim positions with a compare-and-set on the tail.
+ * 
+ * Responsibilities:
+ * - Hand events from any number of threads to a single consumer
+ * - Refuse events instead of blocking when full
+ */
+final class EventRing {
+    
+    private final int mask;
+    private final AtomicReferenceArray<ReservationEvent> cells;
+    private final AtomicLongArray sequences;
+    // Next position producers claim
+    private final AtomicLong tail;
+    // Next position the consumer takes; written by the consumer only
+    private final AtomicLong head;
+    
+    /**
+     * Constructor: Creates an empty ring.
+     * 
+     * @param capacity the minimum number of events held (rounded up to a power of two)
+     * @throws IllegalArgumentException if capacity is not positive or too large
+     */
+    EventRing(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and " + (1 << 30));
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.mask = size - 1;
+        this.cells = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        this.tail = new AtomicLong();
+        this.head = new AtomicLong();
+    }
+    
+    /**
+     * Get the number of events the ring holds when full.
+     * 
+     * @return the capacity
+     */
+    int capacity() {
+        return mask + 1;
+    }
+    
+    /**
+     * Add an event without waiting.
+     * 
+     * @param event the event
+     * @return true if the event was added, false if the ring is full
+     */
+    boolean offer(ReservationEvent event) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    cells.lazySet(index, event);
+                    // Publishes the cell to the consumer
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                // The consumer has not emptied this cell since the last lap
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+    
+    /**
+     * Take the oldest event. Only the single consumer may call this.
+     * 
+     * @return the event, or null if none is ready
+     */
+    ReservationEvent poll() {
+        long position = head.get();
+        int index = (int) position & mask;
+        if (sequences.get(index) != position + 1) {
+            return null;
+        }
+        ReservationEvent event = cells.get(index);
+        cells.lazySet(index, null);
+        // Hands the cell back to producers for the next lap
+        sequences.set(index, position + mask + 1);
+        head.lazySet(position + 1);
+        return event;
+    }
+    
+    /**
+     * Get the number of events waiting to be taken.
+     * 
+     * @return the number of pending events (approximate while producers are active)
+     */
+    int size() {
+        long pending = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(pending, capacity()));
+    }
+}
@@ -0,0 +1,195 @@
+package domain;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * EventSubscription delivers a HotelChain's events to one listener on a
+ * thread of its own, through a private bounded ring.
+ * 
+ * Publishers never wait for a subscription: if its listener falls so far
+ * behind that the ring is full, new events are dropped for this subscription
+ * alone and counted, and other subscriptions are not affected.
+ * 
+ * Responsibilities:
+ * - Buffer events for one listener and deliver them in order
+ * - Count delivered, dropped and failed events
+ * - Stop delivery when closed
+ */
+public class EventSubscription implements AutoCloseable {
+    
+    // Idle polls spent spinning before the delivery thread parks
+    private static final int IDLE_SPINS = 100;
+    private static final long IDLE_PARK_NANOS = 100_000;
+    
+    private String name;
+    private EventBus bus;
+    private EventRing ring;
+    private ReservationEventListener listener;
+    private LongAdder delivered;
+    private LongAdder dropped;
+    private LongAdder failed;
+    private volatile boolean running;
+    private Thread deliveryThread;
+    
+    /**
+     * Constructor: Creates a subscription and starts its delivery thread.
+     * 
+     * @param name a name for the subscriber, used for the thread name
+     * @param bus the bus the subscription belongs to
+     * @param capacity the number of undelivered events kept before events are dropped
+     * @param listener the listener to deliver to
+     */
+    EventSubscription(String name, EventBus bus, int capacity, ReservationEventListener listener) {
+        this.name = name;
+        this.bus = bus;
+        this.ring = new EventRing(capacity);
+        this.listener = listener;
+        this.delivered = new LongAdder();
+        this.dropped = new LongAdder();
+        this.failed = new LongAdder();
+        this.running = true;
+        this.deliveryThread = new Thread(this::deliver, "events-" + name);
+        this.deliveryThread.setDaemon(true);
+        this.deliveryThread.start();
+    }
+    
+    /**
+     * Queue an event for this subscription without waiting.
+     * 
+     * @param event the event
+     */
+    void offer(ReservationEvent event) {
+        if (!ring.offer(event)) {
+            dropped.increment();
+        }
+    }
+    
+    private void deliver() {
+        int idle = 0;
+        while (true) {
+            ReservationEvent event = ring.poll();
+            if (event == null) {
+                if (!running) {
+                    return;
+                }
+                if (++idle < IDLE_SPINS) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+                continue;
+            }
+            idle = 0;
+            try {
+                listener.onEvent(event);
+                delivered.increment();
+            } catch (RuntimeException e) {
+                // A failing listener must not stop delivery of later events
+                failed.increment();
+            }
+        }
+    }
+    
+    /**
+     * Get the name of this subscription.
+     * 
+     * @return the subscriber name
+     */
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * Get the number of undelivered events this subscription can hold.
+     * 
+     * @return the ring capacity
+     */
+    public int getCapacity() {
+        return ring.capacity();
+    }
+    
+    /**
+     * Get the number of events waiting for the listener.
+     * 
+     * @return the number of pending events
+     */
+    public int getPendingCount() {
+        return ring.size();
+    }
+    
+    /**
+     * Get the number of events the listener has handled.
+     * 
+     * @return number of delivered events
+     */
+    public long getDeliveredCount() {
+        return delivered.sum();
+    }
+    
+    /**
+     * Get the number of events dropped because the listener had fallen too far behind.
+     * 
+     * @return number of dropped events
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+    
+    /**
+     * Get the number of events whose delivery threw an exception.
+     * 
+     * @return number of failed deliveries
+     */
+    public long getFailedCount() {
+        return failed.sum();
+    }
+    
+    /**
+     * Check whether this subscription still receives events.
+     * 
+     * @return true until the subscription is closed
+     */
+    public boolean isActive() {
+        return running;
+    }
+    
+    /**
+     * Stop receiving events. Events already queued are delivered first;
+     * this method returns once they have been.
+     */
+    @Override
+    public void close() {
+        if (!running) {
+            return;
+        }
+        bus.remove(this);
+        running = false;
+        LockSupport.unpark(deliveryThread);
+        if (Thread.currentThread() == deliveryThread) {
+            return;
+        }
+        boolean interrupted = false;
+        while (deliveryThread.isAlive()) {
+            try {
+                deliveryThread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Get string representation of this subscription.
+     * 
+     * @return string with the name and counters
+     */
+    @Override
+    public String toString() {
+        return name + ": delivered=" + getDeliveredCount() + ", dropped=" + getDroppedCount() + 
+               ", failed=" + getFailedCount() + ", pending=" + getPendingCount();
+    }
+}
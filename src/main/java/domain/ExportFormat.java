@@ -0,0 +1,48 @@
+package domain;
+
+/**
+ * ExportFormat holds the constants of the chain export format shared by
+ * ChainExporter and ChainExportReader.
+ * 
+ * File layout: a header (magic, format version, export time in epoch
+ * milliseconds), then a stream of records, each a one-byte tag, the length
+ * of its payload as a varint, and the payload. Readers skip records with
+ * tags they do not know, and the unread end of a payload, so later
+ * versions can add record types, and fields at the end of a record,
+ * without breaking older readers. The stream ends with an END record
+ * holding the number of data records before it, so a truncated file is
+ * detected.
+ * 
+ * Integers in payloads are varints (zig-zag encoded where they may be
+ * negative). Reservation ids within a room are written as the difference
+ * from the room's previous id, as ids hold their creation time. Strings
+ * are written once as STRING records, which number them in order from 0,
+ * and referred to by number afterwards; a RESET_STRINGS record starts the
+ * numbering over, so the table stays bounded however many distinct
+ * strings a chain has.
+ * 
+ * Records are nested by order: a ROOM belongs to the last HOTEL before it,
+ * and RESERVATION and STAY records to the last ROOM.
+ */
+final class ExportFormat {
+    
+    static final int MAGIC = 0x48455850; // "HEXP"
+    static final short FORMAT_VERSION = 1;
+    
+    static final byte END = 0;
+    static final byte CHAIN = 1;
+    static final byte HOTEL = 2;
+    static final byte ROOM = 3;
+    static final byte RESERVATION = 4;
+    static final byte STAY = 5;
+    static final byte STRING = 6;
+    static final byte RESET_STRINGS = 7;
+    
+    // Strings kept by writer and reader before the table is reset
+    static final int MAX_STRINGS = 1 << 18;
+    // No record refers to more new strings than this
+    static final int MAX_STRINGS_PER_RECORD = 16;
+    
+    private ExportFormat() {
+    }
+}
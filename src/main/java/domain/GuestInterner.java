@@ -0,0 +1,169 @@
+package domain;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * GuestInterner maps names and guests spelled the same way to one shared
+ * instance, so a returning guest reuses the Name (with its cached full
+ * name, key and hash) and Guest objects already held by the chain instead
+ * of adding copies.
+ * 
+ * Name and Address equality ignore case, but rooms key reservations by the
+ * caller's spelling of the full name, so only an instance spelled exactly
+ * the same (case included) is ever handed back. Tables are keyed by the
+ * name itself, whose hash is cached, and spellings are compared in place,
+ * so a lookup that hits allocates nothing.
+ * 
+ * Interning is only an optimization: equal objects compare equal either way.
+ * The table is therefore bounded and simply starts over when it fills up.
+ * 
+ * Responsibilities:
+ * - Return a canonical instance for identically spelled Name objects
+ * - Return a canonical instance for guests with the same spelling of name and address
+ */
+public class GuestInterner {
+    
+    private static final Name[] NO_NAMES = new Name[0];
+    private static final Guest[] NO_GUESTS = new Guest[0];
+    
+    private int maxEntries;
+    // Keyed by the name itself (its hash is cached); each entry holds the exact spellings seen of it
+    private Map<Name, Name[]> names;
+    // Latest known guest for each exact spelling of a name, grouped the same way
+    private Map<Name, Guest[]> guests;
+    private AtomicInteger nameCount;
+    private AtomicInteger guestCount;
+    
+    /**
+     * Constructor: Creates an empty interner.
+     * 
+     * @param maxEntries the number of names (and guests) kept before the table is cleared
+     * @throws IllegalArgumentException if maxEntries is not positive
+     */
+    public GuestInterner(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Interner size must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.names = new ConcurrentHashMap<>();
+        this.guests = new ConcurrentHashMap<>();
+        this.nameCount = new AtomicInteger();
+        this.guestCount = new AtomicInteger();
+    }
+    
+    /**
+     * Get the canonical instance of a name.
+     * 
+     * @param name the name
+     * @return a name with the same spelling, shared by all callers
+     * @throws IllegalArgumentException if name is null
+     */
+    public Name intern(Name name) {
+        if (name == null) {
+            throw new IllegalArgumentException("Name cannot be null");
+        }
+        Name[] held = names.get(name);
+        int index = indexOf(held, name);
+        if (index >= 0) {
+            return held[index];
+        }
+        makeRoom(names, nameCount);
+        Name[] spellings = names.compute(name, (key, current) -> {
+            if (indexOf(current, name) >= 0) {
+                return current;
+            }
+            nameCount.incrementAndGet();
+            return with(current == null ? NO_NAMES : current, -1, name);
+        });
+        return spellings[indexOf(spellings, name)];
+    }
+    
+    /**
+     * Get the canonical instance of a guest. A guest with the same name but
+     * a different address (or a differently spelled one) replaces the one
+     * held so far.
+     * 
+     * @param guest the guest
+     * @return a guest with the same spelling of name and address, shared by all callers
+     * @throws IllegalArgumentException if guest is null
+     */
+    public Guest intern(Guest guest) {
+        if (guest == null) {
+            throw new IllegalArgumentException("Guest cannot be null");
+        }
+        Name name = guest.getName();
+        Guest[] held = guests.get(name);
+        int index = indexOf(held, guest);
+        if (index >= 0 && sameSpelling(held[index].getAddressDetails(), guest.getAddressDetails())) {
+            return held[index];
+        }
+        makeRoom(guests, guestCount);
+        guests.compute(name, (key, current) -> {
+            int at = indexOf(current, guest);
+            if (at < 0) {
+                guestCount.incrementAndGet();
+            }
+            return with(current == null ? NO_GUESTS : current, at, guest);
+        });
+        return guest;
+    }
+    
+    /**
+     * Get the number of names currently interned.
+     * 
+     * @return count of names
+     */
+    public int size() {
+        return nameCount.get();
+    }
+    
+    // Position of the exact spelling of name among the held names, or -1
+    private static int indexOf(Name[] held, Name name) {
+        if (held != null) {
+            for (int i = 0; i < held.length; i++) {
+                if (sameSpelling(held[i], name)) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+    
+    // Position of the guest whose name is spelled exactly like guest's, or -1
+    private static int indexOf(Guest[] held, Guest guest) {
+        if (held != null) {
+            for (int i = 0; i < held.length; i++) {
+                if (sameSpelling(held[i].getName(), guest.getName())) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+    
+    // A copy of held with value at index, or appended when index is -1
+    private static <T> T[] with(T[] held, int index, T value) {
+        T[] copy = Arrays.copyOf(held, index < 0 ? held.length + 1 : held.length);
+        copy[index < 0 ? held.length : index] = value;
+        return copy;
+    }
+    
+    private static boolean sameSpelling(Name a, Name b) {
+        return a.getFirstName().equals(b.getFirstName()) && a.getLastName().equals(b.getLastName());
+    }
+    
+    private static boolean sameSpelling(Address a, Address b) {
+        return a.getStreet().equals(b.getStreet()) && a.getCity().equals(b.getCity())
+               && a.getCountry().equals(b.getCountry()) && a.getPostalCode().equals(b.getPostalCode());
+    }
+    
+    private void makeRoom(Map<?, ?> table, AtomicInteger count) {
+        if (count.get() >= maxEntries) {
+            table.clear();
+            count.set(0);
+        }
+    }
+}
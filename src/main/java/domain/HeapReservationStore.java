@@ -0,0 +1,109 @@
+package domain;
+
+import java.util.Arrays;
+
+/**
+ * HeapReservationStore keeps reservation rows as primitive arrays on the
+ * heap, one array per field: about 20 bytes per row. A Reservation object
+ * holding the same data, with its two dates and guest count, takes over 100.
+ * 
+ * A row is published by the size written after it, and grown columns are
+ * built in a fresh holder whose final fields make the copied rows visible
+ * to readers that pick it up.
+ */
+final class HeapReservationStore extends ReservationStore {
+    
+    private static final int INITIAL_CAPACITY = 8;
+    
+    private volatile Columns columns;
+    // Rows [0, size) are complete
+    private volatile int size;
+    
+    /**
+     * Constructor: Creates an empty store.
+     */
+    HeapReservationStore() {
+        this.columns = new Columns(0, null);
+    }
+    
+    @Override
+    void add(long id, long startDay, long endDay, int guests, long version) {
+        int row = size;
+        Columns current = columns;
+        if (row == current.ids.length) {
+            current = new Columns(Math.max(INITIAL_CAPACITY, row * 2), current);
+            columns = current;
+        }
+        current.ids[row] = id;
+        current.startDays[row] = Math.toIntExact(startDay);
+        current.endDays[row] = Math.toIntExact(endDay);
+        current.guests[row] = guests;
+        // Publishes the row written above
+        size = row + 1;
+    }
+    
+    @Override
+    int size() {
+        return size;
+    }
+    
+    @Override
+    long getRecoveredVersion() {
+        return Long.MIN_VALUE;
+    }
+    
+    @Override
+    boolean isArchived() {
+        return false;
+    }
+    
+    @Override
+    long getId(int row) {
+        return columnsFor(row).ids[row];
+    }
+    
+    @Override
+    int getStartDay(int row) {
+        return columnsFor(row).startDays[row];
+    }
+    
+    @Override
+    int getEndDay(int row) {
+        return columnsFor(row).endDays[row];
+    }
+    
+    @Override
+    int getGuestCount(int row) {
+        return columnsFor(row).guests[row];
+    }
+    
+    private Columns columnsFor(int row) {
+        // Reading the size first makes the rows below it visible
+        checkRow(row, size);
+        return columns;
+    }
+    
+    /**
+     * The column arrays; replaced with a larger copy when full.
+     */
+    private static final class Columns {
+        private final long[] ids;
+        private final int[] startDays;
+        private final int[] endDays;
+        private final int[] guests;
+        
+        Columns(int capacity, Columns previous) {
+            if (previous == null) {
+                this.ids = new long[capacity];
+                this.startDays = new int[capacity];
+                this.endDays = new int[capacity];
+                this.guests = new int[capacity];
+            } else {
+                this.ids = Arrays.copyOf(previous.ids, capacity);
+                this.startDays = Arrays.copyOf(previous.startDays, capacity);
+                this.endDays = Arrays.copyOf(previous.endDays, capacity);
+                this.guests = Arrays.copyOf(previous.guests, capacity);
+            }
+        }
+    }
+}
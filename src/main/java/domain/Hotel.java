@@ -1,6 +1,10 @@
 package domain;
 
-import java.util.HashMap;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -11,13 +15,30 @@ import java.util.Map;
  * - Store and manage rooms (using room number as key)
  * - Create reservations for rooms
  * - Check room availability
+ * - Track per-night occupancy so date-range searches avoid walking every room
  * - Coordinate with rooms for check-in/check-out operations
+ * 
+ * Thread safety: room lookups take no lock; the occupancy calendar and slot
+ * bookkeeping are guarded by this hotel's lock. A room's lock is always taken
+ * before its hotel's lock. Room counts by status are kept up to date as
+ * rooms report their changes, and are read without locking.
  */
 public class Hotel {
     
     private Name name;
-    // Map to store rooms by their room number (qualified association from UML)
-    private Map<Integer, Room> rooms;
+    // Rooms by their room number (qualified association from UML), without boxed keys
+    private RoomDirectory rooms;
+    // Rooms by calendar slot (slot = order in which rooms were added)
+    private List<Room> roomsBySlot;
+    // Slots of the rooms of each kind
+    private Map<RoomKind, BitSet> slotsByKind;
+    private BitSet allSlots;
+    private OccupancyCalendar calendar;
+    // Status each room was last counted in, by slot
+    private List<RoomStatus> statusBySlot;
+    private RoomStatusCounts statusCounts;
+    // Chain this hotel belongs to (null until added to a chain)
+    private volatile HotelChain chain;
     
     /**
      * Constructor: Creates a new Hotel with the given name.
@@ -30,9 +51,18 @@ public class Hotel {
             throw new IllegalArgumentException("Hotel name cannot be null");
         }
         this.name = name;
-        this.rooms = new HashMap<>();
+        this.rooms = new RoomDirectory();
+        this.roomsBySlot = new ArrayList<>();
+        this.slotsByKind = new EnumMap<>(RoomKind.class);
+        for (RoomKind kind : RoomKind.values()) {
+            slotsByKind.put(kind, new BitSet());
+        }
+        this.allSlots = new BitSet();
+        this.calendar = new OccupancyCalendar();
+        this.statusBySlot = new ArrayList<>();
+        this.statusCounts = new RoomStatusCounts();
     }
-
+    
     /**
      * Get the name of this hotel.
      * 
@@ -51,22 +81,132 @@ public class Hotel {
         return name.getFullName();
     }
     
+    /**
+     * Attach this hotel to the chain that manages it.
+     * 
+     * @param chain the owning chain
+     * @throws IllegalStateException if the hotel already belongs to a chain
+     */
+    synchronized void attachTo(HotelChain chain) {
+        if (this.chain != null) {
+            throw new IllegalStateException("Hotel '" + getNameAsString() + "' already belongs to a hotel chain");
+        }
+        this.chain = chain;
+        // Room changes racing with this loop report to the chain after it, since they need this lock
+        for (Room room : roomsBySlot) {
+            room.forEachReservation((guest, reservation) -> chain.reservationAdded(this, room, guest, reservation));
+            chain.occupantChanged(room, null, room.getOccupant());
+            chain.roomStatusChanged(room.getRoomType().getKind(), null, statusBySlot.get(room.getSlot()));
+        }
+    }
+    
+    /**
+     * Get the chain this hotel belongs to.
+     * 
+     * @return the owning chain, or null if the hotel is not in a chain
+     */
+    HotelChain getChain() {
+        return chain;
+    }
+    
+    /**
+     * Move the completed stays of this hotel's rooms into a stay archive.
+     * Every room is checked before the first one moves, so a history that
+     * cannot be claimed leaves all of them on the heap. Takes each room's
+     * lock on its own, never while holding this hotel's.
+     * 
+     * @param archive the archive
+     * @throws IllegalArgumentException if the hotel name does not fit in the archive
+     * @throws IllegalStateException if the archive is closed or already holds a claimed history of a room
+     */
+    void useStayArchive(StayArchive archive) {
+        String hotelName = getNameAsString();
+        List<Room> rooms = getRoomsInSlotOrder();
+        for (Room room : rooms) {
+            room.checkStayArchive(archive, hotelName);
+        }
+        for (Room room : rooms) {
+            room.useStayArchive(archive, hotelName);
+        }
+    }
+    
+    /**
+     * Get the journal recording changes to this hotel, if any.
+     * 
+     * @return the chain's journal, or null if changes are not journaled
+     */
+    WriteAheadLog getJournal() {
+        HotelChain owner = chain;
+        return owner == null ? null : owner.getJournal();
+    }
+    
+    /**
+     * Append records describing this hotel and all of its rooms to a journal.
+     * 
+     * @param journal the journal to write to
+     * @return the LSN of the last record appended
+     */
+    synchronized long logState(WriteAheadLog journal) {
+        long lsn = journal.logAddHotel(this);
+        for (Room room : roomsBySlot) {
+            lsn = room.logState(journal);
+        }
+        return lsn;
+    }
+    
+    /**
+     * Get the rooms of this hotel in the order they were added.
+     * 
+     * @return a copy of the room list
+     */
+    synchronized List<Room> getRoomsInSlotOrder() {
+        return new ArrayList<>(roomsBySlot);
+    }
+    
     /**
      * Add a room to this hotel.
      * Each room is stored using its room number as the key.
      * 
      * @param roomNumber the room number (unique identifier)
      * @param room the room to add
-     * @throws IllegalArgumentException if room is null or room number already exists
+     * @throws IllegalArgumentException if room is null, room number already exists
+     *                                  or the room belongs to another hotel
+     * @throws IllegalStateException if the chain's stay archive cannot take the room's stays;
+     *                               the room is then not added
      */
     public void addRoom(int roomNumber, Room room) {
         if (room == null) {
             throw new IllegalArgumentException("Room cannot be null");
         }
-        if (rooms.containsKey(roomNumber)) {
-            throw new IllegalArgumentException("Room " + roomNumber + " already exists in this hotel");
+        // Lock order: room before hotel, the same order used when a room reports reservation changes
+        synchronized (room) {
+            synchronized (this) {
+                if (rooms.get(roomNumber) != null) {
+                    throw new IllegalArgumentException("Room " + roomNumber + " already exists in this hotel");
+                }
+                if (room.getHotel() != null) {
+                    throw new IllegalArgumentException("Room " + room.getNumber() + " already belongs to a hotel");
+                }
+                // The only step that can fail after the checks, so it goes before the room is counted
+                StayArchive archive = chain == null ? null : chain.getStayArchive();
+                if (archive != null) {
+                    room.useStayArchive(archive, getNameAsString());
+                }
+                int slot = roomsBySlot.size();
+                room.attachTo(this, slot);
+                roomsBySlot.add(room);
+                slotsByKind.get(room.getRoomType().getKind()).set(slot);
+                allSlots.set(slot);
+                rooms.add(roomNumber, room);
+                RoomStatus status = room.getStatus();
+                statusBySlot.add(status);
+                statusCounts.move(room.getRoomType().getKind(), null, status);
+                if (chain != null) {
+                    chain.roomStatusChanged(room.getRoomType().getKind(), null, status);
+                    chain.roomAdded(this, room);
+                }
+            }
         }
-        rooms.put(roomNumber, room);
     }
     
     /**
@@ -129,18 +269,171 @@ public class Hotel {
         return room.isAvailable();
     }
     
+    /**
+     * Check if a specific room is free for every night in a date range.
+     * 
+     * @param roomNumber the room number
+     * @param startDate the first night of the stay
+     * @param endDate the check-out date (exclusive)
+     * @return true if no reservation overlaps the range, false otherwise
+     * @throws IllegalArgumentException if room number does not exist or the dates are invalid
+     */
+    public boolean isAvailable(int roomNumber, LocalDate startDate, LocalDate endDate) {
+        Room room = getRoom(roomNumber);
+        if (room == null) {
+            throw new IllegalArgumentException("Room " + roomNumber + " does not exist in this hotel");
+        }
+        return room.isAvailable(startDate, endDate);
+    }
+    
+    /**
+     * Find the rooms of a given kind that are free for every night in a date range.
+     * Each night's reserved rooms are kept as a bitset, so the search costs a few
+     * word-wise operations per night rather than one availability check per room.
+     * 
+     * @param startDate the first night of the stay
+     * @param endDate the check-out date (exclusive)
+     * @param kind the kind of room wanted, or null for any kind
+     * @return the free rooms in the order they were added to the hotel
+     * @throws IllegalArgumentException if a date is null or endDate is not after startDate
+     */
+    public List<Room> findAvailableRooms(LocalDate startDate, LocalDate endDate, RoomKind kind) {
+        if (startDate == null || endDate == null) {
+            throw new IllegalArgumentException("Start and end dates cannot be null");
+        }
+        if (!endDate.isAfter(startDate)) {
+            throw new IllegalArgumentException("End date must be after start date");
+        }
+        
+        synchronized (this) {
+            BitSet candidates = kind == null ? allSlots : slotsByKind.get(kind);
+            BitSet free = calendar.freeSlots(candidates, startDate.toEpochDay(), endDate.toEpochDay());
+            
+            List<Room> result = new ArrayList<>(free.cardinality());
+            for (int slot = free.nextSetBit(0); slot >= 0; slot = free.nextSetBit(slot + 1)) {
+                result.add(roomsBySlot.get(slot));
+            }
+            return result;
+        }
+    }
+    
+    /**
+     * Record the nights of a reservation added to one of this hotel's rooms,
+     * and report it to the chain's reservation index.
+     * 
+     * @param room the room that was reserved
+     * @param guest the guest holding the reservation
+     * @param reservation the added reservation
+     */
+    synchronized void reservationAdded(Room room, Guest guest, Reservation reservation) {
+        calendar.reserve(room.getSlot(), reservation.getStartDate().toEpochDay(), 
+                         reservation.getEndDate().toEpochDay());
+        refreshStatus(room);
+        if (chain != null) {
+            chain.reservationAdded(this, room, guest, reservation);
+        }
+    }
+    
+    /**
+     * Release the nights of a reservation removed from one of this hotel's rooms.
+     * 
+     * @param room the room whose reservation was removed
+     * @param reservation the removed reservation
+     */
+    synchronized void reservationRemoved(Room room, Reservation reservation) {
+        calendar.release(room.getSlot(), reservation.getStartDate().toEpochDay(), 
+                         reservation.getEndDate().toEpochDay());
+        refreshStatus(room);
+        if (chain != null) {
+            chain.reservationRemoved(this, room, reservation);
+        }
+    }
+    
+    /**
+     * Report a change of occupant in one of this hotel's rooms to the chain.
+     * 
+     * @param room the room
+     * @param previous the guest who left, or null
+     * @param current the guest now in the room, or null
+     */
+    synchronized void occupantChanged(Room room, Guest previous, Guest current) {
+        refreshStatus(room);
+        if (chain != null) {
+            chain.occupantChanged(room, previous, current);
+        }
+    }
+    
+    /**
+     * Move a room to the count of its current status. Called with this
+     * hotel's lock held, by the thread changing the room.
+     */
+    private void refreshStatus(Room room) {
+        int slot = room.getSlot();
+        // A room reports its existing reservations before addRoom counts it
+        if (slot >= statusBySlot.size()) {
+            return;
+        }
+        RoomStatus previous = statusBySlot.get(slot);
+        RoomStatus current = room.getStatus();
+        if (previous != current) {
+            statusBySlot.set(slot, current);
+            RoomKind kind = room.getRoomType().getKind();
+            statusCounts.move(kind, previous, current);
+            if (chain != null) {
+                chain.roomStatusChanged(kind, previous, current);
+            }
+        }
+    }
+    
+    /**
+     * Get the number of stays in this hotel's rooms that ended with a check-out.
+     * 
+     * @return number of completed stays
+     */
+    public long getCompletedStayCount() {
+        long count = 0;
+        for (Room room : getRoomsInSlotOrder()) {
+            count += room.getCompletedStayCount();
+        }
+        return count;
+    }
+    
     /**
      * Get the number of available rooms in the hotel.
      * 
      * @return count of available rooms
      */
     public int getAvailableRoomCount() {
-        int count = 0;
-        for (Room room : rooms.values()) {
-            if (room.isAvailable()) {
-                count++;
-            }
+        return (int) statusCounts.get(RoomStatus.AVAILABLE);
+    }
+    
+    /**
+     * Get the number of rooms in a status. Kept as rooms change, so this
+     * does not walk the rooms.
+     * 
+     * @param status the status
+     * @return number of rooms in it
+     * @throws IllegalArgumentException if status is null
+     */
+    public int getRoomCount(RoomStatus status) {
+        if (status == null) {
+            throw new IllegalArgumentException("Room status cannot be null");
         }
-        return count;
+        return (int) statusCounts.get(status);
+    }
+    
+    /**
+     * Get the number of rooms of a kind in a status.
+     * 
+     * @param kind the room kind
+     * @param status the status
+     * @return number of rooms
+     * @throws IllegalArgumentException if kind or status is null
+     */
+    public int getRoomCount(RoomKind kind, RoomStatus status) {
+        if (kind == null || status == null) {
+            throw new IllegalArgumentException("Room kind and status cannot be null");
+        }
+        return (int) statusCounts.get(kind, status);
     }
 }
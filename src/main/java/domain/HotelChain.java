@@ -1,7 +1,19 @@
 package domain;
 
+import java.time.LocalDate;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * HotelChain coordinates the entire hotel reservation system.
@@ -11,12 +23,54 @@ import java.util.Map;
  * - Store and manage multiple hotels
  * - Process reservations, cancellations, check-ins, and check-outs
  * - Validate operations before executing them
+ * 
+ * Thread safety: hotels are kept in a concurrent map and each room guards
+ * its own state, so operations on different rooms proceed in parallel.
+ * Reservations are first attempted optimistically (compare-and-set on the
+ * room's version) and fall back to the room lock after repeated conflicts.
+ * 
+ * Durability: when a WriteAheadLog is attached, every change is journaled
+ * and each operation returns only after its records are on disk.
  */
 public class HotelChain {
     
     private String name;
     // Map to store hotels by their name (hotels can have unique names)
     private Map<String, Hotel> hotels;
+    // Outcome counters for the optimistic booking path
+    private ContentionStats contentionStats;
+    // Every reservation held in the chain's hotels, by reservation id
+    private Map<Long, ReservationLocation> reservationIndex;
+    // Reservation ids by normalized guest name and by the payer's identity
+    private Map<String, Set<Long>> reservationsByGuest;
+    private Map<Identity, Set<Long>> reservationsByPayer;
+    // Rooms each guest currently occupies, by normalized guest name
+    private Map<String, Set<Room>> roomsByOccupant;
+    // Canonical Name/Guest instances for returning guests
+    private GuestInterner guestInterner;
+    // Journal of all changes (null when the chain is not persisted)
+    private volatile WriteAheadLog journal;
+    // Keeps the stay history of every room off the heap (null to keep it on the heap)
+    private volatile StayArchive stayArchive;
+    // Nightly rates used to quote stays
+    private PricingEngine pricingEngine;
+    // Recent search results, dropped when the rooms or rates behind them change
+    private QuoteCache quoteCache;
+    // Subscribers told about every completed reservation change
+    private EventBus eventBus;
+    // Rooms of all hotels by status, kept up to date by the hotels
+    private RoomStatusCounts statusCounts;
+    
+    // Optimistic attempts per booking before falling back to the room lock
+    private static final int MAX_OPTIMISTIC_ATTEMPTS = 8;
+    // Guests remembered by the interner before it starts over
+    private static final int MAX_INTERNED_GUESTS = 1 << 20;
+    // Searches kept in the quote cache
+    private static final int MAX_CACHED_SEARCHES = 1 << 14;
+    // Lock order for batches: by hotel name, then by room number
+    private static final Comparator<RoomBatch> BATCH_ORDER =
+        Comparator.<RoomBatch, String>comparing(batch -> batch.hotelName)
+                  .thenComparingInt(batch -> batch.room.getNumber());
     
     /**
      * Constructor: Creates a new HotelChain with the given name.
@@ -29,7 +83,17 @@ public class HotelChain {
             throw new IllegalArgumentException("HotelChain name cannot be null or empty");
         }
         this.name = name;
-        this.hotels = new HashMap<>();
+        this.hotels = new ConcurrentHashMap<>();
+        this.contentionStats = new ContentionStats();
+        this.reservationIndex = new ConcurrentHashMap<>();
+        this.guestInterner = new GuestInterner(MAX_INTERNED_GUESTS);
+        this.reservationsByGuest = new ConcurrentHashMap<>();
+        this.reservationsByPayer = new ConcurrentHashMap<>();
+        this.roomsByOccupant = new ConcurrentHashMap<>();
+        this.quoteCache = new QuoteCache(MAX_CACHED_SEARCHES);
+        this.pricingEngine = new PricingEngine(quoteCache);
+        this.eventBus = new EventBus();
+        this.statusCounts = new RoomStatusCounts();
     }
     
     /**
@@ -46,17 +110,41 @@ public class HotelChain {
      * 
      * @param hotel the hotel to add
      * @throws IllegalArgumentException if hotel is null
-     * @throws IllegalStateException if a hotel with the same name already exists
+     * @throws IllegalStateException if a hotel with the same name already exists, the hotel
+     *         belongs to a chain or the stay archive cannot take its rooms' stays; the hotel
+     *         is then not added
      */
     public void addHotel(Hotel hotel) {
         if (hotel == null) {
             throw new IllegalArgumentException("Hotel cannot be null");
         }
         String hotelName = hotel.getNameAsString();
-        if (hotels.containsKey(hotelName)) {
-            throw new IllegalStateException("Hotel with name '" + hotelName + "' already exists in this chain");
+        long lsn = 0;
+        // Serialized so the hotel is journaled before any change to it can be
+        synchronized (this) {
+            if (hotels.containsKey(hotelName)) {
+                throw new IllegalStateException("Hotel with name '" + hotelName + "' already exists in this chain");
+            }
+            if (hotel.getChain() != null) {
+                throw new IllegalStateException("Hotel '" + hotelName + "' already belongs to a hotel chain");
+            }
+            // Moved before the hotel is attached, so a failure leaves the chain's counts untouched
+            StayArchive archive = stayArchive;
+            if (archive != null) {
+                hotel.useStayArchive(archive);
+            }
+            hotel.attachTo(this);
+            // Rooms added from here on move their history themselves; this catches any added meanwhile
+            if (archive != null) {
+                hotel.useStayArchive(archive);
+            }
+            WriteAheadLog log = journal;
+            if (log != null) {
+                lsn = hotel.logState(log);
+            }
+            hotels.put(hotelName, hotel);
         }
-        hotels.put(hotelName, hotel);
+        awaitJournal(lsn);
     }
     
     /**
@@ -78,71 +166,747 @@ public class HotelChain {
         return hotels.size();
     }
     
+    /**
+     * Get the number of rooms in a status across all hotels. Kept as rooms
+     * change, so this does not walk the hotels.
+     * 
+     * @param status the status
+     * @return number of rooms in it
+     * @throws IllegalArgumentException if status is null
+     */
+    public long getRoomCount(RoomStatus status) {
+        if (status == null) {
+            throw new IllegalArgumentException("Room status cannot be null");
+        }
+        return statusCounts.get(status);
+    }
+    
+    /**
+     * Get the number of rooms of a kind in a status across all hotels.
+     * 
+     * @param kind the room kind
+     * @param status the status
+     * @return number of rooms
+     * @throws IllegalArgumentException if kind or status is null
+     */
+    public long getRoomCount(RoomKind kind, RoomStatus status) {
+        if (kind == null || status == null) {
+            throw new IllegalArgumentException("Room kind and status cannot be null");
+        }
+        return statusCounts.get(kind, status);
+    }
+    
+    /**
+     * Get the number of available rooms across all hotels.
+     * 
+     * @return count of rooms with no occupant and no reservations
+     */
+    public long getAvailableRoomCount() {
+        return statusCounts.get(RoomStatus.AVAILABLE);
+    }
+    
+    /**
+     * Get the hotels of this chain.
+     * 
+     * @return a copy of the hotel list
+     */
+    List<Hotel> getHotels() {
+        return new ArrayList<>(hotels.values());
+    }
+    
+    /**
+     * Attach a journal so every later change to this chain is logged.
+     * 
+     * @param journal the journal to write to
+     */
+    void attachJournal(WriteAheadLog journal) {
+        this.journal = journal;
+    }
+    
+    /**
+     * Keep the completed stays of this chain's rooms in a stay archive
+     * instead of on the heap. Must be set before the first hotel is added.
+     * 
+     * @param archive the archive to use
+     * @throws IllegalArgumentException if archive is null
+     * @throws IllegalStateException if the chain already has hotels or an archive
+     */
+    public synchronized void useStayArchive(StayArchive archive) {
+        if (archive == null) {
+            throw new IllegalArgumentException("Stay archive cannot be null");
+        }
+        if (stayArchive != null) {
+            throw new IllegalStateException("Chain '" + name + "' already uses a stay archive");
+        }
+        if (!hotels.isEmpty()) {
+            throw new IllegalStateException("A stay archive must be set before hotels are added to chain '" + name + "'");
+        }
+        this.stayArchive = archive;
+    }
+    
+    /**
+     * Get the stay archive holding this chain's completed stays, if any.
+     * 
+     * @return the archive, or null if stays are kept on the heap
+     */
+    StayArchive getStayArchive() {
+        return stayArchive;
+    }
+    
+    /**
+     * Get the journal recording changes to this chain, if any.
+     * 
+     * @return the journal, or null if changes are not journaled
+     */
+    WriteAheadLog getJournal() {
+        return journal;
+    }
+    
+    /**
+     * Wait until a change's journal records are on disk.
+     * 
+     * @param lsn the LSN of the change's last record, or 0 if it was not journaled
+     */
+    private void awaitJournal(long lsn) {
+        WriteAheadLog log = journal;
+        if (log != null) {
+            log.awaitDurable(lsn);
+        }
+    }
+    
+    /**
+     * Index a reservation added to a room of one of this chain's hotels.
+     * 
+     * @param hotel the hotel holding the reservation
+     * @param room the reserved room
+     * @param guest the guest holding the reservation
+     * @param reservation the added reservation
+     */
+    void reservationAdded(Hotel hotel, Room room, Guest guest, Reservation reservation) {
+        long id = reservation.getId();
+        reservationIndex.put(id, new ReservationLocation(hotel, room, guest, reservation));
+        addToIndex(reservationsByGuest, guest.getName().getKey(), id);
+        ReserverPayer payer = reservation.getReserverPayer();
+        if (payer != null) {
+            addToIndex(reservationsByPayer, payer.getId(), id);
+        }
+        roomsChanged(hotel, room, reservation);
+    }
+    
+    /**
+     * Drop a reservation removed from a room of one of this chain's hotels.
+     * 
+     * @param hotel the hotel that held the reservation
+     * @param room the room that was reserved
+     * @param reservation the removed reservation
+     */
+    void reservationRemoved(Hotel hotel, Room room, Reservation reservation) {
+        roomsChanged(hotel, room, reservation);
+        long id = reservation.getId();
+        ReservationLocation removed = reservationIndex.remove(id);
+        if (removed == null) {
+            return;
+        }
+        removeFromIndex(reservationsByGuest, removed.getGuest().getName().getKey(), id);
+        ReserverPayer payer = reservation.getReserverPayer();
+        if (payer != null) {
+            removeFromIndex(reservationsByPayer, payer.getId(), id);
+        }
+    }
+    
+    /**
+     * Track a change of occupant in a room of one of this chain's hotels.
+     * 
+     * @param room the room
+     * @param previous the guest who left, or null
+     * @param current the guest now in the room, or null
+     */
+    void occupantChanged(Room room, Guest previous, Guest current) {
+        if (previous != null) {
+            removeFromIndex(roomsByOccupant, previous.getName().getKey(), room);
+        }
+        if (current != null) {
+            addToIndex(roomsByOccupant, current.getName().getKey(), room);
+        }
+    }
+    
+    /**
+     * Drop cached searches that a room added to one of this chain's hotels could appear in.
+     * 
+     * @param hotel the hotel
+     * @param room the added room
+     */
+    void roomAdded(Hotel hotel, Room room) {
+        quoteCache.roomsChanged(hotel.getNameAsString(), room.getRoomType().getKind(), Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+    
+    /**
+     * Move a room of one of this chain's hotels between status counts.
+     * 
+     * @param kind the room's kind
+     * @param from the status it leaves, or null for a room joining the chain
+     * @param to the status it enters
+     */
+    void roomStatusChanged(RoomKind kind, RoomStatus from, RoomStatus to) {
+        statusCounts.move(kind, from, to);
+    }
+    
+    private void roomsChanged(Hotel hotel, Room room, Reservation reservation) {
+        quoteCache.roomsChanged(hotel.getNameAsString(), room.getRoomType().getKind(),
+                                reservation.getStartDate().toEpochDay(), reservation.getEndDate().toEpochDay());
+    }
+    
+    private static <K, V> void addToIndex(Map<K, Set<V>> index, K key, V value) {
+        index.compute(key, (k, values) -> {
+            Set<V> result = values != null ? values : ConcurrentHashMap.newKeySet();
+            result.add(value);
+            return result;
+        });
+    }
+    
+    private static <K, V> void removeFromIndex(Map<K, Set<V>> index, K key, V value) {
+        // Empty sets are dropped so guests who are gone leave nothing behind
+        index.computeIfPresent(key, (k, values) -> {
+            values.remove(value);
+            return values.isEmpty() ? null : values;
+        });
+    }
+    
+    /**
+     * Find all reservations held by a guest across the chain.
+     * 
+     * @param guestName the guest's name (case and spacing are ignored)
+     * @return the guest's reservations, oldest first
+     * @throws IllegalArgumentException if guestName is null
+     */
+    public List<ReservationLocation> findReservationsByGuest(Name guestName) {
+        if (guestName == null) {
+            throw new IllegalArgumentException("Guest name cannot be null");
+        }
+        return locate(reservationsByGuest.get(guestName.getKey()));
+    }
+    
+    /**
+     * Find all reservations paid for by a reserver/payer across the chain.
+     * 
+     * @param payerId the identity of the reserver/payer
+     * @return the reservations, oldest first
+     * @throws IllegalArgumentException if payerId is null
+     */
+    public List<ReservationLocation> findReservationsByPayer(Identity payerId) {
+        if (payerId == null) {
+            throw new IllegalArgumentException("Identity cannot be null");
+        }
+        return locate(reservationsByPayer.get(payerId));
+    }
+    
+    /**
+     * Find the rooms a guest currently occupies across the chain.
+     * 
+     * @param guestName the guest's name (case and spacing are ignored)
+     * @return the occupied rooms (empty if the guest is not staying anywhere)
+     * @throws IllegalArgumentException if guestName is null
+     */
+    public List<Room> findRoomsOccupiedBy(Name guestName) {
+        if (guestName == null) {
+            throw new IllegalArgumentException("Guest name cannot be null");
+        }
+        Set<Room> occupied = roomsByOccupant.get(guestName.getKey());
+        return occupied == null ? new ArrayList<>() : new ArrayList<>(occupied);
+    }
+    
+    private List<ReservationLocation> locate(Set<Long> ids) {
+        List<ReservationLocation> result = new ArrayList<>();
+        if (ids != null) {
+            for (Long id : ids) {
+                ReservationLocation location = reservationIndex.get(id);
+                if (location != null) {
+                    result.add(location);
+                }
+            }
+        }
+        result.sort(Comparator.comparingLong(location -> location.getReservation().getId()));
+        return result;
+    }
+    
+    /**
+     * Find where a reservation is held.
+     * 
+     * @param reservationId the reservation id
+     * @return the reservation's hotel, room and guest, or null if no such reservation is held
+     */
+    public ReservationLocation findReservation(long reservationId) {
+        return reservationIndex.get(reservationId);
+    }
+    
+    /**
+     * Get the number of reservations held across all hotels of the chain.
+     * 
+     * @return count of reservations
+     */
+    public int getReservationCount() {
+        return reservationIndex.size();
+    }
+    
+    /**
+     * Get the bus on which this chain publishes reservation events.
+     * Events are published after the change they describe is complete (and,
+     * with a journal, durable). Events from one thread are published in the
+     * order its changes were made.
+     * 
+     * @return the event bus
+     */
+    public EventBus getEventBus() {
+        return eventBus;
+    }
+    
+    /**
+     * Get the engine that prices stays in this chain's rooms.
+     * 
+     * @return the pricing engine
+     */
+    public PricingEngine getPricingEngine() {
+        return pricingEngine;
+    }
+    
+    /**
+     * Search a hotel for the rooms free for a whole stay and quote the stay in each.
+     * Results are cached until a reservation, room or rate change affects them,
+     * so repeated searches are answered without querying the hotel.
+     * 
+     * @param hotelName the name of the hotel
+     * @param startDate the first night of the stay
+     * @param endDate the check-out date (exclusive)
+     * @param kind the kind of room wanted, or null for any kind
+     * @param guests the number of guests staying
+     * @return the free rooms in the order they were added to the hotel, with their
+     *         quotes (unmodifiable)
+     * @throws IllegalArgumentException if the hotel does not exist, a parameter is null
+     *         or endDate is not after startDate
+     */
+    public List<RoomQuote> searchRooms(String hotelName, LocalDate startDate, LocalDate endDate,
+                                       RoomKind kind, HowMany guests) {
+        Hotel hotel = hotels.get(hotelName);
+        if (hotel == null) {
+            throw new IllegalArgumentException("Hotel '" + hotelName + "' does not exist");
+        }
+        if (startDate == null || endDate == null) {
+            throw new IllegalArgumentException("Start and end dates cannot be null");
+        }
+        if (!endDate.isAfter(startDate)) {
+            throw new IllegalArgumentException("End date must be after start date");
+        }
+        if (guests == null) {
+            throw new IllegalArgumentException("Number of guests cannot be null");
+        }
+        int guestCount = guests.getNumber();
+        return quoteCache.lookup(hotelName, startDate.toEpochDay(), endDate.toEpochDay(), kind, guestCount, () -> {
+            List<Room> free = hotel.findAvailableRooms(startDate, endDate, kind);
+            List<RoomQuote> quotes = new ArrayList<>(free.size());
+            for (Room room : free) {
+                long total = pricingEngine.quoteMinorUnits(room, startDate, endDate, guestCount);
+                quotes.add(new RoomQuote(room, Money.ofMinorUnits(total, room.getRoomType().getCost().getCurrency())));
+            }
+            return Collections.unmodifiableList(quotes);
+        });
+    }
+    
+    /**
+     * Get the counters describing how room searches used the quote cache.
+     * 
+     * @return the quote cache statistics of this chain
+     */
+    public QuoteCacheStats getQuoteCacheStats() {
+        return quoteCache.getStats();
+    }
+    
+    /**
+     * Quote the total price of a held reservation.
+     * 
+     * @param reservationId the reservation id
+     * @return the price of the stay
+     * @throws IllegalArgumentException if no such reservation is held
+     */
+    public Money quoteReservation(long reservationId) {
+        ReservationLocation location = reservationIndex.get(reservationId);
+        if (location == null) {
+            throw new IllegalArgumentException("Reservation " + reservationId + " does not exist");
+        }
+        return pricingEngine.quote(location.getRoom(), location.getReservation());
+    }
+    
+    /**
+     * Get the counters describing how optimistic bookings behaved.
+     * 
+     * @return the contention statistics of this chain
+     */
+    public ContentionStats getContentionStats() {
+        return contentionStats;
+    }
+    
     /**
      * Make a reservation for a guest in a specific hotel room.
      * 
      * Validation Steps:
      * 1. Check if all parameters are valid
      * 2. Check if the operation is allowed
-     * 3. Execute the reservation
+     * 3. Execute the reservation (optimistically, falling back to the room lock)
      * 
      * @param hotelName the name of the hotel
      * @param roomNumber the room number
      * @param guest the guest making the reservation
      * @param reserverPayer the person paying for the reservation
      * @param reservation the reservation details
-     * @throws IllegalArgumentException if parameters are invalid
+     * @throws IllegalArgumentException if parameters are invalid (see {@link #validateReservation})
      * @throws IllegalStateException if operation cannot be performed
      */
     public void makeReservation(String hotelName, int roomNumber, Guest guest, 
                                ReserverPayer reserverPayer, Reservation reservation) {
+        publishDurable(reserve(hotelName, roomNumber, guest, reserverPayer, reservation));
+    }
+    
+    /**
+     * Make a reservation without waiting for it to be durable.
+     * 
+     * @param hotelName the name of the hotel
+     * @param roomNumber the room number
+     * @param guest the guest making the reservation
+     * @param reserverPayer the person paying for the reservation
+     * @param reservation the reservation details
+     * @return a future completed once the reservation is durable
+     * @throws IllegalArgumentException if parameters are invalid (see {@link #validateReservation})
+     * @throws IllegalStateException if operation cannot be performed
+     */
+    CompletableFuture<Void> makeReservationAsync(String hotelName, int roomNumber, Guest guest,
+                                                 ReserverPayer reserverPayer, Reservation reservation) {
+        return publishWhenDurable(reserve(hotelName, roomNumber, guest, reserverPayer, reservation));
+    }
+    
+    // Make a reservation and return the change whose event is published once it is durable
+    private Commit reserve(String hotelName, int roomNumber, Guest guest, ReserverPayer reserverPayer,
+                           Reservation reservation) {
         // Validate parameters
-        if (!canMakeReservation(hotelName, roomNumber, guest, reserverPayer, reservation)) {
-            throw new IllegalStateException("Reservation cannot be made: validation failed");
-        }
+        requireValid(validateReservation(hotelName, roomNumber, guest, reserverPayer, reservation),
+                     hotelName, roomNumber);
         
-        // Execute reservation
+        // Execute reservation with the shared instance of a returning guest
+        guest = guestInterner.intern(guest);
         Hotel hotel = hotels.get(hotelName);
         Room room = hotel.getRoom(roomNumber);
-        room.addReservation(reservation, guest);
+        Room.Change change = Room.NOT_COMMITTED;
+        for (int attempt = 0; attempt < MAX_OPTIMISTIC_ATTEMPTS && change == Room.NOT_COMMITTED; attempt++) {
+            change = room.tryAddReservation(reservation, guest, reserverPayer, eventBus);
+            if (change != Room.NOT_COMMITTED) {
+                contentionStats.recordOptimisticCommit();
+            } else {
+                contentionStats.recordRetry();
+                Thread.onSpinWait();
+            }
+        }
+        if (change == Room.NOT_COMMITTED) {
+            contentionStats.recordFallback();
+            change = room.addReservation(reservation, guest, reserverPayer, eventBus);
+        }
+        return new Commit(change, ReservationEventType.RESERVED, hotelName, roomNumber, guest.getNameAsString(),
+                          reservation.getId());
+    }
+    
+    /**
+     * Publish the event of a committed change once the change is durable.
+     * If waiting for the journal fails, the change's sequence number is
+     * released, so the events after it are not held back.
+     * 
+     * @param commit the change
+     */
+    private void publishDurable(Commit commit) {
+        try {
+            awaitJournal(commit.lsn);
+        } catch (RuntimeException | Error e) {
+            eventBus.release(commit.sequence);
+            throw e;
+        }
+        commit.publishTo(eventBus);
     }
     
     /**
-     * Validation method: Check if reservation can be made.
+     * Publish the event of a committed change once the change is durable,
+     * without waiting for it. Like publishDurable, a failed journal releases
+     * the change's sequence number.
+     * 
+     * @param commit the change
+     * @return a future completed once the change is durable and published,
+     *         or completed exceptionally if the journal fails
+     */
+    private CompletableFuture<Void> publishWhenDurable(Commit commit) {
+        WriteAheadLog log = journal;
+        if (log == null) {
+            commit.publishTo(eventBus);
+            return CompletableFuture.completedFuture(null);
+        }
+        return log.whenDurable(commit.lsn).whenComplete((ignored, failure) -> {
+            if (failure == null) {
+                commit.publishTo(eventBus);
+            } else {
+                eventBus.release(commit.sequence);
+            }
+        });
+    }
+    
+    /**
+     * A change committed to a room whose event waits for the change to be durable.
+     */
+    private static final class Commit {
+        final long sequence;
+        // The change's journal record, which must be on disk before the event is published
+        final long lsn;
+        final ReservationEventType type;
+        final String hotelName;
+        final int roomNumber;
+        final String guestId;
+        final long reservationId;
+        
+        Commit(Room.Change change, ReservationEventType type, String hotelName, int roomNumber, String guestId,
+               long reservationId) {
+            this.sequence = change.sequence;
+            this.lsn = change.lsn;
+            this.type = type;
+            this.hotelName = hotelName;
+            this.roomNumber = roomNumber;
+            this.guestId = guestId;
+            this.reservationId = reservationId;
+        }
+        
+        Commit(Room.Change change, ReservationEventType type, ReservationLocation location) {
+            this(change, type, location.getHotel().getNameAsString(), location.getRoom().getNumber(),
+                 location.getGuestId(), location.getReservation().getId());
+        }
+        
+        void publishTo(EventBus bus) {
+            bus.publish(sequence, type, hotelName, roomNumber, guestId, reservationId);
+        }
+    }
+    
+    /**
+     * Validate a reservation request without making it.
+     * 
+     * Rejected requests cost no more than the lookups, so callers facing
+     * many invalid requests can check first instead of catching exceptions.
      * 
      * @param hotelName the hotel name
      * @param roomNumber the room number
      * @param guest the guest
      * @param reserverPayer the payer
      * @param reservation the reservation
-     * @return true if reservation can be made, false otherwise
+     * @return VALID if the reservation may be attempted, otherwise the reason it may not
      */
-    private boolean canMakeReservation(String hotelName, int roomNumber, Guest guest,
-                                      ReserverPayer reserverPayer, Reservation reservation) {
-        // Check if hotel exists
-        if (!hotels.containsKey(hotelName)) {
-            throw new IllegalArgumentException("Hotel '" + hotelName + "' does not exist");
+    public ValidationResult validateReservation(String hotelName, int roomNumber, Guest guest,
+                                                ReserverPayer reserverPayer, Reservation reservation) {
+        Hotel hotel = hotelName == null ? null : hotels.get(hotelName);
+        if (hotel == null) {
+            return ValidationResult.UNKNOWN_HOTEL;
         }
-        
-        // Check if parameters are not null
         if (guest == null) {
-            throw new IllegalArgumentException("Guest cannot be null");
+            return ValidationResult.MISSING_GUEST;
         }
         if (reserverPayer == null) {
-            throw new IllegalArgumentException("ReserverPayer cannot be null");
+            return ValidationResult.MISSING_RESERVER_PAYER;
         }
         if (reservation == null) {
-            throw new IllegalArgumentException("Reservation cannot be null");
+            return ValidationResult.MISSING_RESERVATION;
+        }
+        if (hotel.getRoom(roomNumber) == null) {
+            return ValidationResult.UNKNOWN_ROOM;
+        }
+        return ValidationResult.VALID;
+    }
+    
+    /**
+     * Make a batch of reservations, all or nothing.
+     * 
+     * Every hotel and room is looked up once, then the rooms are locked in a
+     * fixed order (hotel name, then room number) so batches touching the same
+     * rooms cannot deadlock. The whole batch is validated before anything is
+     * changed; if any request is invalid, nothing is booked. Journaled
+     * batches wait for the disk once, after the last reservation.
+     * 
+     * A guest may appear in a batch at most once per room and must not
+     * already hold a reservation in that room.
+     * 
+     * @param requests the reservations to make
+     * @throws IllegalArgumentException if requests is null or contains null, a hotel or
+     *         room does not exist, or a reservation appears twice
+     * @throws IllegalStateException if any reservation cannot be made
+     */
+    public void makeReservations(List<ReservationRequest> requests) {
+        if (requests == null) {
+            throw new IllegalArgumentException("Requests cannot be null");
         }
         
-        // Check if room exists and is available
-        Hotel hotel = hotels.get(hotelName);
-        Room room = hotel.getRoom(roomNumber);
-        if (room == null) {
-            throw new IllegalArgumentException("Room " + roomNumber + " does not exist in hotel '" + hotelName + "'");
+        // Resolve every hotel and room once, grouping the requests by room
+        Map<String, Hotel> resolved = new HashMap<>();
+        Map<Room, RoomBatch> batches = new IdentityHashMap<>();
+        Set<Long> seen = new HashSet<>();
+        for (ReservationRequest request : requests) {
+            if (request == null) {
+                throw new IllegalArgumentException("Request cannot be null");
+            }
+            String hotelName = request.getHotelName();
+            Hotel hotel = resolved.computeIfAbsent(hotelName, hotels::get);
+            if (hotel == null) {
+                throw new IllegalArgumentException("Hotel '" + hotelName + "' does not exist");
+            }
+            Room room = hotel.getRoom(request.getRoomNumber());
+            if (room == null) {
+                throw new IllegalArgumentException("Room " + request.getRoomNumber() + 
+                                                   " does not exist in hotel '" + hotelName + "'");
+            }
+            if (!seen.add(request.getReservation().getId())) {
+                throw new IllegalArgumentException("Reservation " + request.getReservation().getId() + 
+                                                   " appears twice in the batch");
+            }
+            batches.computeIfAbsent(room, r -> new RoomBatch(hotelName, r)).add(request);
+        }
+        if (batches.isEmpty()) {
+            return;
         }
         
-        return true;
+        RoomBatch[] ordered = batches.values().toArray(new RoomBatch[0]);
+        Arrays.sort(ordered, BATCH_ORDER);
+        Room.Change change = lockInOrder(ordered, 0);
+        long sequence = change.sequence;
+        int count = 0;
+        for (RoomBatch batch : ordered) {
+            count += batch.entries.size();
+        }
+        try {
+            awaitJournal(change.lsn);
+        } catch (RuntimeException | Error e) {
+            for (int i = 0; sequence != EventBus.NO_SEQUENCE && i < count; i++) {
+                eventBus.release(sequence + i);
+            }
+            throw e;
+        }
+        if (sequence == EventBus.NO_SEQUENCE) {
+            return;
+        }
+        for (RoomBatch batch : ordered) {
+            for (Map.Entry<Reservation, Guest> entry : batch.entries) {
+                eventBus.publish(sequence++, ReservationEventType.RESERVED, batch.hotelName, batch.room.getNumber(),
+                                 entry.getValue().getNameAsString(), entry.getKey().getId());
+            }
+        }
+    }
+    
+    private Room.Change lockInOrder(RoomBatch[] ordered, int index) {
+        if (index == ordered.length) {
+            return commitBatch(ordered);
+        }
+        synchronized (ordered[index].room) {
+            return lockInOrder(ordered, index + 1);
+        }
+    }
+    
+    /**
+     * Validate and apply a batch whose rooms are all locked by this thread.
+     * 
+     * @param ordered the batch, one entry per room
+     * @return the batch's change: the first of the event sequence numbers taken for
+     *         its reservations, in batch order, inside the rooms' write sections, and
+     *         the LSN of its last journal record
+     */
+    private Room.Change commitBatch(RoomBatch[] ordered) {
+        long[] stamps = new long[ordered.length];
+        int claimed = 0;
+        try {
+            // Claiming the write sections also shuts out optimistic writers
+            for (; claimed < ordered.length; claimed++) {
+                stamps[claimed] = ordered[claimed].room.beginBatchWrite();
+            }
+            for (RoomBatch batch : ordered) {
+                batch.room.validateBatch(batch.entries);
+            }
+            long lsn = journalBatch(ordered);
+            applyBatch(ordered);
+            int count = 0;
+            for (RoomBatch batch : ordered) {
+                count += batch.entries.size();
+            }
+            return new Room.Change(eventBus.nextSequences(count), lsn);
+        } finally {
+            for (int i = 0; i < claimed; i++) {
+                ordered[i].room.endBatchWrite(stamps[i]);
+            }
+        }
+    }
+    
+    // Journaled as one unit before any room changes, so a journal that refuses it leaves every room as it was
+    private long journalBatch(RoomBatch[] ordered) {
+        WriteAheadLog log = journal;
+        if (log == null) {
+            return 0;
+        }
+        List<Room> rooms = new ArrayList<>();
+        List<Map.Entry<Reservation, Guest>> entries = new ArrayList<>();
+        List<ReserverPayer> payers = new ArrayList<>();
+        for (RoomBatch batch : ordered) {
+            for (int i = 0; i < batch.entries.size(); i++) {
+                rooms.add(batch.room);
+                entries.add(batch.entries.get(i));
+                payers.add(batch.payers.get(i));
+            }
+        }
+        return log.logReservationsAdded(rooms, entries, payers);
+    }
+    
+    private void applyBatch(RoomBatch[] ordered) {
+        // Every reservation attempted so far, so a failure can be undone
+        List<RoomBatch> attemptedRooms = new ArrayList<>();
+        List<Integer> attemptedEntries = new ArrayList<>();
+        try {
+            for (RoomBatch batch : ordered) {
+                for (int i = 0; i < batch.entries.size(); i++) {
+                    Map.Entry<Reservation, Guest> entry = batch.entries.get(i);
+                    attemptedRooms.add(batch);
+                    attemptedEntries.add(i);
+                    entry.getKey().setReserverPayer(batch.payers.get(i));
+                    batch.room.applyBatchReservation(entry.getKey(), entry.getValue());
+                }
+            }
+        } catch (RuntimeException e) {
+            // The batch was validated, so this is a failure inside the system
+            for (int a = attemptedRooms.size() - 1; a >= 0; a--) {
+                RoomBatch batch = attemptedRooms.get(a);
+                Map.Entry<Reservation, Guest> entry = batch.entries.get(attemptedEntries.get(a));
+                try {
+                    batch.room.undoBatchReservation(entry.getKey(), entry.getValue());
+                } catch (RuntimeException undo) {
+                    e.addSuppressed(undo);
+                }
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * The requests of one batch that book the same room.
+     */
+    private final class RoomBatch {
+        private final String hotelName;
+        private final Room room;
+        // entries.get(i) is paid for by payers.get(i)
+        private final List<Map.Entry<Reservation, Guest>> entries = new ArrayList<>();
+        private final List<ReserverPayer> payers = new ArrayList<>();
+        
+        RoomBatch(String hotelName, Room room) {
+            this.hotelName = hotelName;
+            this.room = room;
+        }
+        
+        void add(ReservationRequest request) {
+            Guest guest = guestInterner.intern(request.getGuest());
+            entries.add(new AbstractMap.SimpleImmutableEntry<>(request.getReservation(), guest));
+            payers.add(request.getReserverPayer());
+        }
     }
     
     /**
@@ -151,41 +915,81 @@ public class HotelChain {
      * @param hotelName the name of the hotel
      * @param roomNumber the room number
      * @param reservationId a unique identifier for the reservation
+     * @throws IllegalArgumentException if the request is invalid (see {@link #validateCancellation})
      * @throws IllegalStateException if reservation cannot be cancelled
      */
     public void cancelReservation(String hotelName, int roomNumber, String reservationId) {
-        if (!canCancelReservation(hotelName, roomNumber, reservationId)) {
-            throw new IllegalStateException("Reservation cannot be cancelled: validation failed");
-        }
+        publishDurable(cancel(hotelName, roomNumber, reservationId));
+    }
+    
+    /**
+     * Cancel a reservation without waiting for the cancellation to be durable.
+     * 
+     * @param hotelName the name of the hotel
+     * @param roomNumber the room number
+     * @param reservationId a unique identifier for the reservation
+     * @return a future completed once the cancellation is durable
+     * @throws IllegalArgumentException if the request is invalid (see {@link #validateCancellation})
+     * @throws IllegalStateException if reservation cannot be cancelled
+     */
+    CompletableFuture<Void> cancelReservationAsync(String hotelName, int roomNumber, String reservationId) {
+        return publishWhenDurable(cancel(hotelName, roomNumber, reservationId));
+    }
+    
+    // Cancel a reservation and return the change whose event is published once it is durable
+    private Commit cancel(String hotelName, int roomNumber, String reservationId) {
+        requireValid(validateCancellation(hotelName, roomNumber, reservationId), hotelName, roomNumber);
         
         Hotel hotel = hotels.get(hotelName);
         Room room = hotel.getRoom(roomNumber);
-        room.removeReservation(reservationId);
+        Reservation cancelled = room.getReservation(reservationId);
+        Room.Change change = room.removeReservation(reservationId, eventBus);
+        return new Commit(change, ReservationEventType.CANCELLED, hotelName, roomNumber, reservationId,
+                          idOf(cancelled));
     }
     
     /**
-     * Validation method: Check if reservation can be cancelled.
+     * Cancel a reservation by its id.
+     * 
+     * @param reservationId the reservation id
+     * @throws IllegalArgumentException if no reservation with this id is held
+     */
+    public void cancelReservation(long reservationId) {
+        ReservationLocation location = requireReservation(reservationId);
+        Room.Change change = location.getRoom().removeReservation(location.getGuestId(), reservationId, eventBus);
+        publishDurable(new Commit(change, ReservationEventType.CANCELLED, location));
+    }
+    
+    /**
+     * Look up a reservation that must exist.
+     * 
+     * @param reservationId the reservation id
+     * @return the reservation's location
+     * @throws IllegalArgumentException if no reservation with this id is held
+     */
+    private ReservationLocation requireReservation(long reservationId) {
+        ReservationLocation location = reservationIndex.get(reservationId);
+        if (location == null) {
+            throw new IllegalArgumentException("No reservation found with id " + reservationId);
+        }
+        return location;
+    }
+    
+    // Id of a reservation looked up for an event, or 0 if there was none
+    private static long idOf(Reservation reservation) {
+        return reservation == null ? 0 : reservation.getId();
+    }
+    
+    /**
+     * Validate a cancellation request without cancelling.
      * 
      * @param hotelName the hotel name
      * @param roomNumber the room number
      * @param reservationId the reservation identifier
-     * @return true if cancellation is allowed, false otherwise
+     * @return VALID if the cancellation may be attempted, otherwise the reason it may not
      */
-    private boolean canCancelReservation(String hotelName, int roomNumber, String reservationId) {
-        if (!hotels.containsKey(hotelName)) {
-            throw new IllegalArgumentException("Hotel '" + hotelName + "' does not exist");
-        }
-        if (reservationId == null || reservationId.trim().isEmpty()) {
-            throw new IllegalArgumentException("Reservation ID cannot be null or empty");
-        }
-        
-        Hotel hotel = hotels.get(hotelName);
-        Room room = hotel.getRoom(roomNumber);
-        if (room == null) {
-            throw new IllegalArgumentException("Room " + roomNumber + " does not exist");
-        }
-        
-        return true;
+    public ValidationResult validateCancellation(String hotelName, int roomNumber, String reservationId) {
+        return validateRoom(hotelName, roomNumber, reservationId, ValidationResult.BLANK_RESERVATION_ID);
     }
     
     /**
@@ -194,41 +998,61 @@ public class HotelChain {
      * @param hotelName the name of the hotel
      * @param roomNumber the room number
      * @param guestId a unique identifier for the guest
+     * @throws IllegalArgumentException if the request is invalid (see {@link #validateCheckIn})
      * @throws IllegalStateException if check-in cannot be performed
      */
     public void checkInGuest(String hotelName, int roomNumber, String guestId) {
-        if (!canCheckInGuest(hotelName, roomNumber, guestId)) {
-            throw new IllegalStateException("Check-in cannot be performed: validation failed");
-        }
+        publishDurable(checkIn(hotelName, roomNumber, guestId));
+    }
+    
+    /**
+     * Check in a guest without waiting for the check-in to be durable.
+     * 
+     * @param hotelName the name of the hotel
+     * @param roomNumber the room number
+     * @param guestId a unique identifier for the guest
+     * @return a future completed once the check-in is durable
+     * @throws IllegalArgumentException if the request is invalid (see {@link #validateCheckIn})
+     * @throws IllegalStateException if check-in cannot be performed
+     */
+    CompletableFuture<Void> checkInGuestAsync(String hotelName, int roomNumber, String guestId) {
+        return publishWhenDurable(checkIn(hotelName, roomNumber, guestId));
+    }
+    
+    // Check in a guest and return the change whose event is published once it is durable
+    private Commit checkIn(String hotelName, int roomNumber, String guestId) {
+        requireValid(validateCheckIn(hotelName, roomNumber, guestId), hotelName, roomNumber);
         
         Hotel hotel = hotels.get(hotelName);
         Room room = hotel.getRoom(roomNumber);
-        room.checkInGuest(guestId);
+        Room.Change change = room.checkInGuest(guestId, eventBus);
+        return new Commit(change, ReservationEventType.CHECKED_IN, hotelName, roomNumber, guestId,
+                          idOf(room.getReservation(guestId)));
+    }
+    
+    /**
+     * Check in the guest holding a reservation, found by the reservation's id.
+     * 
+     * @param reservationId the reservation id
+     * @throws IllegalArgumentException if no reservation with this id is held
+     * @throws IllegalStateException if the room is already occupied
+     */
+    public void checkInGuest(long reservationId) {
+        ReservationLocation location = requireReservation(reservationId);
+        Room.Change change = location.getRoom().checkInGuest(location.getGuestId(), eventBus);
+        publishDurable(new Commit(change, ReservationEventType.CHECKED_IN, location));
     }
     
     /**
-     * Validation method: Check if guest can check in.
+     * Validate a check-in request without checking in.
      * 
      * @param hotelName the hotel name
      * @param roomNumber the room number
      * @param guestId the guest identifier
-     * @return true if check-in is allowed, false otherwise
+     * @return VALID if the check-in may be attempted, otherwise the reason it may not
      */
-    private boolean canCheckInGuest(String hotelName, int roomNumber, String guestId) {
-        if (!hotels.containsKey(hotelName)) {
-            throw new IllegalArgumentException("Hotel '" + hotelName + "' does not exist");
-        }
-        if (guestId == null || guestId.trim().isEmpty()) {
-            throw new IllegalArgumentException("Guest ID cannot be null or empty");
-        }
-        
-        Hotel hotel = hotels.get(hotelName);
-        Room room = hotel.getRoom(roomNumber);
-        if (room == null) {
-            throw new IllegalArgumentException("Room " + roomNumber + " does not exist");
-        }
-        
-        return true;
+    public ValidationResult validateCheckIn(String hotelName, int roomNumber, String guestId) {
+        return validateRoom(hotelName, roomNumber, guestId, ValidationResult.BLANK_GUEST_ID);
     }
     
     /**
@@ -237,40 +1061,73 @@ public class HotelChain {
      * @param hotelName the name of the hotel
      * @param roomNumber the room number
      * @param guestId a unique identifier for the guest
+     * @throws IllegalArgumentException if the request is invalid (see {@link #validateCheckOut})
      * @throws IllegalStateException if check-out cannot be performed
      */
     public void checkOutGuest(String hotelName, int roomNumber, String guestId) {
-        if (!canCheckOutGuest(hotelName, roomNumber, guestId)) {
-            throw new IllegalStateException("Check-out cannot be performed: validation failed");
-        }
+        publishDurable(checkOut(hotelName, roomNumber, guestId));
+    }
+    
+    /**
+     * Check out a guest without waiting for the check-out to be durable.
+     * 
+     * @param hotelName the name of the hotel
+     * @param roomNumber the room number
+     * @param guestId a unique identifier for the guest
+     * @return a future completed once the check-out is durable
+     * @throws IllegalArgumentException if the request is invalid (see {@link #validateCheckOut})
+     * @throws IllegalStateException if check-out cannot be performed
+     */
+    CompletableFuture<Void> checkOutGuestAsync(String hotelName, int roomNumber, String guestId) {
+        return publishWhenDurable(checkOut(hotelName, roomNumber, guestId));
+    }
+    
+    // Check out a guest and return the change whose event is published once it is durable
+    private Commit checkOut(String hotelName, int roomNumber, String guestId) {
+        requireValid(validateCheckOut(hotelName, roomNumber, guestId), hotelName, roomNumber);
         
         Hotel hotel = hotels.get(hotelName);
         Room room = hotel.getRoom(roomNumber);
-        room.checkOutGuest(guestId);
+        Reservation ended = room.getReservation(guestId);
+        Room.Change change = room.checkOutGuest(guestId, eventBus);
+        return new Commit(change, ReservationEventType.CHECKED_OUT, hotelName, roomNumber, guestId, idOf(ended));
     }
     
     /**
-     * Validation method: Check if guest can check out.
+     * Validate a check-out request without checking out.
      * 
      * @param hotelName the hotel name
      * @param roomNumber the room number
      * @param guestId the guest identifier
-     * @return true if check-out is allowed, false otherwise
+     * @return VALID if the check-out may be attempted, otherwise the reason it may not
      */
-    private boolean canCheckOutGuest(String hotelName, int roomNumber, String guestId) {
-        if (!hotels.containsKey(hotelName)) {
-            throw new IllegalArgumentException("Hotel '" + hotelName + "' does not exist");
+    public ValidationResult validateCheckOut(String hotelName, int roomNumber, String guestId) {
+        return validateRoom(hotelName, roomNumber, guestId, ValidationResult.BLANK_GUEST_ID);
+    }
+    
+    // Checks in the order the throwing API always has: hotel, identifier, room
+    private ValidationResult validateRoom(String hotelName, int roomNumber, String id, ValidationResult blankId) {
+        Hotel hotel = hotelName == null ? null : hotels.get(hotelName);
+        if (hotel == null) {
+            return ValidationResult.UNKNOWN_HOTEL;
         }
-        if (guestId == null || guestId.trim().isEmpty()) {
-            throw new IllegalArgumentException("Guest ID cannot be null or empty");
+        if (id == null || id.isBlank()) {
+            return blankId;
         }
-        
-        Hotel hotel = hotels.get(hotelName);
-        Room room = hotel.getRoom(roomNumber);
-        if (room == null) {
-            throw new IllegalArgumentException("Room " + roomNumber + " does not exist");
+        return hotel.getRoom(roomNumber) == null ? ValidationResult.UNKNOWN_ROOM : ValidationResult.VALID;
+    }
+    
+    /**
+     * Throw if a request was rejected; the message is only built here.
+     * 
+     * @param result the validation result
+     * @param hotelName the hotel named in the request
+     * @param roomNumber the room number in the request
+     * @throws IllegalArgumentException if the result is not VALID
+     */
+    private static void requireValid(ValidationResult result, String hotelName, int roomNumber) {
+        if (!result.isValid()) {
+            throw new IllegalArgumentException(result.getMessage(hotelName, roomNumber));
         }
-        
-        return true;
     }
 }
@@ -0,0 +1,423 @@
+package domain;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * HotelChainHttpServer exposes the operations of a HotelChain as a small
+ * HTTP/JSON endpoint, for local front ends and load tests.
+ * 
+ * Every request is handled on its own virtual thread, so a request waiting
+ * for the journal to reach the disk costs a parked virtual thread rather
+ * than a platform thread, and thousands of requests can be in flight at
+ * once. The chain is already safe for concurrent callers: room and hotel
+ * monitors are only held for in-memory updates, and journal waits use
+ * java.util.concurrent locks, which release the carrier thread.
+ * 
+ * Endpoints (bodies are flat JSON objects):
+ * - GET /hotels/{hotel}/rooms?from=&to=&guests=&kind= search free rooms with quotes
+ * - POST /reservations make a reservation; answers 201 with its id
+ * - DELETE /reservations/{id} cancel a reservation
+ * - POST /reservations/{id}/check-in check the guest of a reservation in
+ * - POST /hotels/{hotel}/rooms/{room}/check-out check a guest out ({"guestId"})
+ * - GET /status room counts by status and the number of reservations held
+ * 
+ * An IllegalArgumentException from the chain (or a malformed request) is
+ * answered with 400, an IllegalStateException with 409, both with an
+ * {"error"} body.
+ * 
+ * Responsibilities:
+ * - Route HTTP requests to HotelChain operations
+ * - Translate between JSON and domain objects
+ * - Run each request on a virtual thread
+ */
+public class HotelChainHttpServer implements AutoCloseable {
+    
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    
+    private HotelChain chain;
+    private HttpServer server;
+    private ExecutorService executor;
+    
+    /**
+     * Constructor: Creates a server for a chain and starts listening.
+     * 
+     * @param chain the chain to expose
+     * @param address the address to listen on (port 0 picks a free port)
+     * @throws IllegalArgumentException if chain or address is null
+     * @throws IllegalStateException if the server cannot listen on the address
+     */
+    public HotelChainHttpServer(HotelChain chain, InetSocketAddress address) {
+        if (chain == null) {
+            throw new IllegalArgumentException("Hotel chain cannot be null");
+        }
+        if (address == null) {
+            throw new IllegalArgumentException("Address cannot be null");
+        }
+        this.chain = chain;
+        try {
+            this.server = HttpServer.create(address, 0);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot listen on " + address, e);
+        }
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+    
+    /**
+     * Get the port the server listens on.
+     * 
+     * @return the port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+    
+    /**
+     * Get the chain the server exposes.
+     * 
+     * @return the chain
+     */
+    public HotelChain getChain() {
+        return chain;
+    }
+    
+    private void handle(HttpExchange exchange) throws IOException {
+        int status;
+        String body;
+        try {
+            Response response = route(exchange.getRequestMethod(),
+                                      exchange.getRequestURI().getPath().split("/"),
+                                      exchange);
+            status = response.status;
+            body = response.body;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            status = 400;
+            body = error(e.getMessage());
+        } catch (IllegalStateException e) {
+            status = 409;
+            body = error(e.getMessage());
+        } catch (RuntimeException e) {
+            status = 500;
+            body = error(e.toString());
+        }
+        try (exchange) {
+            if (body == null) {
+                exchange.sendResponseHeaders(status, -1);
+                return;
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+    
+    private Response route(String method, String[] path, HttpExchange exchange) throws IOException {
+        // path[0] is the empty segment before the leading slash
+        if (path.length == 2 && path[1].equals("status")) {
+            requireMethod(method, "GET");
+            return Response.ok(status());
+        }
+        if (path.length >= 2 && path[1].equals("reservations")) {
+            if (path.length == 2) {
+                requireMethod(method, "POST");
+                return Response.created(makeReservation(readBody(exchange)));
+            }
+            long reservationId = Long.parseLong(path[2]);
+            if (path.length == 3) {
+                requireMethod(method, "DELETE");
+                chain.cancelReservation(reservationId);
+                return Response.NO_CONTENT;
+            }
+            if (path.length == 4 && path[3].equals("check-in")) {
+                requireMethod(method, "POST");
+                chain.checkInGuest(reservationId);
+                return Response.NO_CONTENT;
+            }
+        }
+        if (path.length >= 4 && path[1].equals("hotels") && path[3].equals("rooms")) {
+            String hotelName = path[2];
+            if (path.length == 4) {
+                requireMethod(method, "GET");
+                return Response.ok(searchRooms(hotelName, query(exchange.getRequestURI().getRawQuery())));
+            }
+            if (path.length == 6 && path[5].equals("check-out")) {
+                requireMethod(method, "POST");
+                Map<String, String> fields = readBody(exchange);
+                chain.checkOutGuest(hotelName, Integer.parseInt(path[4]), required(fields, "guestId"));
+                return Response.NO_CONTENT;
+            }
+        }
+        return new Response(404, error("No such resource: " + exchange.getRequestURI().getPath()));
+    }
+    
+    private String makeReservation(Map<String, String> fields) {
+        Guest guest = new Guest(new Name(required(fields, "firstName"), required(fields, "lastName")),
+                                new Address(required(fields, "street"), required(fields, "city"),
+                                            required(fields, "country"), required(fields, "postalCode")));
+        ReserverPayer payer = new ReserverPayer(
+            new CreditCard(required(fields, "cardNumber"), required(fields, "cardholderName"),
+                           required(fields, "expiryDate")),
+            new Identity(required(fields, "payerId"), required(fields, "payerIdType")));
+        Reservation reservation = new Reservation(LocalDate.parse(required(fields, "from")),
+                                                  LocalDate.parse(required(fields, "to")),
+                                                  new HowMany(Integer.parseInt(required(fields, "guests"))));
+        chain.makeReservation(required(fields, "hotel"), Integer.parseInt(required(fields, "room")), guest, payer,
+                              reservation);
+        return "{\"id\":" + reservation.getId() + "}";
+    }
+    
+    private String searchRooms(String hotelName, Map<String, String> query) {
+        String kind = query.get("kind");
+        List<RoomQuote> quotes = chain.searchRooms(hotelName, LocalDate.parse(required(query, "from")),
+                                                   LocalDate.parse(required(query, "to")),
+                                                   kind == null ? null : RoomKind.valueOf(kind),
+                                                   new HowMany(Integer.parseInt(query.getOrDefault("guests", "1"))));
+        StringBuilder json = new StringBuilder("[");
+        for (RoomQuote quote : quotes) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            Room room = quote.getRoom();
+            json.append("{\"room\":").append(room.getNumber())
+                .append(",\"kind\":").append(string(room.getRoomType().getKind().name()))
+                .append(",\"total\":").append(quote.getTotal().getAmount())
+                .append(",\"currency\":").append(string(quote.getTotal().getCurrency()))
+                .append('}');
+        }
+        return json.append(']').toString();
+    }
+    
+    private String status() {
+        return "{\"available\":" + chain.getRoomCount(RoomStatus.AVAILABLE)
+               + ",\"reserved\":" + chain.getRoomCount(RoomStatus.RESERVED)
+               + ",\"occupied\":" + chain.getRoomCount(RoomStatus.OCCUPIED)
+               + ",\"reservations\":" + chain.getReservationCount() + "}";
+    }
+    
+    private static void requireMethod(String method, String expected) {
+        if (!method.equals(expected)) {
+            throw new IllegalArgumentException("Method " + method + " is not supported here, use " + expected);
+        }
+    }
+    
+    private static String required(Map<String, String> fields, String name) {
+        String value = fields.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing field '" + name + "'");
+        }
+        return value;
+    }
+    
+    private static Map<String, String> query(String rawQuery) {
+        Map<String, String> parameters = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            parameters.put(URLDecoder.decode(name, StandardCharsets.UTF_8),
+                           URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+    
+    private static Map<String, String> readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (bytes.length > MAX_BODY_BYTES) {
+                throw new IllegalArgumentException("Request body is larger than " + MAX_BODY_BYTES + " bytes");
+            }
+            return new JsonReader(new String(bytes, StandardCharsets.UTF_8)).readObject();
+        }
+    }
+    
+    private static String error(String message) {
+        return "{\"error\":" + string(String.valueOf(message)) + "}";
+    }
+    
+    private static String string(String value) {
+        StringBuilder json = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        return json.append('"').toString();
+    }
+    
+    /**
+     * Stop listening, wait for the requests in flight to finish and stop
+     * their threads.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+    
+    /**
+     * A status code and optional JSON body.
+     */
+    private static final class Response {
+        static final Response NO_CONTENT = new Response(204, null);
+        
+        final int status;
+        final String body;
+        
+        Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+        
+        static Response ok(String body) {
+            return new Response(200, body);
+        }
+        
+        static Response created(String body) {
+            return new Response(201, body);
+        }
+    }
+    
+    /**
+     * Reads a flat JSON object whose values are strings, numbers, booleans
+     * or null. Every value is kept as its text; null values are left out.
+     */
+    private static final class JsonReader {
+        private final String text;
+        private int position;
+        
+        JsonReader(String text) {
+            this.text = text;
+        }
+        
+        Map<String, String> readObject() {
+            Map<String, String> fields = new HashMap<>();
+            expect('{');
+            if (peek() == '}') {
+                position++;
+            } else {
+                while (true) {
+                    String name = readString();
+                    expect(':');
+                    String value = readValue();
+                    if (value != null) {
+                        fields.put(name, value);
+                    }
+                    char next = next();
+                    if (next == '}') {
+                        break;
+                    }
+                    if (next != ',') {
+                        throw malformed("',' or '}'");
+                    }
+                }
+            }
+            if (peek() != 0) {
+                throw malformed("end of input");
+            }
+            return fields;
+        }
+        
+        private String readValue() {
+            if (peek() == '"') {
+                return readString();
+            }
+            int start = position;
+            while (position < text.length() && ",}] \t\r\n".indexOf(text.charAt(position)) < 0) {
+                position++;
+            }
+            String literal = text.substring(start, position);
+            if (literal.isEmpty() || literal.startsWith("{") || literal.startsWith("[")) {
+                throw malformed("a string, number, boolean or null");
+            }
+            return literal.equals("null") ? null : literal;
+        }
+        
+        private String readString() {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (true) {
+                if (position >= text.length()) {
+                    throw malformed("'\"'");
+                }
+                char c = text.charAt(position++);
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                if (position >= text.length()) {
+                    throw malformed("an escape");
+                }
+                char escape = text.charAt(position++);
+                switch (escape) {
+                    case 'b': value.append('\b'); break;
+                    case 'f': value.append('\f'); break;
+                    case 'n': value.append('\n'); break;
+                    case 'r': value.append('\r'); break;
+                    case 't': value.append('\t'); break;
+                    case 'u':
+                        if (position + 4 > text.length()) {
+                            throw malformed("four hex digits");
+                        }
+                        value.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                        position += 4;
+                        break;
+                    default: value.append(escape);
+                }
+            }
+        }
+        
+        private void expect(char expected) {
+            if (next() != expected) {
+                throw malformed("'" + expected + "'");
+            }
+        }
+        
+        private char next() {
+            char c = peek();
+            position++;
+            return c;
+        }
+        
+        private char peek() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+            return position < text.length() ? text.charAt(position) : 0;
+        }
+        
+        private IllegalArgumentException malformed(String expected) {
+            return new IllegalArgumentException("Malformed JSON at position " + position + ": expected " + expected);
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package domain;
+
+import java.time.LocalDate;
+
+/**
+ * HotelOccupancy holds the nightly occupancy and revenue figures of one
+ * hotel over a range of nights, as computed by an OccupancyReport.
+ * It is a value object (immutable).
+ * 
+ * For each night: the rooms sold (rooms with a reservation or completed
+ * stay covering the night), the room revenue, and the usual ratios:
+ * - occupancy: rooms sold / rooms available
+ * - ADR (average daily rate): revenue / rooms sold
+ * - RevPAR (revenue per available room): revenue / rooms available
+ * 
+ * Every room of the hotel counts as available on every night. Amounts are
+ * in the currency the hotel's rooms are priced in and are rounded half up
+ * to the currency's minor unit.
+ * 
+ * Responsibilities:
+ * - Answer per-night and whole-range occupancy, ADR and RevPAR
+ */
+public class HotelOccupancy {
+    
+    private String hotelName;
+    private LocalDate from;
+    private int roomCount;
+    private String currency;
+    // Indexed by night, from the first night of the range
+    private int[] roomsSold;
+    private long[] revenue;
+    
+    /**
+     * Constructor: Creates the figures of a hotel. The arrays are kept, not copied.
+     * 
+     * @param hotelName the hotel's name
+     * @param from the first night of the range
+     * @param roomCount the number of rooms available each night
+     * @param currency the currency of the revenue
+     * @param roomsSold rooms sold per night
+     * @param revenue room revenue per night, in minor units
+     */
+    HotelOccupancy(String hotelName, LocalDate from, int roomCount, String currency, int[] roomsSold,
+                   long[] revenue) {
+        this.hotelName = hotelName;
+        this.from = from;
+        this.roomCount = roomCount;
+        this.currency = currency;
+        this.roomsSold = roomsSold;
+        this.revenue = revenue;
+    }
+    
+    /**
+     * Get the name of the hotel.
+     * 
+     * @return the hotel name
+     */
+    public String getHotelName() {
+        return hotelName;
+    }
+    
+    /**
+     * Get the first night of the range.
+     * 
+     * @return the first night
+     */
+    public LocalDate getFrom() {
+        return from;
+    }
+    
+    /**
+     * Get the day after the last night of the range.
+     * 
+     * @return the end of the range (exclusive)
+     */
+    public LocalDate getTo() {
+        return from.plusDays(roomsSold.length);
+    }
+    
+    /**
+     * Get the number of nights in the range.
+     * 
+     * @return number of nights
+     */
+    public int getNightCount() {
+        return roomsSold.length;
+    }
+    
+    /**
+     * Get the number of rooms available each night.
+     * 
+     * @return number of rooms
+     */
+    public int getRoomCount() {
+        return roomCount;
+    }
+    
+    /**
+     * Get the currency revenue figures are given in.
+     * 
+     * @return the currency code
+     */
+    public String getCurrency() {
+        return currency;
+    }
+    
+    /**
+     * Get the number of rooms sold on a night.
+     * 
+     * @param night the night
+     * @return rooms sold
+     * @throws IllegalArgumentException if the night is null or outside the range
+     */
+    public int getRoomsSold(LocalDate night) {
+        return roomsSold[index(night)];
+    }
+    
+    /**
+     * Get the share of rooms sold on a night.
+     * 
+     * @param night the night
+     * @return occupancy between 0 and 1 (0.85 for 85%)
+     * @throws IllegalArgumentException if the night is null or outside the range
+     */
+    public double getOccupancy(LocalDate night) {
+        return ratio(roomsSold[index(night)], roomCount);
+    }
+    
+    /**
+     * Get the room revenue of a night.
+     * 
+     * @param night the night
+     * @return the revenue
+     * @throws IllegalArgumentException if the night is null or outside the range
+     */
+    public Money getRevenue(LocalDate night) {
+        return Money.ofMinorUnits(revenue[index(night)], currency);
+    }
+    
+    /**
+     * Get the average rate of the rooms sold on a night (ADR).
+     * 
+     * @param night the night
+     * @return revenue per room sold, zero if no room was sold
+     * @throws IllegalArgumentException if the night is null or outside the range
+     */
+    public Money getAverageDailyRate(LocalDate night) {
+        int i = index(night);
+        return divide(revenue[i], roomsSold[i]);
+    }
+    
+    /**
+     * Get the revenue per available room of a night (RevPAR).
+     * 
+     * @param night the night
+     * @return revenue per room of the hotel
+     * @throws IllegalArgumentException if the night is null or outside the range
+     */
+    public Money getRevPar(LocalDate night) {
+        return divide(revenue[index(night)], roomCount);
+    }
+    
+    /**
+     * Get the number of room-nights sold over the whole range.
+     * 
+     * @return room-nights sold
+     */
+    public long getRoomNightsSold() {
+        long total = 0;
+        for (int sold : roomsSold) {
+            total += sold;
+        }
+        return total;
+    }
+    
+    /**
+     * Get the share of room-nights sold over the whole range.
+     * 
+     * @return occupancy between 0 and 1
+     */
+    public double getOccupancy() {
+        return ratio(getRoomNightsSold(), (long) roomCount * roomsSold.length);
+    }
+    
+    /**
+     * Get the room revenue over the whole range.
+     * 
+     * @return the total revenue
+     * @throws ArithmeticException if the total overflows
+     */
+    public Money getRevenue() {
+        return Money.ofMinorUnits(totalRevenue(), currency);
+    }
+    
+    /**
+     * Get the average rate of the room-nights sold over the whole range (ADR).
+     * 
+     * @return revenue per room-night sold, zero if none was sold
+     * @throws ArithmeticException if the total revenue overflows
+     */
+    public Money getAverageDailyRate() {
+        return divide(totalRevenue(), getRoomNightsSold());
+    }
+    
+    /**
+     * Get the revenue per available room-night over the whole range (RevPAR).
+     * 
+     * @return revenue per room-night of the hotel
+     * @throws ArithmeticException if the total revenue overflows
+     */
+    public Money getRevPar() {
+        return divide(totalRevenue(), (long) roomCount * roomsSold.length);
+    }
+    
+    private long totalRevenue() {
+        long total = 0;
+        for (long nightly : revenue) {
+            total = Math.addExact(total, nightly);
+        }
+        return total;
+    }
+    
+    private int index(LocalDate night) {
+        if (night == null) {
+            throw new IllegalArgumentException("Night cannot be null");
+        }
+        long i = night.toEpochDay() - from.toEpochDay();
+        if (i < 0 || i >= roomsSold.length) {
+            throw new IllegalArgumentException("Night " + night + " is outside the report range " + from
+                                               + " to " + getTo());
+        }
+        return (int) i;
+    }
+    
+    private static double ratio(long part, long whole) {
+        return whole == 0 ? 0.0 : (double) part / whole;
+    }
+    
+    private Money divide(long minorUnits, long divisor) {
+        if (divisor == 0) {
+            return Money.ofMinorUnits(0, currency);
+        }
+        // Revenue is never negative, so this rounds half up
+        return Money.ofMinorUnits((minorUnits + divisor / 2) / divisor, currency);
+    }
+    
+    /**
+     * Get string representation of these figures.
+     * 
+     * @return string with the hotel, range and whole-range ratios
+     */
+    @Override
+    public String toString() {
+        return String.format("%s %s..%s: occupancy %.1f%%, ADR %s, RevPAR %s", hotelName, from, getTo(),
+                             getOccupancy() * 100, getAverageDailyRate(), getRevPar());
+    }
+}
@@ -0,0 +1,139 @@
+package domain;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ImportResult counts what a ChainImporter loaded and which rows it
+ * rejected.
+ * 
+ * Every rejected row is counted, but only the first few hundred are kept
+ * with a message, so a file full of bad rows cannot exhaust memory.
+ * 
+ * Responsibilities:
+ * - Count imported hotels, rooms, reservations and completed stays
+ * - Count rejected rows and describe the first of them
+ */
+public class ImportResult {
+    
+    static final int MAX_REPORTED_REJECTIONS = 500;
+    
+    private LongAdder hotels;
+    private LongAdder rooms;
+    private LongAdder reservations;
+    private LongAdder completedStays;
+    private LongAdder rejectedRows;
+    private List<String> rejections;
+    
+    /**
+     * Constructor: Creates an ImportResult with all counters at zero.
+     */
+    ImportResult() {
+        this.hotels = new LongAdder();
+        this.rooms = new LongAdder();
+        this.reservations = new LongAdder();
+        this.completedStays = new LongAdder();
+        this.rejectedRows = new LongAdder();
+        this.rejections = new ArrayList<>();
+    }
+    
+    void recordHotel() {
+        hotels.increment();
+    }
+    
+    void recordRoom() {
+        rooms.increment();
+    }
+    
+    void recordReservation() {
+        reservations.increment();
+    }
+    
+    void recordCompletedStay() {
+        completedStays.increment();
+    }
+    
+    void recordRejections(List<String> messages, long count) {
+        rejectedRows.add(count);
+        synchronized (rejections) {
+            for (String message : messages) {
+                if (rejections.size() >= MAX_REPORTED_REJECTIONS) {
+                    break;
+                }
+                rejections.add(message);
+            }
+        }
+    }
+    
+    /**
+     * Get the number of hotels added to the chain.
+     * 
+     * @return number of hotels
+     */
+    public long getHotelCount() {
+        return hotels.sum();
+    }
+    
+    /**
+     * Get the number of rooms added to the imported hotels.
+     * 
+     * @return number of rooms
+     */
+    public long getRoomCount() {
+        return rooms.sum();
+    }
+    
+    /**
+     * Get the number of reservations made in the imported rooms.
+     * 
+     * @return number of reservations
+     */
+    public long getReservationCount() {
+        return reservations.sum();
+    }
+    
+    /**
+     * Get the number of stays recorded as completed in the imported rooms.
+     * 
+     * @return number of completed stays
+     */
+    public long getCompletedStayCount() {
+        return completedStays.sum();
+    }
+    
+    /**
+     * Get the number of rows that were not imported.
+     * 
+     * @return number of rejected rows
+     */
+    public long getRejectedRowCount() {
+        return rejectedRows.sum();
+    }
+    
+    /**
+     * Get the messages of the first rejected rows, each naming the file and
+     * line of the row. Files are listed in the order they were imported,
+     * rows of a file by line.
+     * 
+     * @return up to 500 messages (unmodifiable)
+     */
+    public List<String> getRejections() {
+        synchronized (rejections) {
+            return Collections.unmodifiableList(new ArrayList<>(rejections));
+        }
+    }
+    
+    /**
+     * Get string representation of this result.
+     * 
+     * @return string with all counts
+     */
+    @Override
+    public String toString() {
+        return "Imported " + getHotelCount() + " hotels, " + getRoomCount() + " rooms, "
+               + getReservationCount() + " reservations and " + getCompletedStayCount() + " completed stays; "
+               + getRejectedRowCount() + " rows rejected";
+    }
+}
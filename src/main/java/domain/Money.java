@@ -1,17 +1,27 @@
 package domain;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+
 /**
  * Money represents a monetary value with a specific currency.
  * It is a value object (immutable).
  * 
+ * The amount is held exactly as a whole number of minor units (cents for
+ * USD) in a long, so sums and products never pick up floating-point error.
+ * Amounts given as double are rounded to the currency's minor unit once,
+ * when the Money is created.
+ * 
  * Responsibilities:
  * - Store amount and currency
  * - Provide monetary information
+ * - Add, multiply and allocate amounts exactly
  */
 public class Money {
     
-    private double amount;
-    private String currency;
+    private long minorUnits;
+    private CurrencyCode currency;
     
     /**
      * Constructor: Creates a Money object with amount and currency.
@@ -24,11 +34,42 @@ public class Money {
         if (amount < 0) {
             throw new IllegalArgumentException("Amount cannot be negative");
         }
-        if (currency == null || currency.trim().isEmpty()) {
-            throw new IllegalArgumentException("Currency cannot be null or empty");
+        this.currency = CurrencyCode.of(currency);
+        this.minorUnits = toMinorUnits(amount, this.currency);
+    }
+    
+    private Money(long minorUnits, CurrencyCode currency) {
+        this.minorUnits = minorUnits;
+        this.currency = currency;
+    }
+    
+    /**
+     * Create a Money object from a whole number of minor units.
+     * 
+     * @param minorUnits the amount in minor units (e.g., cents; must be non-negative)
+     * @param currency the currency code
+     * @return the money value
+     * @throws IllegalArgumentException if minorUnits is negative or currency is null/empty
+     */
+    public static Money ofMinorUnits(long minorUnits, String currency) {
+        if (minorUnits < 0) {
+            throw new IllegalArgumentException("Amount cannot be negative");
+        }
+        return new Money(minorUnits, CurrencyCode.of(currency));
+    }
+    
+    private static long toMinorUnits(double amount, CurrencyCode currency) {
+        if (Double.isNaN(amount) || Double.isInfinite(amount)) {
+            throw new IllegalArgumentException("Amount must be a finite number");
+        }
+        try {
+            return BigDecimal.valueOf(amount)
+                             .setScale(currency.getFractionDigits(), RoundingMode.HALF_EVEN)
+                             .unscaledValue()
+                             .longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount is too large: " + amount, e);
         }
-        this.amount = amount;
-        this.currency = currency.trim().toUpperCase();
     }
     
     /**
@@ -37,7 +78,16 @@ public class Money {
      * @return the amount
      */
     public double getAmount() {
-        return amount;
+        return (double) minorUnits / currency.getUnit();
+    }
+    
+    /**
+     * Get the amount as a whole number of minor units.
+     * 
+     * @return the amount in minor units (e.g., cents)
+     */
+    public long getMinorUnits() {
+        return minorUnits;
     }
     
     /**
@@ -46,9 +96,138 @@ public class Money {
      * @return the currency
      */
     public String getCurrency() {
+        return currency.getCode();
+    }
+    
+    /**
+     * Get the canonical currency of this value.
+     * 
+     * @return the currency code instance
+     */
+    CurrencyCode getCurrencyCode() {
         return currency;
     }
     
+    /**
+     * Add another amount in the same currency.
+     * 
+     * @param other the amount to add
+     * @return the sum
+     * @throws IllegalArgumentException if other is null or in another currency
+     * @throws ArithmeticException if the sum overflows
+     */
+    public Money add(Money other) {
+        checkSameCurrency(other);
+        return new Money(Math.addExact(minorUnits, other.minorUnits), currency);
+    }
+    
+    /**
+     * Multiply this amount by a whole quantity (e.g., a number of nights).
+     * 
+     * @param quantity the quantity (must be non-negative)
+     * @return the product
+     * @throws IllegalArgumentException if quantity is negative
+     * @throws ArithmeticException if the product overflows
+     */
+    public Money multiply(long quantity) {
+        if (quantity < 0) {
+            throw new IllegalArgumentException("Quantity cannot be negative");
+        }
+        return new Money(Math.multiplyExact(minorUnits, quantity), currency);
+    }
+    
+    /**
+     * Multiply this amount by a factor (e.g., a discount or tax rate),
+     * rounding half-even to the currency's minor unit.
+     * 
+     * @param factor the factor (must be non-negative)
+     * @return the rounded product
+     * @throws IllegalArgumentException if factor is negative or not finite
+     * @throws ArithmeticException if the product overflows
+     */
+    public Money multiply(double factor) {
+        if (factor < 0 || Double.isNaN(factor) || Double.isInfinite(factor)) {
+            throw new IllegalArgumentException("Factor must be a non-negative number");
+        }
+        long product = BigDecimal.valueOf(minorUnits)
+                                 .multiply(BigDecimal.valueOf(factor))
+                                 .setScale(0, RoundingMode.HALF_EVEN)
+                                 .longValueExact();
+        return new Money(product, currency);
+    }
+    
+    /**
+     * Split this amount in proportion to the given ratios without losing
+     * a minor unit: the remainder of the division is handed out one unit
+     * at a time, starting with the first share.
+     * 
+     * @param ratios the relative size of each share (non-negative, not all zero)
+     * @return one amount per ratio; the amounts add up to this amount
+     * @throws IllegalArgumentException if ratios is empty, contains a negative value or sums to zero
+     */
+    public Money[] allocate(long... ratios) {
+        if (ratios == null || ratios.length == 0) {
+            throw new IllegalArgumentException("At least one ratio is required");
+        }
+        long total = 0;
+        for (long ratio : ratios) {
+            if (ratio < 0) {
+                throw new IllegalArgumentException("Ratios cannot be negative");
+            }
+            total = Math.addExact(total, ratio);
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("Ratios cannot all be zero");
+        }
+        
+        long remainder = minorUnits;
+        long[] amounts = new long[ratios.length];
+        for (int i = 0; i < ratios.length; i++) {
+            amounts[i] = BigDecimal.valueOf(minorUnits)
+                                   .multiply(BigDecimal.valueOf(ratios[i]))
+                                   .divide(BigDecimal.valueOf(total), 0, RoundingMode.DOWN)
+                                   .longValueExact();
+            remainder -= amounts[i];
+        }
+        for (int i = 0; remainder > 0; i = (i + 1) % ratios.length) {
+            if (ratios[i] > 0) {
+                amounts[i]++;
+                remainder--;
+            }
+        }
+        Money[] shares = new Money[ratios.length];
+        for (int i = 0; i < ratios.length; i++) {
+            shares[i] = new Money(amounts[i], currency);
+        }
+        return shares;
+    }
+    
+    /**
+     * Split this amount into equal shares; the first shares get one extra
+     * minor unit each when the amount does not divide evenly.
+     * 
+     * @param parts the number of shares (must be positive)
+     * @return the shares; they add up to this amount
+     * @throws IllegalArgumentException if parts is not positive
+     */
+    public Money[] allocate(int parts) {
+        if (parts <= 0) {
+            throw new IllegalArgumentException("Number of parts must be positive");
+        }
+        long[] ratios = new long[parts];
+        Arrays.fill(ratios, 1);
+        return allocate(ratios);
+    }
+    
+    private void checkSameCurrency(Money other) {
+        if (other == null) {
+            throw new IllegalArgumentException("Money cannot be null");
+        }
+        if (other.currency != currency) {
+            throw new IllegalArgumentException("Currency mismatch: " + currency + " and " + other.currency);
+        }
+    }
+    
     /**
      * Get string representation of this money value.
      * 
@@ -56,7 +235,7 @@ public class Money {
      */
     @Override
     public String toString() {
-        return amount + " " + currency;
+        return getAmount() + " " + currency.getCode();
     }
     
     /**
@@ -72,7 +251,7 @@ public class Money {
         if (obj == null || getClass() != obj.getClass()) return false;
         
         Money other = (Money) obj;
-        return Double.compare(amount, other.amount) == 0 && currency.equals(other.currency);
+        return minorUnits == other.minorUnits && currency == other.currency;
     }
     
     /**
@@ -82,6 +261,6 @@ public class Money {
      */
     @Override
     public int hashCode() {
-        return Double.hashCode(amount) * 31 + currency.hashCode();
+        return Long.hashCode(minorUnits) * 31 + currency.getCode().hashCode();
     }
 }
@@ -0,0 +1,123 @@
+package domain;
+
+/**
+ * MoneyAccumulator sums many Money values of one currency in place.
+ * Adding does not create objects, so bulk sums (revenue over thousands of
+ * rooms or nights) produce no garbage; call toMoney() once at the end.
+ * 
+ * An accumulator is not thread-safe; give each thread its own and combine
+ * them with add(MoneyAccumulator).
+ * 
+ * Responsibilities:
+ * - Keep an exact running total in minor units
+ * - Reject values in another currency
+ */
+public class MoneyAccumulator {
+    
+    private CurrencyCode currency;
+    private long minorUnits;
+    
+    /**
+     * Constructor: Creates an empty accumulator for a currency.
+     * 
+     * @param currency the currency code
+     * @throws IllegalArgumentException if currency is null or empty
+     */
+    public MoneyAccumulator(String currency) {
+        this.currency = CurrencyCode.of(currency);
+    }
+    
+    /**
+     * Add an amount to the total.
+     * 
+     * @param money the amount to add
+     * @return this accumulator
+     * @throws IllegalArgumentException if money is null or in another currency
+     * @throws ArithmeticException if the total overflows
+     */
+    public MoneyAccumulator add(Money money) {
+        checkCurrency(money);
+        minorUnits = Math.addExact(minorUnits, money.getMinorUnits());
+        return this;
+    }
+    
+    /**
+     * Add an amount a number of times (e.g., a nightly rate times the nights).
+     * 
+     * @param money the amount to add
+     * @param quantity how many times to add it (must be non-negative)
+     * @return this accumulator
+     * @throws IllegalArgumentException if money is null, in another currency, or quantity is negative
+     * @throws ArithmeticException if the total overflows
+     */
+    public MoneyAccumulator add(Money money, long quantity) {
+        checkCurrency(money);
+        if (quantity < 0) {
+            throw new IllegalArgumentException("Quantity cannot be negative");
+        }
+        minorUnits = Math.addExact(minorUnits, Math.multiplyExact(money.getMinorUnits(), quantity));
+        return this;
+    }
+    
+    /**
+     * Add the total of another accumulator in the same currency.
+     * 
+     * @param other the accumulator to add
+     * @return this accumulator
+     * @throws IllegalArgumentException if other is null or in another currency
+     * @throws ArithmeticException if the total overflows
+     */
+    public MoneyAccumulator add(MoneyAccumulator other) {
+        if (other == null) {
+            throw new IllegalArgumentException("Accumulator cannot be null");
+        }
+        if (other.currency != currency) {
+            throw new IllegalArgumentException("Currency mismatch: " + currency + " and " + other.currency);
+        }
+        minorUnits = Math.addExact(minorUnits, other.minorUnits);
+        return this;
+    }
+    
+    /**
+     * Get the running total in minor units.
+     * 
+     * @return the total (e.g., in cents)
+     */
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+    
+    /**
+     * Get the currency of this accumulator.
+     * 
+     * @return the currency code
+     */
+    public String getCurrency() {
+        return currency.getCode();
+    }
+    
+    /**
+     * Get the running total as a Money value.
+     * 
+     * @return the total
+     */
+    public Money toMoney() {
+        return Money.ofMinorUnits(minorUnits, currency.getCode());
+    }
+    
+    /**
+     * Set the total back to zero so the accumulator can be reused.
+     */
+    public void reset() {
+        minorUnits = 0;
+    }
+    
+    private void checkCurrency(Money money) {
+        if (money == null) {
+            throw new IllegalArgumentException("Money cannot be null");
+        }
+        if (money.getCurrencyCode() != currency) {
+            throw new IllegalArgumentException("Currency mismatch: " + currency + " and " + money.getCurrency());
+        }
+    }
+}
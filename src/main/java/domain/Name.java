@@ -1,17 +1,28 @@
 package domain;
 
+import java.util.Locale;
+import java.util.regex.Pattern;
+
 /**
  * Name represents a person's name.
- * It is a value object (immutable).
+ * It is a value object (immutable), so its full name, lookup key and hash
+ * code are computed once instead of on every call.
  * 
  * Responsibilities:
  * - Store first name and last name
  * - Provide full name
+ * - Provide a normalized key for case-insensitive lookups
  */
 public class Name {
     
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    
     private String firstName;
     private String lastName;
+    // Derived once from the parts above
+    private String fullName;
+    private String key;
+    private int hash;
     
     /**
      * Constructor: Creates a Name object with first and last name.
@@ -29,6 +40,32 @@ public class Name {
         }
         this.firstName = firstName.trim();
         this.lastName = lastName.trim();
+        this.fullName = this.firstName + " " + this.lastName;
+        this.key = normalize(fullName);
+        this.hash = foldedHash(this.firstName) * 31 + foldedHash(this.lastName);
+    }
+    
+    // Folds case per code point the way equalsIgnoreCase does, independent of the default locale,
+    // so names equal ignoring case always hash alike
+    private static int foldedHash(String part) {
+        int h = 0;
+        for (int i = 0; i < part.length(); ) {
+            int codePoint = part.codePointAt(i);
+            h = 31 * h + Character.toLowerCase(Character.toUpperCase(codePoint));
+            i += Character.charCount(codePoint);
+        }
+        return h;
+    }
+    
+    /**
+     * Normalize a full name for lookups: case and repeated or surrounding
+     * spaces are ignored.
+     * 
+     * @param fullName the full name
+     * @return the normalized key
+     */
+    static String normalize(String fullName) {
+        return WHITESPACE.matcher(fullName.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
     }
     
     /**
@@ -55,7 +92,16 @@ public class Name {
      * @return full name in format "FirstName LastName"
      */
     public String getFullName() {
-        return firstName + " " + lastName;
+        return fullName;
+    }
+    
+    /**
+     * Get the normalized form of the full name used as a lookup key.
+     * 
+     * @return the lower-case full name with single spaces
+     */
+    String getKey() {
+        return key;
     }
     
     /**
@@ -81,7 +127,8 @@ public class Name {
         if (obj == null || getClass() != obj.getClass()) return false;
         
         Name other = (Name) obj;
-        return firstName.equalsIgnoreCase(other.firstName) && 
+        return hash == other.hash &&
+               firstName.equalsIgnoreCase(other.firstName) && 
                lastName.equalsIgnoreCase(other.lastName);
     }
     
@@ -92,6 +139,6 @@ public class Name {
      */
     @Override
     public int hashCode() {
-        return firstName.toLowerCase().hashCode() * 31 + lastName.toLowerCase().hashCode();
+        return hash;
     }
 }
@@ -0,0 +1,108 @@
+package domain;
+
+import java.util.BitSet;
+
+/**
+ * OccupancyCalendar records which rooms of a hotel are reserved on each night.
+ * Each night has a bitset with one bit per room slot, so the rooms free for
+ * a whole stay are found with one word-wise AND-NOT per night instead of visiting
+ * every room.
+ * 
+ * Responsibilities:
+ * - Mark and clear the nights covered by a reservation
+ * - Compute the set of room slots free for a range of nights
+ */
+class OccupancyCalendar {
+    
+    // Reserved rooms per night; nights[i] covers epoch day firstDay + i (null = no reservations)
+    private BitSet[] nights;
+    private long firstDay;
+    
+    /**
+     * Constructor: Creates an empty calendar.
+     */
+    OccupancyCalendar() {
+        this.nights = new BitSet[0];
+        this.firstDay = 0;
+    }
+    
+    /**
+     * Mark a room slot as reserved for the nights [startDay, endDay).
+     * 
+     * @param slot the room slot
+     * @param startDay the first night as epoch day
+     * @param endDay the check-out day as epoch day (exclusive)
+     */
+    void reserve(int slot, long startDay, long endDay) {
+        ensureRange(startDay, endDay);
+        for (long day = startDay; day < endDay; day++) {
+            int index = (int) (day - firstDay);
+            if (nights[index] == null) {
+                nights[index] = new BitSet();
+            }
+            nights[index].set(slot);
+        }
+    }
+    
+    /**
+     * Clear a room slot for the nights [startDay, endDay).
+     * 
+     * @param slot the room slot
+     * @param startDay the first night as epoch day
+     * @param endDay the check-out day as epoch day (exclusive)
+     */
+    void release(int slot, long startDay, long endDay) {
+        long from = Math.max(startDay, firstDay);
+        long to = Math.min(endDay, firstDay + nights.length);
+        for (long day = from; day < to; day++) {
+            BitSet night = nights[(int) (day - firstDay)];
+            if (night != null) {
+                night.clear(slot);
+            }
+        }
+    }
+    
+    /**
+     * Compute the candidate slots that are free on every night in [startDay, endDay).
+     * 
+     * @param candidates the slots to consider (not modified)
+     * @param startDay the first night as epoch day
+     * @param endDay the check-out day as epoch day (exclusive)
+     * @return a new bitset holding the free candidate slots
+     */
+    BitSet freeSlots(BitSet candidates, long startDay, long endDay) {
+        BitSet free = (BitSet) candidates.clone();
+        long from = Math.max(startDay, firstDay);
+        long to = Math.min(endDay, firstDay + nights.length);
+        for (long day = from; day < to && !free.isEmpty(); day++) {
+            BitSet night = nights[(int) (day - firstDay)];
+            if (night != null) {
+                free.andNot(night);
+            }
+        }
+        return free;
+    }
+    
+    /**
+     * Grow the night array so it covers [startDay, endDay).
+     */
+    private void ensureRange(long startDay, long endDay) {
+        if (nights.length == 0) {
+            nights = new BitSet[(int) (endDay - startDay)];
+            firstDay = startDay;
+            return;
+        }
+        long lastDay = firstDay + nights.length;
+        if (startDay >= firstDay && endDay <= lastDay) {
+            return;
+        }
+        // Grow by at least half the current size so repeated extensions stay amortized O(1)
+        long slack = nights.length / 2;
+        long newFirst = startDay < firstDay ? Math.min(startDay, firstDay - slack) : firstDay;
+        long newLast = endDay > lastDay ? Math.max(endDay, lastDay + slack) : lastDay;
+        BitSet[] grown = new BitSet[(int) (newLast - newFirst)];
+        System.arraycopy(nights, 0, grown, (int) (firstDay - newFirst), nights.length);
+        nights = grown;
+        firstDay = newFirst;
+    }
+}
@@ -0,0 +1,148 @@
+package domain;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * OccupancyReport computes nightly occupancy, ADR and RevPAR for the hotels
+ * of a chain over any range of nights.
+ * 
+ * A room is sold on a night when one of its reservations, or one of its
+ * completed stays, covers the night. Each sold night is valued at the rate
+ * the chain's PricingEngine charges for it (the room type's cost unless a
+ * nightly rate overrides it), including extra-guest surcharges.
+ * 
+ * Hotels are computed in parallel on the common fork-join pool, each into
+ * its own arrays, so a report needs no locks and no merging. Completed
+ * stays are read from their primitive rows without creating objects. The
+ * report reads live data: a change made while it runs may or may not be
+ * included.
+ * 
+ * Responsibilities:
+ * - Count the rooms sold and total the room revenue per hotel and night
+ * - Produce a HotelOccupancy per hotel
+ */
+public class OccupancyReport {
+    
+    private HotelChain chain;
+    
+    /**
+     * Constructor: Creates a report over a chain.
+     * 
+     * @param chain the chain to report on
+     * @throws IllegalArgumentException if chain is null
+     */
+    public OccupancyReport(HotelChain chain) {
+        if (chain == null) {
+            throw new IllegalArgumentException("Hotel chain cannot be null");
+        }
+        this.chain = chain;
+    }
+    
+    /**
+     * Compute the figures of every hotel with rooms for a range of nights.
+     * 
+     * @param from the first night
+     * @param to the day after the last night (exclusive)
+     * @return one entry per hotel, ordered by hotel name
+     * @throws IllegalArgumentException if a date is null, the range is empty,
+     *         or a hotel prices its rooms in more than one currency
+     */
+    public List<HotelOccupancy> compute(LocalDate from, LocalDate to) {
+        int nights = checkRange(from, to);
+        return chain.getHotels().parallelStream()
+                    .filter(hotel -> hotel.getRoomCount() > 0)
+                    .map(hotel -> computeHotel(hotel, from, nights))
+                    .sorted(Comparator.comparing(HotelOccupancy::getHotelName))
+                    .collect(Collectors.toList());
+    }
+    
+    /**
+     * Compute the figures of one hotel for a range of nights.
+     * 
+     * @param hotelName the name of the hotel
+     * @param from the first night
+     * @param to the day after the last night (exclusive)
+     * @return the hotel's figures
+     * @throws IllegalArgumentException if a date is null, the range is empty, the hotel
+     *         does not exist or has no rooms, or its rooms are priced in more than one currency
+     */
+    public HotelOccupancy computeForHotel(String hotelName, LocalDate from, LocalDate to) {
+        int nights = checkRange(from, to);
+        Hotel hotel = chain.getHotel(hotelName);
+        if (hotel == null) {
+            throw new IllegalArgumentException("Hotel '" + hotelName + "' not found");
+        }
+        if (hotel.getRoomCount() == 0) {
+            throw new IllegalArgumentException("Hotel '" + hotelName + "' has no rooms");
+        }
+        return computeHotel(hotel, from, nights);
+    }
+    
+    private HotelOccupancy computeHotel(Hotel hotel, LocalDate from, int nights) {
+        PricingEngine pricing = chain.getPricingEngine();
+        long firstDay = from.toEpochDay();
+        int[] roomsSold = new int[nights];
+        long[] revenue = new long[nights];
+        List<Room> rooms = hotel.getRoomsInSlotOrder();
+        String currency = rooms.get(0).getRoomType().getCost().getCurrency();
+        for (Room room : rooms) {
+            Money cost = room.getRoomType().getCost();
+            if (!cost.getCurrency().equals(currency)) {
+                throw new IllegalArgumentException("Hotel '" + hotel.getNameAsString() + "' prices rooms in both "
+                                                   + currency + " and " + cost.getCurrency());
+            }
+            NightTally tally = new NightTally(pricing.getCalendar(room), cost.getMinorUnits(), firstDay,
+                                              roomsSold, revenue);
+            room.forEachReservation((guest, reservation) ->
+                tally.add(reservation.getStartDate().toEpochDay(), reservation.getEndDate().toEpochDay(),
+                          reservation.getNumberOfGuests().getNumber()));
+            ReservationStore history = room.getStayHistory();
+            for (int row = 0, count = history.size(); row < count; row++) {
+                tally.add(history.getStartDay(row), history.getEndDay(row), history.getGuestCount(row));
+            }
+        }
+        return new HotelOccupancy(hotel.getNameAsString(), from, rooms.size(), currency, roomsSold, revenue);
+    }
+    
+    private static int checkRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Dates cannot be null");
+        }
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("Start date must be before end date");
+        }
+        return Math.toIntExact(to.toEpochDay() - from.toEpochDay());
+    }
+    
+    /**
+     * Adds the nights of one room's stays that fall inside the report range.
+     */
+    private static final class NightTally {
+        private final RateCalendar calendar;
+        private final long baseRate;
+        private final long firstDay;
+        private final int[] roomsSold;
+        private final long[] revenue;
+        
+        NightTally(RateCalendar calendar, long baseRate, long firstDay, int[] roomsSold, long[] revenue) {
+            this.calendar = calendar;
+            this.baseRate = baseRate;
+            this.firstDay = firstDay;
+            this.roomsSold = roomsSold;
+            this.revenue = revenue;
+        }
+        
+        void add(long startDay, long endDay, int guests) {
+            long from = Math.max(startDay, firstDay);
+            long to = Math.min(endDay, firstDay + roomsSold.length);
+            for (long day = from; day < to; day++) {
+                int i = (int) (day - firstDay);
+                roomsSold[i]++;
+                revenue[i] = Math.addExact(revenue[i], calendar.total(day, day + 1, guests, baseRate));
+            }
+        }
+    }
+}
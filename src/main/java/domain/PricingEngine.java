@@ -0,0 +1,249 @@
+package domain;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * PricingEngine prices stays from rate calendars kept per hotel and room kind.
+ * 
+ * Each night of a stay is charged at the rate the calendar of its hotel
+ * and room kind sets for that date, or at the room's own cost when the
+ * calendar has no override for it. Guests beyond the number the rate
+ * covers pay a nightly surcharge on top. Hotels price independently, so
+ * a rate (and its currency) set for one hotel never applies to another,
+ * and a room outside any hotel is always charged its own cost.
+ * 
+ * Calendars are immutable and replaced whole on every change, so quotes
+ * never lock and are not slowed down by rate updates. A quote costs the
+ * same few array reads whether the stay is one night or a month.
+ * 
+ * Responsibilities:
+ * - Store nightly rate overrides and extra-guest surcharges per hotel and room kind
+ * - Quote the total price of a reservation in a room
+ */
+public class PricingEngine {
+    
+    // Calendars of each hotel by hotel name, indexed by RoomKind ordinal; arrays are replaced, never modified
+    private Map<String, RateCalendar[]> calendars;
+    // Told about every rate change (null if quotes are not cached)
+    private QuoteCache quoteCache;
+    
+    /**
+     * Constructor: Creates an engine that charges every room its own cost.
+     */
+    public PricingEngine() {
+        this(null);
+    }
+    
+    /**
+     * Constructor: Creates an engine whose rate changes invalidate a quote cache.
+     * 
+     * @param quoteCache the cache holding quotes made with this engine, or null
+     */
+    PricingEngine(QuoteCache quoteCache) {
+        this.calendars = new ConcurrentHashMap<>();
+        this.quoteCache = quoteCache;
+    }
+    
+    /**
+     * Set the nightly rate of a room kind in a hotel for a range of nights.
+     * 
+     * @param hotelName the hotel the rate applies to
+     * @param kind the room kind
+     * @param from the first night the rate applies to
+     * @param to the day after the last night the rate applies to (exclusive)
+     * @param rate the nightly rate
+     * @throws IllegalArgumentException if any parameter is null, the range is empty,
+     *         or the rate is in another currency than the hotel's existing rates for the kind
+     */
+    public synchronized void setNightlyRate(String hotelName, RoomKind kind, LocalDate from, LocalDate to,
+                                            Money rate) {
+        checkRange(hotelName, kind, from, to);
+        if (rate == null) {
+            throw new IllegalArgumentException("Rate cannot be null");
+        }
+        update(hotelName, kind, stored(hotelName, kind).withRate(from.toEpochDay(), to.toEpochDay(),
+                                                                 rate.getMinorUnits(), rate.getCurrencyCode()),
+               from.toEpochDay(), to.toEpochDay());
+    }
+    
+    /**
+     * Remove the nightly rate overrides of a room kind in a hotel for a range
+     * of nights, so those nights are charged at each room's own cost again.
+     * 
+     * @param hotelName the hotel whose rates are cleared
+     * @param kind the room kind
+     * @param from the first night to clear
+     * @param to the day after the last night to clear (exclusive)
+     * @throws IllegalArgumentException if any parameter is null or the range is empty
+     */
+    public synchronized void clearNightlyRate(String hotelName, RoomKind kind, LocalDate from, LocalDate to) {
+        checkRange(hotelName, kind, from, to);
+        update(hotelName, kind, stored(hotelName, kind).withRate(from.toEpochDay(), to.toEpochDay(), -1, null),
+               from.toEpochDay(), to.toEpochDay());
+    }
+    
+    /**
+     * Set the nightly surcharge for each guest beyond those the rate of a
+     * room kind in a hotel covers.
+     * 
+     * @param hotelName the hotel the surcharge applies to
+     * @param kind the room kind
+     * @param includedGuests the number of guests the nightly rate covers (must be positive)
+     * @param ratePerGuest the nightly charge per additional guest
+     * @throws IllegalArgumentException if any parameter is null, includedGuests is not positive,
+     *         or the rate is in another currency than the hotel's existing rates for the kind
+     */
+    public synchronized void setExtraGuestRate(String hotelName, RoomKind kind, int includedGuests,
+                                               Money ratePerGuest) {
+        checkHotel(hotelName);
+        if (kind == null) {
+            throw new IllegalArgumentException("Room kind cannot be null");
+        }
+        if (includedGuests <= 0) {
+            throw new IllegalArgumentException("Included guests must be positive");
+        }
+        if (ratePerGuest == null) {
+            throw new IllegalArgumentException("Rate cannot be null");
+        }
+        // The surcharge applies to every night
+        update(hotelName, kind, stored(hotelName, kind).withExtraGuestRate(ratePerGuest.getMinorUnits(),
+                                                                            includedGuests,
+                                                                            ratePerGuest.getCurrencyCode()),
+               Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+    
+    /**
+     * Get the rate a room is charged for one night, before guest surcharges.
+     * 
+     * @param room the room
+     * @param night the night
+     * @return the nightly rate
+     * @throws IllegalArgumentException if any parameter is null or the room's cost
+     *         is in another currency than its kind's rates
+     */
+    public Money getNightlyRate(Room room, LocalDate night) {
+        if (room == null || night == null) {
+            throw new IllegalArgumentException("Room and night cannot be null");
+        }
+        Money cost = room.getRoomType().getCost();
+        RateCalendar calendar = calendarFor(room, cost);
+        return Money.ofMinorUnits(calendar.rateFor(night.toEpochDay(), cost.getMinorUnits()), cost.getCurrency());
+    }
+    
+    /**
+     * Quote the total price of a reservation in a room: every night at its
+     * nightly rate, plus the surcharge for each guest the rate does not cover.
+     * 
+     * @param room the room
+     * @param reservation the reservation
+     * @return the total price, in the currency of the room's cost
+     * @throws IllegalArgumentException if any parameter is null or the room's cost
+     *         is in another currency than its kind's rates
+     * @throws ArithmeticException if the total overflows
+     */
+    public Money quote(Room room, Reservation reservation) {
+        if (room == null || reservation == null) {
+            throw new IllegalArgumentException("Room and reservation cannot be null");
+        }
+        Money cost = room.getRoomType().getCost();
+        return Money.ofMinorUnits(quoteMinorUnits(room, reservation.getStartDate(), reservation.getEndDate(),
+                                                  reservation.getNumberOfGuests().getNumber()),
+                                  cost.getCurrency());
+    }
+    
+    /**
+     * Quote a stay without allocating, for pricing many rooms at once.
+     * 
+     * @param room the room
+     * @param start the first night
+     * @param end the departure day (exclusive)
+     * @param guests the number of guests
+     * @return the total price in minor units of the room's cost currency
+     * @throws IllegalArgumentException if any parameter is null or the room's cost
+     *         is in another currency than its kind's rates
+     * @throws ArithmeticException if the total overflows
+     */
+    public long quoteMinorUnits(Room room, LocalDate start, LocalDate end, int guests) {
+        if (room == null || start == null || end == null) {
+            throw new IllegalArgumentException("Room and dates cannot be null");
+        }
+        Money cost = room.getRoomType().getCost();
+        RateCalendar calendar = calendarFor(room, cost);
+        return calendar.total(start.toEpochDay(), end.toEpochDay(), guests, cost.getMinorUnits());
+    }
+    
+    /**
+     * Get the rate calendar a room is priced with, for pricing many nights
+     * of the same room without looking it up again.
+     * 
+     * @param room the room
+     * @return the calendar of the room's hotel and kind
+     * @throws IllegalArgumentException if the room's cost is in another currency than its kind's rates
+     */
+    RateCalendar getCalendar(Room room) {
+        return calendarFor(room, room.getRoomType().getCost());
+    }
+    
+    private RateCalendar calendarFor(Room room, Money cost) {
+        Hotel hotel = room.getHotel();
+        if (hotel == null) {
+            return RateCalendar.EMPTY;
+        }
+        RateCalendar[] hotelCalendars = calendars.get(hotel.getNameAsString());
+        if (hotelCalendars == null) {
+            return RateCalendar.EMPTY;
+        }
+        RoomKind kind = room.getRoomType().getKind();
+        RateCalendar calendar = hotelCalendars[kind.ordinal()];
+        CurrencyCode currency = calendar.getCurrency();
+        if (currency != null && currency != cost.getCurrencyCode()) {
+            throw new IllegalArgumentException("Room cost is in " + cost.getCurrency() + " but " + kind
+                                               + " rates of " + hotel.getNameAsString() + " are in " + currency);
+        }
+        return calendar;
+    }
+    
+    private RateCalendar stored(String hotelName, RoomKind kind) {
+        RateCalendar[] hotelCalendars = calendars.get(hotelName);
+        return hotelCalendars == null ? RateCalendar.EMPTY : hotelCalendars[kind.ordinal()];
+    }
+    
+    private void update(String hotelName, RoomKind kind, RateCalendar calendar, long startDay, long endDay) {
+        RateCalendar[] hotelCalendars = calendars.get(hotelName);
+        RateCalendar[] copy;
+        if (hotelCalendars == null) {
+            copy = new RateCalendar[RoomKind.values().length];
+            Arrays.fill(copy, RateCalendar.EMPTY);
+        } else {
+            copy = hotelCalendars.clone();
+        }
+        copy[kind.ordinal()] = calendar;
+        calendars.put(hotelName, copy);
+        // After publishing, so a quote cached from here on sees the new rates
+        if (quoteCache != null) {
+            quoteCache.ratesChanged(hotelName, kind, startDay, endDay);
+        }
+    }
+    
+    private static void checkHotel(String hotelName) {
+        if (hotelName == null || hotelName.trim().isEmpty()) {
+            throw new IllegalArgumentException("Hotel name cannot be null or empty");
+        }
+    }
+    
+    private static void checkRange(String hotelName, RoomKind kind, LocalDate from, LocalDate to) {
+        checkHotel(hotelName);
+        if (kind == null) {
+            throw new IllegalArgumentException("Room kind cannot be null");
+        }
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Dates cannot be null");
+        }
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("Start date must be before end date");
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package domain;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * QuoteCache remembers the results of room searches, so a search repeated
+ * with the same hotel, dates, room kind and guest count is answered without
+ * touching the hotel's rooms or rate calendars.
+ * 
+ * The cache holds a bounded number of searches. Entries are dropped
+ * precisely: a reservation change only removes the searches of the same
+ * hotel and room kind whose dates overlap it, and a rate change only those
+ * of that hotel and room kind whose dates overlap the changed nights.
+ * A change is only recorded when it happens; the searches it affects are
+ * dropped when they are next looked up (or evicted as least recently used),
+ * so the work done while a change holds its locks does not grow with the
+ * number of cached searches.
+ * 
+ * Each hotel's searches live in their own segment with its own lock, so
+ * booking in one hotel never waits for, or invalidates, another hotel's
+ * entries. When the cache is full, the least recently used search of the
+ * hotel being stored to is evicted, or of another hotel if it has none.
+ * 
+ * A search computed while a change was being applied may already be stale,
+ * so results are only stored if no change to the same hotel and room kind
+ * was seen since the search started. The change callbacks run under the
+ * room and hotel locks, and a segment lock is only ever taken after them,
+ * never together with another segment's. They hold it just long enough to
+ * record the change.
+ * 
+ * Responsibilities:
+ * - Store search results per hotel within a chain-wide size bound
+ * - Drop the results affected by reservation, room and rate changes
+ * - Count hits, misses, evictions and invalidations
+ */
+class QuoteCache {
+    
+    // Recent changes remembered per room kind; an entry older than all of them is dropped unchecked
+    private static final int CHANGE_HISTORY = 64;
+    
+    private int maxEntries;
+    // Searches of each hotel, created by the first search of the hotel
+    private Map<String, Segment> segments;
+    // Entries in all segments
+    private AtomicInteger size;
+    private QuoteCacheStats stats;
+    
+    /**
+     * Constructor: Creates an empty cache.
+     * 
+     * @param maxEntries the number of searches kept before the least recently used is evicted
+     * @throws IllegalArgumentException if maxEntries is not positive
+     */
+    QuoteCache(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.segments = new ConcurrentHashMap<>();
+        this.size = new AtomicInteger();
+        this.stats = new QuoteCacheStats();
+    }
+    
+    /**
+     * Get the usage counters of this cache.
+     * 
+     * @return the cache statistics
+     */
+    QuoteCacheStats getStats() {
+        return stats;
+    }
+    
+    /**
+     * Get the number of searches currently cached.
+     * 
+     * @return number of entries
+     */
+    int size() {
+        return size.get();
+    }
+    
+    /**
+     * Get the result of a search from the cache, or run it and cache it.
+     * 
+     * @param hotelName the hotel searched
+     * @param startDay the first night, as an epoch day
+     * @param endDay the departure day, as an epoch day
+     * @param kind the room kind searched, or null for any kind
+     * @param guests the number of guests
+     * @param search runs the search on a miss; called without any cache lock
+     * @return the search result
+     */
+    List<RoomQuote> lookup(String hotelName, long startDay, long endDay, RoomKind kind, int guests,
+                           Supplier<List<RoomQuote>> search) {
+        Key key = new Key(hotelName, startDay, endDay, kind, guests);
+        Segment segment = segments.computeIfAbsent(hotelName, name -> new Segment());
+        long stamp;
+        synchronized (segment) {
+            Entry cached = segment.entries.get(key);
+            if (cached != null) {
+                if (segment.isCurrent(cached, key)) {
+                    stats.recordHit();
+                    return cached.quotes;
+                }
+                segment.entries.remove(key);
+                size.decrementAndGet();
+                stats.recordInvalidations(1);
+            }
+            stamp = segment.generation(kind);
+        }
+        stats.recordMiss();
+        List<RoomQuote> result = search.get();
+        boolean stored = false;
+        synchronized (segment) {
+            if (segment.generation(kind) == stamp && !segment.entries.containsKey(key)) {
+                segment.entries.put(key, new Entry(result, stamp));
+                stored = true;
+            }
+        }
+        if (stored && size.incrementAndGet() > maxEntries) {
+            evictOne(segment);
+        }
+        return result;
+    }
+    
+    private void evictOne(Segment preferred) {
+        if (preferred.evictEldest(1)) {
+            return;
+        }
+        for (Segment segment : segments.values()) {
+            if (segment != preferred && segment.evictEldest(0)) {
+                return;
+            }
+        }
+        // Only the entry just stored is left
+        preferred.evictEldest(0);
+    }
+    
+    /**
+     * Drop the searches of a hotel affected by a change to rooms of one kind.
+     * 
+     * @param hotelName the hotel that changed
+     * @param kind the kind of the room that changed
+     * @param startDay the first changed night, as an epoch day
+     * @param endDay the day after the last changed night, as an epoch day
+     */
+    void roomsChanged(String hotelName, RoomKind kind, long startDay, long endDay) {
+        // A hotel without a segment has never been searched, so nothing can be stale
+        Segment segment = segments.get(hotelName);
+        if (segment != null) {
+            segment.invalidate(kind, startDay, endDay);
+        }
+    }
+    
+    /**
+     * Drop the searches of a hotel affected by a change of nightly rates.
+     * 
+     * @param hotelName the hotel whose rates changed
+     * @param kind the room kind whose rates changed
+     * @param startDay the first changed night, as an epoch day
+     * @param endDay the day after the last changed night, as an epoch day
+     */
+    void ratesChanged(String hotelName, RoomKind kind, long startDay, long endDay) {
+        roomsChanged(hotelName, kind, startDay, endDay);
+    }
+    
+    /**
+     * The cached searches of one hotel, guarded by the segment's monitor.
+     */
+    private final class Segment {
+        private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+        // Changes seen per room kind, and (in the last slot) to any kind;
+        // a search started before a change to its kind is not stored
+        private final long[] generations = new long[RoomKind.values().length + 1];
+        // The nights of the latest changes of each slot, at generation % CHANGE_HISTORY
+        private final long[][] changeStarts = new long[generations.length][CHANGE_HISTORY];
+        private final long[][] changeEnds = new long[generations.length][CHANGE_HISTORY];
+        
+        long generation(RoomKind kind) {
+            return generations[slot(kind)];
+        }
+        
+        synchronized void invalidate(RoomKind kind, long startDay, long endDay) {
+            record(kind.ordinal(), startDay, endDay);
+            record(generations.length - 1, startDay, endDay);
+        }
+        
+        private void record(int slot, long startDay, long endDay) {
+            int index = (int) (++generations[slot] % CHANGE_HISTORY);
+            changeStarts[slot][index] = startDay;
+            changeEnds[slot][index] = endDay;
+        }
+        
+        /**
+         * Check that no change since the entry was stored overlaps its
+         * dates, and if so mark it as checked up to the latest change.
+         */
+        boolean isCurrent(Entry entry, Key key) {
+            int slot = slot(key.kind);
+            long latest = generations[slot];
+            if (latest - entry.stamp > CHANGE_HISTORY) {
+                return false;
+            }
+            for (long generation = entry.stamp + 1; generation <= latest; generation++) {
+                int index = (int) (generation % CHANGE_HISTORY);
+                if (key.overlaps(changeStarts[slot][index], changeEnds[slot][index])) {
+                    return false;
+                }
+            }
+            entry.stamp = latest;
+            return true;
+        }
+        
+        private int slot(RoomKind kind) {
+            return kind == null ? generations.length - 1 : kind.ordinal();
+        }
+        
+        /**
+         * Evict the least recently used entry if more than keep entries are cached.
+         */
+        synchronized boolean evictEldest(int keep) {
+            if (entries.size() <= keep) {
+                return false;
+            }
+            Iterator<Key> eldest = entries.keySet().iterator();
+            eldest.next();
+            eldest.remove();
+            size.decrementAndGet();
+            stats.recordEviction();
+            return true;
+        }
+    }
+    
+    /**
+     * The result of one search and the latest change of its room kind it is known to be current with.
+     */
+    private static final class Entry {
+        private final List<RoomQuote> quotes;
+        private long stamp;
+        
+        Entry(List<RoomQuote> quotes, long stamp) {
+            this.quotes = quotes;
+            this.stamp = stamp;
+        }
+    }
+    
+    /**
+     * The parameters of one search.
+     */
+    private static final class Key {
+        private final String hotelName;
+        private final long startDay;
+        private final long endDay;
+        private final RoomKind kind;
+        private final int guests;
+        private final int hash;
+        
+        Key(String hotelName, long startDay, long endDay, RoomKind kind, int guests) {
+            this.hotelName = hotelName;
+            this.startDay = startDay;
+            this.endDay = endDay;
+            this.kind = kind;
+            this.guests = guests;
+            int h = hotelName.hashCode();
+            h = 31 * h + Long.hashCode(startDay);
+            h = 31 * h + Long.hashCode(endDay);
+            h = 31 * h + (kind == null ? 0 : kind.ordinal() + 1);
+            this.hash = 31 * h + guests;
+        }
+        
+        boolean overlaps(long changedStart, long changedEnd) {
+            return changedStart < endDay && startDay < changedEnd;
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof Key)) return false;
+            Key other = (Key) obj;
+            return startDay == other.startDay && endDay == other.endDay && guests == other.guests
+                   && kind == other.kind && hotelName.equals(other.hotelName);
+        }
+        
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package domain;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * QuoteCacheStats counts how the chain's quote cache is used.
+ * 
+ * Responsibilities:
+ * - Count searches answered from the cache and searches that missed
+ * - Count entries evicted to stay within the size bound
+ * - Count entries dropped because a reservation, room or rate changed
+ */
+public class QuoteCacheStats {
+    
+    private LongAdder hits;
+    private LongAdder misses;
+    private LongAdder evictions;
+    private LongAdder invalidations;
+    
+    /**
+     * Constructor: Creates a QuoteCacheStats with all counters at zero.
+     */
+    public QuoteCacheStats() {
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.evictions = new LongAdder();
+        this.invalidations = new LongAdder();
+    }
+    
+    void recordHit() {
+        hits.increment();
+    }
+    
+    void recordMiss() {
+        misses.increment();
+    }
+    
+    void recordEviction() {
+        evictions.increment();
+    }
+    
+    void recordInvalidations(int count) {
+        invalidations.add(count);
+    }
+    
+    /**
+     * Get the number of searches answered from the cache.
+     * 
+     * @return number of hits
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+    
+    /**
+     * Get the number of searches that had to query the hotel.
+     * 
+     * @return number of misses
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+    
+    /**
+     * Get the number of entries evicted because the cache was full.
+     * 
+     * @return number of evictions
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+    
+    /**
+     * Get the number of entries dropped because the data behind them changed.
+     * 
+     * @return number of invalidated entries
+     */
+    public long getInvalidations() {
+        return invalidations.sum();
+    }
+    
+    /**
+     * Get the share of searches answered from the cache.
+     * 
+     * @return hits divided by all lookups, or 0 if there were none
+     */
+    public double getHitRate() {
+        long hitCount = getHits();
+        long total = hitCount + getMisses();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+    
+    /**
+     * Reset all counters to zero.
+     */
+    public void reset() {
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+        invalidations.reset();
+    }
+    
+    /**
+     * Get string representation of these statistics.
+     * 
+     * @return string with all counters
+     */
+    @Override
+    public String toString() {
+        return "hits=" + getHits() + ", misses=" + getMisses() + 
+               ", evictions=" + getEvictions() + ", invalidations=" + getInvalidations();
+    }
+}
@@ -0,0 +1,173 @@
+package domain;
+
+import java.util.Arrays;
+
+/**
+ * RateCalendar holds the nightly rate overrides of one room kind.
+ * It is immutable: every change produces a new calendar, so quotes read
+ * it without locking.
+ * 
+ * Rates are kept in a primitive array indexed by night, counted in days
+ * from the first night the calendar covers. Alongside it are prefix sums of
+ * the override amounts and of the number of overridden nights, so the total
+ * for any stay is found with a handful of array reads, whatever its length.
+ * Nights without an override are charged at the room's own base rate.
+ * 
+ * Responsibilities:
+ * - Store date-specific nightly rates in minor units
+ * - Total the nightly rates of a stay
+ * - Hold the per-extra-guest surcharge of the room kind
+ */
+final class RateCalendar {
+    
+    // Marks a night that has no override
+    private static final long NO_RATE = -1;
+    
+    static final RateCalendar EMPTY = new RateCalendar(null, 0, new long[0], 0, Integer.MAX_VALUE);
+    
+    // Currency of every amount in this calendar; null while it holds none
+    private CurrencyCode currency;
+    // Epoch day of rates[0]
+    private long firstDay;
+    private long[] rates;
+    // overrideSums[i] is the sum of the overrides on nights [0, i)
+    private long[] overrideSums;
+    // overrideCounts[i] is the number of overridden nights in [0, i)
+    private int[] overrideCounts;
+    private long extraGuestRate;
+    private int includedGuests;
+    
+    private RateCalendar(CurrencyCode currency, long firstDay, long[] rates,
+                         long extraGuestRate, int includedGuests) {
+        this.currency = currency;
+        this.firstDay = firstDay;
+        this.rates = rates;
+        this.extraGuestRate = extraGuestRate;
+        this.includedGuests = includedGuests;
+        this.overrideSums = new long[rates.length + 1];
+        this.overrideCounts = new int[rates.length + 1];
+        for (int i = 0; i < rates.length; i++) {
+            boolean overridden = rates[i] != NO_RATE;
+            overrideSums[i + 1] = overrideSums[i] + (overridden ? rates[i] : 0);
+            overrideCounts[i + 1] = overrideCounts[i] + (overridden ? 1 : 0);
+        }
+    }
+    
+    /**
+     * Get the currency of the amounts in this calendar.
+     * 
+     * @return the currency, or null if the calendar holds no amounts
+     */
+    CurrencyCode getCurrency() {
+        return currency;
+    }
+    
+    /**
+     * Get the rate charged for one night.
+     * 
+     * @param epochDay the night, as an epoch day
+     * @param baseRate the rate charged when the night has no override
+     * @return the nightly rate in minor units
+     */
+    long rateFor(long epochDay, long baseRate) {
+        long index = epochDay - firstDay;
+        if (index < 0 || index >= rates.length || rates[(int) index] == NO_RATE) {
+            return baseRate;
+        }
+        return rates[(int) index];
+    }
+    
+    /**
+     * Total the nightly rates of a stay, including extra-guest surcharges.
+     * 
+     * @param startDay the first night, as an epoch day
+     * @param endDay the departure day, as an epoch day (exclusive)
+     * @param guests the number of guests staying
+     * @param baseRate the rate charged on nights without an override
+     * @return the total in minor units
+     * @throws ArithmeticException if the total overflows
+     */
+    long total(long startDay, long endDay, int guests, long baseRate) {
+        long nights = endDay - startDay;
+        if (nights <= 0) {
+            return 0;
+        }
+        // Only the part of the stay inside the calendar can have overrides
+        long from = Math.max(0, Math.min(rates.length, startDay - firstDay));
+        long to = Math.max(0, Math.min(rates.length, endDay - firstDay));
+        long overridden = overrideCounts[(int) to] - overrideCounts[(int) from];
+        long total = Math.addExact(overrideSums[(int) to] - overrideSums[(int) from],
+                                   Math.multiplyExact(nights - overridden, baseRate));
+        int extraGuests = guests - includedGuests;
+        if (extraGuests > 0 && extraGuestRate > 0) {
+            total = Math.addExact(total, Math.multiplyExact(Math.multiplyExact(nights, extraGuests),
+                                                            extraGuestRate));
+        }
+        return total;
+    }
+    
+    /**
+     * Return a copy of this calendar with the nights [startDay, endDay) set
+     * to a rate, or cleared when rate is negative.
+     * 
+     * @param startDay the first night, as an epoch day
+     * @param endDay the night after the last, as an epoch day
+     * @param rate the nightly rate in minor units, or a negative value to clear
+     * @param rateCurrency the currency of the rate
+     * @return the updated calendar
+     */
+    RateCalendar withRate(long startDay, long endDay, long rate, CurrencyCode rateCurrency) {
+        long value = rate < 0 ? NO_RATE : rate;
+        long newFirst = startDay;
+        long newEnd = endDay;
+        if (rates.length > 0) {
+            if (value == NO_RATE) {
+                // Clearing never needs to grow the calendar
+                newFirst = firstDay;
+                newEnd = firstDay + rates.length;
+            } else {
+                newFirst = Math.min(firstDay, startDay);
+                newEnd = Math.max(firstDay + rates.length, endDay);
+            }
+        } else if (value == NO_RATE) {
+            return this;
+        }
+        if (newEnd - newFirst > Integer.MAX_VALUE - 1) {
+            throw new IllegalArgumentException("Rate calendar cannot span more than " + (Integer.MAX_VALUE - 1) + " nights");
+        }
+        long[] copy = new long[(int) (newEnd - newFirst)];
+        Arrays.fill(copy, NO_RATE);
+        if (rates.length > 0) {
+            System.arraycopy(rates, 0, copy, (int) (firstDay - newFirst), rates.length);
+        }
+        long from = Math.max(startDay, newFirst) - newFirst;
+        long to = Math.min(endDay, newEnd) - newFirst;
+        if (from < to) {
+            Arrays.fill(copy, (int) from, (int) to, value);
+        }
+        return new RateCalendar(currencyAfter(value != NO_RATE, rateCurrency), newFirst, copy,
+                                extraGuestRate, includedGuests);
+    }
+    
+    /**
+     * Return a copy of this calendar with a new extra-guest surcharge.
+     * 
+     * @param rate the nightly charge per guest beyond the included ones, in minor units
+     * @param included the number of guests the nightly rate covers
+     * @param rateCurrency the currency of the charge
+     * @return the updated calendar
+     */
+    RateCalendar withExtraGuestRate(long rate, int included, CurrencyCode rateCurrency) {
+        return new RateCalendar(currencyAfter(true, rateCurrency), firstDay, rates, rate, included);
+    }
+    
+    private CurrencyCode currencyAfter(boolean adding, CurrencyCode rateCurrency) {
+        if (!adding) {
+            return currency;
+        }
+        if (currency != null && currency != rateCurrency) {
+            throw new IllegalArgumentException("Currency mismatch: calendar is in " + currency + ", rate is in " + rateCurrency);
+        }
+        return rateCurrency;
+    }
+}
@@ -1,6 +1,7 @@
 package domain;
 
 import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Reservation represents a booking for a guest in a room.
@@ -9,14 +10,23 @@ import java.time.LocalDate;
  * Responsibilities:
  * - Store reservation dates (reservation date, start date, end date)
  * - Store guest count (number of occupants)
+ * - Identify the reservation with a unique, time-ordered id
  * - Provide reservation information
  */
 public class Reservation {
     
+    // Ids hold milliseconds since the epoch in the high bits and a counter in the low bits
+    private static final int SEQUENCE_BITS = 16;
+    // Last id handed out; ids only ever grow
+    private static final AtomicLong LAST_ID = new AtomicLong();
+    
+    private long id;
     private LocalDate reservationDate;
     private LocalDate startDate;
     private LocalDate endDate;
     private HowMany numberOfGuests;
+    // Who booked and pays for this reservation (set when booked through a HotelChain)
+    private ReserverPayer reserverPayer;
     
     /**
      * Constructor: Creates a Reservation with all required information.
@@ -47,6 +57,52 @@ public class Reservation {
         this.startDate = startDate;
         this.endDate = endDate;
         this.numberOfGuests = guests;
+        this.id = nextId();
+    }
+    
+    /**
+     * Constructor: Recreates a stored reservation with its original id.
+     * The data was validated when the reservation was first made.
+     * 
+     * @param id the reservation id
+     * @param startDate the check-in date
+     * @param endDate the check-out date
+     * @param guests the number of guests
+     */
+    Reservation(long id, LocalDate startDate, LocalDate endDate, HowMany guests) {
+        this.id = id;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.numberOfGuests = guests;
+    }
+    
+    /**
+     * Hand out the next reservation id. Ids are ordered by creation time and
+     * stay unique even when the clock does not advance or moves backwards.
+     */
+    static long nextId() {
+        long candidate = System.currentTimeMillis() << SEQUENCE_BITS;
+        return LAST_ID.accumulateAndGet(candidate, (last, now) -> Math.max(last + 1, now));
+    }
+    
+    /**
+     * Get the unique id of this reservation.
+     * 
+     * @return the reservation id
+     */
+    public long getId() {
+        return id;
+    }
+    
+    /**
+     * Give this reservation the id it had before a restart.
+     * Later reservations get larger ids.
+     * 
+     * @param restored the recorded id
+     */
+    void restoreId(long restored) {
+        this.id = restored;
+        LAST_ID.accumulateAndGet(restored, Math::max);
     }
     
     /**
@@ -85,6 +141,24 @@ public class Reservation {
         return numberOfGuests;
     }
     
+    /**
+     * Get the person who booked and pays for this reservation.
+     * 
+     * @return the reserver/payer, or null if the reservation was added to a room directly
+     */
+    public ReserverPayer getReserverPayer() {
+        return reserverPayer;
+    }
+    
+    /**
+     * Record who booked and pays for this reservation.
+     * 
+     * @param reserverPayer the reserver/payer
+     */
+    void setReserverPayer(ReserverPayer reserverPayer) {
+        this.reserverPayer = reserverPayer;
+    }
+    
     /**
      * Get the number of nights for this reservation.
      * 
@@ -0,0 +1,119 @@
+package domain;
+
+/**
+ * ReservationEvent describes one completed change to a reservation,
+ * as published on a HotelChain's event bus. It is a value object (immutable).
+ * 
+ * Responsibilities:
+ * - Tell what happened, where, to whom and in which order
+ */
+public class ReservationEvent {
+    
+    private long sequence;
+    private ReservationEventType type;
+    private String hotelName;
+    private int roomNumber;
+    private String guestId;
+    private long reservationId;
+    private long timestamp;
+    
+    /**
+     * Constructor: Creates a ReservationEvent.
+     * 
+     * @param sequence the position of the event among all events of the bus
+     * @param type what happened
+     * @param hotelName the hotel
+     * @param roomNumber the room
+     * @param guestId the guest the change concerns
+     * @param reservationId the reservation the change concerns
+     * @param timestamp when the change was published, in milliseconds since the epoch
+     */
+    ReservationEvent(long sequence, ReservationEventType type, String hotelName, int roomNumber,
+                     String guestId, long reservationId, long timestamp) {
+        this.sequence = sequence;
+        this.type = type;
+        this.hotelName = hotelName;
+        this.roomNumber = roomNumber;
+        this.guestId = guestId;
+        this.reservationId = reservationId;
+        this.timestamp = timestamp;
+    }
+    
+    /**
+     * Get the position of this event among all events published by its bus.
+     * Sequences follow the order changes were committed in, and events reach
+     * every subscriber in sequence order; numbers of changes that failed
+     * after committing leave gaps. Changes made while nobody was subscribed
+     * take no number.
+     * 
+     * @return the sequence number, starting at 1
+     */
+    public long getSequence() {
+        return sequence;
+    }
+    
+    /**
+     * Get what happened.
+     * 
+     * @return the event type
+     */
+    public ReservationEventType getType() {
+        return type;
+    }
+    
+    /**
+     * Get the name of the hotel.
+     * 
+     * @return the hotel name
+     */
+    public String getHotelName() {
+        return hotelName;
+    }
+    
+    /**
+     * Get the room number.
+     * 
+     * @return the room number
+     */
+    public int getRoomNumber() {
+        return roomNumber;
+    }
+    
+    /**
+     * Get the identifier of the guest the change concerns.
+     * 
+     * @return the guest ID
+     */
+    public String getGuestId() {
+        return guestId;
+    }
+    
+    /**
+     * Get the id of the reservation the change concerns.
+     * 
+     * @return the reservation id
+     */
+    public long getReservationId() {
+        return reservationId;
+    }
+    
+    /**
+     * Get the time the event was published.
+     * 
+     * @return milliseconds since the epoch
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+    
+    /**
+     * Get string representation of this event.
+     * 
+     * @return string with the sequence, type, room and guest
+     */
+    @Override
+    public String toString() {
+        return "#" + sequence + " " + type + " " + hotelName + " room " + roomNumber + 
+               " guest '" + guestId + "' reservation " + reservationId;
+    }
+}
@@ -0,0 +1,17 @@
+package domain;
+
+/**
+ * ReservationEventListener receives the events of one subscription to a
+ * HotelChain's event bus. It is called on the subscription's own thread,
+ * one event at a time and in publication order.
+ */
+@FunctionalInterface
+public interface ReservationEventListener {
+    
+    /**
+     * Handle one event.
+     * 
+     * @param event the event
+     */
+    void onEvent(ReservationEvent event);
+}
@@ -0,0 +1,18 @@
+package domain;
+
+/**
+ * ReservationEventType is an enumeration of the changes HotelChain
+ * publishes on its event bus.
+ * 
+ * Values:
+ * - RESERVED: A reservation was made
+ * - CANCELLED: A reservation was cancelled
+ * - CHECKED_IN: A guest checked in
+ * - CHECKED_OUT: A guest checked out (and the reservation ended)
+ */
+public enum ReservationEventType {
+    RESERVED,
+    CANCELLED,
+    CHECKED_IN,
+    CHECKED_OUT
+}
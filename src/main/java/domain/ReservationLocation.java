@@ -0,0 +1,87 @@
+package domain;
+
+/**
+ * ReservationLocation tells where a reservation is held: its hotel, its room
+ * and the guest it belongs to. HotelChain indexes these by reservation id.
+ * 
+ * Responsibilities:
+ * - Bundle a reservation with its hotel, room and guest identifier
+ */
+public class ReservationLocation {
+    
+    private Hotel hotel;
+    private Room room;
+    private Guest guest;
+    private Reservation reservation;
+    
+    /**
+     * Constructor: Creates a ReservationLocation.
+     * 
+     * @param hotel the hotel holding the reservation
+     * @param room the reserved room
+     * @param guest the guest who holds the reservation
+     * @param reservation the reservation
+     */
+    ReservationLocation(Hotel hotel, Room room, Guest guest, Reservation reservation) {
+        this.hotel = hotel;
+        this.room = room;
+        this.guest = guest;
+        this.reservation = reservation;
+    }
+    
+    /**
+     * Get the hotel holding the reservation.
+     * 
+     * @return the hotel
+     */
+    public Hotel getHotel() {
+        return hotel;
+    }
+    
+    /**
+     * Get the reserved room.
+     * 
+     * @return the room
+     */
+    public Room getRoom() {
+        return room;
+    }
+    
+    /**
+     * Get the guest who holds the reservation.
+     * 
+     * @return the guest
+     */
+    public Guest getGuest() {
+        return guest;
+    }
+    
+    /**
+     * Get the identifier of the guest who holds the reservation.
+     * 
+     * @return the guest ID (the guest's full name)
+     */
+    public String getGuestId() {
+        return guest.getName().getFullName();
+    }
+    
+    /**
+     * Get the reservation.
+     * 
+     * @return the reservation
+     */
+    public Reservation getReservation() {
+        return reservation;
+    }
+    
+    /**
+     * Get string representation of this location.
+     * 
+     * @return string with the reservation id, hotel, room and guest
+     */
+    @Override
+    public String toString() {
+        return "Reservation " + reservation.getId() + " at " + hotel.getNameAsString() +
+               ", room " + room.getNumber() + " for " + getGuestId();
+    }
+}
@@ -0,0 +1,93 @@
+package domain;
+
+/**
+ * ReservationRequest is one booking in a batch sent to
+ * HotelChain.makeReservations: the room wanted, who stays and who pays.
+ * 
+ * Responsibilities:
+ * - Bundle the parameters of a single reservation
+ */
+public class ReservationRequest {
+    
+    private String hotelName;
+    private int roomNumber;
+    private Guest guest;
+    private ReserverPayer reserverPayer;
+    private Reservation reservation;
+    
+    /**
+     * Constructor: Creates a ReservationRequest.
+     * 
+     * @param hotelName the name of the hotel
+     * @param roomNumber the room number
+     * @param guest the guest making the reservation
+     * @param reserverPayer the person paying for the reservation
+     * @param reservation the reservation details
+     * @throws IllegalArgumentException if any parameter is null or hotelName is empty
+     */
+    public ReservationRequest(String hotelName, int roomNumber, Guest guest,
+                              ReserverPayer reserverPayer, Reservation reservation) {
+        if (hotelName == null || hotelName.trim().isEmpty()) {
+            throw new IllegalArgumentException("Hotel name cannot be null or empty");
+        }
+        if (guest == null) {
+            throw new IllegalArgumentException("Guest cannot be null");
+        }
+        if (reserverPayer == null) {
+            throw new IllegalArgumentException("ReserverPayer cannot be null");
+        }
+        if (reservation == null) {
+            throw new IllegalArgumentException("Reservation cannot be null");
+        }
+        this.hotelName = hotelName;
+        this.roomNumber = roomNumber;
+        this.guest = guest;
+        this.reserverPayer = reserverPayer;
+        this.reservation = reservation;
+    }
+    
+    /**
+     * Get the name of the hotel.
+     * 
+     * @return the hotel name
+     */
+    public String getHotelName() {
+        return hotelName;
+    }
+    
+    /**
+     * Get the room number.
+     * 
+     * @return the room number
+     */
+    public int getRoomNumber() {
+        return roomNumber;
+    }
+    
+    /**
+     * Get the guest making the reservation.
+     * 
+     * @return the guest
+     */
+    public Guest getGuest() {
+        return guest;
+    }
+    
+    /**
+     * Get the person paying for the reservation.
+     * 
+     * @return the payer
+     */
+    public ReserverPayer getReserverPayer() {
+        return reserverPayer;
+    }
+    
+    /**
+     * Get the reservation details.
+     * 
+     * @return the reservation
+     */
+    public Reservation getReservation() {
+        return reservation;
+    }
+}
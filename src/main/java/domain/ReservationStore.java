@@ -0,0 +1,155 @@
+package domain;
+
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * ReservationStore keeps reservations as rows of primitive fields instead
+ * of one object graph per booking: an id, start and end epoch days and a
+ * guest count per row. Reservation objects are only created when a caller
+ * asks for a row.
+ * 
+ * Rows are only ever appended. Appends must be serialized by the caller;
+ * reads take no lock and see every row below the size they read.
+ * 
+ * Implementations:
+ * - HeapReservationStore: primitive arrays on the Java heap
+ * - ArchivedReservationStore: blocks of a StayArchive, outside the heap
+ * 
+ * Responsibilities:
+ * - Append reservations as rows
+ * - Read single fields of a row without creating objects
+ * - Materialize a row as a Reservation on demand
+ */
+abstract class ReservationStore {
+    
+    /**
+     * Append a reservation given as its fields. Callers must not append concurrently.
+     * 
+     * @param id the reservation id
+     * @param startDay the first night as epoch day
+     * @param endDay the check-out day as epoch day
+     * @param guests the number of guests
+     * @param version the version of the owning room once the row is added
+     */
+    abstract void add(long id, long startDay, long endDay, int guests, long version);
+    
+    /**
+     * Get the number of rows.
+     * 
+     * @return number of stored reservations
+     */
+    abstract int size();
+    
+    /**
+     * Get the room version of the last row this store already held when it
+     * was opened. Stores that outlive the process hold every stay up to this
+     * version, so a journal replay must not add those again.
+     * 
+     * @return the recovered version, or Long.MIN_VALUE if the store started empty
+     */
+    abstract long getRecoveredVersion();
+    
+    /**
+     * Check if the rows are kept in a StayArchive.
+     * 
+     * @return true for archived stores
+     */
+    abstract boolean isArchived();
+    
+    /**
+     * Check if the rows survive a restart on their own, so journals and
+     * snapshots need not copy them.
+     * 
+     * @return true if the store persists its own rows
+     */
+    boolean isPersistent() {
+        return false;
+    }
+    
+    /**
+     * Get the reservation id of a row.
+     * 
+     * @param row the row
+     * @return the id
+     * @throws IndexOutOfBoundsException if the row does not exist
+     */
+    abstract long getId(int row);
+    
+    /**
+     * Get the first night of a row as an epoch day.
+     * 
+     * @param row the row
+     * @return the start day
+     * @throws IndexOutOfBoundsException if the row does not exist
+     */
+    abstract int getStartDay(int row);
+    
+    /**
+     * Get the check-out day of a row as an epoch day.
+     * 
+     * @param row the row
+     * @return the end day (exclusive)
+     * @throws IndexOutOfBoundsException if the row does not exist
+     */
+    abstract int getEndDay(int row);
+    
+    /**
+     * Get the number of guests of a row.
+     * 
+     * @param row the row
+     * @return the guest count
+     * @throws IndexOutOfBoundsException if the row does not exist
+     */
+    abstract int getGuestCount(int row);
+    
+    /**
+     * Create a Reservation holding a row's data. Each call creates a new object.
+     * 
+     * @param row the row
+     * @return the reservation, with the stored id and no reserver/payer
+     * @throws IndexOutOfBoundsException if the row does not exist
+     */
+    Reservation materialize(int row) {
+        return new Reservation(getId(row), LocalDate.ofEpochDay(getStartDay(row)),
+                               LocalDate.ofEpochDay(getEndDay(row)), new HowMany(getGuestCount(row)));
+    }
+    
+    /**
+     * Get a read-only view of the rows stored so far. Rows are materialized
+     * each time the view's get is called, so the view itself is cheap.
+     * 
+     * @return the reservations stored when this method was called
+     */
+    List<Reservation> view() {
+        int count = size();
+        return new AbstractList<Reservation>() {
+            @Override
+            public Reservation get(int index) {
+                if (index < 0 || index >= count) {
+                    throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + count);
+                }
+                return materialize(index);
+            }
+            
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+    }
+    
+    /**
+     * Check that a row is below a size read by the caller.
+     * 
+     * @param row the row
+     * @param size the number of rows
+     * @throws IndexOutOfBoundsException if the row does not exist
+     */
+    static void checkRow(int row, int size) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of bounds for length " + size);
+        }
+    }
+}
@@ -1,7 +1,16 @@
 package domain;
 
-import java.util.HashMap;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
 
 /**
  * Room represents a single room in a hotel.
@@ -11,19 +20,46 @@ import java.util.Map;
  * - Store room number and room type
  * - Track current occupant (0..1 multiplicity)
  * - Manage reservations (0..1 multiplicity)
+ * - Keep reservations ordered by date so overlapping stays are rejected
  * - Control check-in and check-out operations
+ * - Keep completed stays in a compact columnar history
  * - Determine availability
+ * 
+ * Thread safety: every state change happens inside a write section claimed
+ * by moving the room's version from even to odd with compare-and-set, and
+ * released by moving it to the next even value. Blocking writers also hold
+ * this room's lock, so only one of them spins for the version at a time.
+ * Optimistic writers (tryAddReservation) validate against a version and
+ * commit only if the version is unchanged. Queries read concurrent
+ * collections and volatile fields and never block. Inside a write section
+ * the change is journaled before anything in memory changes, so a journal
+ * that refuses the record leaves the room as it was.
  */
 public class Room {
     
+    // Returned by tryAddReservation when another change interfered
+    static final Change NOT_COMMITTED = new Change(EventBus.NO_SEQUENCE, 0);
+    
     private int number;
     private RoomType roomType;
     // Current occupant: at most one guest at a time (0..1 multiplicity)
-    private Guest occupant;
+    private volatile Guest occupant;
     // Reservations for this room: maps guest ID to reservation
     private Map<String, Reservation> reservations;
+    // Guests holding the reservations above, by guest ID
+    private Map<String, Guest> reservedGuests;
+    // Reservation schedule: maps start date to reservation.
+    // Stays never overlap, so ordering by start date also orders them by end date.
+    private ConcurrentSkipListMap<LocalDate, Reservation> schedule;
     // Track which guest is checked in
-    private String checkedInGuestId;
+    private volatile String checkedInGuestId;
+    // Reservations ended by check-out, kept as primitive rows (on the heap or in a stay archive)
+    private volatile ReservationStore completedStays;
+    // Hotel this room belongs to and its slot in the hotel's occupancy calendar
+    private volatile Hotel hotel;
+    private int slot;
+    // Version stamp: odd while a write is in progress, advanced by 2 per write
+    private AtomicLong version;
     
     /**
      * Constructor: Creates a new Room with number and room type.
@@ -41,9 +77,13 @@ public class Room {
         }
         this.number = number;
         this.roomType = roomType;
-        this.reservations = new HashMap<>();
+        this.reservations = new ConcurrentHashMap<>();
+        this.reservedGuests = new ConcurrentHashMap<>();
+        this.schedule = new ConcurrentSkipListMap<>();
         this.occupant = null;
         this.checkedInGuestId = null;
+        this.completedStays = new HeapReservationStore();
+        this.version = new AtomicLong();
     }
     
     /**
@@ -64,6 +104,143 @@ public class Room {
         return roomType;
     }
     
+    /**
+     * Get the version stamp of this room's state.
+     * The version is odd while a change is being applied and grows by 2
+     * with every completed change.
+     * 
+     * @return the current version
+     */
+    public long getVersion() {
+        return version.get();
+    }
+    
+    /**
+     * Attach this room to a hotel so the hotel is told about reservation changes.
+     * Reservations the room already holds are reported to the hotel straight away.
+     * 
+     * @param hotel the owning hotel
+     * @param slot the room's slot in the hotel's occupancy calendar
+     * @throws IllegalArgumentException if the room already belongs to a hotel
+     */
+    synchronized void attachTo(Hotel hotel, int slot) {
+        long stamp = beginWrite();
+        try {
+            if (this.hotel != null) {
+                throw new IllegalArgumentException("Room " + number + " already belongs to a hotel");
+            }
+            this.hotel = hotel;
+            this.slot = slot;
+            forEachReservation((guest, reservation) -> hotel.reservationAdded(this, guest, reservation));
+            WriteAheadLog journal = hotel.getJournal();
+            if (journal != null) {
+                logState(journal);
+            }
+        } finally {
+            endWrite(stamp);
+        }
+    }
+    
+    /**
+     * Append records describing this room, its reservations and its occupant
+     * to a journal. Reservations come first so replaying a check-in finds them.
+     * 
+     * @param journal the journal to write to
+     * @return the LSN of the last record appended
+     */
+    long logState(WriteAheadLog journal) {
+        long lsn = journal.logAddRoom(hotel, this);
+        for (Map.Entry<String, Reservation> entry : reservations.entrySet()) {
+            Reservation reservation = entry.getValue();
+            lsn = journal.logReservationAdded(hotel, this, reservedGuests.get(entry.getKey()), reservation,
+                                              reservation.getReserverPayer());
+        }
+        Guest current = occupant;
+        if (current != null) {
+            lsn = journal.logOccupantSet(hotel, this, current);
+        }
+        String checkedIn = checkedInGuestId;
+        if (checkedIn != null) {
+            lsn = journal.logCheckIn(hotel, this, checkedIn);
+        }
+        ReservationStore history = completedStays;
+        // A file archive keeps its own stays
+        for (int row = 0, count = history.isPersistent() ? 0 : history.size(); row < count; row++) {
+            lsn = journal.logCompletedStay(hotel, this, history.getId(row), history.getStartDay(row),
+                                           history.getEndDay(row), history.getGuestCount(row));
+        }
+        return lsn;
+    }
+    
+    /**
+     * Copy this room's reservations and occupant as of a single version.
+     * The copy is retried if a change completes while it is being taken,
+     * so writers are never blocked.
+     * 
+     * @return the copied state
+     */
+    ChainSnapshot.RoomState captureState() {
+        while (true) {
+            long stamp = version.get();
+            if ((stamp & 1) == 0) {
+                List<Reservation> copiedReservations = new ArrayList<>(reservations.size());
+                List<Guest> copiedGuests = new ArrayList<>(reservations.size());
+                boolean complete = true;
+                for (Map.Entry<String, Reservation> entry : reservations.entrySet()) {
+                    Guest guest = reservedGuests.get(entry.getKey());
+                    complete &= guest != null;
+                    copiedReservations.add(entry.getValue());
+                    copiedGuests.add(guest);
+                }
+                Guest currentOccupant = occupant;
+                String checkedIn = checkedInGuestId;
+                int stayCount = completedStays.size();
+                if (complete && version.get() == stamp) {
+                    return new ChainSnapshot.RoomState(stamp, copiedReservations, copiedGuests,
+                                                       currentOccupant, checkedIn, stayCount);
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+    
+    /**
+     * Set the version stamp to the value recorded in a snapshot or journal.
+     * Only used while rebuilding a chain, before other threads can see the room.
+     * 
+     * @param restored the even version to restore
+     */
+    void restoreVersion(long restored) {
+        version.set(restored);
+    }
+    
+    /**
+     * Get the journal this room's changes are written to, if any.
+     * 
+     * @return the journal, or null if changes are not journaled
+     */
+    private WriteAheadLog journal() {
+        return hotel == null ? null : hotel.getJournal();
+    }
+    
+    /**
+     * Get the hotel this room belongs to.
+     * 
+     * @return the hotel, or null if the room has not been added to one
+     */
+    public Hotel getHotel() {
+        return hotel;
+    }
+    
+    /**
+     * Get the room's slot in its hotel's occupancy calendar.
+     * 
+     * @return the slot index
+     */
+    int getSlot() {
+        return slot;
+    }
+    
     /**
      * Get the current occupant (guest checked in).
      * 
@@ -82,6 +259,19 @@ public class Room {
         return occupant != null;
     }
     
+    /**
+     * Get the status this room is counted in by its hotel and chain.
+     * 
+     * @return OCCUPIED if a guest is in the room, otherwise RESERVED if it
+     *         has reservations, otherwise AVAILABLE
+     */
+    public RoomStatus getStatus() {
+        if (isOccupied()) {
+            return RoomStatus.OCCUPIED;
+        }
+        return reservations.isEmpty() ? RoomStatus.AVAILABLE : RoomStatus.RESERVED;
+    }
+    
     /**
      * Check if the room is available (not occupied and has no active reservations).
      * 
@@ -91,6 +281,179 @@ public class Room {
         return !isOccupied() && reservations.isEmpty();
     }
     
+    /**
+     * Check if the room is free for every night in the given date range.
+     * Only reservations are considered; a stay [startDate, endDate) is free
+     * if no existing reservation overlaps it.
+     * 
+     * @param startDate the first night of the stay
+     * @param endDate the check-out date (exclusive)
+     * @return true if no reservation overlaps the range, false otherwise
+     * @throws IllegalArgumentException if a date is null or endDate is not after startDate
+     */
+    public boolean isAvailable(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null) {
+            throw new IllegalArgumentException("Start and end dates cannot be null");
+        }
+        if (!endDate.isAfter(startDate)) {
+            throw new IllegalArgumentException("End date must be after start date");
+        }
+        return findOverlap(startDate, endDate, null) == null;
+    }
+    
+    /**
+     * Find a reservation overlapping the range [startDate, endDate), if any.
+     * Since stays never overlap, walking down from the last reservation
+     * starting before endDate visits only reservations that touch the range.
+     * 
+     * @param startDate the first night of the range
+     * @param endDate the end of the range (exclusive)
+     * @param ignored a reservation to skip (the one being replaced), or null
+     * @return the overlapping reservation, or null if the range is free
+     */
+    private Reservation findOverlap(LocalDate startDate, LocalDate endDate, Reservation ignored) {
+        Map.Entry<LocalDate, Reservation> candidate = schedule.lowerEntry(endDate);
+        while (candidate != null && candidate.getValue().getEndDate().isAfter(startDate)) {
+            if (candidate.getValue() != ignored) {
+                return candidate.getValue();
+            }
+            candidate = schedule.lowerEntry(candidate.getKey());
+        }
+        return null;
+    }
+    
+    /**
+     * Pass each of this room's reservations with its guest to an action.
+     * Without the room's lock, a reservation being added or removed at the
+     * same time may or may not be seen.
+     * 
+     * @param action the action to run per reservation
+     */
+    void forEachReservation(BiConsumer<Guest, Reservation> action) {
+        for (Map.Entry<String, Reservation> entry : reservations.entrySet()) {
+            Guest guest = reservedGuests.get(entry.getKey());
+            if (guest != null) {
+                action.accept(guest, entry.getValue());
+            }
+        }
+    }
+    
+    /**
+     * Get the reservation a guest currently holds in this room.
+     * 
+     * @param guestId the identifier of the guest
+     * @return the reservation, or null if the guest holds none
+     */
+    Reservation getReservation(String guestId) {
+        return reservations.get(guestId);
+    }
+    
+    /**
+     * Get the number of stays in this room that ended with a check-out.
+     * 
+     * @return number of completed stays
+     */
+    public int getCompletedStayCount() {
+        return completedStays.size();
+    }
+    
+    /**
+     * Get the stays in this room that ended with a check-out, oldest first.
+     * History is stored as primitive columns; each get on the returned list
+     * creates a new Reservation with the stay's id, dates and guest count
+     * (but no reserver/payer).
+     * 
+     * @return a read-only view of the stays completed so far
+     */
+    public List<Reservation> getCompletedStays() {
+        return completedStays.view();
+    }
+    
+    /**
+     * Get the columnar history of completed stays, for reports and snapshots.
+     * 
+     * @return the completed stays
+     */
+    ReservationStore getStayHistory() {
+        return completedStays;
+    }
+    
+    /**
+     * Add a completed stay recorded in a snapshot, journal or import file.
+     * Only used while building a chain or hotel that other threads cannot see yet.
+     * 
+     * @param id the reservation id
+     * @param startDay the first night as epoch day
+     * @param endDay the check-out day as epoch day
+     * @param guests the number of guests
+     * @param version the room version the stay was recorded at
+     */
+    synchronized void restoreCompletedStay(long id, long startDay, long endDay, int guests, long version) {
+        recordCompletedStay(id, startDay, endDay, guests, version);
+    }
+    
+    private void recordCompletedStay(long id, long startDay, long endDay, int guests, long version) {
+        ReservationStore history = completedStays;
+        // A stay archive outlives the journal, so it may already hold a stay being replayed
+        if (version > history.getRecoveredVersion()) {
+            history.add(id, startDay, endDay, guests, version);
+        }
+    }
+    
+    /**
+     * Move this room's completed stays into a stay archive. If the archive
+     * already holds stays for this room (it was reopened), those are kept
+     * and the stays on the heap, restored from the same history, are dropped.
+     * 
+     * @param archive the archive
+     * @param hotelName the name of this room's hotel
+     * @throws IllegalArgumentException if the hotel name does not fit in the archive
+     * @throws IllegalStateException if the archive is closed or another room already uses this room's history
+     */
+    synchronized void useStayArchive(StayArchive archive, String hotelName) {
+        ReservationStore current = completedStays;
+        if (current.isArchived()) {
+            return;
+        }
+        ReservationStore archived = archive.claim(hotelName, number);
+        if (archived.size() == 0) {
+            long now = version.get();
+            for (int row = 0; row < current.size(); row++) {
+                archived.add(current.getId(row), current.getStartDay(row), current.getEndDay(row),
+                             current.getGuestCount(row), now);
+            }
+        }
+        completedStays = archived;
+    }
+    
+    /**
+     * Check that this room's completed stays could move into a stay archive
+     * now, without moving them.
+     * 
+     * @param archive the archive
+     * @param hotelName the name of this room's hotel
+     * @throws IllegalArgumentException if the hotel name does not fit in the archive
+     * @throws IllegalStateException if the archive is closed or another room already uses this room's history
+     */
+    synchronized void checkStayArchive(StayArchive archive, String hotelName) {
+        if (!completedStays.isArchived()) {
+            archive.checkClaim(hotelName, number);
+        }
+    }
+    
+    /**
+     * Move the version past the last stay of an archived history. A stay
+     * can reach the archive file before its check-out record is on disk, so after
+     * a crash the archive can be ahead of the replayed room; later stays
+     * must still be newer than the ones it holds.
+     */
+    synchronized void alignVersionWithStayHistory() {
+        long last = completedStays.getRecoveredVersion();
+        if (last > version.get()) {
+            version.set(last + (last & 1));
+        }
+    }
+    
     /**
      * Get the number of reservations for this room.
      * 
@@ -102,28 +465,236 @@ public class Room {
     
     /**
      * Add a reservation to this room.
-     * A reservation can only be added if the room is not occupied.
+     * A reservation can only be added if the room is not occupied and
+     * no other reservation overlaps its dates. A guest holds at most one
+     * reservation per room, so a new reservation replaces the guest's old one.
      * 
      * @param reservation the reservation to add
      * @param guest the guest making the reservation
      * @throws IllegalArgumentException if reservation or guest is null
-     * @throws IllegalStateException if room is already occupied
+     * @throws IllegalStateException if room is already occupied or the dates overlap another reservation
      */
     public void addReservation(Reservation reservation, Guest guest) {
+        addReservation(reservation, guest, reservation == null ? null : reservation.getReserverPayer(), null);
+    }
+    
+    /**
+     * Add a reservation to this room, taking the change's event sequence
+     * number inside the write section. The payer is attached to the
+     * reservation only once the room has accepted it.
+     * 
+     * @param reservation the reservation to add
+     * @param guest the guest making the reservation
+     * @param payer the reservation's payer, or null
+     * @param events the bus numbering the change, or null
+     * @return the change, with the sequence number taken and the LSN of its journal record
+     * @throws IllegalArgumentException if reservation or guest is null
+     * @throws IllegalStateException if room is already occupied, the dates overlap another reservation
+     *         or the journal is closed
+     */
+    synchronized Change addReservation(Reservation reservation, Guest guest, ReserverPayer payer, EventBus events) {
+        checkReservationArguments(reservation, guest);
+        long stamp = beginWrite();
+        try {
+            validateReservation(reservation, guest);
+            return committed(events, commitReservation(reservation, guest, payer));
+        } finally {
+            endWrite(stamp);
+        }
+    }
+    
+    /**
+     * Try to add a reservation without taking the room's lock.
+     * The reservation is validated against the current version and committed
+     * only if a compare-and-set on the version shows no other change happened
+     * in between. Callers retry (or fall back to addReservation) on NOT_COMMITTED.
+     * 
+     * @param reservation the reservation to add
+     * @param guest the guest making the reservation
+     * @param payer the reservation's payer, attached only once the room accepts it, or null
+     * @param events the bus numbering the change, or null
+     * @return the change, with the event sequence number taken inside the write section and
+     *         the LSN of its journal record, or NOT_COMMITTED if another change interfered
+     * @throws IllegalArgumentException if reservation or guest is null
+     * @throws IllegalStateException if room is already occupied or the dates overlap another reservation,
+     *         as seen in a version no writer changed during validation, or the journal is closed
+     */
+    Change tryAddReservation(Reservation reservation, Guest guest, ReserverPayer payer, EventBus events) {
+        checkReservationArguments(reservation, guest);
+        long stamp = version.get();
+        if ((stamp & 1) != 0) {
+            return NOT_COMMITTED;
+        }
+        try {
+            validateReservation(reservation, guest);
+        } catch (IllegalStateException e) {
+            // The view may have been torn by a concurrent writer; only a stable one is a real conflict
+            if (version.get() != stamp) {
+                return NOT_COMMITTED;
+            }
+            throw e;
+        }
+        if (!version.compareAndSet(stamp, stamp + 1)) {
+            return NOT_COMMITTED;
+        }
+        try {
+            return committed(events, commitReservation(reservation, guest, payer));
+        } finally {
+            endWrite(stamp + 1);
+        }
+    }
+    
+    /**
+     * Claim this room's write section for a batch of reservations.
+     * The caller must hold this room's lock until endBatchWrite.
+     * 
+     * @return the odd version that marks the batch
+     */
+    long beginBatchWrite() {
+        return beginWrite();
+    }
+    
+    /**
+     * Release the write section claimed with beginBatchWrite.
+     * 
+     * @param stamp the version returned by beginBatchWrite
+     */
+    void endBatchWrite(long stamp) {
+        endWrite(stamp);
+    }
+    
+    /**
+     * Check that a batch of reservations can all be added to this room,
+     * without changing anything. Unlike addReservation, a guest who already
+     * holds a reservation here is rejected rather than rebooked, so a batch
+     * can always be undone by removing what it added.
+     * 
+     * @param batch the reservations, each with its guest
+     * @throws IllegalStateException if the room is occupied, a guest already holds a
+     *         reservation here or appears twice, or any two stays overlap
+     */
+    void validateBatch(List<Map.Entry<Reservation, Guest>> batch) {
+        if (isOccupied()) {
+            throw new IllegalStateException("Cannot add reservation: room " + number + " is currently occupied");
+        }
+        for (Map.Entry<Reservation, Guest> entry : batch) {
+            Reservation reservation = entry.getKey();
+            String guestId = entry.getValue().getName().getFullName();
+            if (reservations.containsKey(guestId)) {
+                throw new IllegalStateException("Guest '" + guestId + "' already holds a reservation in room " + number);
+            }
+            Reservation conflict = findOverlap(reservation.getStartDate(), reservation.getEndDate(), null);
+            if (conflict != null) {
+                throw new IllegalStateException("Cannot add reservation: room " + number +
+                                              " is already reserved from " + conflict.getStartDate() +
+                                              " to " + conflict.getEndDate());
+            }
+        }
+        if (batch.size() == 1) {
+            return;
+        }
+        
+        // Stays within the batch must not overlap each other either
+        Set<String> guestIds = new HashSet<>();
+        List<Reservation> stays = new ArrayList<>(batch.size());
+        for (Map.Entry<Reservation, Guest> entry : batch) {
+            String guestId = entry.getValue().getName().getFullName();
+            if (!guestIds.add(guestId)) {
+                throw new IllegalStateException("Guest '" + guestId + "' already holds a reservation in room " + number);
+            }
+            stays.add(entry.getKey());
+        }
+        stays.sort(Comparator.comparing(Reservation::getStartDate));
+        for (int i = 1; i < stays.size(); i++) {
+            if (stays.get(i).getStartDate().isBefore(stays.get(i - 1).getEndDate())) {
+                throw new IllegalStateException("Cannot add reservation: batch books room " + number +
+                                              " twice from " + stays.get(i).getStartDate());
+            }
+        }
+    }
+    
+    /**
+     * Add one reservation of a validated batch whose records the caller has
+     * already journaled. The caller holds this room's lock and write section.
+     * 
+     * @param reservation the reservation
+     * @param guest the guest making the reservation
+     */
+    void applyBatchReservation(Reservation reservation, Guest guest) {
+        applyReservation(reservation, guest);
+    }
+    
+    /**
+     * Remove a reservation added by a batch that could not be completed,
+     * if the room still holds it. The caller holds this room's lock and
+     * write section.
+     * 
+     * @param reservation the reservation to remove
+     * @param guest the guest holding it
+     */
+    void undoBatchReservation(Reservation reservation, Guest guest) {
+        String guestId = guest.getName().getFullName();
+        if (reservations.get(guestId) != reservation) {
+            return;
+        }
+        try {
+            WriteAheadLog journal = journal();
+            if (journal != null) {
+                journal.logReservationRemoved(hotel, this, guestId);
+            }
+        } finally {
+            // Undone in memory even if the journal is gone, since the caller reports the batch as failed
+            dropReservation(guestId);
+        }
+    }
+    
+    private void checkReservationArguments(Reservation reservation, Guest guest) {
         if (reservation == null) {
             throw new IllegalArgumentException("Reservation cannot be null");
         }
         if (guest == null) {
             throw new IllegalArgumentException("Guest cannot be null");
         }
-        
+    }
+    
+    private void validateReservation(Reservation reservation, Guest guest) {
         // Prevent reservation if room is occupied
         if (isOccupied()) {
             throw new IllegalStateException("Cannot add reservation: room " + number + " is currently occupied");
         }
         
+        Reservation previous = reservations.get(guest.getName().getFullName());
+        Reservation conflict = findOverlap(reservation.getStartDate(), reservation.getEndDate(), previous);
+        if (conflict != null) {
+            throw new IllegalStateException("Cannot add reservation: room " + number +
+                                          " is already reserved from " + conflict.getStartDate() +
+                                          " to " + conflict.getEndDate());
+        }
+    }
+    
+    private void applyReservation(Reservation reservation, Guest guest) {
         String guestId = guest.getName().getFullName();
-        reservations.put(guestId, reservation);
+        Reservation previous = reservations.put(guestId, reservation);
+        reservedGuests.put(guestId, guest);
+        if (previous != null) {
+            schedule.remove(previous.getStartDate(), previous);
+        }
+        schedule.put(reservation.getStartDate(), reservation);
+        if (hotel != null) {
+            if (previous != null) {
+                hotel.reservationRemoved(this, previous);
+            }
+            hotel.reservationAdded(this, guest, reservation);
+        }
+    }
+    
+    // Journal first, so a journal that refuses the record leaves the room and the reservation unchanged
+    private long commitReservation(Reservation reservation, Guest guest, ReserverPayer payer) {
+        WriteAheadLog journal = journal();
+        long lsn = journal == null ? 0 : journal.logReservationAdded(hotel, this, guest, reservation, payer);
+        reservation.setReserverPayer(payer);
+        applyReservation(reservation, guest);
+        return lsn;
     }
     
     /**
@@ -133,60 +704,163 @@ public class Room {
      * @throws IllegalArgumentException if guestId is null/empty or reservation doesn't exist
      */
     public void removeReservation(String guestId) {
+        removeReservation(guestId, null);
+    }
+    
+    /**
+     * Remove a reservation from this room, taking the change's event
+     * sequence number inside the write section.
+     * 
+     * @param guestId the identifier of the guest whose reservation is to be removed
+     * @param events the bus numbering the change, or null
+     * @return the change, with the sequence number taken and the LSN of its journal record
+     * @throws IllegalArgumentException if guestId is null/empty or reservation doesn't exist
+     */
+    synchronized Change removeReservation(String guestId, EventBus events) {
         if (guestId == null || guestId.trim().isEmpty()) {
             throw new IllegalArgumentException("Guest ID cannot be null or empty");
         }
         
-        if (!reservations.containsKey(guestId)) {
-            throw new IllegalArgumentException("No reservation found for guest '" + guestId + "' in room " + number);
+        long stamp = beginWrite();
+        try {
+            if (!reservations.containsKey(guestId)) {
+                throw new IllegalArgumentException("No reservation found for guest '" + guestId + "' in room " + number);
+            }
+            
+            WriteAheadLog journal = journal();
+            long lsn = journal == null ? 0 : journal.logReservationRemoved(hotel, this, guestId);
+            dropReservation(guestId);
+            return committed(events, lsn);
+        } finally {
+            endWrite(stamp);
+        }
+    }
+    
+    /**
+     * Remove one specific reservation of a guest from this room.
+     * 
+     * @param guestId the identifier of the guest holding the reservation
+     * @param reservationId the id of the reservation to remove
+     * @param events the bus numbering the change, or null
+     * @return the change, with the event sequence number taken inside the write section
+     *         and the LSN of its journal record
+     * @throws IllegalArgumentException if the guest's current reservation is not the given one
+     */
+    synchronized Change removeReservation(String guestId, long reservationId, EventBus events) {
+        long stamp = beginWrite();
+        try {
+            Reservation current = reservations.get(guestId);
+            if (current == null || current.getId() != reservationId) {
+                throw new IllegalArgumentException("No reservation " + reservationId + " found in room " + number);
+            }
+            
+            WriteAheadLog journal = journal();
+            long lsn = journal == null ? 0 : journal.logReservationRemoved(hotel, this, guestId);
+            dropReservation(guestId);
+            return committed(events, lsn);
+        } finally {
+            endWrite(stamp);
+        }
+    }
+    
+    private void dropReservation(String guestId) {
+        Reservation removed = reservations.remove(guestId);
+        reservedGuests.remove(guestId);
+        if (removed != null) {
+            schedule.remove(removed.getStartDate(), removed);
+            if (hotel != null) {
+                hotel.reservationRemoved(this, removed);
+            }
         }
-        
-        reservations.remove(guestId);
     }
     
     /**
      * Check in a guest to this room.
-     * The guest must have an existing reservation.
+     * The guest must have an existing reservation. The reserved guest becomes
+     * the occupant in the same step, so no other thread can slip in between
+     * validation and occupancy. If that guest was already placed in the room
+     * with setOccupant, the check-in is just recorded.
      * 
      * @param guestId the identifier of the guest checking in
      * @throws IllegalArgumentException if guestId is null/empty
      * @throws IllegalStateException if room is already occupied or no reservation exists
      */
     public void checkInGuest(String guestId) {
+        checkInGuest(guestId, null);
+    }
+    
+    /**
+     * Check in a guest to this room, taking the change's event sequence
+     * number inside the write section.
+     * 
+     * @param guestId the identifier of the guest checking in
+     * @param events the bus numbering the change, or null
+     * @return the change, with the sequence number taken and the LSN of its journal record
+     * @throws IllegalArgumentException if guestId is null/empty
+     * @throws IllegalStateException if room is already occupied or no reservation exists
+     */
+    synchronized Change checkInGuest(String guestId, EventBus events) {
         if (guestId == null || guestId.trim().isEmpty()) {
             throw new IllegalArgumentException("Guest ID cannot be null or empty");
         }
         
-        // Prevent double check-in
-        if (isOccupied()) {
-            throw new IllegalStateException("Cannot check in: room " + number + " is already occupied");
-        }
-        
-        // Check if reservation exists
-        if (!reservations.containsKey(guestId)) {
-            throw new IllegalStateException("No reservation found for guest '" + guestId + "' in room " + number);
+        long stamp = beginWrite();
+        try {
+            // Prevent double check-in
+            if (checkedInGuestId != null
+                    || (isOccupied() && !occupant.getName().getFullName().equals(guestId))) {
+                throw new IllegalStateException("Cannot check in: room " + number + " is already occupied");
+            }
+            
+            // Check if reservation exists
+            Guest guest = reservedGuests.get(guestId);
+            if (guest == null) {
+                throw new IllegalStateException("No reservation found for guest '" + guestId + "' in room " + number);
+            }
+            
+            WriteAheadLog journal = journal();
+            long lsn = journal == null ? 0 : journal.logCheckIn(hotel, this, guestId);
+            // Mark the guest as checked in
+            if (!isOccupied()) {
+                this.occupant = guest;
+                if (hotel != null) {
+                    hotel.occupantChanged(this, null, guest);
+                }
+            }
+            this.checkedInGuestId = guestId;
+            return committed(events, lsn);
+        } finally {
+            endWrite(stamp);
         }
-        
-        // Mark the guest as checked in
-        this.checkedInGuestId = guestId;
     }
     
     /**
-     * Perform actual check-in by setting the occupant.
-     * (Called after checkInGuest validation)
+     * Place a guest in this room directly, without a reservation check.
      * 
      * @param guest the guest checking in
      * @throws IllegalArgumentException if guest is null
      * @throws IllegalStateException if room is already occupied
      */
-    public void setOccupant(Guest guest) {
+    public synchronized void setOccupant(Guest guest) {
         if (guest == null) {
             throw new IllegalArgumentException("Guest cannot be null");
         }
-        if (isOccupied()) {
-            throw new IllegalStateException("Room " + number + " is already occupied");
+        long stamp = beginWrite();
+        try {
+            if (isOccupied()) {
+                throw new IllegalStateException("Room " + number + " is already occupied");
+            }
+            WriteAheadLog journal = journal();
+            if (journal != null) {
+                journal.logOccupantSet(hotel, this, guest);
+            }
+            this.occupant = guest;
+            if (hotel != null) {
+                hotel.occupantChanged(this, null, guest);
+            }
+        } finally {
+            endWrite(stamp);
         }
-        this.occupant = guest;
     }
     
     /**
@@ -197,25 +871,54 @@ public class Room {
      * @throws IllegalStateException if no guest is checked in or guest ID doesn't match
      */
     public void checkOutGuest(String guestId) {
+        checkOutGuest(guestId, null);
+    }
+    
+    /**
+     * Check out a guest from this room, taking the change's event sequence
+     * number inside the write section.
+     * 
+     * @param guestId the identifier of the guest checking out
+     * @param events the bus numbering the change, or null
+     * @return the change, with the sequence number taken and the LSN of its journal record
+     * @throws IllegalArgumentException if guestId is null/empty
+     * @throws IllegalStateException if no guest is checked in or guest ID doesn't match
+     */
+    synchronized Change checkOutGuest(String guestId, EventBus events) {
         if (guestId == null || guestId.trim().isEmpty()) {
             throw new IllegalArgumentException("Guest ID cannot be null or empty");
         }
         
-        if (!isOccupied()) {
-            throw new IllegalStateException("Room " + number + " has no occupant to check out");
-        }
-        
-        String currentGuestName = occupant.getName().getFullName();
-        if (!currentGuestName.equals(guestId)) {
-            throw new IllegalStateException("Guest ID mismatch: expected '" + currentGuestName + 
-                                          "' but got '" + guestId + "'");
-        }
-        
-        this.occupant = null;
-        this.checkedInGuestId = null;
-        // Remove the reservation after check-out
-        if (reservations.containsKey(guestId)) {
-            reservations.remove(guestId);
+        long stamp = beginWrite();
+        try {
+            if (!isOccupied()) {
+                throw new IllegalStateException("Room " + number + " has no occupant to check out");
+            }
+            
+            String currentGuestName = occupant.getName().getFullName();
+            if (!currentGuestName.equals(guestId)) {
+                throw new IllegalStateException("Guest ID mismatch: expected '" + currentGuestName +
+                                              "' but got '" + guestId + "'");
+            }
+            
+            WriteAheadLog journal = journal();
+            long lsn = journal == null ? 0 : journal.logCheckOut(hotel, this, guestId);
+            Guest leaving = occupant;
+            this.occupant = null;
+            this.checkedInGuestId = null;
+            if (hotel != null) {
+                hotel.occupantChanged(this, leaving, null);
+            }
+            // Remove the reservation after check-out and keep it as history
+            Reservation ended = reservations.get(guestId);
+            dropReservation(guestId);
+            if (ended != null) {
+                recordCompletedStay(ended.getId(), ended.getStartDate().toEpochDay(), ended.getEndDate().toEpochDay(),
+                                    ended.getNumberOfGuests().getNumber(), stamp + 2);
+            }
+            return committed(events, lsn);
+        } finally {
+            endWrite(stamp);
         }
     }
     
@@ -227,4 +930,50 @@ public class Room {
     public String getCheckedInGuestId() {
         return checkedInGuestId;
     }
+    
+    // Taken last in a write section, once nothing in it can fail
+    private static Change committed(EventBus events, long lsn) {
+        return new Change(events == null ? EventBus.NO_SEQUENCE : events.nextSequence(), lsn);
+    }
+    
+    /**
+     * Claim the write section by moving the version from even to odd.
+     * Only optimistic writers compete here, and they hold the section
+     * for the few steps of a commit, so spinning is short.
+     * 
+     * @return the odd version that marks this write
+     */
+    private long beginWrite() {
+        while (true) {
+            long stamp = version.get();
+            if ((stamp & 1) == 0 && version.compareAndSet(stamp, stamp + 1)) {
+                return stamp + 1;
+            }
+            Thread.onSpinWait();
+        }
+    }
+    
+    /**
+     * Release the write section claimed with the given odd version.
+     * 
+     * @param stamp the odd version returned when the write began
+     */
+    private void endWrite(long stamp) {
+        version.set(stamp + 1);
+    }
+    
+    /**
+     * A change committed in a room's write section: the event sequence
+     * number it took and the LSN its journal record must reach on disk
+     * (0 when the room is not journaled).
+     */
+    static final class Change {
+        final long sequence;
+        final long lsn;
+        
+        Change(long sequence, long lsn) {
+            this.sequence = sequence;
+            this.lsn = lsn;
+        }
+    }
 }
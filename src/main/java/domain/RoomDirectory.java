@@ -0,0 +1,126 @@
+package domain;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * RoomDirectory maps room numbers to the rooms of a hotel without boxing.
+ * Room numbers are kept in an open-addressing table of plain ints with
+ * linear probing, so a lookup is a hash, a few array reads and no allocation.
+ * 
+ * Rooms are only ever added. Lookups take no lock: a room becomes visible
+ * when its slot in the value array is written, and the room number in the
+ * same slot was written before it. Additions must be serialized by the
+ * caller (Hotel holds its own lock).
+ * 
+ * Responsibilities:
+ * - Find a room by its number
+ * - Add a room under a number not yet used
+ */
+class RoomDirectory {
+    
+    private static final int INITIAL_CAPACITY = 16;
+    
+    // Replaced when grown; a full copy is published before anyone reads it
+    private volatile Table table;
+    private volatile int size;
+    
+    /**
+     * Constructor: Creates an empty directory.
+     */
+    RoomDirectory() {
+        this.table = new Table(INITIAL_CAPACITY);
+    }
+    
+    /**
+     * Get a room by its number.
+     * 
+     * @param roomNumber the room number
+     * @return the room, or null if there is none with this number
+     */
+    Room get(int roomNumber) {
+        Table current = table;
+        int mask = current.keys.length - 1;
+        for (int i = hash(roomNumber) & mask; ; i = (i + 1) & mask) {
+            // Reading the room first makes the number written before it visible
+            Room room = current.rooms.get(i);
+            if (room == null) {
+                return null;
+            }
+            if (current.keys[i] == roomNumber) {
+                return room;
+            }
+        }
+    }
+    
+    /**
+     * Add a room under a number. Callers must not add concurrently.
+     * 
+     * @param roomNumber the room number
+     * @param room the room
+     * @return true if the room was added, false if the number is already taken
+     */
+    boolean add(int roomNumber, Room room) {
+        if (get(roomNumber) != null) {
+            return false;
+        }
+        Table current = table;
+        // Keep the table at most half full so probe runs stay short
+        if ((size + 1) * 2 > current.keys.length) {
+            current = current.grow();
+            table = current;
+        }
+        current.insert(roomNumber, room);
+        size++;
+        return true;
+    }
+    
+    /**
+     * Get the number of rooms in the directory.
+     * 
+     * @return number of rooms
+     */
+    int size() {
+        return size;
+    }
+    
+    private static int hash(int roomNumber) {
+        // Fibonacci hashing spreads consecutive room numbers across the table
+        int h = roomNumber * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+    
+    /**
+     * A power-of-two sized table; a slot is used once its room is set.
+     */
+    private static final class Table {
+        private final int[] keys;
+        private final AtomicReferenceArray<Room> rooms;
+        
+        Table(int capacity) {
+            this.keys = new int[capacity];
+            this.rooms = new AtomicReferenceArray<>(capacity);
+        }
+        
+        void insert(int roomNumber, Room room) {
+            int mask = keys.length - 1;
+            int i = hash(roomNumber) & mask;
+            while (rooms.get(i) != null) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = roomNumber;
+            // Publishes the number written above along with the room
+            rooms.set(i, room);
+        }
+        
+        Table grow() {
+            Table bigger = new Table(keys.length * 2);
+            for (int i = 0; i < keys.length; i++) {
+                Room room = rooms.get(i);
+                if (room != null) {
+                    bigger.insert(keys[i], room);
+                }
+            }
+            return bigger;
+        }
+    }
+}
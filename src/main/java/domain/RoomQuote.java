@@ -0,0 +1,53 @@
+package domain;
+
+/**
+ * RoomQuote is one result of a room search: a room that is free for the
+ * whole stay and the price of the stay in it. It is a value object (immutable).
+ * 
+ * Responsibilities:
+ * - Bundle an available room with the quoted price of a stay
+ */
+public class RoomQuote {
+    
+    private Room room;
+    private Money total;
+    
+    /**
+     * Constructor: Creates a RoomQuote.
+     * 
+     * @param room the available room
+     * @param total the price of the stay in the room
+     */
+    RoomQuote(Room room, Money total) {
+        this.room = room;
+        this.total = total;
+    }
+    
+    /**
+     * Get the available room.
+     * 
+     * @return the room
+     */
+    public Room getRoom() {
+        return room;
+    }
+    
+    /**
+     * Get the price of the stay in the room.
+     * 
+     * @return the quoted total
+     */
+    public Money getTotal() {
+        return total;
+    }
+    
+    /**
+     * Get string representation of this quote.
+     * 
+     * @return string with the room number and total
+     */
+    @Override
+    public String toString() {
+        return "Room " + room.getNumber() + ": " + total;
+    }
+}
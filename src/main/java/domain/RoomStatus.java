@@ -0,0 +1,16 @@
+package domain;
+
+/**
+ * RoomStatus is an enumeration of the states a room is counted in by its
+ * hotel and chain. Every room is in exactly one of them.
+ * 
+ * Values:
+ * - AVAILABLE: No occupant and no reservations
+ * - RESERVED: No occupant, but one or more reservations
+ * - OCCUPIED: A guest is in the room (whether or not other stays are reserved)
+ */
+public enum RoomStatus {
+    AVAILABLE,
+    RESERVED,
+    OCCUPIED
+}
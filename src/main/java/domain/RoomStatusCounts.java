@@ -0,0 +1,84 @@
+package domain;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * RoomStatusCounts keeps the number of rooms in each status, per room kind,
+ * so hotels and chains answer count queries without walking their rooms.
+ * 
+ * Counts are LongAdders: updates from many rooms at once do not contend on
+ * one counter, and a count is read without locking. A room changing status
+ * is taken from one count and added to another, so a reader racing with
+ * the change may see it in neither or both for that instant; each single
+ * count is always exact once the changes to it have completed.
+ * 
+ * Responsibilities:
+ * - Move rooms between statuses
+ * - Answer counts per status, with or without a room kind
+ */
+class RoomStatusCounts {
+    
+    private static final RoomKind[] KINDS = RoomKind.values();
+    private static final int STATUS_COUNT = RoomStatus.values().length;
+    
+    // Indexed by kind ordinal * STATUS_COUNT + status ordinal
+    private final LongAdder[] counts;
+    
+    /**
+     * Constructor: Creates counts of zero rooms.
+     */
+    RoomStatusCounts() {
+        this.counts = new LongAdder[KINDS.length * STATUS_COUNT];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+    
+    /**
+     * Move a room of a kind from one status to another.
+     * 
+     * @param kind the room's kind
+     * @param from the status it leaves, or null for a room being added
+     * @param to the status it enters, or null for a room being taken out
+     */
+    void move(RoomKind kind, RoomStatus from, RoomStatus to) {
+        if (from == to) {
+            return;
+        }
+        if (from != null) {
+            counts[index(kind, from)].decrement();
+        }
+        if (to != null) {
+            counts[index(kind, to)].increment();
+        }
+    }
+    
+    /**
+     * Get the number of rooms in a status.
+     * 
+     * @param status the status
+     * @return number of rooms of any kind in it
+     */
+    long get(RoomStatus status) {
+        long total = 0;
+        for (RoomKind kind : KINDS) {
+            total += counts[index(kind, status)].sum();
+        }
+        return total;
+    }
+    
+    /**
+     * Get the number of rooms of a kind in a status.
+     * 
+     * @param kind the room kind
+     * @param status the status
+     * @return number of rooms
+     */
+    long get(RoomKind kind, RoomStatus status) {
+        return counts[index(kind, status)].sum();
+    }
+    
+    private static int index(RoomKind kind, RoomStatus status) {
+        return kind.ordinal() * STATUS_COUNT + status.ordinal();
+    }
+}
@@ -0,0 +1,190 @@
+package domain;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * ShardedHotelChain runs the changes to a HotelChain's hotels on a fixed
+ * set of single-threaded shards. Every hotel belongs to one shard (by the
+ * hash of its name), and reservations, cancellations, check-ins and
+ * check-outs for it are queued to that shard and applied there one at a
+ * time, in the order they were submitted. Callers get a CompletableFuture
+ * instead of waiting.
+ * 
+ * With all changes to a hotel made by one thread, its room and hotel locks
+ * are never contended, and shards never share a room, so throughput grows
+ * with the number of shards up to the number of cores. The chain's indexes
+ * and counters are shared by all shards and are already built for
+ * concurrent updates. With a journal attached, a shard does not wait for a
+ * change's records to reach the disk: it moves on to the next change, and
+ * the journal completes the change's future once the records are durable,
+ * so one flush makes many of a shard's changes durable at once. The future
+ * is completed on the journal's flusher thread, so stages attached to it
+ * should be short or use an executor of their own.
+ * 
+ * The underlying chain stays usable: queries can be run on it directly from
+ * any thread, and a change made directly still takes the usual locks.
+ * 
+ * Responsibilities:
+ * - Assign each hotel to a shard
+ * - Queue changes to the owning shard and report their outcome as futures
+ * - Stop the shard threads when closed
+ */
+public class ShardedHotelChain implements AutoCloseable {
+    
+    private HotelChain chain;
+    private ExecutorService[] shards;
+    
+    /**
+     * Constructor: Creates shards for a chain and starts their threads.
+     * 
+     * @param chain the chain to change
+     * @param shardCount the number of shards (usually the number of cores)
+     * @throws IllegalArgumentException if chain is null or shardCount is not positive
+     */
+    public ShardedHotelChain(HotelChain chain, int shardCount) {
+        if (chain == null) {
+            throw new IllegalArgumentException("Hotel chain cannot be null");
+        }
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be positive");
+        }
+        this.chain = chain;
+        this.shards = new ExecutorService[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            String threadName = "shard-" + i + "-" + chain.getName();
+            shards[i] = Executors.newSingleThreadExecutor(task -> {
+                Thread thread = new Thread(task, threadName);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+    
+    /**
+     * Get the chain the shards change.
+     * 
+     * @return the chain
+     */
+    public HotelChain getChain() {
+        return chain;
+    }
+    
+    /**
+     * Get the number of shards.
+     * 
+     * @return number of shards
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+    
+    /**
+     * Get the shard a hotel belongs to.
+     * 
+     * @param hotelName the name of the hotel (need not exist yet)
+     * @return the shard index, from 0 to getShardCount() - 1
+     */
+    public int getShard(String hotelName) {
+        // A null name is rejected by the chain, on any shard
+        return hotelName == null ? 0 : Math.floorMod(hotelName.hashCode(), shards.length);
+    }
+    
+    /**
+     * Queue a reservation to the shard of its hotel.
+     * 
+     * @param hotelName the name of the hotel
+     * @param roomNumber the room number
+     * @param guest the guest making the reservation
+     * @param reserverPayer the reserver/payer
+     * @param reservation the reservation
+     * @return a future completed when the reservation is made, or completed
+     *         exceptionally with the exception HotelChain.makeReservation throws
+     */
+    public CompletableFuture<Void> makeReservation(String hotelName, int roomNumber, Guest guest,
+                                                   ReserverPayer reserverPayer, Reservation reservation) {
+        return submit(hotelName, () -> chain.makeReservationAsync(hotelName, roomNumber, guest, reserverPayer,
+                                                                  reservation));
+    }
+    
+    /**
+     * Queue a cancellation to the shard of its hotel.
+     * 
+     * @param hotelName the name of the hotel
+     * @param roomNumber the room number
+     * @param guestId the identifier of the guest whose reservation is cancelled
+     * @return a future completed when the reservation is cancelled, or completed
+     *         exceptionally with the exception HotelChain.cancelReservation throws
+     */
+    public CompletableFuture<Void> cancelReservation(String hotelName, int roomNumber, String guestId) {
+        return submit(hotelName, () -> chain.cancelReservationAsync(hotelName, roomNumber, guestId));
+    }
+    
+    /**
+     * Queue a check-in to the shard of its hotel.
+     * 
+     * @param hotelName the name of the hotel
+     * @param roomNumber the room number
+     * @param guestId the identifier of the guest checking in
+     * @return a future completed when the guest is checked in, or completed
+     *         exceptionally with the exception HotelChain.checkInGuest throws
+     */
+    public CompletableFuture<Void> checkInGuest(String hotelName, int roomNumber, String guestId) {
+        return submit(hotelName, () -> chain.checkInGuestAsync(hotelName, roomNumber, guestId));
+    }
+    
+    /**
+     * Queue a check-out to the shard of its hotel.
+     * 
+     * @param hotelName the name of the hotel
+     * @param roomNumber the room number
+     * @param guestId the identifier of the guest checking out
+     * @return a future completed when the guest is checked out, or completed
+     *         exceptionally with the exception HotelChain.checkOutGuest throws
+     */
+    public CompletableFuture<Void> checkOutGuest(String hotelName, int roomNumber, String guestId) {
+        return submit(hotelName, () -> chain.checkOutGuestAsync(hotelName, roomNumber, guestId));
+    }
+    
+    private CompletableFuture<Void> submit(String hotelName, Supplier<CompletableFuture<Void>> change) {
+        try {
+            // The shard applies the change; the journal completes the inner future
+            return CompletableFuture.supplyAsync(change, shards[getShard(hotelName)]).thenCompose(Function.identity());
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Sharded chain is closed", e));
+        }
+    }
+    
+    /**
+     * Stop accepting changes, finish the ones already queued and stop the
+     * shard threads. Changes submitted afterwards fail with an
+     * IllegalStateException. The futures of changes still waiting for the
+     * journal complete when it flushes them.
+     */
+    @Override
+    public void close() {
+        for (ExecutorService shard : shards) {
+            shard.shutdown();
+        }
+        boolean interrupted = false;
+        for (ExecutorService shard : shards) {
+            while (true) {
+                try {
+                    if (shard.awaitTermination(1, TimeUnit.MINUTES)) {
+                        break;
+                    }
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
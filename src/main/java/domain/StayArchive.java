@@ -0,0 +1,440 @@
+package domain;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * StayArchive keeps the completed-stay history of a hotel chain outside the
+ * Java heap, so the history can grow to tens of gigabytes without adding to
+ * garbage collection work.
+ * 
+ * The archive is either a memory-mapped file, which survives restarts, or
+ * direct memory that lives as long as the process. Space is handed out in
+ * blocks, each owned by one room: a room's first block is 4 KB and each
+ * further block twice the size of the last, up to 1 MB, so small rooms waste
+ * little and large histories need few blocks. Blocks are laid out in
+ * regions that are mapped or allocated one at a time as the archive grows.
+ * 
+ * Reopening a file maps it again and reads only the block headers to find
+ * each room's blocks; the rows themselves are not read until queried.
+ * 
+ * File layout: a 4 KB header (magic, format version) followed by blocks.
+ * A block starts with a 128-byte header (magic, size, room number,
+ * sequence within the room, row count, room version of the last row,
+ * hotel id) followed by 20-byte rows (id, start day, end day, guests).
+ * Hotel names live in name blocks, one per hotel, written before the
+ * hotel's first stay block: a header with the hotel id and the name's
+ * length, followed by the name in UTF-8. A block never spans two regions;
+ * the gap before a region boundary is filled with a block owned by no room.
+ * 
+ * Rows reach the disk when the operating system writes the mapped pages
+ * back, or when force() is called. A journal checkpoint forces the archive
+ * before it drops the journal records that describe the archived stays.
+ * 
+ * Responsibilities:
+ * - Hand out blocks of off-heap memory to rooms' stay histories
+ * - Find every room's blocks again when a file is reopened
+ * - Force archived stays to disk
+ */
+public final class StayArchive implements AutoCloseable {
+    
+    private static final int MAGIC = 0x48535441; // "HSTA"
+    private static final short FORMAT_VERSION = 2;
+    private static final int FILE_HEADER_SIZE = 4096;
+    private static final int FILE_REGION_SIZE = 64 << 20;
+    private static final int DIRECT_REGION_SIZE = 4 << 20;
+    
+    static final int BLOCK_MAGIC = 0x53544159; // "STAY"
+    static final int MIN_BLOCK_SIZE = 4 << 10;
+    static final int MAX_BLOCK_SIZE = 1 << 20;
+    static final int BLOCK_HEADER_SIZE = 128;
+    static final int ROW_SIZE = 20;
+    // Block header fields
+    static final int BLOCK_SIZE_OFFSET = 4;
+    static final int ROOM_NUMBER_OFFSET = 8;
+    static final int SEQUENCE_OFFSET = 12;
+    static final int ROW_COUNT_OFFSET = 16;
+    static final int LAST_VERSION_OFFSET = 24;
+    static final int HOTEL_ID_OFFSET = 32;
+    // Name block fields; its sequence is NAME_BLOCK
+    static final int NAME_LENGTH_OFFSET = 36;
+    static final int MAX_NAME_BYTES = MAX_BLOCK_SIZE - BLOCK_HEADER_SIZE;
+    // Sequences of blocks owned by no room
+    private static final int FILLER_BLOCK = -1;
+    private static final int NAME_BLOCK = -2;
+    
+    // Null for an archive in direct memory
+    private final Path file;
+    private final FileChannel channel;
+    private final int regionSize;
+    private final List<ByteBuffer> regions;
+    // Stay histories by hotel name and room number
+    private final Map<String, ArchivedReservationStore> stores;
+    // Ids of the hotels with a name block, by hotel name
+    private final Map<String, Integer> hotelIds;
+    // Position of the next block
+    private long end;
+    private boolean closed;
+    
+    private StayArchive(Path file, FileChannel channel, int regionSize) {
+        this.file = file;
+        this.channel = channel;
+        this.regionSize = regionSize;
+        this.regions = new ArrayList<>();
+        this.stores = new HashMap<>();
+        this.hotelIds = new HashMap<>();
+        this.end = FILE_HEADER_SIZE;
+    }
+    
+    /**
+     * Open an archive file, creating it if it does not exist. The blocks of
+     * an existing file are mapped again and handed to rooms as they join a
+     * chain that uses this archive.
+     * 
+     * @param file the archive file
+     * @return the opened archive
+     * @throws IllegalArgumentException if file is null
+     * @throws UncheckedIOException if the file cannot be opened or is not an archive
+     */
+    public static StayArchive open(Path file) {
+        if (file == null) {
+            throw new IllegalArgumentException("Archive file cannot be null");
+        }
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                       StandardOpenOption.WRITE);
+            StayArchive archive = new StayArchive(file, channel, FILE_REGION_SIZE);
+            archive.load(channel.size());
+            return archive;
+        } catch (IOException e) {
+            closeQuietly(channel);
+            throw new UncheckedIOException("Cannot open stay archive " + file, e);
+        }
+    }
+    
+    /**
+     * Create an archive in direct memory. Its stays are kept off the heap
+     * but are lost when the process ends.
+     * 
+     * @return the new archive
+     */
+    public static StayArchive allocateDirect() {
+        StayArchive archive = new StayArchive(null, null, DIRECT_REGION_SIZE);
+        archive.region(0).putInt(0, MAGIC).putShort(4, FORMAT_VERSION);
+        return archive;
+    }
+    
+    private void load(long fileSize) throws IOException {
+        if (fileSize == 0) {
+            region(0).putInt(0, MAGIC).putShort(4, FORMAT_VERSION);
+            return;
+        }
+        ByteBuffer first = region(0);
+        if (first.getInt(0) != MAGIC) {
+            throw new IOException("Not a stay archive: " + file);
+        }
+        if (first.getShort(4) != FORMAT_VERSION) {
+            throw new IOException("Unsupported stay archive format " + first.getShort(4) + " in " + file);
+        }
+        // Walk the block headers; the first position without a block is the end
+        Map<Integer, String> hotelNames = new HashMap<>();
+        long position = FILE_HEADER_SIZE;
+        while (position < fileSize) {
+            ByteBuffer buffer = region((int) (position / regionSize));
+            int base = (int) (position % regionSize);
+            if (buffer.getInt(base) != BLOCK_MAGIC) {
+                break;
+            }
+            int size = buffer.getInt(base + BLOCK_SIZE_OFFSET);
+            if (size < BLOCK_HEADER_SIZE || base + size > regionSize) {
+                throw new IOException("Stay archive " + file + " is corrupt at " + position);
+            }
+            int sequence = buffer.getInt(base + SEQUENCE_OFFSET);
+            int hotelId = buffer.getInt(base + HOTEL_ID_OFFSET);
+            if (sequence == NAME_BLOCK) {
+                int length = buffer.getInt(base + NAME_LENGTH_OFFSET);
+                if (length < 0 || length > size - BLOCK_HEADER_SIZE) {
+                    throw new IOException("Stay archive " + file + " is corrupt at " + position);
+                }
+                byte[] name = new byte[length];
+                for (int i = 0; i < name.length; i++) {
+                    name[i] = buffer.get(base + BLOCK_HEADER_SIZE + i);
+                }
+                String hotelName = new String(name, StandardCharsets.UTF_8);
+                hotelNames.put(hotelId, hotelName);
+                hotelIds.put(hotelName, hotelId);
+            } else if (sequence >= 0) {
+                int roomNumber = buffer.getInt(base + ROOM_NUMBER_OFFSET);
+                String hotelName = hotelNames.get(hotelId);
+                if (hotelName == null) {
+                    throw new IOException("Stay archive " + file + " has a block of unknown hotel " + hotelId
+                                          + " at " + position);
+                }
+                ArchivedReservationStore store = stores.computeIfAbsent(key(hotelName, roomNumber),
+                    k -> new ArchivedReservationStore(this, hotelName, roomNumber));
+                if (!store.adopt(new Block(buffer, base, size))) {
+                    throw new IOException("Stay archive " + file + " has blocks out of order at " + position);
+                }
+            }
+            position += size;
+        }
+        end = position;
+    }
+    
+    /**
+     * Get the stay history of a room, creating an empty one if the archive
+     * has none. Each history can be claimed by one room only.
+     * 
+     * @param hotelName the name of the room's hotel
+     * @param roomNumber the room number
+     * @return the room's history
+     * @throws IllegalArgumentException if the hotel name does not fit in a name block
+     * @throws IllegalStateException if the archive is closed or the history is already claimed
+     */
+    synchronized ArchivedReservationStore claim(String hotelName, int roomNumber) {
+        checkClaim(hotelName, roomNumber);
+        ArchivedReservationStore store = stores.computeIfAbsent(key(hotelName, roomNumber),
+            k -> new ArchivedReservationStore(this, hotelName, roomNumber));
+        store.claim();
+        return store;
+    }
+    
+    /**
+     * Check that a room's history could be claimed now, without claiming it.
+     * 
+     * @param hotelName the name of the room's hotel
+     * @param roomNumber the room number
+     * @throws IllegalArgumentException if the hotel name does not fit in a name block
+     * @throws IllegalStateException if the archive is closed or the history is already claimed
+     */
+    synchronized void checkClaim(String hotelName, int roomNumber) {
+        checkOpen();
+        if (!hotelIds.containsKey(hotelName) && hotelName.getBytes(StandardCharsets.UTF_8).length > MAX_NAME_BYTES) {
+            throw new IllegalArgumentException("Hotel name '" + hotelName + "' is too long for the stay archive");
+        }
+        ArchivedReservationStore store = stores.get(key(hotelName, roomNumber));
+        if (store != null && store.isClaimed()) {
+            throw new IllegalStateException("Room " + roomNumber + " of hotel '" + hotelName
+                                            + "' is already using this stay archive");
+        }
+    }
+    
+    /**
+     * Allocate a block and write its header.
+     * 
+     * @param hotelName the owning room's hotel
+     * @param roomNumber the owning room's number
+     * @param sequence the block's position among the room's blocks
+     * @param size the block size in bytes
+     * @return the new block
+     * @throws IllegalStateException if the archive is closed
+     * @throws UncheckedIOException if the file cannot be extended
+     */
+    synchronized Block allocate(String hotelName, int roomNumber, int sequence, int size) {
+        checkOpen();
+        int hotelId = hotelId(hotelName);
+        skipToFit(size);
+        ByteBuffer buffer = region((int) (end / regionSize));
+        int blockBase = (int) (end % regionSize);
+        buffer.putInt(blockBase + BLOCK_SIZE_OFFSET, size);
+        buffer.putInt(blockBase + ROOM_NUMBER_OFFSET, roomNumber);
+        buffer.putInt(blockBase + SEQUENCE_OFFSET, sequence);
+        buffer.putInt(blockBase + ROW_COUNT_OFFSET, 0);
+        buffer.putLong(blockBase + LAST_VERSION_OFFSET, Long.MIN_VALUE);
+        buffer.putInt(blockBase + HOTEL_ID_OFFSET, hotelId);
+        // The magic goes last, so a reopened file never sees half a header
+        buffer.putInt(blockBase, BLOCK_MAGIC);
+        end += size;
+        return new Block(buffer, blockBase, size);
+    }
+    
+    // Id of a hotel, writing its name block the first time the hotel needs one
+    private int hotelId(String hotelName) {
+        Integer known = hotelIds.get(hotelName);
+        if (known != null) {
+            return known;
+        }
+        int hotelId = hotelIds.size();
+        byte[] name = hotelName.getBytes(StandardCharsets.UTF_8);
+        // Rounded up so the blocks after it stay 8-byte aligned
+        int size = (BLOCK_HEADER_SIZE + name.length + 7) & ~7;
+        skipToFit(size);
+        ByteBuffer buffer = region((int) (end / regionSize));
+        int blockBase = (int) (end % regionSize);
+        buffer.putInt(blockBase + BLOCK_SIZE_OFFSET, size);
+        buffer.putInt(blockBase + SEQUENCE_OFFSET, NAME_BLOCK);
+        buffer.putInt(blockBase + HOTEL_ID_OFFSET, hotelId);
+        buffer.putInt(blockBase + NAME_LENGTH_OFFSET, name.length);
+        for (int i = 0; i < name.length; i++) {
+            buffer.put(blockBase + BLOCK_HEADER_SIZE + i, name[i]);
+        }
+        buffer.putInt(blockBase, BLOCK_MAGIC);
+        end += size;
+        hotelIds.put(hotelName, hotelId);
+        return hotelId;
+    }
+    
+    // Fill the rest of the region with a block owned by no room if a block of this size does not fit
+    private void skipToFit(int size) {
+        long regionEnd = (end / regionSize + 1) * regionSize;
+        long left = regionEnd - end - size;
+        // A gap too small for a block header could never be filled
+        if (left < 0 || (left > 0 && left < BLOCK_HEADER_SIZE)) {
+            ByteBuffer filler = region((int) (end / regionSize));
+            int fillerBase = (int) (end % regionSize);
+            filler.putInt(fillerBase + BLOCK_SIZE_OFFSET, (int) (regionEnd - end));
+            filler.putInt(fillerBase + SEQUENCE_OFFSET, FILLER_BLOCK);
+            filler.putInt(fillerBase, BLOCK_MAGIC);
+            end = regionEnd;
+        }
+    }
+    
+    private ByteBuffer region(int index) {
+        while (regions.size() <= index) {
+            if (channel == null) {
+                regions.add(ByteBuffer.allocateDirect(regionSize));
+            } else {
+                try {
+                    regions.add(channel.map(FileChannel.MapMode.READ_WRITE, (long) regions.size() * regionSize,
+                                            regionSize));
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Cannot map stay archive " + file, e);
+                }
+            }
+        }
+        return regions.get(index);
+    }
+    
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Stay archive is closed");
+        }
+    }
+    
+    private static String key(String hotelName, int roomNumber) {
+        return hotelName + '#' + roomNumber;
+    }
+    
+    /**
+     * Get the number of bytes handed out to blocks so far.
+     * 
+     * @return the archive's used size, including the file header
+     */
+    public synchronized long getUsedBytes() {
+        return end;
+    }
+    
+    /**
+     * Get the number of stays in the archive.
+     * 
+     * @return the total number of rows across all rooms
+     */
+    public synchronized long getStayCount() {
+        long count = 0;
+        for (ArchivedReservationStore store : stores.values()) {
+            count += store.size();
+        }
+        return count;
+    }
+    
+    /**
+     * Check if the archive is backed by a file.
+     * 
+     * @return true for a memory-mapped file, false for direct memory
+     */
+    public boolean isPersistent() {
+        return channel != null;
+    }
+    
+    /**
+     * Write every archived stay to disk. Does nothing for an archive in
+     * direct memory.
+     * 
+     * @throws IllegalStateException if the archive is closed
+     */
+    public synchronized void force() {
+        checkOpen();
+        for (ByteBuffer region : regions) {
+            if (region instanceof MappedByteBuffer) {
+                ((MappedByteBuffer) region).force();
+            }
+        }
+    }
+    
+    /**
+     * Force the archive to disk and close the file. Stays already read can
+     * still be queried, but no further stays can be archived.
+     * 
+     * @throws UncheckedIOException if the file cannot be closed
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        force();
+        closed = true;
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot close stay archive " + file, e);
+            }
+        }
+    }
+    
+    /**
+     * One block of the archive: a header and a run of rows owned by one room.
+     */
+    static final class Block {
+        final ByteBuffer buffer;
+        // Offset of the block's header within the buffer
+        final int base;
+        // Number of rows the block can hold
+        final int capacity;
+        
+        Block(ByteBuffer buffer, int base, int size) {
+            this.buffer = buffer;
+            this.base = base;
+            this.capacity = (size - BLOCK_HEADER_SIZE) / ROW_SIZE;
+        }
+        
+        int getSequence() {
+            return buffer.getInt(base + SEQUENCE_OFFSET);
+        }
+        
+        int getRowCount() {
+            return buffer.getInt(base + ROW_COUNT_OFFSET);
+        }
+        
+        long getLastVersion() {
+            return buffer.getLong(base + LAST_VERSION_OFFSET);
+        }
+        
+        // Offset of a row within the buffer
+        int rowOffset(int row) {
+            return base + BLOCK_HEADER_SIZE + row * ROW_SIZE;
+        }
+    }
+    
+    private static void closeQuietly(FileChannel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException suppressed) {
+                // Already failing
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package domain;
+
+/**
+ * ValidationResult is an enumeration of the outcomes of validating a
+ * request against a HotelChain.
+ * 
+ * Results are constants, so rejecting a request allocates nothing. The
+ * human-readable message is only built when asked for.
+ * 
+ * Values:
+ * - VALID: The request may go ahead
+ * - UNKNOWN_HOTEL: No hotel with the given name is in the chain
+ * - UNKNOWN_ROOM: The hotel has no room with the given number
+ * - MISSING_GUEST: The guest is null
+ * - MISSING_RESERVER_PAYER: The reserver payer is null
+ * - MISSING_RESERVATION: The reservation is null
+ * - BLANK_RESERVATION_ID: The reservation identifier is null or blank
+ * - BLANK_GUEST_ID: The guest identifier is null or blank
+ */
+public enum ValidationResult {
+    VALID,
+    UNKNOWN_HOTEL,
+    UNKNOWN_ROOM,
+    MISSING_GUEST,
+    MISSING_RESERVER_PAYER,
+    MISSING_RESERVATION,
+    BLANK_RESERVATION_ID,
+    BLANK_GUEST_ID;
+    
+    /**
+     * Check if the request may go ahead.
+     * 
+     * @return true if this is VALID, false otherwise
+     */
+    public boolean isValid() {
+        return this == VALID;
+    }
+    
+    /**
+     * Build the message describing this result for a request.
+     * 
+     * @param hotelName the hotel named in the request
+     * @param roomNumber the room number in the request
+     * @return the message
+     */
+    public String getMessage(String hotelName, int roomNumber) {
+        switch (this) {
+            case VALID:
+                return "Valid";
+            case UNKNOWN_HOTEL:
+                return "Hotel '" + hotelName + "' does not exist";
+            case UNKNOWN_ROOM:
+                return "Room " + roomNumber + " does not exist in hotel '" + hotelName + "'";
+            case MISSING_GUEST:
+                return "Guest cannot be null";
+            case MISSING_RESERVER_PAYER:
+                return "ReserverPayer cannot be null";
+            case MISSING_RESERVATION:
+                return "Reservation cannot be null";
+            case BLANK_RESERVATION_ID:
+                return "Reservation ID cannot be null or empty";
+            case BLANK_GUEST_ID:
+                return "Guest ID cannot be null or empty";
+            default:
+                throw new IllegalStateException("Unknown result " + this);
+        }
+    }
+}
@@ -0,0 +1,993 @@
+package domain;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * WriteAheadLog is an append-only binary journal of every change made to a
+ * hotel chain, so the chain can be rebuilt after a restart.
+ * 
+ * Records are appended to an in-memory buffer while the change is being made
+ * (inside the room's write section, so the log order matches each room's
+ * history). A background thread writes the buffer to the file and forces it
+ * to disk; all records that arrived during one fsync are made durable by the
+ * next one (group commit), so durability does not cap throughput. Callers
+ * either wait for their records with awaitDurable, or ask for a future with
+ * whenDurable that the flusher completes, so no thread is parked per change.
+ * 
+ * File layout: a header (magic, format version) followed by records of the
+ * form [int length][byte type][body][int CRC32 of type and body]. A record
+ * cut short by a crash fails its length or CRC check and is dropped.
+ * Room records carry the version the room has once the change commits.
+ * 
+ * Checkpoints: checkpoint() switches appends to a new journal file, writes
+ * a ChainSnapshot next to the journal while bookings continue, and then
+ * replaces the old journal with the new one. Recovery loads the snapshot
+ * and replays only the records written after it was started, skipping
+ * records a room's snapshot copy already contains.
+ * 
+ * Responsibilities:
+ * - Encode chain, hotel and room changes as compact binary records
+ * - Make records durable with batched fsync
+ * - Replay a journal into a new HotelChain
+ * - Checkpoint the chain so the journal stays short
+ */
+public class WriteAheadLog implements AutoCloseable {
+    
+    // Record types
+    static final byte CREATE_CHAIN = 1;
+    static final byte ADD_HOTEL = 2;
+    static final byte ADD_ROOM = 3;
+    static final byte ADD_RESERVATION = 4;
+    static final byte REMOVE_RESERVATION = 5;
+    static final byte CHECK_IN = 6;
+    static final byte SET_OCCUPANT = 7;
+    static final byte CHECK_OUT = 8;
+    static final byte COMPLETED_STAY = 9;
+    
+    private static final int MAGIC = 0x4857414C; // "HWAL"
+    private static final short FORMAT_VERSION = 4;
+    // Magic, format version and the LSN of the record before the file's first record
+    private static final int HEADER_SIZE = 14;
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+    
+    private Path file;
+    private FileChannel channel;
+    // Sequence number of the last record appended (LSN); records are numbered from 1
+    private long appendedLsn;
+    private volatile long durableLsn;
+    // Records waiting for the flusher, and the buffer it hands back after writing
+    private ByteBuffer pending;
+    private ByteBuffer spare;
+    private ReentrantLock lock;
+    private Condition workAvailable;
+    private Condition flushed;
+    // Futures from whenDurable, by the sequence number they wait for
+    private PriorityQueue<DurableWaiter> waiters;
+    private boolean closed;
+    private IOException failure;
+    private Thread flusher;
+    // Set by a checkpoint; the flusher moves appends to a new file and records where it switched
+    private boolean rotateRequested;
+    private long rotationLsn;
+    // Chain this journal was recovered into (null before recover)
+    private volatile HotelChain chain;
+    // Serializes checkpoints
+    private Object checkpointLock;
+    
+    private WriteAheadLog(Path file, FileChannel channel, long lastLsn) {
+        this.file = file;
+        this.channel = channel;
+        this.appendedLsn = lastLsn;
+        this.durableLsn = lastLsn;
+        this.checkpointLock = new Object();
+        this.pending = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+        this.spare = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+        this.lock = new ReentrantLock();
+        this.workAvailable = lock.newCondition();
+        this.flushed = lock.newCondition();
+        this.waiters = new PriorityQueue<>(Comparator.comparingLong((DurableWaiter waiter) -> waiter.lsn));
+        this.flusher = new Thread(this::flushLoop, "wal-flusher-" + file.getFileName());
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+    
+    /**
+     * Open a journal file for appending, creating it if needed.
+     * A torn record at the end of an existing file is cut off, and the
+     * records of a checkpoint interrupted by a crash are merged back in.
+     * 
+     * @param file the journal file
+     * @return the open journal
+     * @throws UncheckedIOException if the file cannot be opened or is not a journal
+     */
+    public static WriteAheadLog open(Path file) {
+        if (file == null) {
+            throw new IllegalArgumentException("Journal file cannot be null");
+        }
+        try {
+            Path next = nextFile(file);
+            if (Files.exists(next)) {
+                mergeInterruptedCheckpoint(file, next);
+            }
+            Files.deleteIfExists(snapshotTempFile(file));
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                                                   StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (channel.size() == 0) {
+                writeHeader(channel, 0);
+                return new WriteAheadLog(file, channel, 0);
+            }
+            Scan scan = scan(file, null);
+            channel.truncate(scan.validLength);
+            channel.position(scan.validLength);
+            return new WriteAheadLog(file, channel, scan.baseLsn + scan.recordCount);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open journal " + file, e);
+        }
+    }
+    
+    /**
+     * Rebuild the chain from the last checkpoint and the records written since,
+     * and attach the journal to it so further changes are logged. A new, empty
+     * journal starts a chain with the given name.
+     * 
+     * @param chainName the name for a new chain (ignored if the journal already has one)
+     * @return the recovered chain
+     * @throws IllegalStateException if a record cannot be applied
+     * @throws UncheckedIOException if the journal or snapshot cannot be read
+     */
+    public HotelChain recover(String chainName) {
+        return recover(chainName, null);
+    }
+    
+    /**
+     * Rebuild the chain as recover(String) does, keeping the completed stays
+     * of its rooms in a stay archive. A file archive holds the stays itself:
+     * snapshots skip them and a replay adds only the stays it does not have.
+     * 
+     * @param chainName the name for a new chain (ignored if the journal already has one)
+     * @param archive the stay archive, or null to keep stays on the heap
+     * @return the recovered chain
+     * @throws IllegalStateException if a record cannot be applied
+     * @throws UncheckedIOException if the journal or snapshot cannot be read
+     */
+    public HotelChain recover(String chainName, StayArchive archive) {
+        Replay replay = new Replay(archive);
+        try {
+            Path snapshotFile = snapshotFile(file);
+            if (Files.exists(snapshotFile)) {
+                ChainSnapshot snapshot = ChainSnapshot.load(snapshotFile, archive);
+                replay.chain = snapshot.getChain();
+                replay.snapshotLsn = snapshot.getLsn();
+                replay.snapshotVersions = snapshot.getRoomVersions();
+            }
+            scan(file, replay::apply);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read journal " + file, e);
+        }
+        HotelChain recovered = replay.chain;
+        if (recovered == null) {
+            recovered = replay.newChain(chainName);
+            logCreateChain(recovered);
+        }
+        if (archive != null) {
+            for (Hotel hotel : recovered.getHotels()) {
+                for (Room room : hotel.getRoomsInSlotOrder()) {
+                    room.alignVersionWithStayHistory();
+                }
+            }
+        }
+        recovered.attachJournal(this);
+        this.chain = recovered;
+        awaitDurable(getAppendedLsn());
+        return recovered;
+    }
+    
+    /**
+     * Write a snapshot of the recovered chain and drop the journal records it
+     * contains. Bookings continue while the snapshot is written; only the
+     * switch to a new journal file waits for one flush.
+     * 
+     * @throws IllegalStateException if the journal has not been recovered or is closed
+     * @throws UncheckedIOException if the snapshot or journal cannot be written
+     */
+    public void checkpoint() {
+        HotelChain target = chain;
+        if (target == null) {
+            throw new IllegalStateException("Journal has not been recovered into a chain");
+        }
+        synchronized (checkpointLock) {
+            try {
+                // Every record up to the switch is in a room before its copy is taken
+                long snapshotLsn = rotate();
+                Path temp = snapshotTempFile(file);
+                ChainSnapshot.write(target, snapshotLsn, temp);
+                // The snapshot leaves archived stays out, so they must be on disk before it replaces the journal
+                StayArchive archive = target.getStayArchive();
+                if (archive != null) {
+                    archive.force();
+                }
+                Files.move(temp, snapshotFile(file), StandardCopyOption.ATOMIC_MOVE,
+                           StandardCopyOption.REPLACE_EXISTING);
+                Files.move(nextFile(file), file, StandardCopyOption.ATOMIC_MOVE,
+                           StandardCopyOption.REPLACE_EXISTING);
+                syncDirectory(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot checkpoint journal " + file, e);
+            }
+        }
+    }
+    
+    /**
+     * Run checkpoint() on a background thread.
+     * 
+     * @return a future completed when the checkpoint is on disk
+     */
+    public CompletableFuture<Void> checkpointAsync() {
+        return CompletableFuture.runAsync(this::checkpoint, task -> {
+            Thread thread = new Thread(task, "wal-checkpoint-" + file.getFileName());
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
+    
+    /**
+     * Get the sequence number of the last appended record.
+     * 
+     * @return the last LSN handed out
+     */
+    public long getAppendedLsn() {
+        lock.lock();
+        try {
+            return appendedLsn;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Get the sequence number up to which records are on disk.
+     * 
+     * @return the last durable LSN
+     */
+    public long getDurableLsn() {
+        return durableLsn;
+    }
+    
+    /**
+     * Wait until every record up to the given sequence number is on disk.
+     * 
+     * @param lsn the sequence number to wait for
+     * @throws UncheckedIOException if writing the journal failed
+     */
+    public void awaitDurable(long lsn) {
+        if (durableLsn >= lsn) {
+            return;
+        }
+        lock.lock();
+        try {
+            while (durableLsn < lsn) {
+                if (failure != null) {
+                    throw new UncheckedIOException("Journal write failed", failure);
+                }
+                if (closed && pending.position() == 0) {
+                    throw new IllegalStateException("Journal is closed");
+                }
+                flushed.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Get a future completed once every record up to the given sequence
+     * number is on disk, without waiting for it. The flusher thread completes
+     * the future, so stages attached to it should be short.
+     * 
+     * @param lsn the sequence number to wait for
+     * @return a future completed when the records are durable, or completed
+     *         exceptionally with the exception awaitDurable would throw
+     */
+    public CompletableFuture<Void> whenDurable(long lsn) {
+        if (durableLsn >= lsn) {
+            return CompletableFuture.completedFuture(null);
+        }
+        lock.lock();
+        try {
+            if (durableLsn >= lsn) {
+                return CompletableFuture.completedFuture(null);
+            }
+            if (failure != null) {
+                return CompletableFuture.failedFuture(new UncheckedIOException("Journal write failed", failure));
+            }
+            if (closed && pending.position() == 0) {
+                return CompletableFuture.failedFuture(new IllegalStateException("Journal is closed"));
+            }
+            DurableWaiter waiter = new DurableWaiter(lsn);
+            waiters.add(waiter);
+            return waiter.future;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    // Remove the waiters for records up to lsn; called with the lock held
+    private List<DurableWaiter> takeWaiters(long lsn) {
+        List<DurableWaiter> ready = new ArrayList<>();
+        while (!waiters.isEmpty() && waiters.peek().lsn <= lsn) {
+            ready.add(waiters.poll());
+        }
+        return ready;
+    }
+    
+    /**
+     * Flush all appended records and close the journal file.
+     * 
+     * @throws UncheckedIOException if the final flush or close fails
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            workAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join();
+            channel.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close journal " + file, e);
+        }
+        if (failure != null) {
+            throw new UncheckedIOException("Journal write failed", failure);
+        }
+    }
+    
+    // ===== Journal files =====
+    
+    private static Path nextFile(Path file) {
+        return file.resolveSibling(file.getFileName() + ".next");
+    }
+    
+    private static Path snapshotFile(Path file) {
+        return file.resolveSibling(file.getFileName() + ".snapshot");
+    }
+    
+    private static Path snapshotTempFile(Path file) {
+        return file.resolveSibling(file.getFileName() + ".snapshot.tmp");
+    }
+    
+    private static void writeHeader(FileChannel channel, long baseLsn) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putShort(FORMAT_VERSION).putLong(baseLsn).flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+        channel.force(true);
+    }
+    
+    /**
+     * Append the records of a journal file started by an unfinished checkpoint
+     * to the journal it was meant to replace. Replay skips whatever the
+     * snapshot (old or new) already contains, so nothing is applied twice.
+     */
+    private static void mergeInterruptedCheckpoint(Path file, Path next) throws IOException {
+        if (!Files.exists(file)) {
+            Files.move(next, file, StandardCopyOption.ATOMIC_MOVE);
+            return;
+        }
+        Scan head = scan(file, null);
+        Scan tail = scan(next, null);
+        if (tail.baseLsn != head.baseLsn + head.recordCount) {
+            throw new IOException("Journal " + next + " does not continue " + file);
+        }
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.WRITE);
+             FileChannel in = FileChannel.open(next, StandardOpenOption.READ)) {
+            out.truncate(head.validLength);
+            out.position(head.validLength);
+            long length = tail.validLength - HEADER_SIZE;
+            long copied = 0;
+            while (copied < length) {
+                copied += in.transferTo(HEADER_SIZE + copied, length - copied, out);
+            }
+            out.force(true);
+        }
+        Files.delete(next);
+    }
+    
+    /**
+     * Make renames in the journal's directory durable (best effort: not every
+     * platform can force a directory).
+     */
+    private static void syncDirectory(Path file) {
+        Path directory = file.toAbsolutePath().getParent();
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Directory fsync is not supported here; the renames are still atomic
+        }
+    }
+    
+    /**
+     * Ask the flusher to continue in a new journal file and wait for the switch.
+     * 
+     * @return the LSN of the last record written to the old file
+     */
+    private long rotate() {
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Journal is closed");
+            }
+            rotateRequested = true;
+            workAvailable.signal();
+            while (rotateRequested) {
+                if (failure != null) {
+                    throw new UncheckedIOException("Journal write failed", failure);
+                }
+                flushed.awaitUninterruptibly();
+            }
+            return rotationLsn;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    // ===== Appending records =====
+    
+    long logCreateChain(HotelChain chain) {
+        RecordWriter out = new RecordWriter(CREATE_CHAIN);
+        out.string(chain.getName());
+        return append(out);
+    }
+    
+    long logAddHotel(Hotel hotel) {
+        RecordWriter out = new RecordWriter(ADD_HOTEL);
+        out.string(hotel.getName().getFirstName());
+        out.string(hotel.getName().getLastName());
+        return append(out);
+    }
+    
+    long logAddRoom(Hotel hotel, Room room) {
+        RecordWriter out = roomRecord(ADD_ROOM, hotel, room);
+        RoomType roomType = room.getRoomType();
+        out.integer(roomType.getKind().ordinal());
+        out.longInteger(roomType.getCost().getMinorUnits());
+        out.string(roomType.getCost().getCurrency());
+        return append(out);
+    }
+    
+    long logReservationAdded(Hotel hotel, Room room, Guest guest, Reservation reservation, ReserverPayer payer) {
+        return append(reservationAdded(hotel, room, guest, reservation, payer));
+    }
+    
+    /**
+     * Append the records of a batch of reservations as one unit: either every
+     * record is appended or, if the journal is closed, none is.
+     * 
+     * @param rooms the room of each reservation
+     * @param entries each reservation with its guest
+     * @param payers the payer of each reservation
+     * @return the sequence number of the batch's last record
+     * @throws IllegalStateException if the journal is closed
+     */
+    long logReservationsAdded(List<Room> rooms, List<Map.Entry<Reservation, Guest>> entries,
+                              List<ReserverPayer> payers) {
+        List<RecordWriter> records = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            Room room = rooms.get(i);
+            records.add(reservationAdded(room.getHotel(), room, entries.get(i).getValue(), entries.get(i).getKey(),
+                                         payers.get(i)));
+        }
+        return appendAll(records);
+    }
+    
+    private static RecordWriter reservationAdded(Hotel hotel, Room room, Guest guest, Reservation reservation,
+                                                 ReserverPayer payer) {
+        RecordWriter out = roomRecord(ADD_RESERVATION, hotel, room);
+        out.guest(guest);
+        out.bool(payer != null);
+        if (payer != null) {
+            out.string(payer.getCreditCardDetails().getCardNumber());
+            out.string(payer.getCreditCardDetails().getCardholderName());
+            out.string(payer.getCreditCardDetails().getExpiryDate());
+            out.string(payer.getId().getNumber());
+            out.string(payer.getId().getType());
+        }
+        out.integer((int) reservation.getStartDate().toEpochDay());
+        out.integer((int) reservation.getEndDate().toEpochDay());
+        out.integer(reservation.getNumberOfGuests().getNumber());
+        out.longInteger(reservation.getId());
+        return out;
+    }
+    
+    long logReservationRemoved(Hotel hotel, Room room, String guestId) {
+        RecordWriter out = roomRecord(REMOVE_RESERVATION, hotel, room);
+        out.string(guestId);
+        return append(out);
+    }
+    
+    long logCheckIn(Hotel hotel, Room room, String guestId) {
+        RecordWriter out = roomRecord(CHECK_IN, hotel, room);
+        out.string(guestId);
+        return append(out);
+    }
+    
+    long logOccupantSet(Hotel hotel, Room room, Guest guest) {
+        RecordWriter out = roomRecord(SET_OCCUPANT, hotel, room);
+        out.guest(guest);
+        return append(out);
+    }
+    
+    long logCheckOut(Hotel hotel, Room room, String guestId) {
+        RecordWriter out = roomRecord(CHECK_OUT, hotel, room);
+        out.string(guestId);
+        return append(out);
+    }
+    
+    long logCompletedStay(Hotel hotel, Room room, long id, int startDay, int endDay, int guests) {
+        RecordWriter out = roomRecord(COMPLETED_STAY, hotel, room);
+        out.longInteger(id);
+        out.integer(startDay);
+        out.integer(endDay);
+        out.integer(guests);
+        return append(out);
+    }
+    
+    private static RecordWriter roomRecord(byte type, Hotel hotel, Room room) {
+        RecordWriter out = new RecordWriter(type);
+        out.string(hotel.getNameAsString());
+        out.integer(room.getNumber());
+        // Inside a write section the version is odd; record the version the change commits as
+        long version = room.getVersion();
+        out.longInteger(version + (version & 1));
+        return out;
+    }
+    
+    /**
+     * Add an encoded record to the pending buffer and wake the flusher.
+     * 
+     * @param record the encoded record
+     * @return the record's sequence number
+     */
+    private long append(RecordWriter record) {
+        byte[] body = record.toByteArray();
+        int crc = checksum(body);
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Journal is closed");
+            }
+            put(body, crc);
+            workAvailable.signal();
+            return appendedLsn;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Add several encoded records to the pending buffer under one lock, so
+     * either all of them are appended or none is.
+     * 
+     * @param records the encoded records
+     * @return the sequence number of the last record
+     */
+    private long appendAll(List<RecordWriter> records) {
+        byte[][] bodies = new byte[records.size()][];
+        int[] crcs = new int[records.size()];
+        for (int i = 0; i < bodies.length; i++) {
+            bodies[i] = records.get(i).toByteArray();
+            crcs[i] = checksum(bodies[i]);
+        }
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Journal is closed");
+            }
+            for (int i = 0; i < bodies.length; i++) {
+                put(bodies[i], crcs[i]);
+            }
+            workAvailable.signal();
+            return appendedLsn;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private static int checksum(byte[] body) {
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        return (int) crc.getValue();
+    }
+    
+    // Called with the lock held
+    private void put(byte[] body, int crc) {
+        if (pending.remaining() < body.length + 8) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + body.length + 8));
+            pending.flip();
+            grown.put(pending);
+            pending = grown;
+        }
+        pending.putInt(body.length).put(body).putInt(crc);
+        appendedLsn++;
+    }
+    
+    /**
+     * Flusher thread: swap out the pending buffer, write it, fsync, and
+     * publish the new durable sequence number.
+     */
+    private void flushLoop() {
+        List<DurableWaiter> stranded;
+        while (true) {
+            ByteBuffer batch;
+            long batchLsn;
+            boolean rotate;
+            lock.lock();
+            try {
+                while (pending.position() == 0 && !closed && !rotateRequested) {
+                    workAvailable.awaitUninterruptibly();
+                }
+                if (pending.position() == 0 && !rotateRequested) {
+                    // Closed with nothing left to write; any waiter asked past the last record
+                    stranded = takeWaiters(Long.MAX_VALUE);
+                    break;
+                }
+                batch = pending;
+                pending = spare != null ? spare : ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+                spare = null;
+                batchLsn = appendedLsn;
+                rotate = rotateRequested;
+            } finally {
+                lock.unlock();
+            }
+            
+            IOException error = null;
+            try {
+                batch.flip();
+                while (batch.hasRemaining()) {
+                    channel.write(batch);
+                }
+                channel.force(false);
+                if (rotate) {
+                    // Records after batchLsn go to the new file
+                    FileChannel nextChannel = FileChannel.open(nextFile(file), StandardOpenOption.CREATE,
+                                                               StandardOpenOption.TRUNCATE_EXISTING,
+                                                               StandardOpenOption.WRITE);
+                    writeHeader(nextChannel, batchLsn);
+                    channel.close();
+                    channel = nextChannel;
+                }
+            } catch (IOException e) {
+                error = e;
+            }
+            batch.clear();
+            
+            List<DurableWaiter> ready;
+            lock.lock();
+            try {
+                spare = batch;
+                if (error != null) {
+                    failure = error;
+                    closed = true;
+                    ready = takeWaiters(Long.MAX_VALUE);
+                } else {
+                    durableLsn = batchLsn;
+                    if (rotate) {
+                        rotationLsn = batchLsn;
+                        rotateRequested = false;
+                    }
+                    ready = takeWaiters(batchLsn);
+                }
+                flushed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            // Completed outside the lock, since the futures run their callers' stages here
+            for (DurableWaiter waiter : ready) {
+                if (error != null) {
+                    waiter.future.completeExceptionally(new UncheckedIOException("Journal write failed", error));
+                } else {
+                    waiter.future.complete(null);
+                }
+            }
+            if (error != null) {
+                return;
+            }
+        }
+        for (DurableWaiter waiter : stranded) {
+            waiter.future.completeExceptionally(new IllegalStateException("Journal is closed"));
+        }
+    }
+    
+    /**
+     * A future waiting for the records up to a sequence number to be durable.
+     */
+    private static final class DurableWaiter {
+        final long lsn;
+        final CompletableFuture<Void> future;
+        
+        DurableWaiter(long lsn) {
+            this.lsn = lsn;
+            this.future = new CompletableFuture<>();
+        }
+    }
+    
+    // ===== Reading and replaying records =====
+    
+    /**
+     * Callback for each valid record found while scanning a journal.
+     */
+    interface RecordHandler {
+        void handle(long lsn, byte type, DataInputStream body) throws IOException;
+    }
+    
+    /**
+     * Result of scanning a journal: how many records are valid and where they end.
+     */
+    private static final class Scan {
+        private long baseLsn;
+        private long recordCount;
+        private long validLength;
+    }
+    
+    /**
+     * Read a journal from the start, passing each intact record to the handler.
+     * Scanning stops at the first truncated or corrupt record.
+     */
+    private static Scan scan(Path file, RecordHandler handler) throws IOException {
+        Scan scan = new Scan();
+        try (InputStream raw = Channels.newInputStream(FileChannel.open(file, StandardOpenOption.READ));
+             DataInputStream in = new DataInputStream(new BufferedInputStream(raw))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a journal file: " + file);
+            }
+            short format = in.readShort();
+            if (format != FORMAT_VERSION) {
+                throw new IOException("Unsupported journal format " + format + " in " + file);
+            }
+            scan.baseLsn = in.readLong();
+            scan.validLength = HEADER_SIZE;
+            CRC32 crc = new CRC32();
+            while (true) {
+                byte[] body;
+                try {
+                    int length = in.readInt();
+                    if (length <= 0 || length > (1 << 24)) {
+                        break;
+                    }
+                    body = new byte[length];
+                    in.readFully(body);
+                    crc.reset();
+                    crc.update(body);
+                    if (in.readInt() != (int) crc.getValue()) {
+                        break;
+                    }
+                } catch (EOFException e) {
+                    break;
+                }
+                if (handler != null) {
+                    DataInputStream record = new DataInputStream(new ByteArrayInputStream(body, 1, body.length - 1));
+                    try {
+                        handler.handle(scan.baseLsn + scan.recordCount + 1, body[0], record);
+                    } catch (RuntimeException e) {
+                        throw new IllegalStateException("Journal record " + (scan.baseLsn + scan.recordCount + 1) +
+                                                        " in " + file + " cannot be replayed", e);
+                    }
+                }
+                scan.recordCount++;
+                scan.validLength += body.length + 8;
+            }
+        }
+        return scan;
+    }
+    
+    /**
+     * Rebuilds a chain from an optional snapshot and the journal records after it.
+     */
+    private static final class Replay {
+        private final StayArchive archive;
+        private HotelChain chain;
+        // Records up to this LSN are contained in the snapshot
+        private long snapshotLsn;
+        // Version of each room restored from the snapshot
+        private Map<Room, Long> snapshotVersions = Collections.emptyMap();
+        
+        Replay(StayArchive archive) {
+            this.archive = archive;
+        }
+        
+        /**
+         * Create a chain that keeps its stays in the replay's archive, if any.
+         */
+        HotelChain newChain(String name) {
+            HotelChain created = new HotelChain(name);
+            if (archive != null) {
+                created.useStayArchive(archive);
+            }
+            return created;
+        }
+        
+        /**
+         * Apply one record to the chain being rebuilt, unless the snapshot
+         * already contains it.
+         */
+        void apply(long lsn, byte type, DataInputStream in) throws IOException {
+            if (lsn <= snapshotLsn) {
+                return;
+            }
+            if (type == CREATE_CHAIN) {
+                String name = in.readUTF();
+                if (chain == null) {
+                    chain = newChain(name);
+                }
+                return;
+            }
+            if (chain == null) {
+                throw new IllegalStateException("Journal does not start with a chain record");
+            }
+            if (type == ADD_HOTEL) {
+                Hotel hotel = new Hotel(new Name(in.readUTF(), in.readUTF()));
+                if (chain.getHotel(hotel.getNameAsString()) == null) {
+                    chain.addHotel(hotel);
+                }
+                return;
+            }
+            
+            Hotel hotel = chain.getHotel(in.readUTF());
+            if (hotel == null) {
+                throw new IllegalStateException("Journal refers to an unknown hotel");
+            }
+            int roomNumber = in.readInt();
+            long version = in.readLong();
+            Room room = hotel.getRoom(roomNumber);
+            Long snapshotVersion = room == null ? null : snapshotVersions.get(room);
+            if (snapshotVersion != null && version <= snapshotVersion) {
+                return;
+            }
+            if (type == ADD_ROOM) {
+                RoomKind kind = RoomKind.values()[in.readInt()];
+                Money cost = Money.ofMinorUnits(in.readLong(), in.readUTF());
+                room = new Room(roomNumber, new RoomType(kind, cost));
+                hotel.addRoom(roomNumber, room);
+                room.restoreVersion(version);
+                return;
+            }
+            
+            if (room == null) {
+                throw new IllegalStateException("Journal refers to an unknown room " + roomNumber);
+            }
+            switch (type) {
+                case ADD_RESERVATION:
+                    Guest guest = readGuest(in);
+                    ReserverPayer payer = null;
+                    if (in.readBoolean()) {
+                        payer = new ReserverPayer(new CreditCard(in.readUTF(), in.readUTF(), in.readUTF()),
+                                                  new Identity(in.readUTF(), in.readUTF()));
+                    }
+                    Reservation reservation = new Reservation(LocalDate.ofEpochDay(in.readInt()),
+                                                              LocalDate.ofEpochDay(in.readInt()),
+                                                              new HowMany(in.readInt()));
+                    reservation.restoreId(in.readLong());
+                    reservation.setReserverPayer(payer);
+                    room.addReservation(reservation, guest);
+                    break;
+                case REMOVE_RESERVATION:
+                    room.removeReservation(in.readUTF());
+                    break;
+                case CHECK_IN:
+                    room.checkInGuest(in.readUTF());
+                    break;
+                case SET_OCCUPANT:
+                    room.setOccupant(readGuest(in));
+                    break;
+                case CHECK_OUT:
+                    room.checkOutGuest(in.readUTF());
+                    break;
+                case COMPLETED_STAY:
+                    room.restoreCompletedStay(in.readLong(), in.readInt(), in.readInt(), in.readInt(), version);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown journal record type " + type);
+            }
+            // Keep the original numbering so later records and snapshots line up
+            room.restoreVersion(version);
+        }
+    }
+    
+    private static Guest readGuest(DataInputStream in) throws IOException {
+        Name name = new Name(in.readUTF(), in.readUTF());
+        Address address = new Address(in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF());
+        return new Guest(name, address);
+    }
+    
+    /**
+     * Encodes the body of one record.
+     */
+    private static final class RecordWriter {
+        private ByteArrayOutputStream bytes;
+        private DataOutputStream out;
+        
+        RecordWriter(byte type) {
+            this.bytes = new ByteArrayOutputStream(64);
+            this.out = new DataOutputStream(bytes);
+            write(() -> out.writeByte(type));
+        }
+        
+        void string(String value) {
+            write(() -> out.writeUTF(value));
+        }
+        
+        void integer(int value) {
+            write(() -> out.writeInt(value));
+        }
+        
+        void longInteger(long value) {
+            write(() -> out.writeLong(value));
+        }
+        
+        void bool(boolean value) {
+            write(() -> out.writeBoolean(value));
+        }
+        
+        void guest(Guest guest) {
+            string(guest.getName().getFirstName());
+            string(guest.getName().getLastName());
+            Address address = guest.getAddressDetails();
+            string(address.getStreet());
+            string(address.getCity());
+            string(address.getCountry());
+            string(address.getPostalCode());
+        }
+        
+        byte[] toByteArray() {
+            return bytes.toByteArray();
+        }
+        
+        private void write(IoAction action) {
+            try {
+                action.run();
+            } catch (IOException e) {
+                // ByteArrayOutputStream never throws
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+    
+    private interface IoAction {
+        void run() throws IOException;
+    }
+}
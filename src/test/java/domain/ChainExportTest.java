@@ -0,0 +1,240 @@
+package test.java.domain;
+
+import domain.Address;
+import domain.ChainExportListener;
+import domain.ChainExportReader;
+import domain.ChainExporter;
+import domain.CreditCard;
+import domain.Guest;
+import domain.Hotel;
+import domain.HotelChain;
+import domain.HowMany;
+import domain.Identity;
+import domain.Money;
+import domain.Name;
+import domain.Reservation;
+import domain.ReserverPayer;
+import domain.Room;
+import domain.RoomKind;
+import domain.RoomType;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for ChainExporter and ChainExportReader.
+ * Tests that an export streams back every hotel, room, reservation and
+ * completed stay, shares repeated strings, and rejects damaged files.
+ */
+class ChainExportTest {
+    
+    private static final LocalDate START = LocalDate.of(2030, 6, 1);
+    
+    @TempDir
+    Path directory;
+    
+    private HotelChain chain;
+    private Hotel hotel;
+    private ReserverPayer payer;
+    
+    @BeforeEach
+    void setUp() {
+        chain = new HotelChain("Test Hotel Chain");
+        hotel = new Hotel(new Name("Grand", "Hotel"));
+        hotel.addRoom(101, new Room(101, new RoomType(RoomKind.SINGLE, new Money(100.0, "USD"))));
+        hotel.addRoom(102, new Room(102, new RoomType(RoomKind.SUITE, new Money(350.5, "USD"))));
+        chain.addHotel(hotel);
+        payer = new ReserverPayer(new CreditCard("1234567890123456", "John Doe", "12/25"),
+                                  new Identity("ID123", "Passport"));
+    }
+    
+    @Test
+    void testExportStreamsBackEveryRecord() throws IOException {
+        // Arrange: a completed stay and a guest in 101, a later reservation in 102
+        chain.makeReservation("Grand Hotel", 101, guest("Ann"), payer,
+                              new Reservation(START, START.plusDays(2), new HowMany(1)));
+        chain.checkInGuest("Grand Hotel", 101, "Ann Guest");
+        chain.checkOutGuest("Grand Hotel", 101, "Ann Guest");
+        chain.makeReservation("Grand Hotel", 101, guest("John"), payer,
+                              new Reservation(START.plusDays(3), START.plusDays(5), new HowMany(2)));
+        chain.checkInGuest("Grand Hotel", 101, "John Guest");
+        Reservation later = new Reservation(START.plusDays(10), START.plusDays(12), new HowMany(3));
+        chain.makeReservation("Grand Hotel", 102, guest("Jane"), payer, later);
+        chain.addHotel(new Hotel(new Name("Empty", "Hotel")));
+        Path file = directory.resolve("chain.export");
+        
+        // Act
+        long bytes = new ChainExporter(chain).export(file);
+        RecordingListener listener = new RecordingListener();
+        ChainExportReader.read(file, listener);
+        
+        // Assert
+        assertEquals(Files.size(file), bytes);
+        assertEquals("Test Hotel Chain", listener.chainName);
+        assertNotNull(listener.exportedAt);
+        assertTrue(listener.records.contains("hotel Empty Hotel"));
+        int grand = listener.records.indexOf("hotel Grand Hotel");
+        assertEquals(List.of(
+            "hotel Grand Hotel",
+            "room Grand Hotel 101 SINGLE 100.0 USD occupant=John Guest checkedIn=John Guest",
+            "reservation Grand Hotel 101 John Guest " + START.plusDays(3) + " 2 ****3456/Passport",
+            "stay Grand Hotel 101 " + START + " " + START.plusDays(2) + " 1",
+            "room Grand Hotel 102 SUITE 350.5 USD occupant=null checkedIn=null",
+            "reservation Grand Hotel 102 Jane Guest " + START.plusDays(10) + " 3 ****3456/Passport"
+        ), listener.records.subList(grand, grand + 6));
+        assertEquals(later.getId(), listener.reservationIds.get(1).longValue());
+    }
+    
+    @Test
+    void testRepeatedStringsAreWrittenOnce() throws IOException {
+        // Arrange: one guest returning 200 times, each stay reserved in both rooms
+        for (int stay = 0; stay < 200; stay++) {
+            LocalDate start = START.plusDays(stay * 2L);
+            Room single = hotel.getRoom(101);
+            Room suite = hotel.getRoom(102);
+            Guest guest = guest("Returning");
+            single.addReservation(new Reservation(start, start.plusDays(1), new HowMany(1)), guest);
+            single.checkInGuest("Returning Guest");
+            single.checkOutGuest("Returning Guest");
+            suite.addReservation(new Reservation(start, start.plusDays(1), new HowMany(1)), guest);
+            suite.checkInGuest("Returning Guest");
+            suite.checkOutGuest("Returning Guest");
+        }
+        chain.makeReservation("Grand Hotel", 101, guest("Returning"), payer,
+                              new Reservation(START.plusDays(500), START.plusDays(501), new HowMany(1)));
+        Path file = directory.resolve("chain.export");
+        
+        // Act
+        new ChainExporter(chain).export(file);
+        RecordingListener listener = new RecordingListener();
+        ChainExportReader.read(file, listener);
+        
+        // Assert: about a dozen bytes per stay, and the address appears once
+        assertEquals(400, listener.records.stream().filter(record -> record.startsWith("stay")).count());
+        assertTrue(Files.size(file) < 400 * 16, "Export is " + Files.size(file) + " bytes");
+        String content = new String(Files.readAllBytes(file), StandardCharsets.ISO_8859_1);
+        assertEquals(content.indexOf("Main St"), content.lastIndexOf("Main St"));
+    }
+    
+    @Test
+    void testDamagedFilesAreRejected() throws IOException {
+        // Arrange
+        chain.makeReservation("Grand Hotel", 101, guest("John"), payer,
+                              new Reservation(START, START.plusDays(2), new HowMany(1)));
+        Path file = directory.resolve("chain.export");
+        long size = new ChainExporter(chain).export(file);
+        Path other = Files.writeString(directory.resolve("other.txt"), "not an export at all");
+        
+        // Act
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 3);
+        }
+        
+        // Assert
+        IOException truncated = assertThrows(IOException.class,
+                                             () -> ChainExportReader.read(file, new RecordingListener()));
+        assertTrue(truncated.getMessage().contains("truncated"), truncated.getMessage());
+        assertThrows(IOException.class, () -> ChainExportReader.read(other, new RecordingListener()));
+        assertThrows(IllegalArgumentException.class, () -> ChainExportReader.read(file, null));
+        assertThrows(IllegalArgumentException.class, () -> new ChainExporter(null));
+    }
+    
+    @Test
+    void testCorruptContentIsReportedAsIOException() throws IOException {
+        // Arrange: the first name "Grand" overwritten with blanks, an impossible version, a 2 GB record length
+        Path file = directory.resolve("chain.export");
+        new ChainExporter(chain).export(file);
+        byte[] export = Files.readAllBytes(file);
+        String content = new String(export, StandardCharsets.ISO_8859_1);
+        byte[] blankName = export.clone();
+        int grand = content.indexOf("Grand");
+        for (int i = grand; i < grand + 5; i++) {
+            blankName[i] = ' ';
+        }
+        byte[] versionZero = export.clone();
+        versionZero[4] = 0;
+        versionZero[5] = 0;
+        byte[] hugeRecord = Arrays.copyOf(export, 20);
+        hugeRecord[14] = 1;
+        byte[] length = {(byte) 0xF0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+        System.arraycopy(length, 0, hugeRecord, 15, length.length);
+        
+        // Act
+        IOException badName = assertThrows(IOException.class,
+            () -> ChainExportReader.read(Files.write(directory.resolve("name.export"), blankName),
+                                         new RecordingListener()));
+        IOException badVersion = assertThrows(IOException.class,
+            () -> ChainExportReader.read(Files.write(directory.resolve("version.export"), versionZero),
+                                         new RecordingListener()));
+        IOException badLength = assertThrows(IOException.class,
+            () -> ChainExportReader.read(Files.write(directory.resolve("length.export"), hugeRecord),
+                                         new RecordingListener()));
+        
+        // Assert
+        assertTrue(badName.getCause() instanceof IllegalArgumentException, badName.toString());
+        assertTrue(badVersion.getMessage().contains("Unsupported export format 0"), badVersion.getMessage());
+        assertTrue(badLength.getMessage().contains("truncated"), badLength.getMessage());
+    }
+    
+    private Guest guest(String firstName) {
+        return new Guest(new Name(firstName, "Guest"), new Address("Main St", "City", "Country", "12345"));
+    }
+    
+    /**
+     * Collects every record as a line of text.
+     */
+    private static class RecordingListener implements ChainExportListener {
+        private String chainName;
+        private Instant exportedAt;
+        private List<String> records = new ArrayList<>();
+        private List<Long> reservationIds = new ArrayList<>();
+        
+        @Override
+        public void chain(String name, Instant exportedAt) {
+            this.chainName = name;
+            this.exportedAt = exportedAt;
+        }
+        
+        @Override
+        public void hotel(Name name) {
+            records.add("hotel " + name.getFullName());
+        }
+        
+        @Override
+        public void room(String hotelName, int number, RoomType roomType, Guest occupant, String checkedInGuestId) {
+            records.add("room " + hotelName + " " + number + " " + roomType.getKind() + " " + roomType.getCost()
+                        + " occupant=" + (occupant == null ? null : occupant.getNameAsString())
+                        + " checkedIn=" + checkedInGuestId);
+        }
+        
+        @Override
+        public void reservation(String hotelName, int roomNumber, Guest guest, Reservation reservation) {
+            reservationIds.add(reservation.getId());
+            records.add("reservation " + hotelName + " " + roomNumber + " " + guest.getNameAsString() + " "
+                        + reservation.getStartDate() + " " + reservation.getNumberOfGuests().getNumber() + " "
+                        + reservation.getReserverPayer().getCreditCardDetails().getCardNumber() + "/"
+                        + reservation.getReserverPayer().getId().getType());
+        }
+        
+        @Override
+        public void completedStay(String hotelName, int roomNumber, long reservationId, LocalDate startDate,
+                                  LocalDate endDate, int guests) {
+            records.add("stay " + hotelName + " " + roomNumber + " " + startDate + " " + endDate + " " + guests);
+        }
+    }
+}
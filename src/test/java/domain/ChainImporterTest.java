@@ -0,0 +1,279 @@
+package test.java.domain;
+
+import domain.ChainImporter;
+import domain.Hotel;
+import domain.HotelChain;
+import domain.ImportResult;
+import domain.Money;
+import domain.Name;
+import domain.Room;
+import domain.RoomKind;
+import domain.RoomStatus;
+import domain.RoomType;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for ChainImporter.
+ * Tests importing hotels, rooms, reservations and completed stays from CSV
+ * files, and the reporting of rows that cannot be imported.
+ */
+class ChainImporterTest {
+    
+    private static final LocalDate AS_OF = LocalDate.of(2030, 6, 1);
+    private static final String HOTELS_HEADER = "first_name,last_name\n";
+    private static final String ROOMS_HEADER = "hotel,number,kind,cost,currency\n";
+    private static final String RESERVATIONS_HEADER = "hotel,room,start,end,guests,first_name,last_name,street,"
+                                                      + "city,country,postal_code,card_number,cardholder_name,"
+                                                      + "expiry_date,payer_id,payer_id_type\n";
+    
+    @TempDir
+    Path directory;
+    
+    private HotelChain chain;
+    private ChainImporter importer;
+    
+    @BeforeEach
+    void setUp() {
+        chain = new HotelChain("Test Hotel Chain");
+        importer = new ChainImporter(chain, AS_OF);
+    }
+    
+    @Test
+    void testImportsHotelsRoomsReservationsAndCompletedStays() throws IOException {
+        // Arrange
+        Path hotels = write("hotels.csv", HOTELS_HEADER + "Grand,Hotel\nSea,View\n");
+        Path rooms = write("rooms.csv", ROOMS_HEADER
+                                        + "Grand Hotel,101,SINGLE,100.00,USD\n"
+                                        + "Grand Hotel,102,DOUBLE,150.50,USD\n"
+                                        + "Sea View,1,SUITE,300,EUR\n");
+        Path reservations = write("reservations.csv", RESERVATIONS_HEADER
+                                  + reservation("Grand Hotel", 101, "2030-06-10", "2030-06-12", "John") + "\n"
+                                  + reservation("Grand Hotel", 102, "2030-05-01", "2030-05-03", "Jane") + "\n"
+                                  + "Sea View,1,2030-04-01,2030-04-05,2,,,,,,,,,,,\n");
+        
+        // Act
+        ImportResult result = importer.importFiles(hotels, rooms, reservations);
+        
+        // Assert
+        assertEquals(2, result.getHotelCount());
+        assertEquals(3, result.getRoomCount());
+        assertEquals(1, result.getReservationCount());
+        assertEquals(2, result.getCompletedStayCount());
+        assertEquals(0, result.getRejectedRowCount(), result.getRejections().toString());
+        Hotel grand = chain.getHotel("Grand Hotel");
+        assertEquals(new Money(150.5, "USD"), grand.getRoom(102).getRoomType().getCost());
+        assertFalse(grand.getRoom(101).isAvailable(LocalDate.of(2030, 6, 10), LocalDate.of(2030, 6, 11)));
+        assertEquals(1, grand.getRoom(102).getCompletedStayCount());
+        assertEquals(1, chain.getHotel("Sea View").getRoom(1).getCompletedStayCount());
+        assertEquals(1, chain.getReservationCount());
+        assertEquals(1, chain.findReservationsByGuest(new Name("John", "Guest")).size());
+        assertEquals(1, chain.getRoomCount(RoomStatus.RESERVED));
+    }
+    
+    @Test
+    void testQuotedFieldsMayContainCommasAndQuotes() throws IOException {
+        // Arrange
+        Path hotels = write("hotels.csv", HOTELS_HEADER + "\"Grand, Old\",\"\"\"The\"\" Hotel\"\r\n");
+        Path rooms = write("rooms.csv", ROOMS_HEADER + "\"Grand, Old \"\"The\"\" Hotel\",7,SINGLE,80,USD\r\n");
+        
+        // Act
+        ImportResult result = importer.importFiles(hotels, rooms, null);
+        
+        // Assert
+        assertEquals(0, result.getRejectedRowCount(), result.getRejections().toString());
+        assertNotNull(chain.getHotel("Grand, Old \"The\" Hotel").getRoom(7));
+    }
+    
+    @Test
+    void testBadRowsAreReportedAndSkipped() throws IOException {
+        // Arrange
+        Path hotels = write("hotels.csv", HOTELS_HEADER + "Grand,Hotel\nGrand,Hotel\n");
+        Path rooms = write("rooms.csv", ROOMS_HEADER
+                                        + "Grand Hotel,101,SINGLE,100,USD\n"
+                                        + "Grand Hotel,102,PENTHOUSE,900,USD\n"
+                                        + "\n"
+                                        + "Grand Hotel,abc,SINGLE,100,USD\n"
+                                        + "Other Hotel,1,SINGLE,100,USD\n"
+                                        + "Grand Hotel,103,SINGLE\n");
+        Path reservations = write("reservations.csv", RESERVATIONS_HEADER
+                                  + reservation("Grand Hotel", 101, "2030-07-01", "2030-07-05", "John") + "\n"
+                                  + reservation("Grand Hotel", 101, "2030-07-03", "2030-07-06", "Jane") + "\n"
+                                  + reservation("Grand Hotel", 101, "2030-07-10", "2030-07-01", "Ann") + "\n"
+                                  + reservation("Grand Hotel", 101, "2030-02-30", "2030-07-01", "Bob") + "\n"
+                                  + reservation("Grand Hotel", 999, "2030-07-10", "2030-07-11", "Eve") + "\n");
+        
+        // Act
+        ImportResult result = importer.importFiles(hotels, rooms, reservations);
+        
+        // Assert
+        assertEquals(1, result.getHotelCount());
+        assertEquals(1, result.getRoomCount());
+        assertEquals(1, result.getReservationCount());
+        assertEquals(9, result.getRejectedRowCount());
+        List<String> rejections = result.getRejections();
+        assertEquals(9, rejections.size());
+        assertTrue(rejections.get(0).startsWith("hotels.csv:3: "), rejections.get(0));
+        assertTrue(rejections.get(1).startsWith("rooms.csv:3: Unknown room kind 'PENTHOUSE'"), rejections.get(1));
+        assertTrue(rejections.get(2).startsWith("rooms.csv:5: "), rejections.get(2));
+        assertTrue(rejections.get(3).startsWith("rooms.csv:6: Hotel 'Other Hotel'"), rejections.get(3));
+        assertTrue(rejections.get(4).startsWith("rooms.csv:7: Expected 5 fields"), rejections.get(4));
+        assertTrue(rejections.get(5).startsWith("reservations.csv:3: "), rejections.get(5));
+        assertTrue(rejections.get(8).startsWith("reservations.csv:6: Room 999"), rejections.get(8));
+    }
+    
+    @Test
+    void testOverlappingStaysAreRejected() throws IOException {
+        // Arrange: stays in room 101, one overlapping the first and a reservation overlapping the last
+        Path hotels = write("hotels.csv", HOTELS_HEADER + "Grand,Hotel\n");
+        Path rooms = write("rooms.csv", ROOMS_HEADER + "Grand Hotel,101,SINGLE,100,USD\n");
+        Path reservations = write("reservations.csv", RESERVATIONS_HEADER
+                                  + "Grand Hotel,101,2030-04-01,2030-04-05,1,,,,,,,,,,,\n"
+                                  + "Grand Hotel,101,2030-04-03,2030-04-06,1,,,,,,,,,,,\n"
+                                  + "Grand Hotel,101,2030-04-05,2030-04-07,1,,,,,,,,,,,\n"
+                                  + "Grand Hotel,101,2030-05-29,2030-06-01,1,,,,,,,,,,,\n"
+                                  + reservation("Grand Hotel", 101, "2030-05-31", "2030-06-03", "John") + "\n");
+        
+        // Act
+        ImportResult result = importer.importFiles(hotels, rooms, reservations);
+        
+        // Assert
+        assertEquals(3, result.getCompletedStayCount());
+        assertEquals(0, result.getReservationCount());
+        assertEquals(2, result.getRejectedRowCount());
+        assertTrue(result.getRejections().get(0).startsWith("reservations.csv:3: Room 101 is already reserved"),
+                   result.getRejections().get(0));
+        assertTrue(result.getRejections().get(1).startsWith("reservations.csv:6: Room 101 is already reserved"),
+                   result.getRejections().get(1));
+        assertEquals(3, chain.getHotel("Grand Hotel").getRoom(101).getCompletedStayCount());
+    }
+    
+    @Test
+    void testGuestsSpelledDifferentlyKeepTheirSpelling() throws IOException {
+        // Arrange
+        Path hotels = write("hotels.csv", HOTELS_HEADER + "Grand,Hotel\n");
+        Path rooms = write("rooms.csv", ROOMS_HEADER + "Grand Hotel,101,SINGLE,100,USD\n"
+                                        + "Grand Hotel,102,SINGLE,100,USD\n");
+        Path reservations = write("reservations.csv", RESERVATIONS_HEADER
+                                  + reservation("Grand Hotel", 101, "2030-06-10", "2030-06-12", "John") + "\n"
+                                  + reservation("Grand Hotel", 102, "2030-06-10", "2030-06-12", "JOHN") + "\n");
+        
+        // Act
+        ImportResult result = importer.importFiles(hotels, rooms, reservations);
+        
+        // Assert: each room holds its reservation under the spelling in its own row
+        assertEquals(2, result.getReservationCount(), result.getRejections().toString());
+        chain.checkInGuest("Grand Hotel", 101, "John Guest");
+        chain.checkInGuest("Grand Hotel", 102, "JOHN Guest");
+        assertEquals(2, chain.getRoomCount(RoomStatus.OCCUPIED));
+    }
+    
+    @Test
+    void testHotelsAlreadyInTheChainAreNotImported() throws IOException {
+        // Arrange
+        Hotel existing = new Hotel(new Name("Grand", "Hotel"));
+        existing.addRoom(1, new Room(1, new RoomType(RoomKind.SINGLE, new Money(100.0, "USD"))));
+        chain.addHotel(existing);
+        Path hotels = write("hotels.csv", HOTELS_HEADER + "Grand,Hotel\n");
+        Path rooms = write("rooms.csv", ROOMS_HEADER + "Grand Hotel,2,SINGLE,100,USD\n");
+        
+        // Act
+        ImportResult result = importer.importFiles(hotels, rooms, null);
+        
+        // Assert
+        assertEquals(0, result.getHotelCount());
+        assertEquals(2, result.getRejectedRowCount());
+        assertEquals(1, chain.getHotel("Grand Hotel").getRoomCount());
+    }
+    
+    @Test
+    void testLargeFilesAreSplitIntoChunksWithCorrectLineNumbers() throws IOException {
+        // Arrange: more than one chunk of reservations, 40 consecutive stays in each of 1000 rooms
+        int roomCount = 1000;
+        int staysPerRoom = 40;
+        StringBuilder roomRows = new StringBuilder(ROOMS_HEADER);
+        StringBuilder reservationRows = new StringBuilder(RESERVATIONS_HEADER);
+        LocalDate first = AS_OF.minusDays(staysPerRoom);
+        for (int room = 1; room <= roomCount; room++) {
+            roomRows.append("Grand Hotel,").append(room).append(",DOUBLE,120,USD\n");
+            for (int stay = 0; stay < staysPerRoom; stay++) {
+                LocalDate start = first.plusDays(2L * stay);
+                reservationRows.append(reservation("Grand Hotel", room, start.toString(),
+                                                   start.plusDays(2).toString(), "Guest" + stay)).append('\n');
+            }
+        }
+        reservationRows.append("Grand Hotel,1,bad\n");
+        assertTrue(reservationRows.length() > 4 * 1024 * 1024);
+        Path hotels = write("hotels.csv", HOTELS_HEADER + "Grand,Hotel\n");
+        Path rooms = write("rooms.csv", roomRows.toString());
+        Path reservations = write("reservations.csv", reservationRows.toString());
+        
+        // Act
+        ImportResult result = importer.importFiles(hotels, rooms, reservations);
+        
+        // Assert: half of every room's stays end on or before the import date
+        long stays = (long) roomCount * staysPerRoom;
+        assertEquals(roomCount, result.getRoomCount());
+        assertEquals(stays / 2, result.getCompletedStayCount());
+        assertEquals(stays / 2, result.getReservationCount());
+        assertEquals(stays / 2, chain.getReservationCount());
+        assertEquals(List.of("reservations.csv:" + (stays + 2) + ": Expected 16 fields but found 3"),
+                     result.getRejections());
+    }
+    
+    @Test
+    void testEarlierRowWinsConflictsAcrossChunks() throws IOException {
+        // Arrange: the first and the last row book the same nights in room 1, more than a chunk apart
+        int roomCount = 1000;
+        int staysPerRoom = 40;
+        StringBuilder roomRows = new StringBuilder(ROOMS_HEADER);
+        StringBuilder reservationRows = new StringBuilder(RESERVATIONS_HEADER);
+        String start = AS_OF.plusDays(10).toString();
+        String end = AS_OF.plusDays(12).toString();
+        reservationRows.append(reservation("Grand Hotel", 1, start, end, "First")).append('\n');
+        LocalDate first = AS_OF.minusDays(2L * staysPerRoom);
+        for (int room = 1; room <= roomCount; room++) {
+            roomRows.append("Grand Hotel,").append(room).append(",DOUBLE,120,USD\n");
+            for (int stay = 0; room > 1 && stay < staysPerRoom; stay++) {
+                LocalDate stayStart = first.plusDays(2L * stay);
+                reservationRows.append(reservation("Grand Hotel", room, stayStart.toString(),
+                                                   stayStart.plusDays(2).toString(), "Guest" + stay)).append('\n');
+            }
+        }
+        reservationRows.append(reservation("Grand Hotel", 1, start, end, "Last")).append('\n');
+        assertTrue(reservationRows.length() > 4 * 1024 * 1024);
+        long lastLine = 2 + (long) (roomCount - 1) * staysPerRoom + 1;
+        Path hotels = write("hotels.csv", HOTELS_HEADER + "Grand,Hotel\n");
+        Path rooms = write("rooms.csv", roomRows.toString());
+        Path reservations = write("reservations.csv", reservationRows.toString());
+        
+        // Act
+        ImportResult result = importer.importFiles(hotels, rooms, reservations);
+        
+        // Assert
+        assertEquals(1, result.getReservationCount());
+        assertEquals(1, chain.findReservationsByGuest(new Name("First", "Guest")).size());
+        assertEquals(List.of("reservations.csv:" + lastLine + ": Room 1 is already reserved on some of these nights"),
+                     result.getRejections());
+    }
+    
+    private Path write(String fileName, String content) throws IOException {
+        return Files.write(directory.resolve(fileName), content.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static String reservation(String hotel, int room, String start, String end, String firstName) {
+        return hotel + "," + room + "," + start + "," + end + ",2," + firstName + ",Guest,Main St,City,Country,"
+               + "12345,1234567890123456,John Doe,12/25,ID123,Passport";
+    }
+}
@@ -0,0 +1,283 @@
+package test.java.domain;
+
+import domain.Address;
+import domain.CreditCard;
+import domain.EventSubscription;
+import domain.Guest;
+import domain.Hotel;
+import domain.HotelChain;
+import domain.HowMany;
+import domain.Identity;
+import domain.Money;
+import domain.Name;
+import domain.Reservation;
+import domain.ReservationEvent;
+import domain.ReservationEventType;
+import domain.ReserverPayer;
+import domain.Room;
+import domain.RoomKind;
+import domain.RoomType;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the chain's reservation event bus.
+ * Tests delivery order, independent subscribers, dropping for slow subscribers and closing.
+ */
+class EventBusTest {
+    
+    private static final LocalDate START = LocalDate.of(2030, 6, 1);
+    
+    private HotelChain chain;
+    private ReserverPayer payer;
+    private EventSubscription subscription;
+    
+    @BeforeEach
+    void setUp() {
+        chain = new HotelChain("Test Hotel Chain");
+        Hotel hotel = new Hotel(new Name("Test", "Hotel"));
+        RoomType roomType = new RoomType(RoomKind.SINGLE, new Money(100.0, "USD"));
+        hotel.addRoom(101, new Room(101, roomType));
+        hotel.addRoom(102, new Room(102, roomType));
+        chain.addHotel(hotel);
+        payer = new ReserverPayer(new CreditCard("1234567890123456", "John Doe", "12/25"),
+                                  new Identity("ID123", "Passport"));
+    }
+    
+    @AfterEach
+    void tearDown() {
+        if (subscription != null) {
+            subscription.close();
+        }
+    }
+    
+    private static Guest guest(String firstName, String lastName) {
+        return new Guest(new Name(firstName, lastName), new Address("123 Main St", "City", "Country", "12345"));
+    }
+    
+    private static ReservationEvent next(BlockingQueue<ReservationEvent> events) throws InterruptedException {
+        ReservationEvent event = events.poll(5, TimeUnit.SECONDS);
+        assertNotNull(event, "No event delivered");
+        return event;
+    }
+    
+    @Test
+    void testStayLifecycleIsPublishedInOrder() throws Exception {
+        // Arrange
+        BlockingQueue<ReservationEvent> events = new LinkedBlockingQueue<>();
+        subscription = chain.getEventBus().subscribe("housekeeping", 64, events::add);
+        Reservation stay = new Reservation(START, START.plusDays(2), new HowMany(1));
+        Reservation later = new Reservation(START.plusDays(10), START.plusDays(12), new HowMany(1));
+        
+        // Act
+        chain.makeReservation("Test Hotel", 101, guest("John", "Doe"), payer, stay);
+        chain.checkInGuest("Test Hotel", 101, "John Doe");
+        chain.checkOutGuest("Test Hotel", 101, "John Doe");
+        chain.makeReservation("Test Hotel", 102, guest("Jane", "Roe"), payer, later);
+        chain.cancelReservation(later.getId());
+        
+        // Assert
+        ReservationEvent reserved = next(events);
+        assertEquals(ReservationEventType.RESERVED, reserved.getType());
+        assertEquals("Test Hotel", reserved.getHotelName());
+        assertEquals(101, reserved.getRoomNumber());
+        assertEquals("John Doe", reserved.getGuestId());
+        assertEquals(stay.getId(), reserved.getReservationId());
+        ReservationEvent checkedIn = next(events);
+        assertEquals(ReservationEventType.CHECKED_IN, checkedIn.getType());
+        assertEquals(stay.getId(), checkedIn.getReservationId());
+        ReservationEvent checkedOut = next(events);
+        assertEquals(ReservationEventType.CHECKED_OUT, checkedOut.getType());
+        assertEquals(stay.getId(), checkedOut.getReservationId());
+        assertEquals(ReservationEventType.RESERVED, next(events).getType());
+        ReservationEvent cancelled = next(events);
+        assertEquals(ReservationEventType.CANCELLED, cancelled.getType());
+        assertEquals(later.getId(), cancelled.getReservationId());
+        assertEquals(102, cancelled.getRoomNumber());
+        assertTrue(reserved.getSequence() < cancelled.getSequence());
+    }
+    
+    @Test
+    void testConcurrentChangesToOneRoomArriveInCommitOrder() throws Exception {
+        // Arrange: two guests keep booking and cancelling the same nights in room 101
+        BlockingQueue<ReservationEvent> events = new LinkedBlockingQueue<>();
+        subscription = chain.getEventBus().subscribe("housekeeping", 4096, events::add);
+        AtomicInteger bookings = new AtomicInteger();
+        Thread[] threads = new Thread[2];
+        for (int t = 0; t < threads.length; t++) {
+            Guest guest = guest("Guest", "Number" + t);
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 200; i++) {
+                    Reservation reservation = new Reservation(START, START.plusDays(1), new HowMany(1));
+                    try {
+                        chain.makeReservation("Test Hotel", 101, guest, payer, reservation);
+                    } catch (IllegalStateException e) {
+                        continue;
+                    }
+                    bookings.incrementAndGet();
+                    chain.cancelReservation(reservation.getId());
+                }
+            });
+            threads[t].start();
+        }
+        
+        // Act
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        
+        // Assert: every booking is followed by its own cancellation, in sequence order
+        long sequence = 0;
+        for (int i = 0; i < bookings.get(); i++) {
+            ReservationEvent reserved = next(events);
+            ReservationEvent cancelled = next(events);
+            assertEquals(ReservationEventType.RESERVED, reserved.getType());
+            assertEquals(ReservationEventType.CANCELLED, cancelled.getType());
+            assertEquals(reserved.getReservationId(), cancelled.getReservationId());
+            assertTrue(sequence < reserved.getSequence());
+            assertTrue(reserved.getSequence() < cancelled.getSequence());
+            sequence = cancelled.getSequence();
+        }
+        assertNull(events.poll(100, TimeUnit.MILLISECONDS));
+        assertEquals(0, chain.getEventBus().getSkippedCount());
+    }
+    
+    @Test
+    void testChangesWithoutSubscribersTakeNoNumber() throws Exception {
+        // Arrange
+        chain.makeReservation("Test Hotel", 101, guest("John", "Doe"), payer,
+                              new Reservation(START, START.plusDays(1), new HowMany(1)));
+        BlockingQueue<ReservationEvent> events = new LinkedBlockingQueue<>();
+        subscription = chain.getEventBus().subscribe("housekeeping", 64, events::add);
+        
+        // Act
+        chain.makeReservation("Test Hotel", 102, guest("Jane", "Roe"), payer,
+                              new Reservation(START, START.plusDays(1), new HowMany(1)));
+        
+        // Assert
+        ReservationEvent reserved = next(events);
+        assertEquals(102, reserved.getRoomNumber());
+        assertEquals(1, reserved.getSequence());
+    }
+    
+    @Test
+    void testMoreEventsThanTheReorderRingAreAllDelivered() throws Exception {
+        // Arrange
+        BlockingQueue<ReservationEvent> events = new LinkedBlockingQueue<>();
+        subscription = chain.getEventBus().subscribe("housekeeping", 16384, events::add);
+        int stays = 5000;
+        
+        // Act
+        for (int i = 0; i < stays; i++) {
+            LocalDate start = START.plusDays(i);
+            chain.makeReservation("Test Hotel", 101, guest("Guest", "Number" + i), payer,
+                                  new Reservation(start, start.plusDays(1), new HowMany(1)));
+        }
+        
+        // Assert
+        for (int i = 1; i <= stays; i++) {
+            assertEquals(i, next(events).getSequence());
+        }
+        assertEquals(0, chain.getEventBus().getSkippedCount());
+    }
+    
+    @Test
+    void testSlowSubscriberOnlyLosesItsOwnEvents() throws Exception {
+        // Arrange: the slow listener blocks until released
+        CountDownLatch release = new CountDownLatch(1);
+        EventSubscription slow = chain.getEventBus().subscribe("analytics", 4, event -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        BlockingQueue<ReservationEvent> fastEvents = new LinkedBlockingQueue<>();
+        subscription = chain.getEventBus().subscribe("billing", 64, fastEvents::add);
+        
+        // Act: bookings go through although the slow listener is stuck
+        int bookings = 20;
+        for (int i = 0; i < bookings; i++) {
+            LocalDate start = START.plusDays(i * 2L);
+            chain.makeReservation("Test Hotel", 101, guest("Guest", "Number" + i), payer,
+                                  new Reservation(start, start.plusDays(1), new HowMany(1)));
+        }
+        for (int i = 0; i < bookings; i++) {
+            next(fastEvents);
+        }
+        release.countDown();
+        slow.close();
+        
+        // Assert
+        assertEquals(0, subscription.getDroppedCount());
+        assertTrue(slow.getDroppedCount() > 0);
+        assertEquals(bookings, slow.getDeliveredCount() + slow.getDroppedCount());
+    }
+    
+    @Test
+    void testFailingListenerKeepsReceivingEvents() throws Exception {
+        // Arrange
+        BlockingQueue<ReservationEvent> events = new LinkedBlockingQueue<>();
+        subscription = chain.getEventBus().subscribe("flaky", 16, event -> {
+            events.add(event);
+            throw new IllegalStateException("listener failure");
+        });
+        
+        // Act
+        chain.makeReservation("Test Hotel", 101, guest("John", "Doe"), payer,
+                              new Reservation(START, START.plusDays(1), new HowMany(1)));
+        chain.makeReservation("Test Hotel", 102, guest("Jane", "Roe"), payer,
+                              new Reservation(START, START.plusDays(1), new HowMany(1)));
+        next(events);
+        next(events);
+        subscription.close();
+        
+        // Assert
+        assertEquals(2, subscription.getFailedCount());
+    }
+    
+    @Test
+    void testClosedSubscriptionReceivesNothing() throws Exception {
+        // Arrange
+        BlockingQueue<ReservationEvent> events = new LinkedBlockingQueue<>();
+        subscription = chain.getEventBus().subscribe("housekeeping", 16, events::add);
+        assertEquals(1, chain.getEventBus().getSubscriberCount());
+        
+        // Act
+        subscription.close();
+        chain.makeReservation("Test Hotel", 101, guest("John", "Doe"), payer,
+                              new Reservation(START, START.plusDays(1), new HowMany(1)));
+        
+        // Assert
+        assertFalse(subscription.isActive());
+        assertEquals(0, chain.getEventBus().getSubscriberCount());
+        assertNull(events.poll(100, TimeUnit.MILLISECONDS));
+    }
+    
+    @Test
+    void testCapacityIsRoundedUpToPowerOfTwo() {
+        // Act
+        subscription = chain.getEventBus().subscribe("billing", 100, event -> { });
+        
+        // Assert
+        assertEquals(128, subscription.getCapacity());
+    }
+    
+    @Test
+    void testSubscribeWithInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> chain.getEventBus().subscribe("", 16, event -> { }));
+        assertThrows(IllegalArgumentException.class, () -> chain.getEventBus().subscribe("billing", 0, event -> { }));
+        assertThrows(IllegalArgumentException.class, () -> chain.getEventBus().subscribe("billing", 16, null));
+    }
+}
@@ -0,0 +1,112 @@
+package test.java.domain;
+
+import org.junit.jupiter.api.Test;
+
+import domain.Address;
+import domain.Guest;
+import domain.GuestInterner;
+import domain.Name;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for GuestInterner.
+ */
+class GuestInternerTest {
+    
+    @Test
+    void testEqualNamesShareOneInstance() {
+        // Arrange
+        GuestInterner interner = new GuestInterner(16);
+        Name first = new Name("John", "Doe");
+        
+        // Act
+        Name canonical = interner.intern(first);
+        Name second = interner.intern(new Name("John", "Doe"));
+        
+        // Assert
+        assertSame(first, canonical);
+        assertSame(first, second);
+        assertEquals(1, interner.size());
+    }
+    
+    @Test
+    void testDifferentSpellingsAreNotShared() {
+        // Arrange
+        GuestInterner interner = new GuestInterner(16);
+        Address address = new Address("123 Main St", "City", "Country", "12345");
+        interner.intern(new Name("John", "Doe"));
+        interner.intern(new Guest(new Name("John", "Doe"), address));
+        Name shouting = new Name("JOHN", "DOE");
+        Guest otherCase = new Guest(new Name("John", "Doe"), new Address("123 MAIN ST", "City", "Country", "12345"));
+        
+        // Act & Assert
+        assertSame(shouting, interner.intern(shouting));
+        assertSame(otherCase, interner.intern(otherCase));
+        assertEquals(2, interner.size());
+    }
+    
+    @Test
+    void testSpellingsOfOneNameAreEachShared() {
+        // Arrange
+        GuestInterner interner = new GuestInterner(16);
+        Name mixed = interner.intern(new Name("John", "Doe"));
+        Name shouting = interner.intern(new Name("JOHN", "DOE"));
+        
+        // Act & Assert
+        assertSame(mixed, interner.intern(new Name("John", "Doe")));
+        assertSame(shouting, interner.intern(new Name("JOHN", "DOE")));
+        assertNotSame(mixed, shouting);
+    }
+    
+    @Test
+    void testGuestWithSameAddressIsShared() {
+        // Arrange
+        GuestInterner interner = new GuestInterner(16);
+        Guest first = new Guest(new Name("John", "Doe"), new Address("123 Main St", "City", "Country", "12345"));
+        
+        // Act
+        interner.intern(first);
+        Guest again = interner.intern(
+            new Guest(new Name("John", "Doe"), new Address("123 Main St", "City", "Country", "12345")));
+        
+        // Assert
+        assertSame(first, again);
+    }
+    
+    @Test
+    void testGuestWithNewAddressReplacesOldOne() {
+        // Arrange
+        GuestInterner interner = new GuestInterner(16);
+        interner.intern(new Guest(new Name("John", "Doe"), new Address("123 Main St", "City", "Country", "12345")));
+        Guest moved = new Guest(new Name("John", "Doe"), new Address("9 Elm St", "Town", "Country", "54321"));
+        
+        // Act
+        Guest result = interner.intern(moved);
+        
+        // Assert
+        assertSame(moved, result);
+        assertSame(moved, interner.intern(
+            new Guest(new Name("John", "Doe"), new Address("9 Elm St", "Town", "Country", "54321"))));
+    }
+    
+    @Test
+    void testInternerStartsOverWhenFull() {
+        // Arrange
+        GuestInterner interner = new GuestInterner(2);
+        interner.intern(new Name("A", "One"));
+        interner.intern(new Name("B", "Two"));
+        
+        // Act
+        interner.intern(new Name("C", "Three"));
+        
+        // Assert
+        assertEquals(1, interner.size());
+    }
+    
+    @Test
+    void testConstructorWithInvalidSize() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new GuestInterner(0));
+    }
+}
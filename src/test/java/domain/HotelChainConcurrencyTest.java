@@ -0,0 +1,273 @@
+package test.java.domain;
+
+import domain.Address;
+import domain.ContentionStats;
+import domain.CreditCard;
+import domain.Guest;
+import domain.Hotel;
+import domain.HotelChain;
+import domain.HowMany;
+import domain.Identity;
+import domain.Money;
+import domain.Name;
+import domain.Reservation;
+import domain.ReservationRequest;
+import domain.ReserverPayer;
+import domain.Room;
+import domain.RoomKind;
+import domain.RoomStatus;
+import domain.RoomType;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Stress tests for HotelChain under concurrent callers.
+ * Many threads hammer one chain and the final state is checked for
+ * double-bookings and lost updates.
+ */
+class HotelChainConcurrencyTest {
+    
+    private static final int THREADS = 16;
+    private static final int ROOMS = 8;
+    private static final String HOTEL_NAME = "Test Hotel";
+    
+    private HotelChain chain;
+    private Hotel hotel;
+    private ReserverPayer payer;
+    private LocalDate today;
+    
+    @BeforeEach
+    void setUp() {
+        chain = new HotelChain("Test Hotel Chain");
+        hotel = new Hotel(new Name("Test", "Hotel"));
+        RoomType roomType = new RoomType(RoomKind.SINGLE, new Money(100.0, "USD"));
+        for (int number = 1; number <= ROOMS; number++) {
+            hotel.addRoom(number, new Room(number, roomType));
+        }
+        chain.addHotel(hotel);
+        payer = new ReserverPayer(
+            new CreditCard("1234567890123456", "John Doe", "12/25"),
+            new Identity("ID123", "Passport")
+        );
+        today = LocalDate.now();
+    }
+    
+    @Test
+    void testConcurrentReservationsNeverDoubleBook() throws Exception {
+        // Arrange
+        int attemptsPerThread = 500;
+        Queue<Booking> accepted = new ConcurrentLinkedQueue<>();
+        
+        // Act: every thread books random stays in a small window so most attempts collide
+        runConcurrently(thread -> {
+            Random random = new Random(thread);
+            for (int i = 0; i < attemptsPerThread; i++) {
+                int roomNumber = 1 + random.nextInt(ROOMS);
+                LocalDate start = today.plusDays(1 + random.nextInt(60));
+                LocalDate end = start.plusDays(1 + random.nextInt(4));
+                Guest guest = guest("Guest" + thread, "Number" + i);
+                try {
+                    chain.makeReservation(HOTEL_NAME, roomNumber, guest, payer,
+                        new Reservation(start, end, new HowMany(1)));
+                    accepted.add(new Booking(roomNumber, start, end));
+                } catch (IllegalStateException overlap) {
+                    // Expected when another thread already holds these nights
+                }
+            }
+        });
+        
+        // Assert: no two accepted stays overlap and every accepted stay was kept
+        List<Booking> bookings = new ArrayList<>(accepted);
+        for (int i = 0; i < bookings.size(); i++) {
+            for (int j = i + 1; j < bookings.size(); j++) {
+                assertFalse(bookings.get(i).overlaps(bookings.get(j)),
+                    "Double-booked: " + bookings.get(i) + " and " + bookings.get(j));
+            }
+        }
+        int stored = 0;
+        for (int number = 1; number <= ROOMS; number++) {
+            stored += hotel.getRoom(number).getReservationCount();
+        }
+        assertEquals(bookings.size(), stored);
+        for (Booking booking : bookings) {
+            assertFalse(hotel.isAvailable(booking.roomNumber, booking.start, booking.end));
+            assertFalse(hotel.findAvailableRooms(booking.start, booking.end, RoomKind.SINGLE)
+                .contains(hotel.getRoom(booking.roomNumber)));
+        }
+    }
+    
+    @Test
+    void testContendedRoomCountsEveryBooking() throws Exception {
+        // Arrange
+        int staysPerThread = 300;
+        chain.getContentionStats().reset();
+        long initialVersion = room(1).getVersion();
+        
+        // Act: all threads book disjoint stays in the same room
+        runConcurrently(thread -> {
+            for (int i = 0; i < staysPerThread; i++) {
+                LocalDate start = today.plusDays(1 + (long) (i * THREADS + thread) * 2);
+                chain.makeReservation(HOTEL_NAME, 1, guest("Guest" + thread, "Number" + i), payer,
+                    new Reservation(start, start.plusDays(2), new HowMany(1)));
+            }
+        });
+        
+        // Assert
+        long total = (long) THREADS * staysPerThread;
+        ContentionStats stats = chain.getContentionStats();
+        assertEquals(total, room(1).getReservationCount());
+        assertEquals(total, stats.getOptimisticCommits() + stats.getFallbacks());
+        assertEquals(initialVersion + total * 2, room(1).getVersion());
+    }
+    
+    @Test
+    void testConcurrentStayLifecyclesOnDifferentRooms() throws Exception {
+        // Arrange
+        int staysPerRoom = 200;
+        
+        // Act: each thread runs reserve, check-in, check-out and cancel cycles on its own room
+        runConcurrently(thread -> {
+            int roomNumber = 1 + thread % ROOMS;
+            for (int i = 0; i < staysPerRoom; i++) {
+                Guest guest = guest("Guest" + thread, "Number" + i);
+                String guestId = guest.getNameAsString();
+                LocalDate start = today.plusDays(1 + i * 3L);
+                Reservation reservation = new Reservation(start, start.plusDays(2), new HowMany(1));
+                if (thread < ROOMS) {
+                    chain.makeReservation(HOTEL_NAME, roomNumber, guest, payer, reservation);
+                    chain.checkInGuest(HOTEL_NAME, roomNumber, guestId);
+                    chain.checkOutGuest(HOTEL_NAME, roomNumber, guestId);
+                } else {
+                    // Second thread on the same room: reserve far in the future, then cancel
+                    Reservation later = new Reservation(start.plusYears(5), start.plusYears(5).plusDays(2), new HowMany(1));
+                    // An occupied room takes no new reservations; retry once the other thread checks out
+                    boolean reserved = false;
+                    while (!reserved) {
+                        try {
+                            chain.makeReservation(HOTEL_NAME, roomNumber, guest, payer, later);
+                            reserved = true;
+                        } catch (IllegalStateException occupied) {
+                            Thread.yield();
+                        }
+                    }
+                    chain.cancelReservation(HOTEL_NAME, roomNumber, guestId);
+                }
+            }
+        });
+        
+        // Assert
+        for (int number = 1; number <= ROOMS; number++) {
+            Room room = hotel.getRoom(number);
+            assertFalse(room.isOccupied());
+            assertEquals(0, room.getReservationCount());
+        }
+        assertEquals(ROOMS, hotel.getAvailableRoomCount());
+        assertEquals(0, hotel.getRoomCount(RoomStatus.RESERVED));
+        assertEquals(0, chain.getRoomCount(RoomStatus.OCCUPIED));
+        assertEquals(ROOMS, chain.getAvailableRoomCount());
+        assertEquals(ROOMS, hotel.findAvailableRooms(today, today.plusYears(10), RoomKind.SINGLE).size());
+    }
+    
+    @Test
+    void testConcurrentBatchesAreAllOrNothing() throws Exception {
+        // Arrange
+        int batchesPerThread = 100;
+        Queue<Booking> accepted = new ConcurrentLinkedQueue<>();
+        
+        // Act: every batch books the same night in all rooms, listed in a thread-specific order
+        runConcurrently(thread -> {
+            for (int i = 0; i < batchesPerThread; i++) {
+                LocalDate start = today.plusDays(1 + (i + thread) % 50);
+                List<ReservationRequest> requests = new ArrayList<>();
+                for (int r = 0; r < ROOMS; r++) {
+                    int roomNumber = 1 + (r + thread) % ROOMS;
+                    requests.add(new ReservationRequest(HOTEL_NAME, roomNumber, guest("Guest" + thread, "Number" + i),
+                        payer, new Reservation(start, start.plusDays(1), new HowMany(1))));
+                }
+                try {
+                    chain.makeReservations(requests);
+                    for (int roomNumber = 1; roomNumber <= ROOMS; roomNumber++) {
+                        accepted.add(new Booking(roomNumber, start, start.plusDays(1)));
+                    }
+                } catch (IllegalStateException taken) {
+                    // Expected when another batch already holds this night
+                }
+            }
+        });
+        
+        // Assert: each night was won by exactly one whole batch
+        int stored = 0;
+        for (int number = 1; number <= ROOMS; number++) {
+            stored += hotel.getRoom(number).getReservationCount();
+        }
+        assertEquals(accepted.size(), stored);
+        assertEquals(50 * ROOMS, stored);
+    }
+    
+    private void runConcurrently(ThreadBody body) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            final int id = thread;
+            futures.add(executor.submit(() -> {
+                start.await();
+                body.run(id);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+    }
+    
+    private Room room(int number) {
+        return hotel.getRoom(number);
+    }
+    
+    private static Guest guest(String firstName, String lastName) {
+        return new Guest(new Name(firstName, lastName), new Address("123 Main St", "City", "Country", "12345"));
+    }
+    
+    private interface ThreadBody {
+        void run(int thread) throws Exception;
+    }
+    
+    private static final class Booking {
+        private final int roomNumber;
+        private final LocalDate start;
+        private final LocalDate end;
+        
+        Booking(int roomNumber, LocalDate start, LocalDate end) {
+            this.roomNumber = roomNumber;
+            this.start = start;
+            this.end = end;
+        }
+        
+        boolean overlaps(Booking other) {
+            return roomNumber == other.roomNumber && start.isBefore(other.end) && other.start.isBefore(end);
+        }
+        
+        @Override
+        public String toString() {
+            return "room " + roomNumber + " " + start + ".." + end;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package test.java.domain;
+
+import domain.Hotel;
+import domain.HotelChain;
+import domain.HotelChainHttpServer;
+import domain.Money;
+import domain.Name;
+import domain.Room;
+import domain.RoomKind;
+import domain.RoomStatus;
+import domain.RoomType;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for HotelChainHttpServer.
+ * Tests the HTTP/JSON endpoint against localhost, including a load generator
+ * that sends requests from many virtual threads at once.
+ */
+class HotelChainHttpServerTest {
+    
+    private static final int HOTELS = 4;
+    private static final int ROOMS = 25;
+    private static final Pattern ID = Pattern.compile("\"id\":(\\d+)");
+    
+    private HotelChain chain;
+    private HotelChainHttpServer server;
+    private HttpClient client;
+    private LocalDate start;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        chain = new HotelChain("Test Hotel Chain");
+        RoomType single = new RoomType(RoomKind.SINGLE, new Money(100.0, "USD"));
+        RoomType suite = new RoomType(RoomKind.SUITE, new Money(300.0, "USD"));
+        for (int h = 0; h < HOTELS; h++) {
+            Hotel hotel = new Hotel(new Name("Hotel", "H" + h));
+            for (int number = 1; number <= ROOMS; number++) {
+                hotel.addRoom(number, new Room(number, number == ROOMS ? suite : single));
+            }
+            chain.addHotel(hotel);
+        }
+        server = new HotelChainHttpServer(chain, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        start = LocalDate.now().plusDays(1);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+    
+    @Test
+    void testReservationLifecycleOverHttp() throws Exception {
+        // Act: search, reserve, check in and check out
+        HttpResponse<String> search = send("GET", "/hotels/" + encode("Hotel H0") + "/rooms?from=" + start
+                                                  + "&to=" + start.plusDays(2) + "&kind=SUITE&guests=2", null);
+        HttpResponse<String> reserved = send("POST", "/reservations", reservationJson("Hotel H0", ROOMS, "John"));
+        long id = idOf(reserved);
+        HttpResponse<String> checkedIn = send("POST", "/reservations/" + id + "/check-in", null);
+        int occupied = (int) chain.getRoomCount(RoomStatus.OCCUPIED);
+        HttpResponse<String> checkedOut = send("POST", "/hotels/" + encode("Hotel H0") + "/rooms/" + ROOMS
+                                                       + "/check-out", "{\"guestId\": \"John Guest\"}");
+        HttpResponse<String> status = send("GET", "/status", null);
+        
+        // Assert
+        assertEquals(200, search.statusCode());
+        assertEquals("[{\"room\":25,\"kind\":\"SUITE\",\"total\":600.0,\"currency\":\"USD\"}]", search.body());
+        assertEquals(201, reserved.statusCode());
+        assertEquals(204, checkedIn.statusCode());
+        assertEquals(1, occupied);
+        assertEquals(204, checkedOut.statusCode());
+        assertEquals(1, chain.getHotel("Hotel H0").getRoom(ROOMS).getCompletedStayCount());
+        assertEquals(200, status.statusCode());
+        assertTrue(status.body().contains("\"occupied\":0"));
+        assertTrue(status.body().contains("\"reservations\":0"));
+    }
+    
+    @Test
+    void testCancellationOverHttp() throws Exception {
+        // Arrange
+        long id = idOf(send("POST", "/reservations", reservationJson("Hotel H1", 3, "Jane")));
+        
+        // Act
+        HttpResponse<String> cancelled = send("DELETE", "/reservations/" + id, null);
+        HttpResponse<String> again = send("DELETE", "/reservations/" + id, null);
+        
+        // Assert
+        assertEquals(204, cancelled.statusCode());
+        assertEquals(400, again.statusCode());
+        assertEquals(0, chain.getReservationCount());
+    }
+    
+    @Test
+    void testInvalidRequestsAreAnsweredWithErrors() throws Exception {
+        // Act
+        HttpResponse<String> malformed = send("POST", "/reservations", "{\"hotel\": ");
+        HttpResponse<String> missing = send("POST", "/reservations", "{\"hotel\": \"Hotel H0\"}");
+        HttpResponse<String> unknownHotel = send("POST", "/reservations", reservationJson("No Hotel", 1, "John"));
+        HttpResponse<String> badDate = send("GET", "/hotels/" + encode("Hotel H0") + "/rooms?from=soon&to=later",
+                                            null);
+        HttpResponse<String> notFound = send("GET", "/guests", null);
+        
+        // Assert
+        assertEquals(400, malformed.statusCode());
+        assertTrue(malformed.body().contains("\"error\""));
+        assertEquals(400, missing.statusCode());
+        assertTrue(missing.body().contains("Missing field"));
+        assertEquals(400, unknownHotel.statusCode());
+        assertEquals(400, badDate.statusCode());
+        assertEquals(404, notFound.statusCode());
+        assertEquals(0, chain.getReservationCount());
+    }
+    
+    @Test
+    void testLoadGeneratorBooksEveryRoomOnce() throws Exception {
+        // Arrange: every room is requested by several clients for the same nights
+        int clientsPerRoom = 4;
+        int maxInFlight = 64;
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> requests = new ArrayList<>();
+        
+        // Act
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int h = 0; h < HOTELS; h++) {
+                for (int room = 1; room <= ROOMS; room++) {
+                    for (int c = 0; c < clientsPerRoom; c++) {
+                        String body = reservationJson("Hotel H" + h, room, "Client" + c);
+                        requests.add(clients.submit(() -> {
+                            inFlight.acquire();
+                            try {
+                                int code = send("POST", "/reservations", body).statusCode();
+                                (code == 201 ? created : rejected).incrementAndGet();
+                            } finally {
+                                inFlight.release();
+                            }
+                            return null;
+                        }));
+                    }
+                }
+            }
+            for (Future<?> request : requests) {
+                request.get();
+            }
+        }
+        
+        // Assert: one booking per room, the losers were turned away
+        int rooms = HOTELS * ROOMS;
+        assertEquals(rooms, created.get());
+        assertEquals(rooms * (clientsPerRoom - 1), rejected.get());
+        assertEquals(rooms, chain.getReservationCount());
+        assertEquals(rooms, chain.getRoomCount(RoomStatus.RESERVED));
+        assertEquals(0, chain.getRoomCount(RoomStatus.AVAILABLE));
+    }
+    
+    private HttpResponse<String> send(String method, String path, String body) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path));
+        request.method(method, body == null ? HttpRequest.BodyPublishers.noBody()
+                                            : HttpRequest.BodyPublishers.ofString(body));
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+    
+    private String reservationJson(String hotel, int room, String firstName) {
+        return "{\"hotel\": \"" + hotel + "\", \"room\": " + room
+               + ", \"firstName\": \"" + firstName + "\", \"lastName\": \"Guest\""
+               + ", \"street\": \"Main St\", \"city\": \"City\", \"country\": \"Country\", \"postalCode\": \"12345\""
+               + ", \"cardNumber\": \"1234567890123456\", \"cardholderName\": \"John Doe\", \"expiryDate\": \"12/25\""
+               + ", \"payerId\": \"ID123\", \"payerIdType\": \"Passport\""
+               + ", \"from\": \"" + start + "\", \"to\": \"" + start.plusDays(2) + "\""
+               + ", \"guests\": 2}";
+    }
+    
+    private static long idOf(HttpResponse<String> response) {
+        Matcher matcher = ID.matcher(response.body());
+        assertTrue(matcher.find(), response.body());
+        return Long.parseLong(matcher.group(1));
+    }
+    
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+}
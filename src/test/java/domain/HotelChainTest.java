@@ -10,10 +10,14 @@ import domain.Identity;
 import domain.Money;
 import domain.Name;
 import domain.Reservation;
+import domain.ReservationLocation;
+import domain.ReservationRequest;
 import domain.ReserverPayer;
 import domain.Room;
 import domain.RoomKind;
+import domain.RoomStatus;
 import domain.RoomType;
+import domain.ValidationResult;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -138,6 +142,16 @@ class HotelChainTest {
         assertEquals(1, room.getReservationCount());
     }
     
+    @Test
+    void testMakeReservationCommitsOptimistically() {
+        // Act
+        chain.makeReservation("Test Hotel", 101, guest, payer, reservation);
+        
+        // Assert
+        assertEquals(1, chain.getContentionStats().getOptimisticCommits());
+        assertEquals(0, chain.getContentionStats().getFallbacks());
+    }
+    
     @Test
     void testMakeReservationWithNullGuest() {
         // Act & Assert
@@ -207,6 +221,280 @@ class HotelChainTest {
             () -> chain.cancelReservation("Non Existent", 101, "John Doe"));
     }
     
+    // ===== Reservation Id Tests =====
+    @Test
+    void testReservationIdsAreUniqueAndOrdered() {
+        // Arrange
+        Reservation later = new Reservation(
+            java.time.LocalDate.now().plusDays(1),
+            java.time.LocalDate.now().plusDays(2),
+            new HowMany(1)
+        );
+        
+        // Assert
+        assertTrue(later.getId() > reservation.getId());
+    }
+    
+    @Test
+    void testFindReservationById() {
+        // Arrange
+        chain.makeReservation("Test Hotel", 101, guest, payer, reservation);
+        
+        // Act
+        ReservationLocation location = chain.findReservation(reservation.getId());
+        
+        // Assert
+        assertNotNull(location);
+        assertSame(hotel, location.getHotel());
+        assertSame(room, location.getRoom());
+        assertEquals("John Doe", location.getGuestId());
+        assertSame(reservation, location.getReservation());
+        assertEquals(1, chain.getReservationCount());
+    }
+    
+    @Test
+    void testQuoteReservationUsesChainRates() {
+        // Arrange: the first night of the two-night stay is overridden
+        chain.getPricingEngine().setNightlyRate("Test Hotel", RoomKind.SINGLE, reservation.getStartDate(),
+                                                reservation.getStartDate().plusDays(1), new Money(130.0, "USD"));
+        chain.makeReservation("Test Hotel", 101, guest, payer, reservation);
+        
+        // Act
+        Money total = chain.quoteReservation(reservation.getId());
+        
+        // Assert
+        assertEquals(new Money(230.0, "USD"), total);
+    }
+    
+    @Test
+    void testQuoteUnknownReservation() {
+        assertThrows(IllegalArgumentException.class, () -> chain.quoteReservation(42L));
+    }
+    
+    @Test
+    void testMakeReservationsBooksWholeBatch() {
+        // Arrange
+        hotel.addRoom(102, new Room(102, roomType));
+        Reservation other = new Reservation(reservation.getStartDate(), reservation.getEndDate(), new HowMany(1));
+        
+        // Act
+        chain.makeReservations(java.util.Arrays.asList(
+            new ReservationRequest("Test Hotel", 101, guest, payer, reservation),
+            new ReservationRequest("Test Hotel", 102, guest, payer, other)));
+        
+        // Assert
+        assertEquals(1, room.getReservationCount());
+        assertEquals(1, hotel.getRoom(102).getReservationCount());
+        assertSame(payer, other.getReserverPayer());
+        assertEquals(2, chain.findReservationsByGuest(guest.getName()).size());
+    }
+    
+    @Test
+    void testMakeReservationsBooksNothingWhenOneConflicts() {
+        // Arrange: room 102 is already taken for the same nights
+        Room second = new Room(102, roomType);
+        hotel.addRoom(102, second);
+        Guest other = new Guest(new Name("Jane", "Roe"), new Address("1 Side St", "City", "Country", "12345"));
+        chain.makeReservation("Test Hotel", 102, other, payer,
+            new Reservation(reservation.getStartDate(), reservation.getEndDate(), new HowMany(1)));
+        
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> chain.makeReservations(java.util.Arrays.asList(
+            new ReservationRequest("Test Hotel", 101, guest, payer, reservation),
+            new ReservationRequest("Test Hotel", 102, guest, payer,
+                new Reservation(reservation.getStartDate(), reservation.getEndDate(), new HowMany(1))))));
+        assertEquals(0, room.getReservationCount());
+        assertEquals(1, second.getReservationCount());
+        assertNull(chain.findReservation(reservation.getId()));
+    }
+    
+    @Test
+    void testMakeReservationsRejectsOverlapWithinBatch() {
+        // Arrange
+        Guest other = new Guest(new Name("Jane", "Roe"), new Address("1 Side St", "City", "Country", "12345"));
+        Reservation overlapping = new Reservation(reservation.getStartDate().plusDays(1),
+                                                  reservation.getEndDate().plusDays(1), new HowMany(1));
+        
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> chain.makeReservations(java.util.Arrays.asList(
+            new ReservationRequest("Test Hotel", 101, guest, payer, reservation),
+            new ReservationRequest("Test Hotel", 101, other, payer, overlapping))));
+        assertEquals(0, room.getReservationCount());
+    }
+    
+    @Test
+    void testMakeReservationsWithUnknownRoom() {
+        assertThrows(IllegalArgumentException.class, () -> chain.makeReservations(java.util.Arrays.asList(
+            new ReservationRequest("Test Hotel", 101, guest, payer, reservation),
+            new ReservationRequest("Test Hotel", 999, guest, payer,
+                new Reservation(reservation.getStartDate(), reservation.getEndDate(), new HowMany(1))))));
+        assertEquals(0, room.getReservationCount());
+    }
+    
+    @Test
+    void testGuestSpelledDifferentlyKeepsOwnSpelling() {
+        // Arrange: the same guest booked under two spellings of the name
+        hotel.addRoom(102, new Room(102, roomType));
+        chain.makeReservation("Test Hotel", 101, guest, payer, reservation);
+        Guest shouting = new Guest(new Name("JOHN", "DOE"), new Address("123 Main St", "City", "Country", "12345"));
+        Reservation other = new Reservation(reservation.getStartDate(), reservation.getEndDate(), new HowMany(1));
+        chain.makeReservation("Test Hotel", 102, shouting, payer, other);
+        
+        // Act
+        chain.checkInGuest("Test Hotel", 102, "JOHN DOE");
+        
+        // Assert
+        assertEquals("JOHN DOE", hotel.getRoom(102).getCheckedInGuestId());
+        assertDoesNotThrow(() -> chain.cancelReservation("Test Hotel", 101, "John Doe"));
+    }
+    
+    @Test
+    void testMakeReservationsWithNullList() {
+        assertThrows(IllegalArgumentException.class, () -> chain.makeReservations(null));
+    }
+    
+    @Test
+    void testCancelReservationById() {
+        // Arrange
+        chain.makeReservation("Test Hotel", 101, guest, payer, reservation);
+        
+        // Act
+        chain.cancelReservation(reservation.getId());
+        
+        // Assert
+        assertEquals(0, room.getReservationCount());
+        assertNull(chain.findReservation(reservation.getId()));
+    }
+    
+    @Test
+    void testCancelReservationWithUnknownId() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, 
+            () -> chain.cancelReservation(reservation.getId()));
+    }
+    
+    @Test
+    void testCheckInGuestByReservationId() {
+        // Arrange
+        chain.makeReservation("Test Hotel", 101, guest, payer, reservation);
+        
+        // Act
+        chain.checkInGuest(reservation.getId());
+        
+        // Assert
+        assertEquals("John Doe", room.getCheckedInGuestId());
+    }
+    
+    @Test
+    void testReservationIndexFollowsReplacementAndCheckOut() {
+        // Arrange
+        chain.makeReservation("Test Hotel", 101, guest, payer, reservation);
+        Reservation replacement = new Reservation(
+            java.time.LocalDate.now().plusDays(5),
+            java.time.LocalDate.now().plusDays(6),
+            new HowMany(1)
+        );
+        
+        // Act
+        chain.makeReservation("Test Hotel", 101, guest, payer, replacement);
+        
+        // Assert
+        assertNull(chain.findReservation(reservation.getId()));
+        assertNotNull(chain.findReservation(replacement.getId()));
+        
+        // Act
+        chain.checkInGuest(replacement.getId());
+        chain.checkOutGuest("Test Hotel", 101, "John Doe");
+        
+        // Assert
+        assertNull(chain.findReservation(replacement.getId()));
+        assertEquals(0, chain.getReservationCount());
+    }
+    
+    @Test
+    void testHotelAddedWithReservationsIsIndexed() {
+        // Arrange
+        Hotel other = new Hotel(new Name("Other", "Hotel"));
+        Room otherRoom = new Room(201, roomType);
+        other.addRoom(201, otherRoom);
+        otherRoom.addReservation(reservation, guest);
+        
+        // Act
+        chain.addHotel(other);
+        
+        // Assert
+        ReservationLocation location = chain.findReservation(reservation.getId());
+        assertNotNull(location);
+        assertSame(other, location.getHotel());
+        assertSame(otherRoom, location.getRoom());
+    }
+    
+    // ===== Guest Lookup Tests =====
+    @Test
+    void testFindReservationsByGuestAcrossHotels() {
+        // Arrange
+        Hotel other = new Hotel(new Name("Other", "Hotel"));
+        other.addRoom(201, new Room(201, roomType));
+        chain.addHotel(other);
+        Reservation second = new Reservation(
+            java.time.LocalDate.now().plusDays(10),
+            java.time.LocalDate.now().plusDays(12),
+            new HowMany(1)
+        );
+        chain.makeReservation("Test Hotel", 101, guest, payer, reservation);
+        chain.makeReservation("Other Hotel", 201, guest, payer, second);
+        
+        // Act: case and spacing of the name do not matter
+        java.util.List<ReservationLocation> found = chain.findReservationsByGuest(new Name("JOHN ", "doe"));
+        
+        // Assert
+        assertEquals(2, found.size());
+        assertSame(reservation, found.get(0).getReservation());
+        assertSame(other, found.get(1).getHotel());
+        assertEquals(2, chain.findReservationsByPayer(new Identity("ID123", "passport")).size());
+    }
+    
+    @Test
+    void testFindReservationsByGuestDropsCancelledReservations() {
+        // Arrange
+        chain.makeReservation("Test Hotel", 101, guest, payer, reservation);
+        
+        // Act
+        chain.cancelReservation(reservation.getId());
+        
+        // Assert
+        assertTrue(chain.findReservationsByGuest(guest.getName()).isEmpty());
+        assertTrue(chain.findReservationsByPayer(payer.getId()).isEmpty());
+    }
+    
+    @Test
+    void testFindRoomsOccupiedByFollowsCheckInAndCheckOut() {
+        // Arrange
+        chain.makeReservation("Test Hotel", 101, guest, payer, reservation);
+        
+        // Act
+        chain.checkInGuest("Test Hotel", 101, "John Doe");
+        
+        // Assert
+        java.util.List<Room> occupied = chain.findRoomsOccupiedBy(guest.getName());
+        assertEquals(1, occupied.size());
+        assertSame(hotel, occupied.get(0).getHotel());
+        
+        // Act
+        chain.checkOutGuest("Test Hotel", 101, "John Doe");
+        
+        // Assert
+        assertTrue(chain.findRoomsOccupiedBy(guest.getName()).isEmpty());
+        assertTrue(chain.findReservationsByGuest(guest.getName()).isEmpty());
+    }
+    
+    @Test
+    void testFindReservationsByGuestWithNullName() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, 
+            () -> chain.findReservationsByGuest(null));
+    }
+    
     // ===== Check In Tests =====
     @Test
     void testCheckInGuestSuccess() {
@@ -270,4 +558,76 @@ class HotelChainTest {
         assertThrows(IllegalArgumentException.class, 
             () -> chain.checkOutGuest("Test Hotel", 101, ""));
     }
+    
+    // ===== Validation Tests =====
+    @Test
+    void testValidateReservationAcceptsValidRequest() {
+        // Act & Assert
+        assertEquals(ValidationResult.VALID, chain.validateReservation("Test Hotel", 101, guest, payer, reservation));
+    }
+    
+    @Test
+    void testValidateReservationReportsFirstProblem() {
+        // Act & Assert
+        assertEquals(ValidationResult.UNKNOWN_HOTEL, chain.validateReservation("Nowhere", 999, null, payer, reservation));
+        assertEquals(ValidationResult.UNKNOWN_HOTEL, chain.validateReservation(null, 101, guest, payer, reservation));
+        assertEquals(ValidationResult.MISSING_GUEST, chain.validateReservation("Test Hotel", 999, null, payer, reservation));
+        assertEquals(ValidationResult.MISSING_RESERVER_PAYER,
+                     chain.validateReservation("Test Hotel", 101, guest, null, reservation));
+        assertEquals(ValidationResult.MISSING_RESERVATION, chain.validateReservation("Test Hotel", 101, guest, payer, null));
+        assertEquals(ValidationResult.UNKNOWN_ROOM, chain.validateReservation("Test Hotel", 999, guest, payer, reservation));
+    }
+    
+    @Test
+    void testValidateDoesNotChangeAnything() {
+        // Act
+        chain.validateReservation("Test Hotel", 101, guest, payer, reservation);
+        
+        // Assert
+        assertEquals(0, room.getReservationCount());
+    }
+    
+    @Test
+    void testValidateGuestAndCancellationRequests() {
+        // Act & Assert
+        assertEquals(ValidationResult.VALID, chain.validateCheckIn("Test Hotel", 101, "John Doe"));
+        assertEquals(ValidationResult.BLANK_GUEST_ID, chain.validateCheckIn("Test Hotel", 101, "  "));
+        assertEquals(ValidationResult.UNKNOWN_ROOM, chain.validateCheckOut("Test Hotel", 999, "John Doe"));
+        assertEquals(ValidationResult.BLANK_GUEST_ID, chain.validateCheckOut("Test Hotel", 999, null));
+        assertEquals(ValidationResult.UNKNOWN_HOTEL, chain.validateCancellation("Nowhere", 101, null));
+        assertEquals(ValidationResult.BLANK_RESERVATION_ID, chain.validateCancellation("Test Hotel", 101, ""));
+    }
+    
+    @Test
+    void testThrowingApiUsesValidationMessage() {
+        // Act
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> chain.makeReservation("Test Hotel", 999, guest, payer, reservation));
+        
+        // Assert
+        assertEquals(ValidationResult.UNKNOWN_ROOM.getMessage("Test Hotel", 999), e.getMessage());
+        assertEquals("Room 999 does not exist in hotel 'Test Hotel'", e.getMessage());
+    }
+    
+    @Test
+    void testChainRoomCountsCoverAllHotels() {
+        // Arrange
+        Hotel other = new Hotel(new Name("Other", "Hotel"));
+        other.addRoom(1, new Room(1, new RoomType(RoomKind.SUITE, new Money(300.0, "USD"))));
+        other.addRoom(2, new Room(2, new RoomType(RoomKind.SUITE, new Money(300.0, "USD"))));
+        chain.addHotel(other);
+        
+        // Act
+        chain.makeReservation("Test Hotel", 101, guest, payer, reservation);
+        chain.makeReservation("Other Hotel", 1, guest, payer,
+                              new Reservation(reservation.getStartDate(), reservation.getEndDate(), new HowMany(1)));
+        chain.checkInGuest("Other Hotel", 1, "John Doe");
+        
+        // Assert
+        assertEquals(1, chain.getAvailableRoomCount());
+        assertEquals(1, chain.getRoomCount(RoomStatus.RESERVED));
+        assertEquals(1, chain.getRoomCount(RoomKind.SUITE, RoomStatus.OCCUPIED));
+        assertEquals(1, chain.getRoomCount(RoomKind.SUITE, RoomStatus.AVAILABLE));
+        assertEquals(0, chain.getRoomCount(RoomKind.SINGLE, RoomStatus.AVAILABLE));
+    }
 }
@@ -3,11 +3,16 @@ package test.java.domain;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import domain.Address;
+import domain.Guest;
 import domain.Hotel;
+import domain.HowMany;
 import domain.Money;
 import domain.Name;
+import domain.Reservation;
 import domain.Room;
 import domain.RoomKind;
+import domain.RoomStatus;
 import domain.RoomType;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -70,6 +75,27 @@ class HotelTest {
         assertThrows(IllegalArgumentException.class, () -> hotel.addRoom(101, room2));
     }
     
+    @Test
+    void testGetRoomAcrossManyFloors() {
+        // Arrange: 40 floors of 25 rooms, numbered floor * 100 + door
+        for (int floor = 1; floor <= 40; floor++) {
+            for (int door = 1; door <= 25; door++) {
+                int number = floor * 100 + door;
+                hotel.addRoom(number, new Room(number, roomType));
+            }
+        }
+        
+        // Act & Assert
+        assertEquals(1000, hotel.getRoomCount());
+        for (int floor = 1; floor <= 40; floor++) {
+            for (int door = 1; door <= 25; door++) {
+                assertEquals(floor * 100 + door, hotel.getRoom(floor * 100 + door).getNumber());
+            }
+            assertNull(hotel.getRoom(floor * 100 + 26));
+        }
+        assertNull(hotel.getRoom(0));
+    }
+    
     // ===== Room Count Tests =====
     @Test
     void testGetRoomCountEmpty() {
@@ -102,6 +128,75 @@ class HotelTest {
         assertThrows(IllegalArgumentException.class, () -> hotel.isAvailable(999));
     }
     
+    @Test
+    void testIsAvailableForDateRange() {
+        // Arrange
+        java.time.LocalDate today = java.time.LocalDate.now();
+        Room room = new Room(101, roomType);
+        hotel.addRoom(101, room);
+        room.addReservation(
+            new Reservation(today.plusDays(30), today.plusDays(33), new HowMany(1)),
+            new Guest(new Name("Jane", "Smith"), new Address("456 Oak Ave", "City", "Country", "54321"))
+        );
+        
+        // Act & Assert
+        assertTrue(hotel.isAvailable(101, today, today.plusDays(1)));
+        assertFalse(hotel.isAvailable(101, today.plusDays(31), today.plusDays(32)));
+    }
+    
+    @Test
+    void testIsAvailableForDateRangeRoomDoesNotExist() {
+        java.time.LocalDate today = java.time.LocalDate.now();
+        assertThrows(IllegalArgumentException.class, () -> hotel.isAvailable(999, today, today.plusDays(1)));
+    }
+    
+    @Test
+    void testFindAvailableRoomsByKindAndDates() {
+        // Arrange
+        java.time.LocalDate today = java.time.LocalDate.now();
+        RoomType suite = new RoomType(RoomKind.SUITE, new Money(300.0, "USD"));
+        Room room101 = new Room(101, roomType);
+        Room room102 = new Room(102, roomType);
+        Room room201 = new Room(201, suite);
+        hotel.addRoom(101, room101);
+        hotel.addRoom(102, room102);
+        hotel.addRoom(201, room201);
+        room101.addReservation(
+            new Reservation(today.plusDays(2), today.plusDays(5), new HowMany(1)),
+            new Guest(new Name("Jane", "Smith"), new Address("456 Oak Ave", "City", "Country", "54321"))
+        );
+        
+        // Act & Assert
+        assertEquals(java.util.List.of(room102), hotel.findAvailableRooms(today.plusDays(1), today.plusDays(3), RoomKind.SINGLE));
+        assertEquals(java.util.List.of(room101, room102), hotel.findAvailableRooms(today, today.plusDays(2), RoomKind.SINGLE));
+        assertEquals(java.util.List.of(room201), hotel.findAvailableRooms(today, today.plusDays(7), RoomKind.SUITE));
+        assertEquals(java.util.List.of(room102, room201), hotel.findAvailableRooms(today.plusDays(4), today.plusDays(6), null));
+    }
+    
+    @Test
+    void testFindAvailableRoomsAfterCancellation() {
+        // Arrange
+        java.time.LocalDate today = java.time.LocalDate.now();
+        Room room = new Room(101, roomType);
+        Reservation reservation = new Reservation(today.plusDays(1), today.plusDays(3), new HowMany(1));
+        room.addReservation(reservation,
+            new Guest(new Name("Jane", "Smith"), new Address("456 Oak Ave", "City", "Country", "54321")));
+        hotel.addRoom(101, room);
+        assertTrue(hotel.findAvailableRooms(today, today.plusDays(2), RoomKind.SINGLE).isEmpty());
+        
+        // Act
+        room.removeReservation("Jane Smith");
+        
+        // Assert
+        assertEquals(java.util.List.of(room), hotel.findAvailableRooms(today, today.plusDays(2), RoomKind.SINGLE));
+    }
+    
+    @Test
+    void testFindAvailableRoomsWithInvalidDates() {
+        java.time.LocalDate today = java.time.LocalDate.now();
+        assertThrows(IllegalArgumentException.class, () -> hotel.findAvailableRooms(today, today, RoomKind.SINGLE));
+    }
+    
     @Test
     void testGetAvailableRoomCount() {
         // Arrange
@@ -113,4 +208,28 @@ class HotelTest {
         // Act & Assert
         assertEquals(2, hotel.getAvailableRoomCount());
     }
+    
+    @Test
+    void testRoomCountsFollowStatusChanges() {
+        // Arrange: a suite that already holds a reservation, and a free single
+        Room suite = new Room(201, new RoomType(RoomKind.SUITE, new Money(300.0, "USD")));
+        Guest guest = new Guest(new Name("John", "Doe"), new Address("123 Main St", "City", "Country", "12345"));
+        java.time.LocalDate today = java.time.LocalDate.now();
+        suite.addReservation(new Reservation(today, today.plusDays(2), new HowMany(1)), guest);
+        hotel.addRoom(201, suite);
+        hotel.addRoom(101, new Room(101, roomType));
+        
+        // Act & Assert
+        assertEquals(1, hotel.getRoomCount(RoomStatus.RESERVED));
+        assertEquals(1, hotel.getRoomCount(RoomKind.SINGLE, RoomStatus.AVAILABLE));
+        
+        suite.checkInGuest("John Doe");
+        assertEquals(1, hotel.getRoomCount(RoomKind.SUITE, RoomStatus.OCCUPIED));
+        assertEquals(0, hotel.getRoomCount(RoomStatus.RESERVED));
+        
+        suite.checkOutGuest("John Doe");
+        assertEquals(0, hotel.getRoomCount(RoomStatus.OCCUPIED));
+        assertEquals(2, hotel.getAvailableRoomCount());
+        assertThrows(IllegalArgumentException.class, () -> hotel.getRoomCount(null));
+    }
 }
@@ -0,0 +1,76 @@
+package test.java.domain;
+
+import org.junit.jupiter.api.Test;
+
+import domain.Money;
+import domain.MoneyAccumulator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for MoneyAccumulator.
+ */
+class MoneyAccumulatorTest {
+    
+    @Test
+    void testSumIsExact() {
+        // Arrange
+        MoneyAccumulator total = new MoneyAccumulator("USD");
+        Money rate = new Money(0.1, "USD");
+        
+        // Act
+        for (int i = 0; i < 10_000; i++) {
+            total.add(rate);
+        }
+        
+        // Assert
+        assertEquals(100_000, total.getMinorUnits());
+        assertEquals(new Money(1000.0, "USD"), total.toMoney());
+    }
+    
+    @Test
+    void testAddWithQuantity() {
+        // Arrange
+        MoneyAccumulator total = new MoneyAccumulator("USD");
+        
+        // Act
+        total.add(new Money(150.5, "USD"), 3);
+        
+        // Assert
+        assertEquals(new Money(451.5, "USD"), total.toMoney());
+    }
+    
+    @Test
+    void testCombineAccumulators() {
+        // Arrange
+        MoneyAccumulator first = new MoneyAccumulator("USD").add(new Money(10.0, "USD"));
+        MoneyAccumulator second = new MoneyAccumulator("usd").add(new Money(2.5, "USD"));
+        
+        // Act
+        first.add(second);
+        
+        // Assert
+        assertEquals(1250, first.getMinorUnits());
+    }
+    
+    @Test
+    void testAddWithDifferentCurrency() {
+        // Arrange
+        MoneyAccumulator total = new MoneyAccumulator("USD");
+        
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> total.add(new Money(1.0, "EUR")));
+    }
+    
+    @Test
+    void testReset() {
+        // Arrange
+        MoneyAccumulator total = new MoneyAccumulator("USD").add(new Money(10.0, "USD"));
+        
+        // Act
+        total.reset();
+        
+        // Assert
+        assertEquals(0, total.getMinorUnits());
+    }
+}
@@ -49,6 +49,12 @@ class MoneyTest {
         assertThrows(IllegalArgumentException.class, () -> new Money(100.0, blank));
     }
     
+    @ParameterizedTest
+    @ValueSource(strings = {"XYZ", "DOLLARS", "US$"})
+    void testConstructorWithUnknownCurrency(String code) {
+        assertThrows(IllegalArgumentException.class, () -> new Money(100.0, code));
+    }
+    
     @Test
     void testCurrencyToUpperCase() {
         // Act
@@ -96,4 +102,79 @@ class MoneyTest {
         // Assert
         assertEquals("150.5 USD", money.toString());
     }
+    
+    @Test
+    void testAmountIsStoredInMinorUnits() {
+        // Act
+        Money money = new Money(150.505, "USD");
+        
+        // Assert: rounded half-even to whole cents
+        assertEquals(15050, money.getMinorUnits());
+        assertEquals(150.5, money.getAmount());
+    }
+    
+    @Test
+    void testAddIsExact() {
+        // Arrange
+        Money total = Money.ofMinorUnits(0, "USD");
+        Money dime = new Money(0.1, "USD");
+        
+        // Act
+        for (int i = 0; i < 1000; i++) {
+            total = total.add(dime);
+        }
+        
+        // Assert
+        assertEquals(new Money(100.0, "USD"), total);
+    }
+    
+    @Test
+    void testAddWithDifferentCurrency() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+            () -> new Money(1.0, "USD").add(new Money(1.0, "EUR")));
+    }
+    
+    @Test
+    void testMultiply() {
+        // Arrange
+        Money rate = new Money(99.99, "USD");
+        
+        // Act & Assert
+        assertEquals(new Money(299.97, "USD"), rate.multiply(3));
+        assertEquals(new Money(89.99, "USD"), rate.multiply(0.9));
+    }
+    
+    @Test
+    void testAllocateKeepsEveryMinorUnit() {
+        // Arrange
+        Money amount = new Money(100.0, "USD");
+        
+        // Act
+        Money[] thirds = amount.allocate(3);
+        Money[] weighted = amount.allocate(1, 2);
+        
+        // Assert
+        assertEquals(3334, thirds[0].getMinorUnits());
+        assertEquals(3333, thirds[1].getMinorUnits());
+        assertEquals(3333, thirds[2].getMinorUnits());
+        assertEquals(3334, weighted[0].getMinorUnits());
+        assertEquals(6666, weighted[1].getMinorUnits());
+    }
+    
+    @Test
+    void testAllocateWithZeroRatios() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new Money(1.0, "USD").allocate(0, 0));
+    }
+    
+    @Test
+    void testCurrencyWithoutMinorUnits() {
+        // Act
+        Money money = new Money(1500.0, "jpy");
+        
+        // Assert
+        assertEquals(1500, money.getMinorUnits());
+        assertEquals("JPY", money.getCurrency());
+    }
 }
@@ -6,6 +6,8 @@ import org.junit.jupiter.params.provider.ValueSource;
 
 import domain.Name;
 
+import java.util.Locale;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -86,6 +88,24 @@ class NameTest {
         assertEquals(name1.hashCode(), name2.hashCode());
     }
     
+    @Test
+    void testEqualityIgnoresDefaultLocale() {
+        // Arrange
+        Locale saved = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+        try {
+            // Act
+            Name upper = new Name("IVAN", "IRWIN");
+            Name lower = new Name("ivan", "irwin");
+            
+            // Assert
+            assertEquals(upper, lower);
+            assertEquals(upper.hashCode(), lower.hashCode());
+        } finally {
+            Locale.setDefault(saved);
+        }
+    }
+    
     @Test
     void testNameToString() {
         // Act
@@ -94,4 +114,13 @@ class NameTest {
         // Assert
         assertEquals("John Doe", name.toString());
     }
+    
+    @Test
+    void testFullNameIsComputedOnce() {
+        // Act
+        Name name = new Name("John", "Doe");
+        
+        // Assert: repeated calls return the same instance instead of building new strings
+        assertSame(name.getFullName(), name.getFullName());
+    }
 }
@@ -0,0 +1,146 @@
+package test.java.domain;
+
+import domain.Address;
+import domain.Guest;
+import domain.Hotel;
+import domain.HotelChain;
+import domain.HotelOccupancy;
+import domain.HowMany;
+import domain.Money;
+import domain.Name;
+import domain.OccupancyReport;
+import domain.Reservation;
+import domain.Room;
+import domain.RoomKind;
+import domain.RoomType;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for OccupancyReport.
+ * Tests nightly occupancy, ADR and RevPAR from reservations and completed stays.
+ */
+class OccupancyReportTest {
+    
+    private static final LocalDate START = LocalDate.of(2030, 6, 1);
+    
+    private HotelChain chain;
+    private Hotel hotel;
+    private OccupancyReport report;
+    
+    @BeforeEach
+    void setUp() {
+        chain = new HotelChain("Test Hotel Chain");
+        hotel = new Hotel(new Name("Test", "Hotel"));
+        hotel.addRoom(101, new Room(101, new RoomType(RoomKind.SINGLE, new Money(100.0, "USD"))));
+        hotel.addRoom(102, new Room(102, new RoomType(RoomKind.DOUBLE, new Money(150.0, "USD"))));
+        hotel.addRoom(103, new Room(103, new RoomType(RoomKind.DOUBLE, new Money(150.0, "USD"))));
+        hotel.addRoom(104, new Room(104, new RoomType(RoomKind.SUITE, new Money(300.0, "USD"))));
+        chain.addHotel(hotel);
+        report = new OccupancyReport(chain);
+    }
+    
+    @Test
+    void testNightlyFiguresFromReservations() {
+        // Arrange: the single for nights 1-3, a double for nights 2-3
+        reserve(101, "John", START, START.plusDays(3));
+        reserve(102, "Jane", START.plusDays(1), START.plusDays(3));
+        
+        // Act
+        HotelOccupancy occupancy = report.computeForHotel("Test Hotel", START, START.plusDays(4));
+        
+        // Assert
+        LocalDate second = START.plusDays(1);
+        assertEquals(2, occupancy.getRoomsSold(second));
+        assertEquals(0.5, occupancy.getOccupancy(second), 1e-9);
+        assertEquals(new Money(250.0, "USD"), occupancy.getRevenue(second));
+        assertEquals(new Money(125.0, "USD"), occupancy.getAverageDailyRate(second));
+        assertEquals(new Money(62.5, "USD"), occupancy.getRevPar(second));
+        assertEquals(0, occupancy.getRoomsSold(START.plusDays(3)));
+        assertEquals(new Money(0.0, "USD"), occupancy.getAverageDailyRate(START.plusDays(3)));
+    }
+    
+    @Test
+    void testRangeTotalsIncludeCompletedStaysAndRates() {
+        // Arrange: a completed two-night stay in the suite, the second night at a special rate
+        chain.getPricingEngine().setNightlyRate("Test Hotel", RoomKind.SUITE, START.plusDays(1),
+                                                START.plusDays(2), new Money(500.0, "USD"));
+        Room suite = hotel.getRoom(104);
+        suite.addReservation(new Reservation(START, START.plusDays(2), new HowMany(2)), guest("Ann"));
+        suite.checkInGuest("Ann Guest");
+        suite.checkOutGuest("Ann Guest");
+        reserve(101, "John", START.plusDays(1), START.plusDays(2));
+        
+        // Act
+        HotelOccupancy occupancy = report.computeForHotel("Test Hotel", START, START.plusDays(2));
+        
+        // Assert: 3 of 8 room-nights, 300 + 500 + 100 in revenue
+        assertEquals(3, occupancy.getRoomNightsSold());
+        assertEquals(3.0 / 8, occupancy.getOccupancy(), 1e-9);
+        assertEquals(new Money(900.0, "USD"), occupancy.getRevenue());
+        assertEquals(new Money(300.0, "USD"), occupancy.getAverageDailyRate());
+        assertEquals(new Money(112.5, "USD"), occupancy.getRevPar());
+    }
+    
+    @Test
+    void testStaysOutsideTheRangeAreClipped() {
+        // Arrange
+        reserve(101, "John", START.minusDays(2), START.plusDays(2));
+        
+        // Act
+        HotelOccupancy occupancy = report.computeForHotel("Test Hotel", START, START.plusDays(1));
+        
+        // Assert
+        assertEquals(1, occupancy.getNightCount());
+        assertEquals(1, occupancy.getRoomNightsSold());
+        assertThrows(IllegalArgumentException.class, () -> occupancy.getRoomsSold(START.plusDays(1)));
+    }
+    
+    @Test
+    void testComputeCoversEveryHotelInNameOrder() {
+        // Arrange
+        Hotel other = new Hotel(new Name("Another", "Hotel"));
+        other.addRoom(1, new Room(1, new RoomType(RoomKind.SINGLE, new Money(80.0, "EUR"))));
+        chain.addHotel(other);
+        chain.addHotel(new Hotel(new Name("Empty", "Hotel")));
+        reserve(101, "John", START, START.plusDays(1));
+        
+        // Act
+        List<HotelOccupancy> occupancies = report.compute(START, START.plusDays(7));
+        
+        // Assert
+        assertEquals(2, occupancies.size());
+        assertEquals("Another Hotel", occupancies.get(0).getHotelName());
+        assertEquals("EUR", occupancies.get(0).getCurrency());
+        assertEquals(0, occupancies.get(0).getRoomNightsSold());
+        assertEquals(1, occupancies.get(1).getRoomNightsSold());
+    }
+    
+    @Test
+    void testInvalidRequestsAreRejected() {
+        // Arrange
+        hotel.addRoom(105, new Room(105, new RoomType(RoomKind.SINGLE, new Money(90.0, "EUR"))));
+        
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new OccupancyReport(null));
+        assertThrows(IllegalArgumentException.class, () -> report.compute(START, START));
+        assertThrows(IllegalArgumentException.class,
+                     () -> report.computeForHotel("Unknown Hotel", START, START.plusDays(1)));
+        assertThrows(IllegalArgumentException.class,
+                     () -> report.computeForHotel("Test Hotel", START, START.plusDays(1)));
+    }
+    
+    private void reserve(int roomNumber, String firstName, LocalDate start, LocalDate end) {
+        hotel.getRoom(roomNumber).addReservation(new Reservation(start, end, new HowMany(1)), guest(firstName));
+    }
+    
+    private Guest guest(String firstName) {
+        return new Guest(new Name(firstName, "Guest"), new Address("Main St", "City", "Country", "12345"));
+    }
+}
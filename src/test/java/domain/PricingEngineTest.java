@@ -0,0 +1,224 @@
+package test.java.domain;
+
+import domain.Hotel;
+import domain.HowMany;
+import domain.Money;
+import domain.Name;
+import domain.PricingEngine;
+import domain.Reservation;
+import domain.Room;
+import domain.RoomKind;
+import domain.RoomType;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for PricingEngine.
+ * Tests base-rate quotes, date-specific overrides and extra-guest surcharges.
+ */
+class PricingEngineTest {
+    
+    private static final LocalDate START = LocalDate.of(2030, 6, 1);
+    
+    private PricingEngine engine;
+    private Hotel hotel;
+    private Room single;
+    private Room suite;
+    
+    @BeforeEach
+    void setUp() {
+        engine = new PricingEngine();
+        single = new Room(101, new RoomType(RoomKind.SINGLE, new Money(100.0, "USD")));
+        suite = new Room(501, new RoomType(RoomKind.SUITE, new Money(400.0, "USD")));
+        hotel = new Hotel(new Name("Test", "Hotel"));
+        hotel.addRoom(101, single);
+        hotel.addRoom(501, suite);
+    }
+    
+    @Test
+    void testQuoteWithoutOverridesUsesRoomCost() {
+        // Arrange
+        Reservation reservation = new Reservation(START, START.plusDays(3), new HowMany(1));
+        
+        // Act
+        Money total = engine.quote(single, reservation);
+        
+        // Assert
+        assertEquals(new Money(300.0, "USD"), total);
+    }
+    
+    @Test
+    void testQuoteMixesOverriddenAndBaseNights() {
+        // Arrange: weekend nights of June 7 and 8 at 150
+        engine.setNightlyRate("Test Hotel", RoomKind.SINGLE, START.plusDays(6), START.plusDays(8), new Money(150.0, "USD"));
+        Reservation reservation = new Reservation(START, START.plusDays(14), new HowMany(1));
+        
+        // Act
+        Money total = engine.quote(single, reservation);
+        
+        // Assert: 12 nights at 100 and 2 at 150
+        assertEquals(new Money(1500.0, "USD"), total);
+    }
+    
+    @Test
+    void testOverridesOnlyApplyToTheirRoomKind() {
+        // Arrange
+        engine.setNightlyRate("Test Hotel", RoomKind.SINGLE, START, START.plusDays(10), new Money(80.0, "USD"));
+        Reservation reservation = new Reservation(START, START.plusDays(2), new HowMany(1));
+        
+        // Act & Assert
+        assertEquals(new Money(160.0, "USD"), engine.quote(single, reservation));
+        assertEquals(new Money(800.0, "USD"), engine.quote(suite, reservation));
+    }
+    
+    @Test
+    void testStayPartlyOutsideCalendarUsesBaseRate() {
+        // Arrange: only the last two nights of the stay are overridden
+        engine.setNightlyRate("Test Hotel", RoomKind.SINGLE, START.plusDays(3), START.plusDays(10), new Money(50.0, "USD"));
+        Reservation reservation = new Reservation(START, START.plusDays(5), new HowMany(1));
+        
+        // Act
+        Money total = engine.quote(single, reservation);
+        
+        // Assert
+        assertEquals(new Money(400.0, "USD"), total);
+    }
+    
+    @Test
+    void testLaterOverrideReplacesEarlierOne() {
+        // Arrange
+        engine.setNightlyRate("Test Hotel", RoomKind.SINGLE, START, START.plusDays(4), new Money(120.0, "USD"));
+        engine.setNightlyRate("Test Hotel", RoomKind.SINGLE, START.plusDays(1), START.plusDays(2), new Money(200.0, "USD"));
+        
+        // Act & Assert
+        assertEquals(new Money(120.0, "USD"), engine.getNightlyRate(single, START));
+        assertEquals(new Money(200.0, "USD"), engine.getNightlyRate(single, START.plusDays(1)));
+        assertEquals(new Money(560.0, "USD"),
+                     engine.quote(single, new Reservation(START, START.plusDays(4), new HowMany(1))));
+    }
+    
+    @Test
+    void testOverrideBeforeExistingRangeExtendsCalendar() {
+        // Arrange
+        engine.setNightlyRate("Test Hotel", RoomKind.SINGLE, START.plusDays(10), START.plusDays(12), new Money(90.0, "USD"));
+        engine.setNightlyRate("Test Hotel", RoomKind.SINGLE, START, START.plusDays(1), new Money(70.0, "USD"));
+        
+        // Act
+        Money total = engine.quote(single, new Reservation(START, START.plusDays(12), new HowMany(1)));
+        
+        // Assert: 70 + 9 * 100 + 2 * 90
+        assertEquals(new Money(1150.0, "USD"), total);
+    }
+    
+    @Test
+    void testClearNightlyRateRestoresBaseRate() {
+        // Arrange
+        engine.setNightlyRate("Test Hotel", RoomKind.SINGLE, START, START.plusDays(3), new Money(150.0, "USD"));
+        
+        // Act
+        engine.clearNightlyRate("Test Hotel", RoomKind.SINGLE, START.plusDays(1), START.plusDays(2));
+        
+        // Assert
+        assertEquals(new Money(100.0, "USD"), engine.getNightlyRate(single, START.plusDays(1)));
+        assertEquals(new Money(400.0, "USD"),
+                     engine.quote(single, new Reservation(START, START.plusDays(3), new HowMany(1))));
+    }
+    
+    @Test
+    void testExtraGuestsPaySurchargePerNight() {
+        // Arrange: the suite rate covers two guests, each extra guest pays 25 a night
+        engine.setExtraGuestRate("Test Hotel", RoomKind.SUITE, 2, new Money(25.0, "USD"));
+        Reservation reservation = new Reservation(START, START.plusDays(3), new HowMany(4));
+        
+        // Act
+        Money total = engine.quote(suite, reservation);
+        
+        // Assert: 3 * 400 + 3 nights * 2 guests * 25
+        assertEquals(new Money(1350.0, "USD"), total);
+    }
+    
+    @Test
+    void testNoSurchargeWithinIncludedGuests() {
+        // Arrange
+        engine.setExtraGuestRate("Test Hotel", RoomKind.SUITE, 2, new Money(25.0, "USD"));
+        Reservation reservation = new Reservation(START, START.plusDays(3), new HowMany(2));
+        
+        // Act & Assert
+        assertEquals(new Money(1200.0, "USD"), engine.quote(suite, reservation));
+    }
+    
+    @Test
+    void testQuoteMinorUnitsMatchesQuote() {
+        // Arrange
+        engine.setNightlyRate("Test Hotel", RoomKind.SINGLE, START.plusDays(2), START.plusDays(5), new Money(99.99, "USD"));
+        Reservation reservation = new Reservation(START, START.plusDays(7), new HowMany(1));
+        
+        // Act
+        long minorUnits = engine.quoteMinorUnits(single, START, START.plusDays(7), 1);
+        
+        // Assert
+        assertEquals(engine.quote(single, reservation).getMinorUnits(), minorUnits);
+        assertEquals(4 * 10000 + 3 * 9999, minorUnits);
+    }
+    
+    @Test
+    void testRateInOtherCurrencyThanCalendarIsRejected() {
+        // Arrange
+        engine.setNightlyRate("Test Hotel", RoomKind.SINGLE, START, START.plusDays(1), new Money(100.0, "USD"));
+        
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+            () -> engine.setNightlyRate("Test Hotel", RoomKind.SINGLE, START.plusDays(1), START.plusDays(2), new Money(90.0, "EUR")));
+    }
+    
+    @Test
+    void testQuoteForRoomCostInOtherCurrencyIsRejected() {
+        // Arrange
+        engine.setNightlyRate("Test Hotel", RoomKind.SINGLE, START, START.plusDays(1), new Money(100.0, "USD"));
+        Room euroRoom = new Room(102, new RoomType(RoomKind.SINGLE, new Money(90.0, "EUR")));
+        hotel.addRoom(102, euroRoom);
+        Reservation reservation = new Reservation(START, START.plusDays(1), new HowMany(1));
+        
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> engine.quote(euroRoom, reservation));
+    }
+    
+    @Test
+    void testRatesOfOneHotelDoNotApplyToAnother() {
+        // Arrange: a USD rate in this hotel, and a PKR single in another
+        engine.setNightlyRate("Test Hotel", RoomKind.SINGLE, START, START.plusDays(3), new Money(150.0, "USD"));
+        Hotel other = new Hotel(new Name("Other", "Hotel"));
+        Room rupeeRoom = new Room(101, new RoomType(RoomKind.SINGLE, new Money(9000.0, "PKR")));
+        other.addRoom(101, rupeeRoom);
+        Reservation reservation = new Reservation(START, START.plusDays(3), new HowMany(1));
+        
+        // Act & Assert
+        assertEquals(new Money(450.0, "USD"), engine.quote(single, reservation));
+        assertEquals(new Money(27000.0, "PKR"), engine.quote(rupeeRoom, reservation));
+        assertEquals(new Money(300.0, "USD"),
+                     engine.quote(new Room(103, new RoomType(RoomKind.SINGLE, new Money(100.0, "USD"))), reservation));
+    }
+    
+    @Test
+    void testSetNightlyRateWithoutHotel() {
+        assertThrows(IllegalArgumentException.class,
+            () -> engine.setNightlyRate(null, RoomKind.SINGLE, START, START.plusDays(1), new Money(100.0, "USD")));
+    }
+    
+    @Test
+    void testSetNightlyRateWithEmptyRange() {
+        assertThrows(IllegalArgumentException.class,
+            () -> engine.setNightlyRate("Test Hotel", RoomKind.SINGLE, START, START, new Money(100.0, "USD")));
+    }
+    
+    @Test
+    void testSetExtraGuestRateWithInvalidIncludedGuests() {
+        assertThrows(IllegalArgumentException.class,
+            () -> engine.setExtraGuestRate("Test Hotel", RoomKind.DOUBLE, 0, new Money(10.0, "USD")));
+    }
+}
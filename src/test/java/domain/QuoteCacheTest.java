@@ -0,0 +1,295 @@
+package test.java.domain;
+
+import domain.Address;
+import domain.CreditCard;
+import domain.Guest;
+import domain.Hotel;
+import domain.HotelChain;
+import domain.HowMany;
+import domain.Identity;
+import domain.Money;
+import domain.Name;
+import domain.QuoteCacheStats;
+import domain.Reservation;
+import domain.ReserverPayer;
+import domain.Room;
+import domain.RoomKind;
+import domain.RoomQuote;
+import domain.RoomType;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the chain's cached room search.
+ * Tests cache hits and the precise invalidation on reservation, room and rate changes.
+ */
+class QuoteCacheTest {
+    
+    private static final LocalDate START = LocalDate.of(2030, 6, 1);
+    private static final LocalDate END = START.plusDays(3);
+    
+    private HotelChain chain;
+    private Hotel hotel;
+    private Guest guest;
+    private ReserverPayer payer;
+    
+    @BeforeEach
+    void setUp() {
+        chain = new HotelChain("Test Hotel Chain");
+        hotel = new Hotel(new Name("Test", "Hotel"));
+        hotel.addRoom(101, new Room(101, new RoomType(RoomKind.SINGLE, new Money(100.0, "USD"))));
+        hotel.addRoom(102, new Room(102, new RoomType(RoomKind.SINGLE, new Money(100.0, "USD"))));
+        hotel.addRoom(201, new Room(201, new RoomType(RoomKind.DOUBLE, new Money(180.0, "USD"))));
+        chain.addHotel(hotel);
+        
+        guest = new Guest(new Name("John", "Doe"), new Address("123 Main St", "City", "Country", "12345"));
+        payer = new ReserverPayer(new CreditCard("1234567890123456", "John Doe", "12/25"),
+                                  new Identity("ID123", "Passport"));
+    }
+    
+    private List<RoomQuote> searchSingles() {
+        return chain.searchRooms("Test Hotel", START, END, RoomKind.SINGLE, new HowMany(1));
+    }
+    
+    private void reserve(int roomNumber, LocalDate start, LocalDate end) {
+        chain.makeReservation("Test Hotel", roomNumber, guest, payer, new Reservation(start, end, new HowMany(1)));
+    }
+    
+    @Test
+    void testSearchQuotesEachFreeRoom() {
+        // Act
+        List<RoomQuote> quotes = searchSingles();
+        
+        // Assert
+        assertEquals(2, quotes.size());
+        assertEquals(101, quotes.get(0).getRoom().getNumber());
+        assertEquals(new Money(300.0, "USD"), quotes.get(0).getTotal());
+    }
+    
+    @Test
+    void testRepeatedSearchIsServedFromCache() {
+        // Arrange
+        List<RoomQuote> first = searchSingles();
+        
+        // Act
+        List<RoomQuote> second = searchSingles();
+        
+        // Assert
+        QuoteCacheStats stats = chain.getQuoteCacheStats();
+        assertSame(first, second);
+        assertEquals(1, stats.getMisses());
+        assertEquals(1, stats.getHits());
+    }
+    
+    @Test
+    void testOverlappingReservationInvalidatesSearch() {
+        // Arrange
+        searchSingles();
+        
+        // Act
+        reserve(101, START.plusDays(1), START.plusDays(5));
+        List<RoomQuote> quotes = searchSingles();
+        
+        // Assert
+        assertEquals(1, quotes.size());
+        assertEquals(102, quotes.get(0).getRoom().getNumber());
+        assertEquals(1, chain.getQuoteCacheStats().getInvalidations());
+    }
+    
+    @Test
+    void testReservationOnOtherDatesKeepsSearch() {
+        // Arrange
+        searchSingles();
+        
+        // Act: the stay starts on the day the searched stay ends
+        reserve(101, END, END.plusDays(2));
+        searchSingles();
+        
+        // Assert
+        assertEquals(0, chain.getQuoteCacheStats().getInvalidations());
+        assertEquals(1, chain.getQuoteCacheStats().getHits());
+    }
+    
+    @Test
+    void testSearchOutlivesManyChangesOnOtherDates() {
+        // Arrange
+        List<RoomQuote> cached = searchSingles();
+        
+        // Act: looked up again every few changes, so each check only has the latest changes to look at
+        for (int i = 0; i < 200; i++) {
+            LocalDate start = END.plusDays(i);
+            Guest other = new Guest(new Name("Guest", "Number" + i), guest.getAddressDetails());
+            chain.makeReservation("Test Hotel", 101, other, payer,
+                                  new Reservation(start, start.plusDays(1), new HowMany(1)));
+            if (i % 10 == 0) {
+                assertSame(cached, searchSingles());
+            }
+        }
+        
+        // Assert
+        assertSame(cached, searchSingles());
+        assertEquals(0, chain.getQuoteCacheStats().getInvalidations());
+    }
+    
+    @Test
+    void testReservationOfOtherKindKeepsSearch() {
+        // Arrange
+        searchSingles();
+        
+        // Act
+        reserve(201, START, END);
+        searchSingles();
+        
+        // Assert
+        assertEquals(1, chain.getQuoteCacheStats().getHits());
+    }
+    
+    @Test
+    void testReservationInOtherHotelKeepsSearch() {
+        // Arrange
+        Hotel other = new Hotel(new Name("Other", "Hotel"));
+        other.addRoom(101, new Room(101, new RoomType(RoomKind.SINGLE, new Money(100.0, "USD"))));
+        chain.addHotel(other);
+        List<RoomQuote> cached = chain.searchRooms("Test Hotel", START, END, null, new HowMany(1));
+        
+        // Act
+        chain.makeReservation("Other Hotel", 101, guest, payer, new Reservation(START, END, new HowMany(1)));
+        
+        // Assert
+        assertSame(cached, chain.searchRooms("Test Hotel", START, END, null, new HowMany(1)));
+        assertEquals(0, chain.getQuoteCacheStats().getInvalidations());
+    }
+    
+    @Test
+    void testSearchForAnyKindIsInvalidatedByEveryKind() {
+        // Arrange
+        chain.searchRooms("Test Hotel", START, END, null, new HowMany(1));
+        
+        // Act
+        reserve(201, START, END);
+        List<RoomQuote> quotes = chain.searchRooms("Test Hotel", START, END, null, new HowMany(1));
+        
+        // Assert
+        assertEquals(2, quotes.size());
+        assertEquals(1, chain.getQuoteCacheStats().getInvalidations());
+    }
+    
+    @Test
+    void testCancellationInvalidatesSearch() {
+        // Arrange
+        reserve(101, START, END);
+        assertEquals(1, searchSingles().size());
+        
+        // Act
+        chain.cancelReservation("Test Hotel", 101, "John Doe");
+        
+        // Assert
+        assertEquals(2, searchSingles().size());
+    }
+    
+    @Test
+    void testCheckOutInvalidatesSearch() {
+        // Arrange
+        reserve(101, START, END);
+        chain.checkInGuest("Test Hotel", 101, "John Doe");
+        assertEquals(1, searchSingles().size());
+        
+        // Act
+        chain.checkOutGuest("Test Hotel", 101, "John Doe");
+        
+        // Assert
+        assertEquals(2, searchSingles().size());
+    }
+    
+    @Test
+    void testRateChangeInvalidatesOverlappingSearch() {
+        // Arrange
+        searchSingles();
+        
+        // Act
+        chain.getPricingEngine().setNightlyRate("Test Hotel", RoomKind.SINGLE, START, START.plusDays(1),
+                                                new Money(160.0, "USD"));
+        List<RoomQuote> quotes = searchSingles();
+        
+        // Assert
+        assertEquals(new Money(360.0, "USD"), quotes.get(0).getTotal());
+    }
+    
+    @Test
+    void testRateChangeOnOtherNightsKeepsSearch() {
+        // Arrange
+        searchSingles();
+        
+        // Act
+        chain.getPricingEngine().setNightlyRate("Test Hotel", RoomKind.SINGLE, END, END.plusDays(7),
+                                                new Money(160.0, "USD"));
+        searchSingles();
+        
+        // Assert
+        assertEquals(1, chain.getQuoteCacheStats().getHits());
+    }
+    
+    @Test
+    void testRateChangeInOtherHotelKeepsSearch() {
+        // Arrange: a second hotel priced in rupees, and a dollar rate for singles here
+        Hotel other = new Hotel(new Name("Other", "Hotel"));
+        other.addRoom(101, new Room(101, new RoomType(RoomKind.SINGLE, new Money(9000.0, "PKR"))));
+        chain.addHotel(other);
+        chain.getPricingEngine().setNightlyRate("Test Hotel", RoomKind.SINGLE, START, END, new Money(160.0, "USD"));
+        List<RoomQuote> dollars = searchSingles();
+        
+        // Act
+        List<RoomQuote> rupees = chain.searchRooms("Other Hotel", START, END, RoomKind.SINGLE, new HowMany(1));
+        chain.getPricingEngine().setNightlyRate("Other Hotel", RoomKind.SINGLE, START, END,
+                                                new Money(8000.0, "PKR"));
+        
+        // Assert
+        assertEquals(new Money(480.0, "USD"), dollars.get(0).getTotal());
+        assertEquals(new Money(27000.0, "PKR"), rupees.get(0).getTotal());
+        assertSame(dollars, searchSingles());
+    }
+    
+    @Test
+    void testGuestCountIsPartOfTheSearch() {
+        // Arrange
+        chain.getPricingEngine().setExtraGuestRate("Test Hotel", RoomKind.SINGLE, 1, new Money(20.0, "USD"));
+        
+        // Act
+        List<RoomQuote> one = searchSingles();
+        List<RoomQuote> two = chain.searchRooms("Test Hotel", START, END, RoomKind.SINGLE, new HowMany(2));
+        
+        // Assert
+        assertEquals(new Money(300.0, "USD"), one.get(0).getTotal());
+        assertEquals(new Money(360.0, "USD"), two.get(0).getTotal());
+    }
+    
+    @Test
+    void testAddedRoomInvalidatesSearch() {
+        // Arrange
+        searchSingles();
+        
+        // Act
+        hotel.addRoom(103, new Room(103, new RoomType(RoomKind.SINGLE, new Money(100.0, "USD"))));
+        
+        // Assert
+        assertEquals(3, searchSingles().size());
+    }
+    
+    @Test
+    void testSearchUnknownHotel() {
+        assertThrows(IllegalArgumentException.class,
+            () -> chain.searchRooms("Nowhere", START, END, RoomKind.SINGLE, new HowMany(1)));
+    }
+    
+    @Test
+    void testSearchWithInvalidDates() {
+        assertThrows(IllegalArgumentException.class,
+            () -> chain.searchRooms("Test Hotel", END, START, RoomKind.SINGLE, new HowMany(1)));
+    }
+}
@@ -111,6 +111,26 @@ class RoomTest {
         assertFalse(room.isAvailable());
     }
     
+    @Test
+    void testIsAvailableForDatesOutsideReservation() {
+        // Arrange
+        room.addReservation(reservation, guest);
+        java.time.LocalDate today = java.time.LocalDate.now();
+        
+        // Act & Assert
+        assertTrue(room.isAvailable(today, today.plusDays(1)));
+        assertTrue(room.isAvailable(today.plusDays(3), today.plusDays(5)));
+        assertFalse(room.isAvailable(today, today.plusDays(2)));
+        assertFalse(room.isAvailable(today.plusDays(2), today.plusDays(4)));
+    }
+    
+    @Test
+    void testIsAvailableWithInvalidDates() {
+        java.time.LocalDate today = java.time.LocalDate.now();
+        assertThrows(IllegalArgumentException.class, () -> room.isAvailable(null, today));
+        assertThrows(IllegalArgumentException.class, () -> room.isAvailable(today, today));
+    }
+    
     // ===== Reservation Tests =====
     @Test
     void testAddReservationSuccess() {
@@ -140,6 +160,101 @@ class RoomTest {
         assertThrows(IllegalStateException.class, () -> room.addReservation(reservation, guest));
     }
     
+    @Test
+    void testAddNonOverlappingReservations() {
+        // Arrange
+        Guest anotherGuest = new Guest(
+            new Name("Bob", "Johnson"),
+            new Address("789 Pine St", "City", "Country", "11111")
+        );
+        Reservation later = new Reservation(
+            java.time.LocalDate.now().plusDays(3),
+            java.time.LocalDate.now().plusDays(6),
+            new HowMany(2)
+        );
+        
+        // Act
+        room.addReservation(reservation, guest);
+        room.addReservation(later, anotherGuest);
+        
+        // Assert
+        assertEquals(2, room.getReservationCount());
+    }
+    
+    @Test
+    void testAddOverlappingReservation() {
+        // Arrange
+        Guest anotherGuest = new Guest(
+            new Name("Bob", "Johnson"),
+            new Address("789 Pine St", "City", "Country", "11111")
+        );
+        Reservation overlapping = new Reservation(
+            java.time.LocalDate.now().plusDays(2),
+            java.time.LocalDate.now().plusDays(4),
+            new HowMany(1)
+        );
+        room.addReservation(reservation, guest);
+        
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> room.addReservation(overlapping, anotherGuest));
+        assertEquals(1, room.getReservationCount());
+    }
+    
+    @Test
+    void testReplaceReservationForSameGuest() {
+        // Arrange
+        Reservation moved = new Reservation(
+            java.time.LocalDate.now().plusDays(2),
+            java.time.LocalDate.now().plusDays(4),
+            new HowMany(1)
+        );
+        room.addReservation(reservation, guest);
+        
+        // Act
+        room.addReservation(moved, guest);
+        
+        // Assert
+        assertEquals(1, room.getReservationCount());
+        assertTrue(room.isAvailable(java.time.LocalDate.now().plusDays(1), java.time.LocalDate.now().plusDays(2)));
+    }
+    
+    @Test
+    void testVersionAdvancesOnEveryChange() {
+        // Arrange
+        long initial = room.getVersion();
+        
+        // Act
+        room.addReservation(reservation, guest);
+        room.removeReservation("Jane Smith");
+        
+        // Assert
+        assertEquals(initial + 4, room.getVersion());
+    }
+    
+    @Test
+    void testFailedChangeKeepsVersionEven() {
+        // Arrange
+        room.setOccupant(guest);
+        
+        // Act
+        assertThrows(IllegalStateException.class, () -> room.addReservation(reservation, guest));
+        
+        // Assert
+        assertEquals(0, room.getVersion() % 2);
+    }
+    
+    @Test
+    void testRemoveReservationFreesDates() {
+        // Arrange
+        room.addReservation(reservation, guest);
+        
+        // Act
+        room.removeReservation("Jane Smith");
+        
+        // Assert
+        assertTrue(room.isAvailable(reservation.getStartDate(), reservation.getEndDate()));
+    }
+    
     @Test
     void testRemoveReservationSuccess() {
         // Arrange
@@ -206,6 +321,61 @@ class RoomTest {
         assertNull(room.getOccupant());
     }
     
+    @Test
+    void testCheckOutKeepsCompletedStay() {
+        // Arrange
+        room.addReservation(reservation, guest);
+        room.checkInGuest("Jane Smith");
+        
+        // Act
+        room.checkOutGuest("Jane Smith");
+        
+        // Assert
+        assertEquals(0, room.getReservationCount());
+        assertEquals(1, room.getCompletedStayCount());
+        Reservation stay = room.getCompletedStays().get(0);
+        assertEquals(reservation.getId(), stay.getId());
+        assertEquals(reservation.getStartDate(), stay.getStartDate());
+        assertEquals(reservation.getEndDate(), stay.getEndDate());
+        assertEquals(1, stay.getNumberOfGuests().getNumber());
+    }
+    
+    @Test
+    void testCompletedStaysAreMaterializedOnDemand() {
+        // Arrange: more stays than the history's initial capacity
+        java.time.LocalDate start = java.time.LocalDate.now().plusDays(1);
+        for (int i = 0; i < 20; i++) {
+            Guest stayer = new Guest(new Name("Guest", "No" + i), new Address("1 Main St", "City", "Country", "1"));
+            room.addReservation(new Reservation(start.plusDays(i), start.plusDays(i + 1), new HowMany(1 + i % 2)),
+                                stayer);
+            room.checkInGuest("Guest No" + i);
+            room.checkOutGuest("Guest No" + i);
+        }
+        
+        // Act
+        java.util.List<Reservation> stays = room.getCompletedStays();
+        
+        // Assert
+        assertEquals(20, stays.size());
+        assertNotSame(stays.get(7), stays.get(7));
+        assertEquals(start.plusDays(7), stays.get(7).getStartDate());
+        assertEquals(2, stays.get(7).getNumberOfGuests().getNumber());
+        assertThrows(UnsupportedOperationException.class, () -> stays.remove(0));
+    }
+    
+    @Test
+    void testCancelledReservationIsNotAStay() {
+        // Arrange
+        room.addReservation(reservation, guest);
+        
+        // Act
+        room.removeReservation("Jane Smith");
+        
+        // Assert
+        assertEquals(0, room.getCompletedStayCount());
+        assertTrue(room.getCompletedStays().isEmpty());
+    }
+    
     @Test
     void testCheckOutGuestWhenNoOccupant() {
         assertThrows(IllegalStateException.class, () -> room.checkOutGuest("Jane Smith"));
@@ -0,0 +1,186 @@
+package test.java.domain;
+
+import domain.Address;
+import domain.CreditCard;
+import domain.Guest;
+import domain.Hotel;
+import domain.HotelChain;
+import domain.HowMany;
+import domain.Identity;
+import domain.Money;
+import domain.Name;
+import domain.Reservation;
+import domain.ReserverPayer;
+import domain.Room;
+import domain.RoomKind;
+import domain.RoomStatus;
+import domain.RoomType;
+import domain.ShardedHotelChain;
+import domain.WriteAheadLog;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for ShardedHotelChain.
+ * Tests that queued changes are applied in order on their hotel's shard,
+ * that journaled changes complete once durable, and that failures are
+ * reported through the returned futures.
+ */
+class ShardedHotelChainTest {
+    
+    private static final int HOTELS = 12;
+    private static final int ROOMS = 4;
+    
+    private HotelChain chain;
+    private ShardedHotelChain sharded;
+    private ReserverPayer payer;
+    private LocalDate today;
+    
+    @BeforeEach
+    void setUp() {
+        chain = new HotelChain("Test Hotel Chain");
+        RoomType roomType = new RoomType(RoomKind.SINGLE, new Money(100.0, "USD"));
+        for (int h = 0; h < HOTELS; h++) {
+            Hotel hotel = new Hotel(new Name("Hotel", "H" + h));
+            for (int number = 1; number <= ROOMS; number++) {
+                hotel.addRoom(number, new Room(number, roomType));
+            }
+            chain.addHotel(hotel);
+        }
+        sharded = new ShardedHotelChain(chain, 4);
+        payer = new ReserverPayer(
+            new CreditCard("1234567890123456", "John Doe", "12/25"),
+            new Identity("ID123", "Passport")
+        );
+        today = LocalDate.now();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        sharded.close();
+    }
+    
+    @Test
+    void testChangesToOneHotelApplyInSubmissionOrder() {
+        // Arrange
+        Guest guest = guest("John", "Doe");
+        Reservation reservation = new Reservation(today, today.plusDays(2), new HowMany(1));
+        
+        // Act: only the last future is waited for
+        sharded.makeReservation("Hotel H0", 1, guest, payer, reservation);
+        sharded.checkInGuest("Hotel H0", 1, "John Doe");
+        sharded.checkOutGuest("Hotel H0", 1, "John Doe").join();
+        
+        // Assert
+        Room room = chain.getHotel("Hotel H0").getRoom(1);
+        assertFalse(room.isOccupied());
+        assertEquals(1, room.getCompletedStayCount());
+    }
+    
+    @Test
+    void testFailuresCompleteFuturesExceptionally() {
+        // Act
+        CompletableFuture<Void> unknownHotel = sharded.checkInGuest("Unknown Hotel", 1, "John Doe");
+        CompletableFuture<Void> nullHotel = sharded.cancelReservation(null, 1, "John Doe");
+        
+        // Assert
+        CompletionException failure = assertThrows(CompletionException.class, unknownHotel::join);
+        assertTrue(failure.getCause() instanceof IllegalArgumentException);
+        assertThrows(CompletionException.class, nullHotel::join);
+    }
+    
+    @Test
+    void testEveryHotelStaysOnOneShard() {
+        // Act & Assert
+        for (int h = 0; h < HOTELS; h++) {
+            int shard = sharded.getShard("Hotel H" + h);
+            assertTrue(shard >= 0 && shard < sharded.getShardCount());
+            assertEquals(shard, sharded.getShard("Hotel H" + h));
+        }
+        assertThrows(IllegalArgumentException.class, () -> new ShardedHotelChain(chain, 0));
+        assertThrows(IllegalArgumentException.class, () -> new ShardedHotelChain(null, 2));
+    }
+    
+    @Test
+    void testConcurrentSubmittersAcrossShards() {
+        // Arrange: each hotel's rooms are booked for several consecutive stays
+        int staysPerRoom = 20;
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        
+        // Act
+        for (int i = 0; i < staysPerRoom; i++) {
+            for (int h = 0; h < HOTELS; h++) {
+                for (int number = 1; number <= ROOMS; number++) {
+                    Guest guest = guest("Guest" + i, "Room" + number);
+                    LocalDate start = today.plusDays(2L * i);
+                    futures.add(sharded.makeReservation("Hotel H" + h, number, guest, payer,
+                                                        new Reservation(start, start.plusDays(2), new HowMany(1))));
+                }
+            }
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        
+        // Assert
+        assertEquals(HOTELS * ROOMS * staysPerRoom, chain.getReservationCount());
+        assertEquals(HOTELS * ROOMS, chain.getRoomCount(RoomStatus.RESERVED));
+    }
+    
+    @Test
+    void testJournaledChangesCompleteOnceDurable(@TempDir Path directory) {
+        // Arrange: a journaled chain whose shards do not wait for each flush
+        Path file = directory.resolve("chain.wal");
+        int stays = 50;
+        try (WriteAheadLog journal = WriteAheadLog.open(file)) {
+            HotelChain journaled = journal.recover("Journaled Chain");
+            Hotel hotel = new Hotel(new Name("Hotel", "H0"));
+            hotel.addRoom(1, new Room(1, new RoomType(RoomKind.SINGLE, new Money(100.0, "USD"))));
+            journaled.addHotel(hotel);
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            try (ShardedHotelChain shards = new ShardedHotelChain(journaled, 2)) {
+                
+                // Act
+                for (int i = 0; i < stays; i++) {
+                    LocalDate start = today.plusDays(i);
+                    futures.add(shards.makeReservation("Hotel H0", 1, guest("Guest" + i, "Room1"), payer,
+                                                       new Reservation(start, start.plusDays(1), new HowMany(1))));
+                }
+                CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+                
+                // Assert
+                assertEquals(journal.getAppendedLsn(), journal.getDurableLsn());
+            }
+        }
+        try (WriteAheadLog journal = WriteAheadLog.open(file)) {
+            assertEquals(stays, journal.recover("Journaled Chain").getReservationCount());
+        }
+    }
+    
+    @Test
+    void testClosedShardsRejectChanges() {
+        // Arrange
+        sharded.close();
+        
+        // Act
+        CompletableFuture<Void> late = sharded.checkOutGuest("Hotel H0", 1, "John Doe");
+        
+        // Assert
+        CompletionException failure = assertThrows(CompletionException.class, late::join);
+        assertTrue(failure.getCause() instanceof IllegalStateException);
+    }
+    
+    private static Guest guest(String firstName, String lastName) {
+        return new Guest(new Name(firstName, lastName), new Address("123 Main St", "City", "Country", "12345"));
+    }
+}
@@ -0,0 +1,270 @@
+package test.java.domain;
+
+import domain.Address;
+import domain.CreditCard;
+import domain.Guest;
+import domain.Hotel;
+import domain.HotelChain;
+import domain.HowMany;
+import domain.Identity;
+import domain.Money;
+import domain.Name;
+import domain.Reservation;
+import domain.ReserverPayer;
+import domain.Room;
+import domain.RoomKind;
+import domain.RoomType;
+import domain.StayArchive;
+import domain.WriteAheadLog;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for StayArchive: completed stays kept off the heap must read
+ * back like heap ones and survive a restart without being replayed twice.
+ */
+class StayArchiveTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    private Path journalFile;
+    private Path archiveFile;
+    private ReserverPayer payer;
+    private LocalDate today;
+    
+    @BeforeEach
+    void setUp() {
+        journalFile = tempDir.resolve("chain.wal");
+        archiveFile = tempDir.resolve("chain.stays");
+        payer = new ReserverPayer(
+            new CreditCard("1234567890123456", "John Doe", "12/25"),
+            new Identity("ID123", "Passport")
+        );
+        today = LocalDate.now();
+    }
+    
+    @Test
+    void testDirectArchiveKeepsStays() {
+        // Arrange
+        StayArchive archive = StayArchive.allocateDirect();
+        HotelChain chain = new HotelChain("Test Hotel Chain");
+        chain.useStayArchive(archive);
+        chain.addHotel(createHotel());
+        
+        // Act
+        stay(chain, 0, 2);
+        stay(chain, 1, 3);
+        
+        // Assert
+        List<Reservation> stays = chain.getHotel("Test Hotel").getRoom(101).getCompletedStays();
+        assertFalse(archive.isPersistent());
+        assertEquals(2, archive.getStayCount());
+        assertEquals(2, stays.size());
+        assertEquals(today.plusDays(1), stays.get(1).getStartDate());
+        assertEquals(3, stays.get(1).getNumberOfGuests().getNumber());
+    }
+    
+    @Test
+    void testArchiveMustBeSetBeforeHotels() {
+        // Arrange
+        HotelChain chain = new HotelChain("Test Hotel Chain");
+        chain.addHotel(createHotel());
+        
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> chain.useStayArchive(StayArchive.allocateDirect()));
+        assertThrows(IllegalArgumentException.class, () -> new HotelChain("Other").useStayArchive(null));
+    }
+    
+    @Test
+    void testExistingStaysMoveIntoArchive() {
+        // Arrange
+        Hotel hotel = createHotel();
+        Room room = hotel.getRoom(101);
+        room.addReservation(new Reservation(today, today.plusDays(2), new HowMany(1)), guest(0));
+        room.checkInGuest(guest(0).getName().getFullName());
+        room.checkOutGuest(guest(0).getName().getFullName());
+        StayArchive archive = StayArchive.allocateDirect();
+        HotelChain chain = new HotelChain("Test Hotel Chain");
+        chain.useStayArchive(archive);
+        
+        // Act
+        chain.addHotel(hotel);
+        
+        // Assert
+        assertEquals(1, archive.getStayCount());
+        assertEquals(today.plusDays(2), room.getCompletedStays().get(0).getEndDate());
+    }
+    
+    @Test
+    void testArchiveFileIsRemappedOnRecovery() {
+        // Arrange: stays on both sides of a checkpoint, enough to fill several blocks
+        int stays = 500;
+        try (WriteAheadLog journal = WriteAheadLog.open(journalFile);
+             StayArchive archive = StayArchive.open(archiveFile)) {
+            HotelChain chain = journal.recover("Test Hotel Chain", archive);
+            chain.addHotel(createHotel());
+            for (int i = 0; i < stays; i++) {
+                if (i == stays / 2) {
+                    journal.checkpoint();
+                }
+                stay(chain, i, 1 + i % 4);
+            }
+        }
+        
+        // Act
+        HotelChain recovered;
+        long archivedStays;
+        try (WriteAheadLog journal = WriteAheadLog.open(journalFile);
+             StayArchive archive = StayArchive.open(archiveFile)) {
+            recovered = journal.recover("Test Hotel Chain", archive);
+            archivedStays = archive.getStayCount();
+        }
+        
+        // Assert
+        List<Reservation> history = recovered.getHotel("Test Hotel").getRoom(101).getCompletedStays();
+        assertEquals(stays, archivedStays);
+        assertEquals(stays, history.size());
+        assertEquals(today.plusDays(stays - 1), history.get(stays - 1).getStartDate());
+        assertEquals(4, history.get(stays - 1).getNumberOfGuests().getNumber());
+    }
+    
+    @Test
+    void testRecoveredChainKeepsArchivingAfterReplay() {
+        // Arrange: replayed check-outs find their stays already archived
+        try (WriteAheadLog journal = WriteAheadLog.open(journalFile);
+             StayArchive archive = StayArchive.open(archiveFile)) {
+            HotelChain chain = journal.recover("Test Hotel Chain", archive);
+            chain.addHotel(createHotel());
+            stay(chain, 0, 1);
+            stay(chain, 1, 2);
+        }
+        
+        // Act
+        try (WriteAheadLog journal = WriteAheadLog.open(journalFile);
+             StayArchive archive = StayArchive.open(archiveFile)) {
+            stay(journal.recover("Test Hotel Chain", archive), 2, 3);
+        }
+        HotelChain recovered;
+        try (WriteAheadLog journal = WriteAheadLog.open(journalFile);
+             StayArchive archive = StayArchive.open(archiveFile)) {
+            recovered = journal.recover("Test Hotel Chain", archive);
+        }
+        
+        // Assert
+        List<Reservation> history = recovered.getHotel("Test Hotel").getRoom(101).getCompletedStays();
+        assertEquals(3, history.size());
+        assertEquals(3, history.get(2).getNumberOfGuests().getNumber());
+    }
+    
+    @Test
+    void testLongHotelNamesAreArchived() {
+        // Arrange: a name far longer than a block header
+        Name name = new Name("Grand", "Hotel " + "and Spa ".repeat(40));
+        String hotelName = name.getFullName();
+        try (WriteAheadLog journal = WriteAheadLog.open(journalFile);
+             StayArchive archive = StayArchive.open(archiveFile)) {
+            HotelChain chain = journal.recover("Test Hotel Chain", archive);
+            Hotel hotel = new Hotel(name);
+            hotel.addRoom(101, new Room(101, new RoomType(RoomKind.SUITE, new Money(300.0, "EUR"))));
+            chain.addHotel(hotel);
+            chain.addHotel(createHotel());
+            
+            // Act
+            chain.makeReservation(hotelName, 101, guest(0), payer,
+                                  new Reservation(today, today.plusDays(1), new HowMany(2)));
+            chain.checkInGuest(hotelName, 101, "Guest No0");
+            chain.checkOutGuest(hotelName, 101, "Guest No0");
+            stay(chain, 1, 1);
+        }
+        HotelChain recovered;
+        try (WriteAheadLog journal = WriteAheadLog.open(journalFile);
+             StayArchive archive = StayArchive.open(archiveFile)) {
+            recovered = journal.recover("Test Hotel Chain", archive);
+            
+            // Assert
+            assertEquals(2, archive.getStayCount());
+        }
+        List<Reservation> history = recovered.getHotel(hotelName).getRoom(101).getCompletedStays();
+        assertEquals(1, history.size());
+        assertEquals(2, history.get(0).getNumberOfGuests().getNumber());
+        assertEquals(1, recovered.getHotel("Test Hotel").getRoom(101).getCompletedStays().size());
+    }
+    
+    @Test
+    void testHotelThatCannotBeArchivedIsNotAdded() {
+        // Arrange: another chain already archives the stays of Test Hotel's room 101
+        StayArchive archive = StayArchive.allocateDirect();
+        HotelChain other = new HotelChain("Other Chain");
+        other.useStayArchive(archive);
+        other.addHotel(createHotel());
+        HotelChain chain = new HotelChain("Test Hotel Chain");
+        chain.useStayArchive(archive);
+        Hotel hotel = createHotel();
+        
+        // Act
+        assertThrows(IllegalStateException.class, () -> chain.addHotel(hotel));
+        
+        // Assert: nothing was counted, and the hotel can still join a chain
+        assertNull(chain.getHotel("Test Hotel"));
+        assertEquals(0, chain.getAvailableRoomCount());
+        HotelChain plain = new HotelChain("Plain Chain");
+        plain.addHotel(hotel);
+        assertEquals(1, plain.getAvailableRoomCount());
+    }
+    
+    @Test
+    void testRoomThatCannotBeArchivedIsNotAdded() {
+        // Arrange: another chain already archives the stays of Test Hotel's room 102
+        StayArchive archive = StayArchive.allocateDirect();
+        HotelChain other = new HotelChain("Other Chain");
+        other.useStayArchive(archive);
+        Hotel otherHotel = createHotel();
+        otherHotel.addRoom(102, new Room(102, new RoomType(RoomKind.SINGLE, new Money(90.0, "EUR"))));
+        other.addHotel(otherHotel);
+        HotelChain chain = new HotelChain("Test Hotel Chain");
+        chain.useStayArchive(archive);
+        Hotel hotel = new Hotel(new Name("Test", "Hotel"));
+        chain.addHotel(hotel);
+        Room room = new Room(102, new RoomType(RoomKind.SINGLE, new Money(90.0, "EUR")));
+        
+        // Act
+        assertThrows(IllegalStateException.class, () -> hotel.addRoom(102, room));
+        
+        // Assert
+        assertNull(hotel.getRoom(102));
+        assertNull(room.getHotel());
+        assertEquals(0, hotel.getRoomCount());
+        assertEquals(0, chain.getAvailableRoomCount());
+    }
+    
+    /**
+     * Book, check in and check out guest i for night i of room 101.
+     */
+    private void stay(HotelChain chain, int i, int guests) {
+        Guest guest = guest(i);
+        String guestId = guest.getName().getFullName();
+        chain.makeReservation("Test Hotel", 101, guest, payer,
+                              new Reservation(today.plusDays(i), today.plusDays(i + 1), new HowMany(guests)));
+        chain.checkInGuest("Test Hotel", 101, guestId);
+        chain.checkOutGuest("Test Hotel", 101, guestId);
+    }
+    
+    private Hotel createHotel() {
+        Hotel hotel = new Hotel(new Name("Test", "Hotel"));
+        hotel.addRoom(101, new Room(101, new RoomType(RoomKind.SUITE, new Money(300.0, "EUR"))));
+        return hotel;
+    }
+    
+    private Guest guest(int i) {
+        return new Guest(new Name("Guest", "No" + i), new Address("Main St", "City", "Country", "12345"));
+    }
+}
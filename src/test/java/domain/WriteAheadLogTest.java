@@ -0,0 +1,496 @@
+package test.java.domain;
+
+import domain.Address;
+import domain.CreditCard;
+import domain.Guest;
+import domain.Hotel;
+import domain.HotelChain;
+import domain.HowMany;
+import domain.Identity;
+import domain.Money;
+import domain.Name;
+import domain.Reservation;
+import domain.ReservationRequest;
+import domain.ReserverPayer;
+import domain.Room;
+import domain.RoomKind;
+import domain.RoomType;
+import domain.WriteAheadLog;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for WriteAheadLog: changes made through a journaled chain
+ * must come back when the journal is replayed.
+ */
+class WriteAheadLogTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    private Path journalFile;
+    private ReserverPayer payer;
+    private LocalDate today;
+    
+    @BeforeEach
+    void setUp() {
+        journalFile = tempDir.resolve("chain.wal");
+        payer = new ReserverPayer(
+            new CreditCard("1234567890123456", "John Doe", "12/25"),
+            new Identity("ID123", "Passport")
+        );
+        today = LocalDate.now();
+    }
+    
+    @Test
+    void testNewJournalStartsEmptyChain() {
+        // Act
+        HotelChain chain;
+        try (WriteAheadLog journal = WriteAheadLog.open(journalFile)) {
+            chain = journal.recover("Test Hotel Chain");
+        }
+        
+        // Assert
+        assertEquals("Test Hotel Chain", chain.getName());
+        assertEquals(0, chain.getHotelCount());
+    }
+    
+    @Test
+    void testReplayRestoresAllChanges() {
+        // Arrange
+        try (WriteAheadLog journal = WriteAheadLog.open(journalFile)) {
+            HotelChain chain = journal.recover("Test Hotel Chain");
+            chain.addHotel(createHotel());
+            chain.makeReservation("Test Hotel", 101, guest("John", "Doe"), payer,
+                                  new Reservation(today.plusDays(1), today.plusDays(3), new HowMany(1)));
+            chain.makeReservation("Test Hotel", 102, guest("Jane", "Roe"), payer,
+                                  new Reservation(today.plusDays(1), today.plusDays(2), new HowMany(2)));
+            chain.makeReservation("Test Hotel", 103, guest("Max", "Poe"), payer,
+                                  new Reservation(today.plusDays(5), today.plusDays(6), new HowMany(1)));
+            chain.checkInGuest("Test Hotel", 101, "John Doe");
+            chain.checkInGuest("Test Hotel", 102, "Jane Roe");
+            chain.checkOutGuest("Test Hotel", 102, "Jane Roe");
+            chain.cancelReservation("Test Hotel", 103, "Max Poe");
+        }
+        
+        // Act
+        HotelChain recovered;
+        try (WriteAheadLog journal = WriteAheadLog.open(journalFile)) {
+            recovered = journal.recover("Ignored");
+        }
+        
+        // Assert
+        assertEquals("Test Hotel Chain", recovered.getName());
+        Hotel hotel = recovered.getHotel("Test Hotel");
+        assertNotNull(hotel);
+        assertEquals(3, hotel.getRoomCount());
+        assertEquals(RoomKind.DOUBLE, hotel.getRoom(102).getRoomType().getKind());
+        Room room101 = hotel.getRoom(101);
+        assertEquals("John Doe", room101.getCheckedInGuestId());
+        assertEquals("Main St", room101.getOccupant().getAddressDetails().getStreet());
+        assertFalse(room101.isAvailable(today.plusDays(2), today.plusDays(3)));
+        assertTrue(hotel.getRoom(102).isAvailable());
+        assertTrue(hotel.getRoom(103).isAvailable());
+    }
+    
+    @Test
+    void testBatchReservationsAreReplayed() {
+        // Arrange
+        try (WriteAheadLog journal = WriteAheadLog.open(journalFile)) {
+            HotelChain chain = journal.recover("Test Hotel Chain");
+            chain.addHotel(createHotel());
+            chain.makeReservations(Arrays.asList(
+                new ReservationRequest("Test Hotel", 101, guest("John", "Doe"), payer,
+                                       new Reservation(today.plusDays(1), today.plusDays(3), new HowMany(1))),
+                new ReservationRequest("Test Hotel", 102, guest("John", "Doe"), payer,
+                                       new Reservation(today.plusDays(1), today.plusDays(3), new HowMany(1)))));
+        }
+        
+        // Act
+        HotelChain recovered;
+        try (WriteAheadLog journal = WriteAheadLog.open(journalFile)) {
+            recovered = journal.recover("Test Hotel Chain");
+        }
+        
+        // Assert
+        Hotel hotel = recovered.getHotel("Test Hotel");
+        assertEquals(1, hotel.getRoom(101).getReservationCount());
+        assertEquals(1, hotel.getRoom(102).getReservationCount());
+        assertEquals(0, hotel.getRoom(103).getReservationCount());
+    }
+    
+    @Test
+    void testReservationIdsSurviveReplayAndCheckpoint() {
+        // Arrange
+        Reservation first = new Reservation(today.plusDays(1), today.plusDays(3), new HowMany(1));
+        Reservation second = new Reservation(today.plusDays(1), today.plusDays(3), new HowMany(1));
+        try (WriteAheadLog journal = WriteAheadLog.open(journalFile)) {
+            HotelChain chain = journal.recover("Test Hotel Chain");
+            chain.addHotel(createHotel());
+            chain.makeReservation("Test Hotel", 101, guest("John", "Doe"), payer, first);
+            journal.checkpoint();
+            chain.makeReservation("Test Hotel", 102, guest("Jane", "Roe"), payer, second);
+        }
+        
+        // Act
+        HotelChain recovered;
+        try (WriteAheadLog journal = WriteAheadLog.open(journalFile)) {
+            recovered = journal.recover("Test Hotel Chain");
+        }
+        
+        // Assert
+        assertEquals(101, recovered.findReservation(first.getId()).getRoom().getNumber());
+        assertEquals(102, recovered.findReservation(second.getId()).getRoom().getNumber());
+        Reservation next = new Reservation(today.plusDays(1), today.plusDays(2), new HowMany(1));
+        assertTrue(next.getId() > second.getId());
+    }
+    
+    @Test
+    void testHotelAddedWithExistingStateIsJournaled() {
+        // Arrange: the hotel already has a reservation before it joins the chain
+        Hotel hotel = createHotel();
+        hotel.getRoom(101).addReservation(
+            new Reservation(today.plusDays(1), today.plusDays(4), new HowMany(1)), guest("John", "Doe"));
+        try (WriteAheadLog journal = WriteAheadLog.open(journalFile)) {
+            journal.recover("Test Hotel Chain").addHotel(hotel);
+        }
+        
+        // Act
+        HotelChain recovered;
+        try (WriteAheadLog journal = WriteAheadLog.open(journalFile)) {
+            recovered = journal.recover("Test Hotel Chain");
+        }
+        
+        // Assert
+        Room room = recovered.getHotel("Test Hotel").getRoom(101);
+        assertEquals(1, room.getReservationCount());
+        assertFalse(room.isAvailable(today.plusDays(3), today.plusDays(5)));
+    }
+    
+    @Test
+    void testCompletedStaysSurviveReplayAndCheckpoint() {
+        // Arrange: one stay before the checkpoint, one after
+        Reservation first = new Reservation(today, today.plusDays(1), new HowMany(1));
+        Reservation second = new Reservation(today.plusDays(1), today.plusDays(3), new HowMany(2));
+        try (WriteAheadLog journal = WriteAheadLog.open(journalFile)) {
+            HotelChain chain = journal.recover("Test Hotel Chain");
+            chain.addHotel(createHotel());
+            chain.makeReservation("Test Hotel", 101, guest("John", "Doe"), payer, first);
+            chain.checkInGuest("Test Hotel", 101, "John Doe");
+            chain.checkOutGuest("Test Hotel", 101, "John Doe");
+            journal.checkpoint();
+            chain.makeReservation("Test Hotel", 101, guest("Jane", "Roe"), payer, second);
+            chain.checkInGuest("Test Hotel", 101, "Jane Roe");
+            chain.checkOutGuest("Test Hotel", 101, "Jane Roe");
+        }
+        
+        // Act
+        HotelChain recovered;
+        try (WriteAheadLog journal = WriteAheadLog.open(journalFile)) {
+            recovered = journal.recover("Test Hotel Chain");
+        }
+        
+        // Assert
+        List<Reservation> stays = recovered.getHotel("Test Hotel").getRoom(101).getCompletedStays();
+        assertEquals(2, stays.size());
+        assertEquals(first.getId(), stays.get(0).getId());
+        assertEquals(second.getId(), stays.get(1).getId());
+        assertEquals(second.getEndDate(), stays.get(1).getEndDate());
+        assertEquals(2, stays.get(1).getNumberOfGuests().getNumber());
+    }
+    
+    @Test
+    void testHotelAddedWithCompletedStaysIsJournaled() {
+        // Arrange
+        Hotel hotel = createHotel();
+        Room room = hotel.getRoom(101);
+        room.addReservation(new Reservation(today, today.plusDays(2), new HowMany(1)), guest("John", "Doe"));
+        room.checkInGuest("John Doe");
+        room.checkOutGuest("John Doe");
+        try (WriteAheadLog journal = WriteAheadLog.open(journalFile)) {
+            journal.recover("Test Hotel Chain").addHotel(hotel);
+        }
+        
+        // Act
+        HotelChain recovered;
+        try (WriteAheadLog journal = WriteAheadLog.open(journalFile)) {
+            recovered = journal.recover("Test Hotel Chain");
+        }
+        
+        // Assert
+        assertEquals(1, recovered.getHotel("Test Hotel").getCompletedStayCount());
+    }
+    
+    @Test
+    void testTornRecordIsDroppedOnOpen() throws IOException {
+        // Arrange
+        try (WriteAheadLog journal = WriteAheadLog.open(journalFile)) {
+            HotelChain chain = journal.recover("Test Hotel Chain");
+            chain.addHotel(createHotel());
+            chain.makeReservation("Test Hotel", 101, guest("John", "Doe"), payer,
+                                  new Reservation(today.plusDays(1), today.plusDays(3), new HowMany(1)));
+        }
+        // Simulate a crash in the middle of writing the last record
+        try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+        
+        // Act
+        HotelChain recovered;
+        try (WriteAheadLog journal = WriteAheadLog.open(journalFile)) {
+            recovered = journal.recover("Test Hotel Chain");
+            // The journal stays usable after the torn tail is cut off
+            recovered.makeReservation("Test Hotel", 102, guest("Jane", "Roe"), payer,
+                                      new Reservation(today.plusDays(1), today.plusDays(3), new HowMany(1)));
+        }
+        try (WriteAheadLog journal = WriteAheadLog.open(journalFile)) {
+            recovered = journal.recover("Test Hotel Chain");
+        }
+        
+        // Assert
+        Hotel hotel = recovered.getHotel("Test Hotel");
+        assertTrue(hotel.getRoom(101).isAvailable());
+        assertEquals(1, hotel.getRoom(102).getReservationCount());
+    }
+    
+    @Test
+    void testConcurrentReservationsSurviveReplay() throws Exception {
+        // Arrange
+        int threads = 8;
+        int staysPerThread = 200;
+        try (WriteAheadLog journal = WriteAheadLog.open(journalFile)) {
+            HotelChain chain = journal.recover("Test Hotel Chain");
+            chain.addHotel(createHotel());
+            
+            // Act: each thread books its own guests back to back in one shared room
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    int thread = t;
+                    futures.add(executor.submit(() -> {
+                        for (int i = 0; i < staysPerThread; i++) {
+                            LocalDate start = today.plusDays(1 + (long) i * threads + thread);
+                            chain.makeReservation("Test Hotel", 101, guest("Guest" + thread, "No" + i), payer,
+                                                  new Reservation(start, start.plusDays(1), new HowMany(1)));
+                        }
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                executor.shutdown();
+            }
+            assertEquals(journal.getAppendedLsn(), journal.getDurableLsn());
+        }
+        
+        // Assert
+        HotelChain recovered;
+        try (WriteAheadLog journal = WriteAheadLog.open(journalFile)) {
+            recovered = journal.recover("Test Hotel Chain");
+        }
+        Room room = recovered.getHotel("Test Hotel").getRoom(101);
+        assertEquals(threads * staysPerThread, room.getReservationCount());
+        assertFalse(room.isAvailable(today.plusDays(1), today.plusDays(1 + threads * staysPerThread)));
+    }
+    
+    @Test
+    void testCheckpointTruncatesJournalAndKeepsState() throws IOException {
+        // Arrange
+        long journalSizeBefore;
+        try (WriteAheadLog journal = WriteAheadLog.open(journalFile)) {
+            HotelChain chain = journal.recover("Test Hotel Chain");
+            chain.addHotel(createHotel());
+            for (int i = 0; i < 50; i++) {
+                LocalDate start = today.plusDays(1 + 2L * i);
+                chain.makeReservation("Test Hotel", 101, guest("Guest", "No" + i), payer,
+                                      new Reservation(start, start.plusDays(1), new HowMany(1)));
+            }
+            chain.makeReservation("Test Hotel", 102, guest("Jane", "Roe"), payer,
+                                  new Reservation(today, today.plusDays(2), new HowMany(2)));
+            chain.checkInGuest("Test Hotel", 102, "Jane Roe");
+            journalSizeBefore = Files.size(journalFile);
+            
+            // Act
+            journal.checkpoint();
+            
+            // Changes after the checkpoint are replayed from the journal tail
+            chain.cancelReservation("Test Hotel", 101, "Guest No0");
+            chain.makeReservation("Test Hotel", 103, guest("Max", "Poe"), payer,
+                                  new Reservation(today.plusDays(5), today.plusDays(6), new HowMany(1)));
+        }
+        HotelChain recovered;
+        try (WriteAheadLog journal = WriteAheadLog.open(journalFile)) {
+            recovered = journal.recover("Test Hotel Chain");
+        }
+        
+        // Assert
+        assertTrue(Files.size(journalFile) < journalSizeBefore / 10);
+        Hotel hotel = recovered.getHotel("Test Hotel");
+        assertEquals(49, hotel.getRoom(101).getReservationCount());
+        assertTrue(hotel.getRoom(101).isAvailable(today.plusDays(1), today.plusDays(2)));
+        assertEquals("Jane Roe", hotel.getRoom(102).getCheckedInGuestId());
+        assertEquals(1, hotel.getRoom(103).getReservationCount());
+    }
+    
+    @Test
+    void testRecoveredChainCanBeCheckpointedAgain() {
+        // Arrange
+        try (WriteAheadLog journal = WriteAheadLog.open(journalFile)) {
+            HotelChain chain = journal.recover("Test Hotel Chain");
+            chain.addHotel(createHotel());
+            chain.makeReservation("Test Hotel", 101, guest("John", "Doe"), payer,
+                                  new Reservation(today.plusDays(1), today.plusDays(3), new HowMany(1)));
+            journal.checkpoint();
+        }
+        
+        // Act
+        try (WriteAheadLog journal = WriteAheadLog.open(journalFile)) {
+            HotelChain chain = journal.recover("Test Hotel Chain");
+            chain.makeReservation("Test Hotel", 102, guest("Jane", "Roe"), payer,
+                                  new Reservation(today.plusDays(1), today.plusDays(3), new HowMany(1)));
+            journal.checkpoint();
+            chain.cancelReservation("Test Hotel", 101, "John Doe");
+        }
+        HotelChain recovered;
+        try (WriteAheadLog journal = WriteAheadLog.open(journalFile)) {
+            recovered = journal.recover("Test Hotel Chain");
+        }
+        
+        // Assert
+        Hotel hotel = recovered.getHotel("Test Hotel");
+        assertTrue(hotel.getRoom(101).isAvailable());
+        assertEquals(1, hotel.getRoom(102).getReservationCount());
+    }
+    
+    @Test
+    void testCheckpointDuringConcurrentBookings() throws Exception {
+        // Arrange
+        int threads = 4;
+        int staysPerThread = 300;
+        try (WriteAheadLog journal = WriteAheadLog.open(journalFile)) {
+            HotelChain chain = journal.recover("Test Hotel Chain");
+            chain.addHotel(createHotel());
+            
+            // Act: checkpoints run back to back while every thread books its own room
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    int roomNumber = 101 + t % 3;
+                    int thread = t;
+                    futures.add(executor.submit(() -> {
+                        for (int i = 0; i < staysPerThread; i++) {
+                            LocalDate start = today.plusDays(1 + (long) i * threads + thread);
+                            chain.makeReservation("Test Hotel", roomNumber, guest("Guest" + thread, "No" + i), payer,
+                                                  new Reservation(start, start.plusDays(1), new HowMany(1)));
+                        }
+                    }));
+                }
+                while (!futures.stream().allMatch(Future::isDone)) {
+                    journal.checkpointAsync().get();
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                executor.shutdown();
+            }
+        }
+        
+        // Assert
+        HotelChain recovered;
+        try (WriteAheadLog journal = WriteAheadLog.open(journalFile)) {
+            recovered = journal.recover("Test Hotel Chain");
+        }
+        Hotel hotel = recovered.getHotel("Test Hotel");
+        int total = 0;
+        for (int roomNumber = 101; roomNumber <= 103; roomNumber++) {
+            total += hotel.getRoom(roomNumber).getReservationCount();
+        }
+        assertEquals(threads * staysPerThread, total);
+    }
+    
+    @Test
+    void testClosedJournalLeavesRoomUnchanged() {
+        // Arrange
+        WriteAheadLog journal = WriteAheadLog.open(journalFile);
+        HotelChain chain = journal.recover("Test Hotel Chain");
+        chain.addHotel(createHotel());
+        chain.makeReservation("Test Hotel", 102, guest("Jane", "Roe"), payer,
+                              new Reservation(today.plusDays(1), today.plusDays(2), new HowMany(1)));
+        journal.close();
+        Reservation reservation = new Reservation(today.plusDays(1), today.plusDays(3), new HowMany(1));
+        
+        // Act
+        assertThrows(IllegalStateException.class, () ->
+            chain.makeReservation("Test Hotel", 101, guest("John", "Doe"), payer, reservation));
+        assertThrows(IllegalStateException.class, () ->
+            chain.makeReservations(Arrays.asList(
+                new ReservationRequest("Test Hotel", 101, guest("Max", "Poe"), payer,
+                                       new Reservation(today.plusDays(5), today.plusDays(6), new HowMany(1))),
+                new ReservationRequest("Test Hotel", 103, guest("Max", "Poe"), payer,
+                                       new Reservation(today.plusDays(5), today.plusDays(6), new HowMany(1))))));
+        assertThrows(IllegalStateException.class, () -> chain.checkInGuest("Test Hotel", 102, "Jane Roe"));
+        assertThrows(IllegalStateException.class, () -> chain.cancelReservation("Test Hotel", 102, "Jane Roe"));
+        
+        // Assert
+        Hotel hotel = chain.getHotel("Test Hotel");
+        assertTrue(hotel.getRoom(101).isAvailable(today.plusDays(1), today.plusDays(3)));
+        assertTrue(hotel.getRoom(101).isAvailable(today.plusDays(5), today.plusDays(6)));
+        assertTrue(hotel.getRoom(103).isAvailable(today.plusDays(5), today.plusDays(6)));
+        assertNull(hotel.getRoom(102).getCheckedInGuestId());
+        assertEquals(1, hotel.getRoom(102).getReservationCount());
+        assertEquals(1, chain.getReservationCount());
+        assertNull(reservation.getReserverPayer());
+    }
+    
+    @Test
+    void testRejectedReservationGetsNoPayer() {
+        // Arrange
+        try (WriteAheadLog journal = WriteAheadLog.open(journalFile)) {
+            HotelChain chain = journal.recover("Test Hotel Chain");
+            chain.addHotel(createHotel());
+            chain.makeReservation("Test Hotel", 101, guest("Jane", "Roe"), payer,
+                                  new Reservation(today.plusDays(1), today.plusDays(3), new HowMany(1)));
+            Reservation overlapping = new Reservation(today.plusDays(2), today.plusDays(4), new HowMany(1));
+            
+            // Act
+            assertThrows(IllegalStateException.class, () ->
+                chain.makeReservation("Test Hotel", 101, guest("John", "Doe"), payer, overlapping));
+            
+            // Assert
+            assertNull(overlapping.getReserverPayer());
+        }
+    }
+    
+    private Hotel createHotel() {
+        Hotel hotel = new Hotel(new Name("Test", "Hotel"));
+        hotel.addRoom(101, new Room(101, new RoomType(RoomKind.SINGLE, new Money(100.0, "USD"))));
+        hotel.addRoom(102, new Room(102, new RoomType(RoomKind.DOUBLE, new Money(150.5, "USD"))));
+        hotel.addRoom(103, new Room(103, new RoomType(RoomKind.SUITE, new Money(300.0, "EUR"))));
+        return hotel;
+    }
+    
+    private Guest guest(String firstName, String lastName) {
+        return new Guest(new Name(firstName, lastName), new Address("Main St", "City", "Country", "12345"));
+    }
+}